@@ -0,0 +1,4 @@
+package com.jaamsim.Samples.generated;
+public class TimeSeriesBenchmark_jmhType extends TimeSeriesBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jaamsim.basicsim.generated;
+public class EntityPoolBenchmark_jmhType extends EntityPoolBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jaamsim.basicsim.generated;
+public class HandoffBenchmark_Handoffs_jmhType extends HandoffBenchmark_Handoffs_jmhType_B3 {
+}
+
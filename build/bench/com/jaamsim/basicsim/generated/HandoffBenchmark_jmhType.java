@@ -0,0 +1,4 @@
+package com.jaamsim.basicsim.generated;
+public class HandoffBenchmark_jmhType extends HandoffBenchmark_jmhType_B3 {
+}
+
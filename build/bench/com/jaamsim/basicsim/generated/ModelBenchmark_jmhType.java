@@ -0,0 +1,4 @@
+package com.jaamsim.basicsim.generated;
+public class ModelBenchmark_jmhType extends ModelBenchmark_jmhType_B3 {
+}
+
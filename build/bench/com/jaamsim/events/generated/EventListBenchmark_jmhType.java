@@ -0,0 +1,4 @@
+package com.jaamsim.events.generated;
+public class EventListBenchmark_jmhType extends EventListBenchmark_jmhType_B3 {
+}
+
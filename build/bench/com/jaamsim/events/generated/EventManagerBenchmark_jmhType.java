@@ -0,0 +1,4 @@
+package com.jaamsim.events.generated;
+public class EventManagerBenchmark_jmhType extends EventManagerBenchmark_jmhType_B3 {
+}
+
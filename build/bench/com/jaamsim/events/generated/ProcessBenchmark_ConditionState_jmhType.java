@@ -0,0 +1,4 @@
+package com.jaamsim.events.generated;
+public class ProcessBenchmark_ConditionState_jmhType extends ProcessBenchmark_ConditionState_jmhType_B3 {
+}
+
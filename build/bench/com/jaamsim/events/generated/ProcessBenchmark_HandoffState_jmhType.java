@@ -0,0 +1,4 @@
+package com.jaamsim.events.generated;
+public class ProcessBenchmark_HandoffState_jmhType extends ProcessBenchmark_HandoffState_jmhType_B3 {
+}
+
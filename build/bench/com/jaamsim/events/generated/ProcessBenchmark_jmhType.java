@@ -0,0 +1,4 @@
+package com.jaamsim.events.generated;
+public class ProcessBenchmark_jmhType extends ProcessBenchmark_jmhType_B3 {
+}
+
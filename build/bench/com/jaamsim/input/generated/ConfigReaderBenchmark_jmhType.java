@@ -0,0 +1,4 @@
+package com.jaamsim.input.generated;
+public class ConfigReaderBenchmark_jmhType extends ConfigReaderBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jaamsim.input.generated;
+public class OutputBenchmark_jmhType extends OutputBenchmark_jmhType_B3 {
+}
+
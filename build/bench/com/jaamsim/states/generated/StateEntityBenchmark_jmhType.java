@@ -0,0 +1,4 @@
+package com.jaamsim.states.generated;
+public class StateEntityBenchmark_jmhType extends StateEntityBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,173 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.basicsim.Simulation;
+import com.jaamsim.events.BenchmarkHelpers;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Cost of the TimeSeries lookups made by a TimeSeriesThreshold, which steps forward
+ * through the changes in the series, and by a consumer that samples the series at
+ * advancing and at random times. The lookups are made by a single event, since
+ * the position found by the last lookup is kept only for the lookups made by the
+ * model. Run with '-prof gc' to report the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimeSeriesBenchmark {
+	private static final int NUM_LOOKUPS = 10000;
+
+	@Param({"1000", "100000"})
+	public int numRecords;
+
+	private EventManager evt;
+	private TimeSeries ts;
+	private long endTicks;
+	private long stepTicks;
+	private long ticks;
+	private Random rng;
+	private double result;  // keeps the values looked up from being optimised away
+
+	@Setup(Level.Trial)
+	public void setup() {
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+		evt = new EventManager("TimeSeriesBenchmark");
+		evt.setTickLength(Simulation.getTickLength());
+
+		ts = InputAgent.defineEntityWithUniqueName(TimeSeries.class, "TS", "", true);
+		InputAgent.applyArgs(ts, "UnitType", "DimensionlessUnit");
+
+		ArrayList<String> args = new ArrayList<>();
+		Random gen = new Random(1);
+		for (int i = 0; i < numRecords; i++) {
+			args.add("{");
+			args.add(Integer.toString(i * 60));
+			args.add("s");
+			args.add(Double.toString(gen.nextDouble()));
+			args.add("}");
+		}
+		InputAgent.applyArgs(ts, "Value", args.toArray(new String[args.size()]));
+		InputAgent.applyArgs(ts, "CycleTime", Integer.toString(numRecords * 60), "s");
+
+		endTicks = 3 * EventManager.secsToNearestTick(numRecords * 60);
+		stepTicks = EventManager.secsToNearestTick(17);
+		rng = new Random(2);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+		evt.clear();
+		EventManager.closeProcessPool();
+		Simulation.clear();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_LOOKUPS)
+	public void nextChange() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "nextChange";
+			}
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_LOOKUPS; i++) {
+					ticks = ts.getNextChangeAfterTicks(ticks);
+					if (ticks >= endTicks)
+						ticks = 0;
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_LOOKUPS)
+	public void advancingValue() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "advancingValue";
+			}
+
+			@Override
+			public void process() {
+				double sum = 0.0d;
+				for (int i = 0; i < NUM_LOOKUPS; i++) {
+					ticks += stepTicks;
+					if (ticks >= endTicks)
+						ticks = 0;
+					sum += ts.getValueForTicks(ticks);
+				}
+				result = sum;
+			}
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_LOOKUPS)
+	public void randomValue() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "randomValue";
+			}
+
+			@Override
+			public void process() {
+				double sum = 0.0d;
+				for (int i = 0; i < NUM_LOOKUPS; i++) {
+					sum += ts.getValueForTicks((long)(rng.nextDouble() * endTicks));
+				}
+				result = sum;
+			}
+		});
+	}
+
+	private void execute(ProcessTarget t) {
+		evt.scheduleProcessExternal(0, 0, false, t, null);
+		BenchmarkHelpers.runEvents(evt);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.input.Input;
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Cost of creating and destroying a generated entity with and without an
+ * EntityPool. Run with '-prof gc' to report the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityPoolBenchmark {
+
+	@Param({"SimEntity", "EntityContainer"})
+	public String protoType;
+
+	@Param({"false", "true"})
+	public boolean recycle;
+
+	private Entity proto;
+	private long num;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+
+		Class<? extends Entity> klass = Input.parseEntityType(protoType);
+		proto = InputAgent.defineEntityWithUniqueName(klass, "Proto", "", true);
+		InputAgent.applyArgs(proto, "Description", "Prototype");
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+		Simulation.clear();
+	}
+
+	@Benchmark
+	public Entity copyAndKill() {
+		String name = "Proto_" + (++num);
+		Entity ent;
+		if (recycle)
+			ent = EntityPool.getCopy(proto, name);
+		else
+			ent = Entity.fastCopy(proto, name);
+		ent.earlyInit();
+		ent.kill();
+		return ent;
+	}
+}
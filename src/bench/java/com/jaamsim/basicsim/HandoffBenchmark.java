@@ -0,0 +1,135 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.events.EventErrorListener;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventProfiler;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.InputErrorException;
+
+/**
+ * Number of Process handoffs and execution time for a complete run of each of
+ * the reference models with stackless execution enabled and disabled. The
+ * handoffs are counted by the EventProfiler and are reported as the secondary
+ * 'processHandoffs' result for each run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class HandoffBenchmark implements EventTimeListener, EventErrorListener {
+
+	@Param({"queue-server", "seize-release", "conveyor", "server-downtime"})
+	public String model;
+
+	@Param({"false", "true"})
+	public boolean stackless;
+
+	private EventManager evt;
+	private CountDownLatch done;
+	private volatile Throwable error;
+
+	/**
+	 * The number of Process handoffs in the last run of the model.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Handoffs {
+		public long processHandoffs;
+	}
+
+	@Setup(Level.Trial)
+	public void loadModel() throws Exception {
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+		InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
+
+		URI uri = HandoffBenchmark.class.getResource("models/" + model + ".cfg").toURI();
+		InputAgent.readStream("", uri, model + ".cfg");
+		InputAgent.applyArgs(Simulation.getInstance(), "ProfileEvents", "TRUE");
+		if (InputAgent.numErrors() > 0)
+			throw new InputErrorException("%d input errors found in model %s", InputAgent.numErrors(), model);
+
+		Simulation.setReplicationRun(1);
+		evt = new EventManager("BenchmarkEVT");
+		evt.setTimeListener(this);
+		evt.setErrorListener(this);
+		evt.setStacklessExecution(stackless);
+	}
+
+	@TearDown(Level.Trial)
+	public void clearModel() {
+		Simulation.stop(evt);
+		EventManager.closeProcessPool();
+	}
+
+	@TearDown(Level.Invocation)
+	public void resetModel() {
+		Simulation.stop(evt);
+	}
+
+	@Benchmark
+	public void run(Handoffs counts) throws InterruptedException {
+		done = new CountDownLatch(1);
+		Simulation.start(evt);
+		done.await();
+		if (error != null)
+			throw new ErrorException(error);
+
+		EventProfiler prof = evt.getProfiler();
+		counts.processHandoffs = prof.getProcessHandoffs();
+	}
+
+	@Override
+	public void tickUpdate(long tick) {}
+
+	@Override
+	public void timeRunning(boolean running) {
+		if (!running)
+			done.countDown();
+	}
+
+	@Override
+	public void handleError(EventManager e, Throwable t, long currentTick) {
+		error = t;
+		done.countDown();
+	}
+}
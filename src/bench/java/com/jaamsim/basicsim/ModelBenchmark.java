@@ -0,0 +1,116 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.events.EventErrorListener;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.InputErrorException;
+
+/**
+ * Execution time for a complete run of each of the reference models in the
+ * 'models' resource folder. The model is loaded once for each fork and is reset
+ * to zero simulation time after each run, as it would be by the Reset button.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBenchmark implements EventTimeListener, EventErrorListener {
+
+	@Param({"queue-server", "queue-server-recycle", "seize-release", "conveyor", "server-downtime"})
+	public String model;
+
+	private EventManager evt;
+	private CountDownLatch done;
+	private volatile Throwable error;
+
+	@Setup(Level.Trial)
+	public void loadModel() throws Exception {
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+		InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
+
+		URI uri = ModelBenchmark.class.getResource("models/" + model + ".cfg").toURI();
+		InputAgent.readStream("", uri, model + ".cfg");
+		if (InputAgent.numErrors() > 0)
+			throw new InputErrorException("%d input errors found in model %s", InputAgent.numErrors(), model);
+
+		// Execute a single run each time the model is started
+		Simulation.setReplicationRun(1);
+		evt = new EventManager("BenchmarkEVT");
+		evt.setTimeListener(this);
+		evt.setErrorListener(this);
+	}
+
+	@TearDown(Level.Trial)
+	public void clearModel() {
+		Simulation.stop(evt);
+		EventManager.closeProcessPool();
+	}
+
+	@TearDown(Level.Invocation)
+	public void resetModel() {
+		Simulation.stop(evt);
+	}
+
+	@Benchmark
+	public void run() throws InterruptedException {
+		done = new CountDownLatch(1);
+		Simulation.start(evt);
+		done.await();
+		if (error != null)
+			throw new ErrorException(error);
+	}
+
+	@Override
+	public void tickUpdate(long tick) {}
+
+	@Override
+	public void timeRunning(boolean running) {
+		if (!running)
+			done.countDown();
+	}
+
+	@Override
+	public void handleError(EventManager e, Throwable t, long currentTick) {
+		error = t;
+		done.countDown();
+	}
+}
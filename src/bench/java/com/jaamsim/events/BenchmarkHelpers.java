@@ -0,0 +1,85 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Utility methods shared by the event benchmarks.
+ */
+public class BenchmarkHelpers {
+
+	/**
+	 * Executes the events for the given EventManager until either the event list
+	 * is empty or the given tick is reached, and then returns.
+	 */
+	public static void runEventsToTick(EventManager evt, long tick) {
+		final CountDownLatch done = new CountDownLatch(1);
+		evt.setTimeListener(new EventTimeListener() {
+			@Override
+			public void tickUpdate(long t) {}
+
+			@Override
+			public void timeRunning(boolean running) {
+				if (!running)
+					done.countDown();
+			}
+		});
+
+		evt.resume(tick);
+		try {
+			done.await();
+		}
+		catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			evt.setTimeListener(null);
+		}
+	}
+
+	/**
+	 * Executes the events for the given EventManager until the event list is empty.
+	 */
+	public static void runEvents(EventManager evt) {
+		runEventsToTick(evt, Long.MAX_VALUE);
+	}
+
+	/**
+	 * A ProcessTarget that does nothing, optionally executed without a thread.
+	 */
+	public static class NoopTarget extends ProcessTarget {
+		private final boolean stackless;
+
+		public NoopTarget(boolean stackless) {
+			this.stackless = stackless;
+		}
+
+		@Override
+		public String getDescription() {
+			return "NoopTarget";
+		}
+
+		@Override
+		public boolean isStackless() {
+			return stackless;
+		}
+
+		@Override
+		public void process() {}
+	}
+}
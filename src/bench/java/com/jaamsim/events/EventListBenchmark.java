@@ -0,0 +1,107 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert and remove cost for the future event list implementations, measured
+ * using the 'hold' model: the list holds a constant number of events, and each
+ * operation removes the earliest event and re-inserts it at a random time in
+ * the future.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListBenchmark {
+
+	private static final int NUM_SAMPLES = 1 << 16; // must be a power of two
+	private static final int NUM_PRIORITIES = 4;
+
+	@Param({"RED_BLACK_TREE", "CALENDAR_QUEUE"})
+	public EventManager.EventListType listType;
+
+	@Param({"100", "10000", "1000000"})
+	public int numEvents;
+
+	private EventList list;
+	private long[] increments;
+	private int[] priorities;
+	private int pos;
+
+	@Setup
+	public void setup() {
+		switch (listType) {
+		case CALENDAR_QUEUE:
+			list = new CalendarQueue();
+			break;
+		default:
+			list = new EventTree();
+			break;
+		}
+
+		// Exponentially distributed times between events with a mean of 1000 ticks
+		Random rng = new Random(1);
+		increments = new long[NUM_SAMPLES];
+		priorities = new int[NUM_SAMPLES];
+		for (int i = 0; i < NUM_SAMPLES; i++) {
+			increments[i] = (long)(-1000.0d * Math.log(1.0d - rng.nextDouble()));
+			priorities[i] = rng.nextInt(NUM_PRIORITIES);
+		}
+
+		pos = 0;
+		for (int i = 0; i < numEvents; i++) {
+			insert(new Event(), 0L);
+		}
+	}
+
+	private void insert(Event e, long now) {
+		pos = (pos + 1) & (NUM_SAMPLES - 1);
+		EventNode node = list.createOrFindNode(now + increments[pos], priorities[pos]);
+		e.node = node;
+		node.addEvent(e, true);
+	}
+
+	@Benchmark
+	public EventNode hold() {
+		EventNode first = list.getNextNode();
+		long now = first.schedTick;
+		Event e = first.head;
+		first.removeEvent(e);
+		if (first.head == null)
+			list.removeNode(now, first.priority);
+
+		insert(e, now);
+		return e.node;
+	}
+}
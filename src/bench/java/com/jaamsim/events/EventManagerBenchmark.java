@@ -0,0 +1,160 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost per event of the EventManager scheduling methods. Each invocation
+ * executes a single process that schedules, waits for, or kills a fixed
+ * number of events, and the result is reported per event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventManagerBenchmark {
+
+	private static final int NUM_EVENTS = 10000;
+	private static final int MAX_DELAY = 1000;
+
+	@Param({"RED_BLACK_TREE", "CALENDAR_QUEUE"})
+	public EventManager.EventListType listType;
+
+	private EventManager evt;
+	private long[] delays;
+	private int[] order;
+	private EventHandle[] handles;
+	private ProcessTarget target;
+
+	@Setup
+	public void setup() {
+		evt = new EventManager("BenchmarkEVT");
+		evt.clear();
+		evt.setEventListType(listType);
+		evt.setStacklessExecution(true);
+
+		Random rng = new Random(1);
+		delays = new long[NUM_EVENTS];
+		order = new int[NUM_EVENTS];
+		handles = new EventHandle[NUM_EVENTS];
+		for (int i = 0; i < NUM_EVENTS; i++) {
+			delays[i] = 1 + rng.nextInt(MAX_DELAY);
+			order[i] = i;
+			handles[i] = new EventHandle();
+		}
+
+		// Kill the events in a random order
+		for (int i = NUM_EVENTS - 1; i > 0; i--) {
+			int j = rng.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+
+		target = new BenchmarkHelpers.NoopTarget(true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		evt.clear();
+	}
+
+	private void execute(ProcessTarget t) {
+		evt.clear();
+		evt.scheduleProcessExternal(0, 0, false, t, null);
+		BenchmarkHelpers.runEvents(evt);
+	}
+
+	/**
+	 * Schedules events at random times in the future and then executes them.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public void scheduleTicks() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() { return "ScheduleLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.scheduleTicks(delays[i], 0, false, target, null);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Suspends the present process repeatedly for a single tick.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public void waitTicks() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() { return "WaitLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.waitTicks(1, 0, false, null);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Schedules events at random times in the future and then kills them
+	 * in a random order.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVENTS)
+	public void killEvent() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() { return "KillLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.scheduleTicks(delays[i], 0, false, target, handles[i]);
+				}
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.killEvent(handles[order[i]]);
+				}
+			}
+		});
+	}
+}
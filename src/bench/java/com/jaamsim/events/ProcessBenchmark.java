@@ -0,0 +1,196 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of transferring control between Process threads, and of evaluating the
+ * conditions for waitUntil/scheduleUntil each time simulation time is advanced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessBenchmark {
+
+	private static final int NUM_PROCESSES = 10000;
+	private static final int NUM_ADVANCES = 1000;
+
+	/**
+	 * Starts processes that complete immediately, either on a pooled Process
+	 * thread or inline as a stackless target.
+	 */
+	@State(Scope.Thread)
+	public static class HandoffState {
+		@Param({"false", "true"})
+		public boolean stackless;
+
+		EventManager evt;
+		ProcessTarget target;
+
+		@Setup
+		public void setup() {
+			evt = new EventManager("BenchmarkEVT");
+			evt.clear();
+			evt.setStacklessExecution(true);
+			target = new BenchmarkHelpers.NoopTarget(stackless);
+		}
+
+		@TearDown
+		public void tearDown() {
+			evt.clear();
+		}
+	}
+
+	/**
+	 * Holds a number of conditional events that are never satisfied. The
+	 * tracked conditions declare a ChangeSignal that is never triggered and
+	 * are therefore evaluated only once.
+	 */
+	@State(Scope.Thread)
+	public static class ConditionState {
+		@Param({"10", "100", "1000"})
+		public int numConditions;
+
+		@Param({"false", "true"})
+		public boolean tracked;
+
+		EventManager evt;
+		Conditional cond;
+		ProcessTarget target;
+
+		@Setup
+		public void setup() {
+			evt = new EventManager("BenchmarkEVT");
+			evt.clear();
+			evt.setStacklessExecution(true);
+			cond = tracked ? new TrackedFalse() : new UntrackedFalse();
+			target = new BenchmarkHelpers.NoopTarget(true);
+		}
+
+		@TearDown
+		public void tearDown() {
+			evt.clear();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_PROCESSES)
+	public void startProcess(final HandoffState state) {
+		state.evt.clear();
+		state.evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "StartLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_PROCESSES; i++) {
+					EventManager.startProcess(state.target);
+				}
+			}
+		}, null);
+		BenchmarkHelpers.runEvents(state.evt);
+	}
+
+	/**
+	 * Advances simulation time one tick at a time with a number of unsatisfied
+	 * conditions outstanding, reporting the cost per time advance. Time is
+	 * advanced by a stackless target so that the thread hand-off for waitTicks
+	 * is not included in the result.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(NUM_ADVANCES)
+	public void waitUntil(final ConditionState state) {
+		state.evt.clear();
+		state.evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "AddConditions"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < state.numConditions; i++) {
+					EventManager.scheduleUntil(state.target, state.cond, null);
+				}
+				EventManager.scheduleTicks(1, 0, false, new AdvanceTarget(NUM_ADVANCES), null);
+			}
+		}, null);
+		BenchmarkHelpers.runEvents(state.evt);
+	}
+
+	private static class AdvanceTarget extends ProcessTarget {
+		private int remaining;
+
+		AdvanceTarget(int num) {
+			remaining = num;
+		}
+
+		@Override
+		public String getDescription() {
+			return "AdvanceTarget";
+		}
+
+		@Override
+		public boolean isStackless() {
+			return true;
+		}
+
+		@Override
+		public void process() {
+			remaining--;
+			if (remaining > 0)
+				EventManager.scheduleTicks(1, 0, false, this, null);
+		}
+	}
+
+	private static class UntrackedFalse extends Conditional {
+		@Override
+		public boolean evaluate() {
+			return false;
+		}
+	}
+
+	private static class TrackedFalse extends Conditional {
+		private final ChangeSignal[] deps = { new ChangeSignal() };
+
+		@Override
+		public boolean evaluate() {
+			return false;
+		}
+
+		@Override
+		public ChangeSignal[] getDependencies() {
+			return deps;
+		}
+	}
+}
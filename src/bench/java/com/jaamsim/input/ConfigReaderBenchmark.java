@@ -0,0 +1,232 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.basicsim.Entity;
+
+/**
+ * Time to read a large synthetic configuration file that includes a number of
+ * part files, each of which defines and configures a line of Queues and Servers.
+ * <p>
+ * The 'readLines' benchmark tokenizes the files line by line in the same way as
+ * InputAgent.readBufferedStream, and is the baseline for 'readRecords', which reads
+ * the same files with the ConfigReader. The 'load' benchmark measures a complete
+ * load of the model by InputAgent, once for each fork, as it would be experienced
+ * when a model is opened. The 'loadCached' benchmark measures the same load from a
+ * ModelCache that is written when the configuration files are created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConfigReaderBenchmark {
+
+	@Param({"10"})
+	public int numFiles;
+
+	@Param({"2500"})
+	public int numEntities;
+
+	private File dir;
+	private File config;
+
+	@Setup(Level.Trial)
+	public void writeConfig() throws IOException {
+		dir = Files.createTempDirectory("ConfigReaderBenchmark").toFile();
+		config = new File(dir, "model.cfg");
+
+		PrintWriter main = new PrintWriter(config);
+		for (int f = 0; f < numFiles; f++) {
+			String name = String.format("part%d.cfg", f);
+			main.format("Include %s%n", name);
+			writePart(new File(dir, name), f);
+		}
+		main.close();
+
+		ModelCache cache = new ModelCache();
+		writeCache(cache, config.toURI());
+		cache.save(ModelCache.getCacheFile(config));
+		ConfigReader.clear();
+
+		cache = ModelCache.open(ModelCache.getCacheFile(config), config.toURI());
+		if (cache == null)
+			throw new IOException("Model cache is not valid");
+		cache.close();
+
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+		InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
+	}
+
+	private void writePart(File file, int f) throws IOException {
+		PrintWriter out = new PrintWriter(file);
+		for (int i = 0; i < numEntities; i += 50) {
+			StringBuilder queues = new StringBuilder();
+			StringBuilder servers = new StringBuilder();
+			for (int j = i; j < Math.min(i + 50, numEntities); j++) {
+				queues.append(String.format(" Q%d_%d", f, j));
+				servers.append(String.format(" S%d_%d", f, j));
+			}
+			out.format("Define Queue {%s }%n", queues);
+			out.format("Define Server {%s }%n", servers);
+		}
+		out.println();
+
+		for (int i = 0; i < numEntities; i++) {
+			out.format("Q%d_%d Position { %d %d 0 m } Size { 0.5 0.5 0 m } Description { 'Queue number %d' }%n", f, i, i, f, i);
+			out.format("S%d_%d ServiceTime { 5 s }%n", f, i);
+			out.format("S%d_%d WaitQueue { Q%d_%d }%n", f, i, f, i);
+			out.format("S%d_%d NextComponent { Q%d_%d }%n", f, i, f, (i + 1) % numEntities);
+			out.format("S%d_%d Position { %d %d 0 m }  \" server%n", f, i, i, f);
+		}
+		out.close();
+	}
+
+	private static void writeCache(ModelCache cache, URI uri) throws IOException {
+		ConfigReader reader = ConfigReader.open(uri, "");
+		cache.beginFile(uri, "");
+		for (ConfigReader.Record rec = reader.next(); rec != null; rec = reader.next()) {
+			cache.addRecord(rec.tokens);
+			if ("Include".equals(rec.tokens.get(0)))
+				writeCache(cache, uri.resolve(rec.tokens.get(1)));
+		}
+		cache.endFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteConfig() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				each.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	@Benchmark
+	public int readLines() throws IOException {
+		int ret = readLines(config);
+		for (int f = 0; f < numFiles; f++) {
+			ret += readLines(new File(dir, String.format("part%d.cfg", f)));
+		}
+		return ret;
+	}
+
+	private static int readLines(File file) throws IOException {
+		BufferedReader buf = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+		int ret = 0;
+		try {
+			ArrayList<String> record = new ArrayList<>();
+			int braceDepth = 0;
+			while (true) {
+				String line = buf.readLine();
+				if (line == null)
+					break;
+
+				int previousRecordSize = record.size();
+				Parser.tokenize(record, line, true);
+				for (int i = previousRecordSize; i < record.size(); i++) {
+					if (record.get(i).equals("{"))
+						braceDepth++;
+					if (record.get(i).equals("}"))
+						braceDepth--;
+				}
+				if (braceDepth != 0 || record.size() == 0)
+					continue;
+
+				ret++;
+				record = new ArrayList<>();
+			}
+		}
+		finally {
+			buf.close();
+		}
+		return ret;
+	}
+
+	@Benchmark
+	public int readRecords() throws IOException {
+		try {
+			return readRecords(config.toURI());
+		}
+		finally {
+			ConfigReader.clear();
+		}
+	}
+
+	private static int readRecords(URI uri) throws IOException {
+		ConfigReader reader = ConfigReader.open(uri, null);
+		int ret = 0;
+		for (ConfigReader.Record rec = reader.next(); rec != null; rec = reader.next()) {
+			if ("Include".equals(rec.tokens.get(0)))
+				ret += readRecords(uri.resolve(rec.tokens.get(1)));
+			ret++;
+		}
+		return ret;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(5)
+	public void load() throws Exception {
+		InputAgent.readStream("", dir.toURI(), config.getName());
+		if (InputAgent.numErrors() > 0)
+			throw new InputErrorException("%d input errors found", InputAgent.numErrors());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 0)
+	@Measurement(iterations = 1)
+	@Fork(5)
+	public void loadCached() throws Exception {
+		InputAgent.readCachedStream(config);
+		if (InputAgent.numErrors() > 0)
+			throw new InputErrorException("%d input errors found", InputAgent.numErrors());
+	}
+}
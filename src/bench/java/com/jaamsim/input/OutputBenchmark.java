@@ -0,0 +1,130 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.basicsim.Entity;
+
+/**
+ * Throughput for reading the value of an output. The 'reflect' benchmarks call
+ * the output method through java.lang.reflect.Method and box the value in the
+ * same way as the previous implementation of OutputHandle, and are the baseline
+ * for the OutputHandle benchmarks. Run with '-prof gc' to confirm that the
+ * primitive path does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OutputBenchmark {
+
+	public static class BenchEnt extends Entity {
+		private double val = 1.0d;
+		private int count = 3;
+
+		@Output(name = "DoubleValue")
+		public double getDoubleValue(double simTime) {
+			return val + simTime;
+		}
+
+		@Output(name = "IntValue")
+		public int getIntValue(double simTime) {
+			return count;
+		}
+
+		@Output(name = "EntityValue")
+		public Entity getEntityValue(double simTime) {
+			return this;
+		}
+	}
+
+	private BenchEnt ent;
+	private Method doubleMethod;
+	private Method intMethod;
+	private OutputHandle doubleHandle;
+	private OutputHandle intHandle;
+	private OutputHandle entityHandle;
+	private double simTime;
+
+	@Setup(Level.Trial)
+	public void setup() throws ReflectiveOperationException {
+		ent = new BenchEnt();
+		doubleMethod = BenchEnt.class.getMethod("getDoubleValue", double.class);
+		intMethod = BenchEnt.class.getMethod("getIntValue", double.class);
+		doubleHandle = ent.getOutputHandle("DoubleValue");
+		intHandle = ent.getOutputHandle("IntValue");
+		entityHandle = ent.getOutputHandle("EntityValue");
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+		ent.kill();
+	}
+
+	@Benchmark
+	public double reflectDouble() throws ReflectiveOperationException {
+		simTime += 1.0d;
+		return ((Double)doubleMethod.invoke(ent, simTime)).doubleValue();
+	}
+
+	@Benchmark
+	public double reflectInt() throws ReflectiveOperationException {
+		simTime += 1.0d;
+		return ((Integer)intMethod.invoke(ent, simTime)).doubleValue();
+	}
+
+	@Benchmark
+	public double handleDouble() {
+		simTime += 1.0d;
+		return doubleHandle.getValueAsDouble(simTime, 0.0d);
+	}
+
+	@Benchmark
+	public double handleInt() {
+		simTime += 1.0d;
+		return intHandle.getValueAsDouble(simTime, 0.0d);
+	}
+
+	@Benchmark
+	public Double handleDoubleBoxed() {
+		simTime += 1.0d;
+		return doubleHandle.getValue(simTime, double.class);
+	}
+
+	@Benchmark
+	public Entity handleEntity() {
+		simTime += 1.0d;
+		return entityHandle.getValue(simTime, Entity.class);
+	}
+}
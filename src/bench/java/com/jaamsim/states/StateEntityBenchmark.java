@@ -0,0 +1,129 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.states;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jaamsim.basicsim.Simulation;
+import com.jaamsim.events.BenchmarkHelpers;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Cost of a state transition for a StateEntity, when the state is given by name
+ * and by StateHandle. The transitions are made by a single event so that the
+ * time to execute the event is spread over many transitions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StateEntityBenchmark {
+	private static final int NUM_TRANSITIONS = 10000;
+
+	private static final String[] NAMES = { "Idle", "Working", "Stopped", "Maintenance" };
+	private static final StateHandle[] HANDLES = new StateHandle[NAMES.length];
+	static {
+		for (int i = 0; i < NAMES.length; i++) {
+			HANDLES[i] = StateHandle.get(NAMES[i]);
+		}
+	}
+
+	private EventManager evt;
+	private StateEntity ent;
+
+	public static class AnyStateEntity extends StateEntity {
+		@Override
+		public boolean isValidState(String state) {
+			return true;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		InputAgent.setBatch(true);
+		InputAgent.setRecordEdits(false);
+		InputAgent.readResource("<res>/inputs/autoload.cfg");
+		evt = new EventManager("StateEntityBenchmark");
+		evt.setTickLength(Simulation.getTickLength());
+		ent = InputAgent.defineEntityWithUniqueName(AnyStateEntity.class, "Ent", "", true);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() {
+		evt.clear();
+		EventManager.closeProcessPool();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_TRANSITIONS)
+	public void byName() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "byName";
+			}
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_TRANSITIONS; i++) {
+					ent.setPresentState(NAMES[i & 3]);
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_TRANSITIONS)
+	public void byHandle() {
+		execute(new ProcessTarget() {
+			@Override
+			public String getDescription() {
+				return "byHandle";
+			}
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_TRANSITIONS; i++) {
+					ent.setPresentState(HANDLES[i & 3]);
+				}
+			}
+		});
+	}
+
+	private void execute(ProcessTarget t) {
+		evt.scheduleProcessExternal(0, 0, false, t, null);
+		BenchmarkHelpers.runEvents(evt);
+	}
+}
@@ -36,7 +36,7 @@ import com.jaamsim.input.Output;
 import com.jaamsim.states.DowntimeUser;
 import com.jaamsim.states.StateEntity;
 import com.jaamsim.states.StateEntityListener;
-import com.jaamsim.states.StateRecord;
+import com.jaamsim.states.StateHandle;
 import com.jaamsim.units.TimeUnit;
 
 public class DowntimeEntity extends StateEntity implements StateEntityListener {
@@ -96,6 +96,8 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	         exampleList = {"FALSE"})
 	protected final BooleanInput concurrent;
 
+	private static final StateHandle STATE_DOWNTIME = StateHandle.define("Downtime");
+
 	private final ArrayList<DowntimeUser> downtimeUserList;  // entities that use this downtime entity
 	private boolean down;             // true for the duration of a downtime event
 	private int downtimePendings;    // number of queued downtime events
@@ -161,6 +163,12 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 			throw new InputErrorException("Duration values can not be less than 0.");
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state and finds its users from their inputs
+		return true;
+	}
+
 	@Override
 	public void earlyInit(){
 		super.earlyInit();
@@ -190,6 +198,11 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	public void lateInit() {
 		super.lateInit();
 
+		// Receive the changes of state for the watched entities
+		for (StateEntity each : getWatchedEntities()) {
+			each.addStateListener(this);
+		}
+
 		// Determine the time for the first downtime event
 		if (firstDowntime.getValue() == null)
 			secondsForNextFailure = getNextDowntimeIAT();
@@ -374,6 +387,11 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 		public String getDescription() {
 			return user.getName() + ".prepareForDowntime";
 		}
+
+		@Override
+		public boolean isStackless() {
+			return true;
+		}
 	}
 
 	public void scheduleDowntime() {
@@ -433,9 +451,9 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	private void setDown(boolean b) {
 		down = b;
 		if (down)
-			setPresentState("Downtime");
+			setPresentState(STATE_DOWNTIME);
 		else
-			setPresentState("Working");
+			setPresentState(STATE_WORKING);
 	}
 
 	final void endDowntime() {
@@ -496,6 +514,31 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 		return downtimePendings > 0;
 	}
 
+	@Override
+	public ArrayList<StateEntity> getLateInitDependencies() {
+		return getWatchedEntities();
+	}
+
+	/**
+	 * Returns the entities whose changes of state affect this downtime entity.
+	 */
+	private ArrayList<StateEntity> getWatchedEntities() {
+		ArrayList<StateEntity> ret = new ArrayList<>();
+		if (!this.isActive())
+			return ret;
+
+		if (iatWorkingEntity.getValue() != null)
+			ret.add(iatWorkingEntity.getValue());
+
+		if (durationWorkingEntity.getValue() != null)
+			ret.add(durationWorkingEntity.getValue());
+
+		for (DowntimeUser each : downtimeUserList) {
+			ret.add((StateEntity)each);
+		}
+		return ret;
+	}
+
 	@Override
 	public boolean isWatching(StateEntity ent) {
 		if (!this.isActive())
@@ -538,7 +581,7 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	}
 
 	@Override
-	public void updateForStateChange(StateEntity ent, StateRecord prev, StateRecord next) {
+	public void updateForStateChange(StateEntity ent, StateHandle prev, StateHandle next) {
 		this.checkProcessNetwork();
 	}
 
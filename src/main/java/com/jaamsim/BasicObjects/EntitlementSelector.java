@@ -91,6 +91,7 @@ public class EntitlementSelector extends DisplayEntity implements SampleProvider
 		if (!EventManager.hasCurrent()) {
 			return lastSample;
 		}
+		this.outputsChanged();
 
 		// Make the next selection
 		DoubleVector probList = proportionList.getValue();
@@ -126,6 +126,7 @@ public class EventSchedule extends DisplayEntity implements SampleProvider{
 			index = (index + 1) % list.size();
 			if (firstSample && index > 0)
 				firstSample = false;
+			this.outputsChanged();
 		}
 
 		// Trap an index that is out of range. Note that index can exceed the size of the list
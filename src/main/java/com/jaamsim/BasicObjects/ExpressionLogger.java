@@ -20,6 +20,7 @@ package com.jaamsim.BasicObjects;
 import java.util.ArrayList;
 
 import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.Samples.SampleExpression;
 import com.jaamsim.Samples.SampleListInput;
 import com.jaamsim.Samples.SampleProvider;
 import com.jaamsim.StringProviders.StringProvListInput;
@@ -28,6 +29,7 @@ import com.jaamsim.basicsim.EntityTarget;
 import com.jaamsim.basicsim.FileEntity;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.datatypes.IntegerVector;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.Conditional;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -42,7 +44,7 @@ import com.jaamsim.input.UnitTypeListInput;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.states.StateEntity;
 import com.jaamsim.states.StateEntityListener;
-import com.jaamsim.states.StateRecord;
+import com.jaamsim.states.StateHandle;
 import com.jaamsim.units.TimeUnit;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
@@ -212,6 +214,21 @@ public class ExpressionLogger extends DisplayEntity implements StateEntityListen
 		}
 	}
 
+	@Override
+	public void lateInit() {
+		super.lateInit();
+
+		// Receive the changes of state for the traced entities
+		for (StateEntity ent : stateTraceList.getValue()) {
+			ent.addStateListener(this);
+		}
+	}
+
+	@Override
+	public ArrayList<StateEntity> getLateInitDependencies() {
+		return stateTraceList.getValue();
+	}
+
 	@Override
 	public void startUp() {
 		super.startUp();
@@ -382,7 +399,7 @@ public class ExpressionLogger extends DisplayEntity implements StateEntityListen
 	}
 
 	@Override
-	public void updateForStateChange(StateEntity ent, StateRecord prev, StateRecord next) {
+	public void updateForStateChange(StateEntity ent, StateHandle prev, StateHandle next) {
 		this.recordEntry(getSimTime());
 	}
 
@@ -407,6 +424,20 @@ public class ExpressionLogger extends DisplayEntity implements StateEntityListen
 		return ret;
 	}
 
+	/**
+	 * Returns the signals that are triggered when the value of one of the traced
+	 * expressions can change, or null if a value can change without a signal being
+	 * triggered.
+	 */
+	final ChangeSignal[] getValueSignals() {
+		ArrayList<ChangeSignal> ret = new ArrayList<>();
+		for (int i=0; i<valueTraceList.getListSize(); i++) {
+			if (!SampleExpression.addChangeSignals(valueTraceList.getValue().get(i), ret))
+				return null;
+		}
+		return ret.toArray(new ChangeSignal[ret.size()]);
+	}
+
 	/**
 	 * Writes a record to the log file whenever one of the traced expressions changes its value.
 	 */
@@ -434,6 +465,11 @@ public class ExpressionLogger extends DisplayEntity implements StateEntityListen
 		public boolean evaluate() {
 			return ent.valueChanged();
 		}
+
+		@Override
+		public ChangeSignal[] getDependencies() {
+			return ent.getValueSignals();
+		}
 	}
 	private final Conditional valueChanged = new ValueChangedConditional(this);
 
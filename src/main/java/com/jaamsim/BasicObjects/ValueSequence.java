@@ -118,8 +118,10 @@ public class ValueSequence extends DisplayEntity implements SampleProvider {
 			return Double.NaN;
 
 		// If called from a model thread, increment the index to be selected
-		if (EventManager.hasCurrent())
+		if (EventManager.hasCurrent()) {
 			index = (index + 1) % valueList.getListSize();
+			this.outputsChanged();
+		}
 
 		// Trap an index that is out of range. Note that index can exceed the size of the list
 		// if the ValueList keyword is edited in the middle of a run
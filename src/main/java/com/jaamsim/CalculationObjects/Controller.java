@@ -104,6 +104,7 @@ public class Controller extends DisplayEntity {
 		double simTime = this.getSimTime();
 		for (CalculationEntity ent : calculationEntityList) {
 			ent.update(simTime);
+			ent.outputsChanged();
 		}
 
 		// Increment the number of cycles
@@ -55,6 +55,12 @@ public class Integrator extends DoubleCalculation {
 		initialValue.setUnitType(outUnitType);
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Samples the initial value
+		return false;
+	}
+
 	@Override
 	public double getInitialValue() {
 		return initialValue.getValue().getNextSample(getSimTime());
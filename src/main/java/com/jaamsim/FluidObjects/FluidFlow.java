@@ -44,6 +44,12 @@ public class FluidFlow extends FluidFlowCalculation {
 		routeList = new ArrayList<>();
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Assigns this flow to each component on its route
+		return false;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
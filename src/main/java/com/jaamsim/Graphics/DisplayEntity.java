@@ -106,7 +106,7 @@ protected final StringChoiceInput curveTypeInput;
 	private final Vec3d size = new Vec3d(1.0d, 1.0d, 1.0d);
 	private final Vec3d orient = new Vec3d();
 	private final Vec3d align = new Vec3d();
-	private final ArrayList<DisplayModel> displayModelList = new ArrayList<>();
+	private ArrayList<DisplayModel> displayModelList = NO_DISPLAY_MODELS;
 
 	private Region currentRegion;
 
@@ -133,29 +133,40 @@ protected final StringChoiceInput curveTypeInput;
 
 	private ArrayList<DisplayModelBinding> modelBindings;
 
-	private final HashMap<String, Tag> tagMap = new HashMap<>();
+	private HashMap<String, Tag> tagMap = NO_TAGS;
+
+	// Default values and empty collections shared by every instance. Input values are never
+	// modified in place, so an entity's inputs can refer to the same objects as its prototype
+	// and a private copy is only made when a new value is assigned.
+	private static final Vec3d DEF_ZERO = new Vec3d();
+	private static final Vec3d DEF_SIZE = new Vec3d(1.0d, 1.0d, 1.0d);
+	private static final ArrayList<Vec3d> DEF_POINTS = new ArrayList<>(2);
+	private static final ArrayList<DisplayModel> NO_DISPLAY_MODELS = new ArrayList<>(0);
+	private static final HashMap<String, Tag> NO_TAGS = new HashMap<>(0);
+
+	static {
+		DEF_POINTS.add(new Vec3d(0.0d, 0.0d, 0.0d));
+		DEF_POINTS.add(new Vec3d(1.0d, 0.0d, 0.0d));
+	}
 
 	{
-		positionInput = new Vec3dInput("Position", "Graphics", new Vec3d());
+		positionInput = new Vec3dInput("Position", "Graphics", DEF_ZERO);
 		positionInput.setUnitType(DistanceUnit.class);
 		this.addInput(positionInput);
 
-		alignmentInput = new Vec3dInput("Alignment", "Graphics", new Vec3d());
+		alignmentInput = new Vec3dInput("Alignment", "Graphics", DEF_ZERO);
 		this.addInput(alignmentInput);
 
-		sizeInput = new Vec3dInput("Size", "Graphics", new Vec3d(1.0d, 1.0d, 1.0d));
+		sizeInput = new Vec3dInput("Size", "Graphics", DEF_SIZE);
 		sizeInput.setUnitType(DistanceUnit.class);
 		sizeInput.setValidRange(0.0d, Double.POSITIVE_INFINITY);
 		this.addInput(sizeInput);
 
-		orientationInput = new Vec3dInput("Orientation", "Graphics", new Vec3d());
+		orientationInput = new Vec3dInput("Orientation", "Graphics", DEF_ZERO);
 		orientationInput.setUnitType(AngleUnit.class);
 		this.addInput(orientationInput);
 
-		ArrayList<Vec3d> defPoints =  new ArrayList<>();
-		defPoints.add(new Vec3d(0.0d, 0.0d, 0.0d));
-		defPoints.add(new Vec3d(1.0d, 0.0d, 0.0d));
-		pointsInput = new Vec3dListInput("Points", "Graphics", defPoints);
+		pointsInput = new Vec3dListInput("Points", "Graphics", DEF_POINTS);
 		pointsInput.setValidCountRange( 2, Integer.MAX_VALUE );
 		pointsInput.setUnitType(DistanceUnit.class);
 		this.addInput(pointsInput);
@@ -704,13 +715,16 @@ protected final StringChoiceInput curveTypeInput;
 		return displayModelList;
 	}
 
+	/**
+	 * Sets the list of DisplayModels used to draw this entity. The list is
+	 * shared with the caller and must not be modified afterwards.
+	 */
 	public void setDisplayModelList(ArrayList<DisplayModel> dmList) {
-		displayModelList.clear();
 		if (dmList == null)
+			dmList = NO_DISPLAY_MODELS;
+		if (dmList == displayModelList)
 			return;
-		for (DisplayModel dm : dmList) {
-			displayModelList.add(dm);
-		}
+		displayModelList = dmList;
 		clearBindings(); // Clear this on any change, and build it lazily later
 	}
 
@@ -1067,14 +1081,14 @@ protected final StringChoiceInput curveTypeInput;
 		Tag t = tagMap.get(tagName);
 		if (t == null) {
 			t = new Tag(cas, null, true);
-			tagMap.put(tagName, t);
+			this.putTag(tagName, t);
 			return;
 		}
 
 		if (t.colorsMatch(cas))
 			return;
 		else
-			tagMap.put(tagName, new Tag(cas, t.sizes, t.visible));
+			this.putTag(tagName, new Tag(cas, t.sizes, t.visible));
 	}
 
 	public final void setTagSize(String tagName, double size) {
@@ -1087,28 +1101,34 @@ protected final StringChoiceInput curveTypeInput;
 		Tag t = tagMap.get(tagName);
 		if (t == null) {
 			t = new Tag(null, sizes, true);
-			tagMap.put(tagName, t);
+			this.putTag(tagName, t);
 			return;
 		}
 
 		if (t.sizesMatch(sizes))
 			return;
 		else
-			tagMap.put(tagName, new Tag(t.colors, sizes, t.visible));
+			this.putTag(tagName, new Tag(t.colors, sizes, t.visible));
 	}
 
 	public final void setTagVisibility(String tagName, boolean isVisible) {
 		Tag t = tagMap.get(tagName);
 		if (t == null) {
 			t = new Tag(null, null, isVisible);
-			tagMap.put(tagName, t);
+			this.putTag(tagName, t);
 			return;
 		}
 
 		if (t.visMatch(isVisible))
 			return;
 		else
-			tagMap.put(tagName, new Tag(t.colors, t.sizes, isVisible));
+			this.putTag(tagName, new Tag(t.colors, t.sizes, isVisible));
+	}
+
+	private void putTag(String tagName, Tag t) {
+		if (tagMap == NO_TAGS)
+			tagMap = new HashMap<>();
+		tagMap.put(tagName, t);
 	}
 
 	/**
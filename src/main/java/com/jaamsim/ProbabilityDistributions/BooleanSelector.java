@@ -104,6 +104,7 @@ public class BooleanSelector extends DisplayEntity {
 		if (!EventManager.hasCurrent()) {
 			return lastValue;
 		}
+		this.outputsChanged();
 
 		// Select the next sample
 		double samp = rng.nextUniform();
@@ -108,6 +108,12 @@ implements SampleProvider {
 		}
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Samples the distributions for the inputs to calculate the mean value
+		return false;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -194,6 +200,7 @@ implements SampleProvider {
 		if (!EventManager.hasCurrent()) {
 			return lastSample;
 		}
+		this.outputsChanged();
 
 		// Loop until the select sample falls within the desired min and max values
 		double nextSample;
@@ -23,6 +23,7 @@ import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.EntityPool;
 import com.jaamsim.datatypes.IntegerVector;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.EntityInput;
@@ -57,6 +58,12 @@ public class Assemble extends LinkedService {
 	         exampleList = {"Proto"})
 	private final EntityInput<DisplayEntity> prototypeEntity;
 
+	@Keyword(description = "If TRUE, the assembled entities that are destroyed are kept and reused in place of "
+			+ "new copies of the prototype. Only set this input when no object refers to an assembled entity "
+			+ "after it has been destroyed.",
+	         exampleList = {"TRUE"})
+	private final BooleanInput recycleEntities;
+
 	private DisplayEntity assembledEntity;	// the generated entity representing the assembled part
 	private int numberGenerated = 0;  // Number of entities generated so far
 
@@ -85,6 +92,9 @@ public class Assemble extends LinkedService {
 		prototypeEntity = new EntityInput<>(DisplayEntity.class, "PrototypeEntity", "Key Inputs", null);
 		prototypeEntity.setRequired(true);
 		this.addInput(prototypeEntity);
+
+		recycleEntities = new BooleanInput("RecycleEntities", "Key Inputs", false);
+		this.addInput(recycleEntities);
 	}
 
 	public Assemble() {}
@@ -144,18 +154,22 @@ public class Assemble extends LinkedService {
 
 		// Create the entity representing the assembled part
 		numberGenerated++;
+		this.outputsChanged();
 		DisplayEntity proto = prototypeEntity.getValue();
 		StringBuilder sb = new StringBuilder();
 		sb.append(this.getName()).append("_").append(numberGenerated);
-		assembledEntity = Entity.fastCopy(proto, sb.toString());
+		if (recycleEntities.getValue())
+			assembledEntity = EntityPool.getCopy(proto, sb.toString());
+		else
+			assembledEntity = Entity.fastCopy(proto, sb.toString());
 		assembledEntity.earlyInit();
 
 		// Set the obj output to the assembled part
 		this.registerEntity(assembledEntity);
 
 		// Set the state for the assembled part
-		if (!stateAssignment.getValue().isEmpty() && assembledEntity instanceof StateEntity)
-			((StateEntity)assembledEntity).setPresentState(stateAssignment.getValue());
+		if (assignedState != null && assembledEntity instanceof StateEntity)
+			((StateEntity)assembledEntity).setPresentState(assignedState);
 
 		// Position the assembled part relative to the Assemble object
 		this.moveToProcessPosition(assembledEntity);
@@ -120,6 +120,11 @@ public class Device extends StateUserEntity {
 		public void process() {
 			ent.endStep();
 		}
+
+		@Override
+		public boolean isStackless() {
+			return true;
+		}
 	}
 	private final ProcessTarget endStepTarget = new EndStepTarget(this);
 	private final EventHandle endStepHandle = new EventHandle();
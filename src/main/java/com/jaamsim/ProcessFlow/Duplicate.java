@@ -18,6 +18,8 @@ package com.jaamsim.ProcessFlow;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.EntityPool;
+import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.InterfaceEntityListInput;
 import com.jaamsim.input.Keyword;
 
@@ -28,11 +30,21 @@ public class Duplicate extends LinkedComponent {
 	         exampleList = {"Assign1 Queue1"})
 	protected final InterfaceEntityListInput<Linkable> targetComponentList;
 
+	@Keyword(description = "If TRUE, the duplicates of an entity that was generated with "
+			+ "RecycleEntities set to TRUE are obtained from the same pool of destroyed entities. "
+			+ "Only set this input when no object refers to a duplicated entity after it has "
+			+ "been destroyed.",
+	         exampleList = {"TRUE"})
+	private final BooleanInput recycleEntities;
+
 	{
 		targetComponentList = new InterfaceEntityListInput<>( Linkable.class, "TargetComponentList", "Key Inputs", null);
 		targetComponentList.setUnique(false);
 		targetComponentList.setRequired(true);
 		this.addInput( targetComponentList);
+
+		recycleEntities = new BooleanInput("RecycleEntities", "Key Inputs", false);
+		this.addInput(recycleEntities);
 	}
 
 	public Duplicate() {}
@@ -48,7 +60,12 @@ public class Duplicate extends LinkedComponent {
 			// Create the duplicated entity
 			StringBuilder sb = new StringBuilder();
 			sb.append(ent.getName()).append("_Dup").append(n);
-			DisplayEntity dup = Entity.fastCopy(ent, sb.toString());
+			DisplayEntity dup;
+			EntityPool pool = ent.getEntityPool();
+			if (recycleEntities.getValue() && pool != null)
+				dup = pool.getCopyOf(ent, sb.toString());
+			else
+				dup = Entity.fastCopy(ent, sb.toString());
 
 			// Set the state for the duplicated entity
 			if (dup instanceof SimEntity) {
@@ -73,10 +73,12 @@ public class EntityContainer extends SimEntity {
 
 	public void addEntity(DisplayEntity ent) {
 		entityList.add(ent);
+		this.outputsChanged();
 	}
 
 	public DisplayEntity removeEntity() {
 		DisplayEntity ent = entityList.remove(entityList.size()-1);
+		this.outputsChanged();
 		return ent;
 	}
 
@@ -91,7 +93,7 @@ public class EntityContainer extends SimEntity {
 		// Set the states for the entities carried by the EntityContainer to the new state
 		for (DisplayEntity ent : entityList) {
 			if (ent instanceof StateEntity)
-				((StateEntity)ent).setPresentState(next.name);
+				((StateEntity)ent).setPresentState(next.handle);
 		}
 	}
 
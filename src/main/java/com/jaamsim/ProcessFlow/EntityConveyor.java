@@ -80,6 +80,12 @@ public class EntityConveyor extends LinkedService {
 		entryList = new ArrayList<>();
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Samples the travel time
+		return false;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -169,10 +169,10 @@ public class EntityDelay extends LinkedComponent {
 	@Override
 	public void setPresentState() {
 		if (this.getNumberInProgress() > 0) {
-			this.setPresentState("Working");
+			this.setPresentState(STATE_WORKING);
 		}
 		else {
-			this.setPresentState("Idle");
+			this.setPresentState(STATE_IDLE);
 		}
 	}
 
@@ -25,6 +25,8 @@ import com.jaamsim.Graphics.TextBasics;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.EntityPool;
+import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.EntityInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.Keyword;
@@ -61,6 +63,12 @@ public class EntityGenerator extends LinkedService {
 	         exampleList = {"3", "InputValue1", "[InputValue1].Value"})
 	private final SampleInput maxNumber;
 
+	@Keyword(description = "If TRUE, the generated entities that are destroyed are kept and reused in place of "
+			+ "new copies of the prototype. Only set this input when no object refers to a generated entity "
+			+ "after it has been destroyed.",
+	         exampleList = {"TRUE"})
+	private final BooleanInput recycleEntities;
+
 	private int numberGenerated = 0;  // Number of entities generated so far
 
 	{
@@ -98,6 +106,9 @@ public class EntityGenerator extends LinkedService {
 		prototypeEntity.setInvalidClasses(list);
 		this.addInput(prototypeEntity);
 
+		recycleEntities = new BooleanInput("RecycleEntities", "Key Inputs", false);
+		this.addInput(recycleEntities);
+
 		maxNumber = new SampleInput("MaxNumber", "Key Inputs", null);
 		maxNumber.setUnitType(DimensionlessUnit.class);
 		maxNumber.setEntity(this);
@@ -147,10 +158,15 @@ public class EntityGenerator extends LinkedService {
 		int num = (int) entitiesPerArrival.getValue().getNextSample(getSimTime());
 		for (int i=0; i<num; i++) {
 			numberGenerated++;
+			this.outputsChanged();
 			DisplayEntity proto = prototypeEntity.getValue();
 			StringBuilder sb = new StringBuilder();
 			sb.append(this.getName()).append("_").append(numberGenerated);
-			DisplayEntity ent = Entity.fastCopy(proto, sb.toString());
+			DisplayEntity ent;
+			if (recycleEntities.getValue())
+				ent = EntityPool.getCopy(proto, sb.toString());
+			else
+				ent = Entity.fastCopy(proto, sb.toString());
 			ent.earlyInit();
 
 			// Set the obj output to the assembled part
@@ -18,6 +18,8 @@ package com.jaamsim.ProcessFlow;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Simulation;
+import com.jaamsim.basicsim.StateDigest;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.input.EntityInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputErrorException;
@@ -26,6 +28,7 @@ import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.StringInput;
 import com.jaamsim.states.StateEntity;
+import com.jaamsim.states.StateHandle;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.RateUnit;
 import com.jaamsim.units.TimeUnit;
@@ -49,6 +52,7 @@ public abstract class LinkedDevice extends Device implements Linkable {
 	         exampleList = {"Service"})
 	protected final StringInput stateAssignment;
 
+	protected StateHandle assignedState; // Handle for the state to be assigned, or null if blank
 	private long numberAdded;     // Number of entities added to this component from upstream after initialisation
 	private long numberProcessed; // Number of entities processed by this component after initialisation
 	private long initialNumberAdded;     // Number of entities added to this component from upstream during initialisation
@@ -80,6 +84,13 @@ public abstract class LinkedDevice extends Device implements Linkable {
 			receivedEntity = defaultEntity.getValue();
 			return;
 		}
+
+		if (in == stateAssignment) {
+			assignedState = null;
+			if (!stateAssignment.getValue().isEmpty())
+				assignedState = StateHandle.get(stateAssignment.getValue());
+			return;
+		}
 	}
 
 	@Override
@@ -94,6 +105,12 @@ public abstract class LinkedDevice extends Device implements Linkable {
 		}
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state
+		return true;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -119,14 +136,16 @@ public abstract class LinkedDevice extends Device implements Linkable {
 
 		receivedEntity = ent;
 		numberAdded++;
+		this.outputsChanged();
 
 		// Assign a new state to the received entity
-		if (!stateAssignment.getValue().isEmpty() && ent instanceof StateEntity)
-			((StateEntity)ent).setPresentState(stateAssignment.getValue());
+		if (assignedState != null && ent instanceof StateEntity)
+			((StateEntity)ent).setPresentState(assignedState);
 	}
 
 	protected void setReceivedEntity(DisplayEntity ent) {
 		receivedEntity = ent;
+		this.outputsChanged();
 	}
 
 	/**
@@ -136,6 +155,7 @@ public abstract class LinkedDevice extends Device implements Linkable {
 	public void sendToNextComponent(DisplayEntity ent) {
 		numberProcessed++;
 		releaseTime = this.getSimTime();
+		this.outputsChanged();
 		if( nextComponent.getValue() != null )
 			nextComponent.getValue().addEntity(ent);
 	}
@@ -167,6 +187,7 @@ public abstract class LinkedDevice extends Device implements Linkable {
 
 	public void incrementNumberProcessed() {
 		numberProcessed++;
+		this.outputsChanged();
 	}
 
 	/**
@@ -184,6 +205,27 @@ public abstract class LinkedDevice extends Device implements Linkable {
 		initialNumberProcessed = numberProcessed;
 		numberAdded = 0;
 		numberProcessed = 0;
+		this.outputsChanged();
+	}
+
+	@Override
+	public void addStateDigest(StateDigest.Hash digest) {
+		super.addStateDigest(digest);
+		digest.add(numberAdded);
+		digest.add(numberProcessed);
+		digest.add(initialNumberAdded);
+		digest.add(initialNumberProcessed);
+		digest.add(receivedEntity == null ? -1L : receivedEntity.getEntityNumber());
+	}
+
+	@Override
+	public ChangeSignal getChangeSignal(String outputName) {
+		if (outputName.equals("obj") ||
+		    outputName.equals("NumberAdded") ||
+		    outputName.equals("NumberProcessed") ||
+		    outputName.equals("NumberInProgress"))
+			return this.getOutputSignal();
+		return super.getChangeSignal(outputName);
 	}
 
 	// ******************************************************************************************************
@@ -21,6 +21,8 @@ import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.EntityPool;
+import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.EntityInput;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
@@ -43,6 +45,12 @@ public class Pack extends LinkedService {
 	         exampleList = { "3.0 h", "ExponentialDistribution1", "'1[s] + 0.5*[TimeSeries1].PresentValue'" })
 	private final SampleInput serviceTime;
 
+	@Keyword(description = "If TRUE, the EntityContainers that are destroyed are kept and reused in place of "
+			+ "new copies of the prototype. Only set this input when no object refers to an EntityContainer "
+			+ "after it has been destroyed.",
+	         exampleList = {"TRUE"})
+	private final BooleanInput recycleEntities;
+
 	protected EntityContainer container;	// the generated EntityContainer
 	private int numberGenerated;  // Number of EntityContainers generated so far
 	private int numberInserted;   // Number of entities inserted to the EntityContainer
@@ -66,6 +74,9 @@ public class Pack extends LinkedService {
 		serviceTime.setEntity(this);
 		serviceTime.setValidRange(0, Double.POSITIVE_INFINITY);
 		this.addInput(serviceTime);
+
+		recycleEntities = new BooleanInput("RecycleEntities", "Key Inputs", false);
+		this.addInput(recycleEntities);
 	}
 
 	@Override
@@ -80,10 +91,15 @@ public class Pack extends LinkedService {
 
 	protected EntityContainer getNextContainer() {
 		numberGenerated++;
+		this.outputsChanged();
 		EntityContainer proto = prototypeEntityContainer.getValue();
 		StringBuilder sb = new StringBuilder();
 		sb.append(this.getName()).append("_").append(numberGenerated);
-		EntityContainer ret = Entity.fastCopy(proto, sb.toString());
+		EntityContainer ret;
+		if (recycleEntities.getValue())
+			ret = EntityPool.getCopy(proto, sb.toString());
+		else
+			ret = Entity.fastCopy(proto, sb.toString());
 		ret.earlyInit();
 		return ret;
 	}
@@ -97,8 +113,8 @@ public class Pack extends LinkedService {
 			numberInserted = 0;
 
 			// Set the state for the container and its contents
-			if (!stateAssignment.getValue().isEmpty())
-				container.setPresentState(stateAssignment.getValue());
+			if (assignedState != null)
+				container.setPresentState(assignedState);
 
 			// Position the container over the pack object
 			this.moveToProcessPosition(container);
@@ -118,8 +134,8 @@ public class Pack extends LinkedService {
 		// Select the next entity to pack and set its state
 		if (numberInserted < numberToInsert) {
 			packedEntity = this.getNextEntityForMatch(getMatchValue());
-			if (!stateAssignment.getValue().isEmpty() && packedEntity instanceof StateEntity)
-				((StateEntity)packedEntity).setPresentState(stateAssignment.getValue());
+			if (assignedState != null && packedEntity instanceof StateEntity)
+				((StateEntity)packedEntity).setPresentState(assignedState);
 
 			// Move the entity into position for processing
 			this.moveToProcessPosition(packedEntity);
@@ -135,6 +151,7 @@ public class Pack extends LinkedService {
 			container.addEntity(packedEntity);
 			packedEntity = null;
 			numberInserted++;
+			this.outputsChanged();
 		}
 
 		// If the container is full, send it to the next component
@@ -27,8 +27,10 @@ import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.EntityTarget;
+import com.jaamsim.basicsim.StateDigest;
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.datatypes.IntegerVector;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -40,6 +42,8 @@ import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.math.Vec3d;
+import com.jaamsim.statistics.SampleStatistics;
+import com.jaamsim.statistics.TimeWeightedStatistics;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.DistanceUnit;
 import com.jaamsim.units.TimeUnit;
@@ -99,14 +103,11 @@ public class Queue extends LinkedComponent {
 	private int maxCount;     // largest number of entities for a given match value
 
 	private final ArrayList<QueueUser> userList;  // other objects that use this queue
+	private ChangeSignal countSignal;  // triggered when the number of entities changes
 
 	//	Statistics
-	protected double timeOfLastUpdate; // time at which the statistics were last updated
-	protected double startOfStatisticsCollection; // time at which statistics collection was started
-	protected int minElements; // minimum observed number of entities in the queue
-	protected int maxElements; // maximum observed number of entities in the queue
-	protected double elementSeconds;  // total time that entities have spent in the queue
-	protected double squaredElementSeconds;  // total time for the square of the number of elements in the queue
+	protected final TimeWeightedStatistics queueLengthStats;  // number of entities in the queue
+	protected final SampleStatistics queueTimeStats;  // waiting time for each entity removed from the queue
 	protected DoubleVector queueLengthDist;  // entry at position n is the total time the queue has had length n
 	protected long numberReneged;  // number of entities that reneged from the queue
 
@@ -156,6 +157,8 @@ public class Queue extends LinkedComponent {
 	public Queue() {
 		itemSet = new TreeSet<>();
 		queueLengthDist = new DoubleVector(10,10);
+		queueLengthStats = new TimeWeightedStatistics();
+		queueTimeStats = new SampleStatistics();
 		userList = new ArrayList<>();
 		matchMap = new HashMap<>();
 	}
@@ -171,6 +174,12 @@ public class Queue extends LinkedComponent {
 		}
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state and finds its users from their inputs
+		return true;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -183,12 +192,8 @@ public class Queue extends LinkedComponent {
 		maxCount = -1;
 
 		// Clear statistics
-		startOfStatisticsCollection = 0.0;
-		timeOfLastUpdate = 0.0;
-		minElements = 0;
-		maxElements = 0;
-		elementSeconds = 0.0;
-		squaredElementSeconds = 0.0;
+		queueLengthStats.clear(0.0, 0.0);
+		queueTimeStats.clear();
 		queueLengthDist.clear();
 		numberReneged = 0;
 
@@ -257,6 +262,23 @@ public class Queue extends LinkedComponent {
 		}
 	}
 
+	/**
+	 * Returns the signal that is triggered each time an entity is added to or
+	 * removed from the queue.
+	 */
+	public ChangeSignal getCountSignal() {
+		if (countSignal == null)
+			countSignal = new ChangeSignal();
+		return countSignal;
+	}
+
+	@Override
+	public ChangeSignal getChangeSignal(String outputName) {
+		if (outputName.equals("QueueLength"))
+			return this.getCountSignal();
+		return super.getChangeSignal(outputName);
+	}
+
 	// ******************************************************************************************************
 	// QUEUE HANDLING METHODS
 	// ******************************************************************************************************
@@ -359,8 +381,8 @@ public class Queue extends LinkedComponent {
 		this.setReceivedEntity(oldEnt);
 
 		// Remove the entity from the queue and send it to the renege destination
-		this.remove(entry);
 		numberReneged++;
+		this.remove(entry);
 		renegeDestination.getValue().addEntity(ent);
 	}
 
@@ -371,6 +393,7 @@ public class Queue extends LinkedComponent {
 
 		int queueSize = itemSet.size();  // present number of entities in the queue
 		this.updateStatistics(queueSize, queueSize-1);
+		queueTimeStats.add(this.getSimTime() - entry.timeAdded);
 
 		// Remove the entity from the TreeSet of all entities in the queue
 		boolean found = itemSet.remove(entry);
@@ -679,6 +702,19 @@ public class Queue extends LinkedComponent {
 		}
 	}
 
+	@Override
+	public void addStateDigest(StateDigest.Hash digest) {
+		super.addStateDigest(digest);
+		digest.add(itemSet.size());
+		for (QueueEntry each : itemSet) {
+			digest.add(each.entity.getEntityNumber());
+			digest.add(each.priority);
+			digest.add(each.timeAdded);
+			digest.add(each.match == null ? Long.MIN_VALUE : each.match);
+		}
+		digest.add(numberReneged);
+	}
+
 	// *******************************************************************************************************
 	// STATISTICS
 	// *******************************************************************************************************
@@ -687,12 +723,8 @@ public class Queue extends LinkedComponent {
 	public void clearStatistics() {
 		super.clearStatistics();
 		double simTime = this.getSimTime();
-		startOfStatisticsCollection = simTime;
-		timeOfLastUpdate = simTime;
-		minElements = itemSet.size();
-		maxElements = itemSet.size();
-		elementSeconds = 0.0;
-		squaredElementSeconds = 0.0;
+		queueLengthStats.clear(simTime, itemSet.size());
+		queueTimeStats.clear();
 		for (int i=0; i<queueLengthDist.size(); i++) {
 			queueLengthDist.set(i, 0.0d);
 		}
@@ -701,8 +733,7 @@ public class Queue extends LinkedComponent {
 
 	private void updateStatistics(int oldValue, int newValue) {
 
-		minElements = Math.min(newValue, minElements);
-		maxElements = Math.max(newValue, maxElements);
+		ChangeSignal.changed(countSignal);
 
 		// Add the necessary number of additional bins to the queue length distribution
 		int n = newValue + 1 - queueLengthDist.size();
@@ -711,13 +742,10 @@ public class Queue extends LinkedComponent {
 		}
 
 		double simTime = this.getSimTime();
-		double dt = simTime - timeOfLastUpdate;
-		if (dt > 0.0) {
-			elementSeconds += dt * oldValue;
-			squaredElementSeconds += dt * oldValue * oldValue;
+		double dt = simTime - queueLengthStats.getLastTime();
+		if (dt > 0.0)
 			queueLengthDist.addAt(dt,oldValue);  // add dt to the entry at index queueSize
-			timeOfLastUpdate = simTime;
-		}
+		queueLengthStats.set(simTime, newValue);
 	}
 
 	// ******************************************************************************************************
@@ -781,13 +809,7 @@ public class Queue extends LinkedComponent {
 	  reportable = true,
 	  sequence = 4)
 	public double getQueueLengthAverage(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemSet.size();
-		double totalTime = simTime - startOfStatisticsCollection;
-		if (totalTime > 0.0) {
-			return (elementSeconds + dt*queueSize)/totalTime;
-		}
-		return 0.0;
+		return queueLengthStats.getMean(simTime);
 	}
 
 	@Output(name = "QueueLengthStandardDeviation",
@@ -796,14 +818,7 @@ public class Queue extends LinkedComponent {
 	  reportable = true,
 	  sequence = 5)
 	public double getQueueLengthStandardDeviation(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemSet.size();
-		double mean = this.getQueueLengthAverage(simTime);
-		double totalTime = simTime - startOfStatisticsCollection;
-		if (totalTime > 0.0) {
-			return Math.sqrt( (squaredElementSeconds + dt*queueSize*queueSize)/totalTime - mean*mean );
-		}
-		return 0.0;
+		return queueLengthStats.getStandardDeviation(simTime);
 	}
 
 	@Output(name = "QueueLengthMinimum",
@@ -812,7 +827,7 @@ public class Queue extends LinkedComponent {
 	  reportable = true,
 	  sequence = 6)
 	public int getQueueLengthMinimum(double simTime) {
-		return minElements;
+		return (int) queueLengthStats.getMin();
 	}
 
 	@Output(name = "QueueLengthMaximum",
@@ -823,6 +838,7 @@ public class Queue extends LinkedComponent {
 	public int getQueueLengthMaximum(double simTime) {
 		// An entity that is added to an empty queue and removed immediately
 		// does not count as a non-zero queue length
+		int maxElements = (int) queueLengthStats.getMax();
 		if (maxElements == 1 && queueLengthDist.get(1) == 0.0)
 			return 0;
 		return maxElements;
@@ -835,7 +851,7 @@ public class Queue extends LinkedComponent {
 	  sequence = 8)
 	public DoubleVector getQueueLengthDistribution(double simTime) {
 		DoubleVector ret = new DoubleVector(queueLengthDist);
-		double dt = simTime - timeOfLastUpdate;
+		double dt = simTime - queueLengthStats.getLastTime();
 		int queueSize = itemSet.size();
 		if (ret.size() == 0)
 			ret.add(0.0);
@@ -853,9 +869,7 @@ public class Queue extends LinkedComponent {
 		long n = this.getNumberAdded();
 		if (n == 0)
 			return 0.0;
-		double dt = simTime - timeOfLastUpdate;
-		int queueSize = itemSet.size();
-		return (elementSeconds + dt*queueSize)/n;
+		return queueLengthStats.getSum(simTime)/n;
 	}
 
 	@Output(name = "MatchValueCount",
@@ -891,4 +905,85 @@ public class Queue extends LinkedComponent {
 		return pos;
 	}
 
+	@Output(name = "QueueLengthP50",
+	 description = "The estimated median of the number of entities in the queue, weighted by time.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 13)
+	public double getQueueLengthP50(double simTime) {
+		return queueLengthStats.getQuantile(simTime, 0.50);
+	}
+
+	@Output(name = "QueueLengthP95",
+	 description = "The estimated 95th percentile of the number of entities in the queue, weighted by time.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 14)
+	public double getQueueLengthP95(double simTime) {
+		return queueLengthStats.getQuantile(simTime, 0.95);
+	}
+
+	@Output(name = "QueueLengthP99",
+	 description = "The estimated 99th percentile of the number of entities in the queue, weighted by time.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 15)
+	public double getQueueLengthP99(double simTime) {
+		return queueLengthStats.getQuantile(simTime, 0.99);
+	}
+
+	@Output(name = "QueueLengthConfidenceHalfWidth",
+	 description = "The half-width of the 95% confidence interval for QueueLengthAverage, "
+	             + "estimated by the method of batch means. NaN until enough time has elapsed.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 16)
+	public double getQueueLengthConfidenceHalfWidth(double simTime) {
+		return queueLengthStats.getConfidenceHalfWidth();
+	}
+
+	@Output(name = "QueueTimeP50",
+	 description = "The estimated median waiting time for the entities that have left the queue.",
+	    unitType = TimeUnit.class,
+	  reportable = true,
+	    sequence = 17)
+	public double getQueueTimeP50(double simTime) {
+		return this.getQueueTimeQuantile(0.50);
+	}
+
+	@Output(name = "QueueTimeP95",
+	 description = "The estimated 95th percentile of the waiting time for the entities that have left the queue.",
+	    unitType = TimeUnit.class,
+	  reportable = true,
+	    sequence = 18)
+	public double getQueueTimeP95(double simTime) {
+		return this.getQueueTimeQuantile(0.95);
+	}
+
+	@Output(name = "QueueTimeP99",
+	 description = "The estimated 99th percentile of the waiting time for the entities that have left the queue.",
+	    unitType = TimeUnit.class,
+	  reportable = true,
+	    sequence = 19)
+	public double getQueueTimeP99(double simTime) {
+		return this.getQueueTimeQuantile(0.99);
+	}
+
+	@Output(name = "QueueTimeConfidenceHalfWidth",
+	 description = "The half-width of the 95% confidence interval for the mean waiting time of the "
+	             + "entities that have left the queue, estimated by the method of batch means. "
+	             + "NaN until enough entities have left the queue.",
+	    unitType = TimeUnit.class,
+	  reportable = true,
+	    sequence = 20)
+	public double getQueueTimeConfidenceHalfWidth(double simTime) {
+		return queueTimeStats.getConfidenceHalfWidth();
+	}
+
+	private double getQueueTimeQuantile(double q) {
+		if (queueTimeStats.getCount() == 0)
+			return 0.0;
+		return queueTimeStats.getQuantile(q);
+	}
+
 }
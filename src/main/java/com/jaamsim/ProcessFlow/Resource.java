@@ -26,11 +26,14 @@ import com.jaamsim.ProbabilityDistributions.Distribution;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.StateDigest;
 import com.jaamsim.datatypes.DoubleVector;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.InputErrorException;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
+import com.jaamsim.statistics.TimeWeightedStatistics;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.TimeUnit;
 
@@ -57,12 +60,7 @@ public class Resource extends DisplayEntity {
 	private ArrayList<Seize> seizeList;  // Seize objects that require this resource
 
 	//	Statistics
-	protected double timeOfLastUpdate; // time at which the statistics were last updated
-	protected double startOfStatisticsCollection; // time at which statistics collection was started
-	protected int minUnitsInUse; // minimum observed number of units in use
-	protected int maxUnitsInUse; // maximum observed number of units in use
-	protected double unitSeconds;  // total time that units have been used
-	protected double squaredUnitSeconds;  // total time for the square of the number of units in use
+	protected final TimeWeightedStatistics unitsInUseStats;  // number of units in use
 	protected int unitsSeized;    // number of units that have been seized
 	protected int unitsReleased;  // number of units that have been released
 	protected DoubleVector unitsInUseDist;  // entry at position n is the total time that n units have been in use
@@ -82,6 +80,7 @@ public class Resource extends DisplayEntity {
 
 	public Resource() {
 		unitsInUseDist = new DoubleVector();
+		unitsInUseStats = new TimeWeightedStatistics();
 		seizeList = new ArrayList<>();
 	}
 
@@ -100,6 +99,12 @@ public class Resource extends DisplayEntity {
 			throw new InputErrorException( "The Capacity keyword cannot accept a probability distribution.");
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state and finds its users from their inputs
+		return true;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -107,12 +112,7 @@ public class Resource extends DisplayEntity {
 		unitsInUse = 0;
 
 		// Clear statistics
-		startOfStatisticsCollection = 0.0;
-		timeOfLastUpdate = 0.0;
-		minUnitsInUse = 0;
-		maxUnitsInUse = 0;
-		unitSeconds = 0.0;
-		squaredUnitSeconds = 0.0;
+		unitsInUseStats.clear(0.0, 0.0);
 		unitsSeized = 0;
 		unitsReleased = 0;
 		unitsInUseDist.clear();
@@ -141,6 +141,7 @@ public class Resource extends DisplayEntity {
 		this.updateStatistics(unitsInUse, unitsInUse+n);
 		unitsInUse += n;
 		unitsSeized += n;
+		this.outputsChanged();
 	}
 
 	/**
@@ -152,6 +153,7 @@ public class Resource extends DisplayEntity {
 		this.updateStatistics(unitsInUse, unitsInUse-n);
 		unitsInUse -= n;
 		unitsReleased += n;
+		this.outputsChanged();
 	}
 
 	/**
@@ -234,6 +236,23 @@ public class Resource extends DisplayEntity {
 	}
 	private SeizeCompare seizeCompare = new SeizeCompare();
 
+	@Override
+	public void addStateDigest(StateDigest.Hash digest) {
+		super.addStateDigest(digest);
+		digest.add(unitsInUse);
+		digest.add(unitsSeized);
+		digest.add(unitsReleased);
+	}
+
+	@Override
+	public ChangeSignal getChangeSignal(String outputName) {
+		if (outputName.equals("UnitsSeized") ||
+		    outputName.equals("UnitsReleased") ||
+		    outputName.equals("UnitsInUse"))
+			return this.getOutputSignal();
+		return super.getChangeSignal(outputName);
+	}
+
 	// *******************************************************************************************************
 	// STATISTICS
 	// *******************************************************************************************************
@@ -242,14 +261,10 @@ public class Resource extends DisplayEntity {
 	public void clearStatistics() {
 		super.clearStatistics();
 		double simTime = this.getSimTime();
-		startOfStatisticsCollection = simTime;
-		timeOfLastUpdate = simTime;
-		minUnitsInUse = unitsInUse;
-		maxUnitsInUse = unitsInUse;
-		unitSeconds = 0.0;
-		squaredUnitSeconds = 0.0;
+		unitsInUseStats.clear(simTime, unitsInUse);
 		unitsSeized = 0;
 		unitsReleased = 0;
+		this.outputsChanged();
 		for (int i=0; i<unitsInUseDist.size(); i++) {
 			unitsInUseDist.set(i, 0.0d);
 		}
@@ -257,9 +272,6 @@ public class Resource extends DisplayEntity {
 
 	public void updateStatistics( int oldValue, int newValue) {
 
-		minUnitsInUse = Math.min(newValue, minUnitsInUse);
-		maxUnitsInUse = Math.max(newValue, maxUnitsInUse);
-
 		// Add the necessary number of additional bins to the queue length distribution
 		int n = newValue + 1 - unitsInUseDist.size();
 		for( int i=0; i<n; i++ ) {
@@ -267,13 +279,10 @@ public class Resource extends DisplayEntity {
 		}
 
 		double simTime = this.getSimTime();
-		double dt = simTime - timeOfLastUpdate;
-		if( dt > 0.0 ) {
-			unitSeconds += dt * oldValue;
-			squaredUnitSeconds += dt * oldValue * oldValue;
+		double dt = simTime - unitsInUseStats.getLastTime();
+		if( dt > 0.0 )
 			unitsInUseDist.addAt(dt,oldValue);  // add dt to the entry at index queueSize
-			timeOfLastUpdate = simTime;
-		}
+		unitsInUseStats.set(simTime, newValue);
 	}
 
 	// ******************************************************************************************************
@@ -312,12 +321,7 @@ public class Resource extends DisplayEntity {
 	  reportable = true,
 	  sequence = 3)
 	public double getUnitsInUseAverage(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return (unitSeconds + dt*unitsInUse)/totalTime;
-		}
-		return 0.0;
+		return unitsInUseStats.getMean(simTime);
 	}
 
 	@Output(name = "UnitsInUseStandardDeviation",
@@ -326,13 +330,7 @@ public class Resource extends DisplayEntity {
 	  reportable = true,
 	  sequence = 4)
 	public double getUnitsInUseStandardDeviation(double simTime) {
-		double dt = simTime - timeOfLastUpdate;
-		double mean = this.getUnitsInUseAverage(simTime);
-		double totalTime = simTime - startOfStatisticsCollection;
-		if( totalTime > 0.0 ) {
-			return Math.sqrt( (squaredUnitSeconds + dt*unitsInUse*unitsInUse)/totalTime - mean*mean );
-		}
-		return 0.0;
+		return unitsInUseStats.getStandardDeviation(simTime);
 	}
 
 	@Output(name = "UnitsInUseMinimum",
@@ -341,7 +339,7 @@ public class Resource extends DisplayEntity {
 	  reportable = true,
 	    sequence = 5)
 	public int getUnitsInUseMinimum(double simTime) {
-		return minUnitsInUse;
+		return (int) unitsInUseStats.getMin();
 	}
 
 	@Output(name = "UnitsInUseMaximum",
@@ -352,6 +350,7 @@ public class Resource extends DisplayEntity {
 	public int getUnitsInUseMaximum(double simTime) {
 		// A unit that is seized and released immediately
 		// does not count as a non-zero maximum in use
+		int maxUnitsInUse = (int) unitsInUseStats.getMax();
 		if( maxUnitsInUse == 1 && unitsInUseDist.get(1) == 0.0 )
 			return 0;
 		return maxUnitsInUse;
@@ -364,11 +363,21 @@ public class Resource extends DisplayEntity {
 	    sequence = 7)
 	public DoubleVector getUnitsInUseDistribution(double simTime) {
 		DoubleVector ret = new DoubleVector(unitsInUseDist);
-		double dt = simTime - timeOfLastUpdate;
+		double dt = simTime - unitsInUseStats.getLastTime();
 		if(ret.size() == 0)
 			ret.add(0.0);
 		ret.addAt(dt, unitsInUse);  // adds dt to the entry at index unitsInUse
 		return ret;
 	}
 
+	@Output(name = "UnitsInUseConfidenceHalfWidth",
+	 description = "The half-width of the 95% confidence interval for UnitsInUseAverage, "
+	             + "estimated by the method of batch means. NaN until enough time has elapsed.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 8)
+	public double getUnitsInUseConfidenceHalfWidth(double simTime) {
+		return unitsInUseStats.getConfidenceHalfWidth();
+	}
+
 }
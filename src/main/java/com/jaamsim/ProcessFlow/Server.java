@@ -20,6 +20,7 @@ package com.jaamsim.ProcessFlow;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
+import com.jaamsim.basicsim.StateDigest;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.units.TimeUnit;
 
@@ -52,6 +53,12 @@ public class Server extends LinkedService {
 		servedEntity = null;
 	}
 
+	@Override
+	public void addStateDigest(StateDigest.Hash digest) {
+		super.addStateDigest(digest);
+		digest.add(servedEntity == null ? -1L : servedEntity.getEntityNumber());
+	}
+
 	@Override
 	protected boolean startProcessing(double simTime) {
 
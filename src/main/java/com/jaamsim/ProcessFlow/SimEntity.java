@@ -16,8 +16,6 @@
  */
 package com.jaamsim.ProcessFlow;
 
-import java.util.ArrayList;
-
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.StringListInput;
 import com.jaamsim.states.StateEntity;
@@ -33,12 +31,18 @@ public class SimEntity extends StateEntity {
 		attributeDefinitionList.setHidden(false);
 		workingStateListInput.setHidden(true);
 
-		defaultStateList = new StringListInput("DefaultStateList", "Key Inputs", new ArrayList<String>());
+		defaultStateList = new StringListInput("DefaultStateList", "Key Inputs", NO_STATES);
 		this.addInput(defaultStateList);
 	}
 
 	public SimEntity() {}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state
+		return true;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
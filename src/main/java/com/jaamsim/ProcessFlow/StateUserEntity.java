@@ -27,6 +27,7 @@ import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.states.DowntimeUser;
 import com.jaamsim.states.StateEntity;
+import com.jaamsim.states.StateHandle;
 
 public abstract class StateUserEntity extends StateEntity implements ThresholdUser, DowntimeUser {
 
@@ -86,6 +87,10 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 	         exampleList = {"DowntimeEntity1 DowntimeEntity2 DowntimeEntity3"})
 	protected final EntityListInput<DowntimeEntity> opportunisticBreakdownList;
 
+	protected static final StateHandle STATE_STOPPED = StateHandle.define("Stopped");
+	protected static final StateHandle STATE_MAINTENANCE = StateHandle.define("Maintenance");
+	protected static final StateHandle STATE_BREAKDOWN = StateHandle.define("Breakdown");
+
 	private boolean busy;  // indicates that work is being performed
 
 	{
@@ -264,26 +269,26 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 
 		// Working (Busy)
 		if (this.isBusy()) {
-			this.setPresentState("Working");
+			this.setPresentState(STATE_WORKING);
 			return;
 		}
 
 		// Not working because of maintenance or a closure (UnableToWork)
 		if (this.isMaintenance()) {
-			this.setPresentState("Maintenance");
+			this.setPresentState(STATE_MAINTENANCE);
 			return;
 		}
 		if (this.isBreakdown()) {
-			this.setPresentState("Breakdown");
+			this.setPresentState(STATE_BREAKDOWN);
 			return;
 		}
 		if (!this.isOpen()) {
-			this.setPresentState("Stopped");
+			this.setPresentState(STATE_STOPPED);
 			return;
 		}
 
 		// Not working because there is nothing to do (Idle)
-		this.setPresentState("Idle");
+		this.setPresentState(STATE_IDLE);
 		return;
 	}
 
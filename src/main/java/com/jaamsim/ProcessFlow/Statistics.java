@@ -22,6 +22,7 @@ import com.jaamsim.input.Input;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.UnitTypeInput;
+import com.jaamsim.statistics.SampleStatistics;
 import com.jaamsim.units.Unit;
 import com.jaamsim.units.UserSpecifiedUnit;
 
@@ -40,10 +41,7 @@ public class Statistics extends LinkedComponent {
 	         exampleList = {"'this.obj.attrib1'"})
 	private final SampleInput sampleValue;
 
-	private double minValue;
-	private double maxValue;
-	private double totalValue;
-	private double totalSquaredValue;
+	private final SampleStatistics sampleStats;
 
 	{
 		stateAssignment.setHidden(true);
@@ -57,6 +55,8 @@ public class Statistics extends LinkedComponent {
 		sampleValue.setEntity(this);
 		sampleValue.setRequired(true);
 		this.addInput(sampleValue);
+
+		sampleStats = new SampleStatistics();
 	}
 
 	public Statistics() {}
@@ -75,10 +75,7 @@ public class Statistics extends LinkedComponent {
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
-		minValue = Double.POSITIVE_INFINITY;
-		maxValue = Double.NEGATIVE_INFINITY;
-		totalValue = 0.0;
-		totalSquaredValue = 0.0;
+		sampleStats.clear();
 	}
 
 	@Override
@@ -87,10 +84,7 @@ public class Statistics extends LinkedComponent {
 
 		// Update the statistics
 		double val = sampleValue.getValue().getNextSample(getSimTime());
-		minValue = Math.min(minValue, val);
-		maxValue = Math.max(maxValue, val);
-		totalValue += val;
-		totalSquaredValue += val*val;
+		sampleStats.add(val);
 
 		// Pass the entity to the next component
 		this.sendToNextComponent(ent);
@@ -99,10 +93,7 @@ public class Statistics extends LinkedComponent {
 	@Override
 	public void clearStatistics() {
 		super.clearStatistics();
-		minValue = Double.POSITIVE_INFINITY;
-		maxValue = Double.NEGATIVE_INFINITY;
-		totalValue = 0.0;
-		totalSquaredValue = 0.0;
+		sampleStats.clear();
 	}
 
 	@Override
@@ -119,7 +110,7 @@ public class Statistics extends LinkedComponent {
 	    unitType = UserSpecifiedUnit.class,
 	  reportable = true)
 	public double getSampleMinimum(double simTime) {
-		return minValue;
+		return sampleStats.getMin();
 	}
 
 	@Output(name = "SampleMaximum",
@@ -127,7 +118,7 @@ public class Statistics extends LinkedComponent {
 	    unitType = UserSpecifiedUnit.class,
 	  reportable = true)
 	public double getSampleMaximum(double simTime) {
-		return maxValue;
+		return sampleStats.getMax();
 	}
 
 	@Output(name = "SampleAverage",
@@ -135,7 +126,7 @@ public class Statistics extends LinkedComponent {
 	    unitType = UserSpecifiedUnit.class,
 	  reportable = true)
 	public double getSampleAverage(double simTime) {
-		return totalValue/this.getNumberAdded(simTime);
+		return sampleStats.getSum()/this.getNumberAdded(simTime);
 	}
 
 	@Output(name = "SampleStandardDeviation",
@@ -143,9 +134,7 @@ public class Statistics extends LinkedComponent {
 	    unitType = UserSpecifiedUnit.class,
 	  reportable = true)
 	public double getSampleStandardDeviation(double simTime) {
-		double num = this.getNumberAdded(simTime);
-		double mean = totalValue/num;
-		return Math.sqrt(totalSquaredValue/num - mean*mean);
+		return sampleStats.getStandardDeviation();
 	}
 
 	@Output(name = "StandardDeviationOfTheMean",
@@ -156,4 +145,38 @@ public class Statistics extends LinkedComponent {
 		double num = this.getNumberAdded(simTime);
 		return this.getSampleStandardDeviation(simTime)/Math.sqrt(num-1);
 	}
+
+	@Output(name = "SampleP50",
+	 description = "The estimated median of the values that were recorded.",
+	    unitType = UserSpecifiedUnit.class,
+	  reportable = true)
+	public double getSampleP50(double simTime) {
+		return sampleStats.getQuantile(0.50);
+	}
+
+	@Output(name = "SampleP95",
+	 description = "The estimated 95th percentile of the values that were recorded.",
+	    unitType = UserSpecifiedUnit.class,
+	  reportable = true)
+	public double getSampleP95(double simTime) {
+		return sampleStats.getQuantile(0.95);
+	}
+
+	@Output(name = "SampleP99",
+	 description = "The estimated 99th percentile of the values that were recorded.",
+	    unitType = UserSpecifiedUnit.class,
+	  reportable = true)
+	public double getSampleP99(double simTime) {
+		return sampleStats.getQuantile(0.99);
+	}
+
+	@Output(name = "SampleConfidenceHalfWidth",
+	 description = "The half-width of the 95% confidence interval for SampleAverage, estimated by "
+	             + "the method of batch means. Unlike StandardDeviationOfTheMean, it allows for "
+	             + "correlation between successive values.",
+	    unitType = UserSpecifiedUnit.class,
+	  reportable = true)
+	public double getSampleConfidenceHalfWidth(double simTime) {
+		return sampleStats.getConfidenceHalfWidth();
+	}
 }
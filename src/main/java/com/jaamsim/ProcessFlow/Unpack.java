@@ -90,6 +90,7 @@ public class Unpack extends LinkedService {
 		if (numberRemoved < numberToRemove && container.getCount() > 0) {
 			this.sendToNextComponent(container.removeEntity());
 			numberRemoved++;
+			this.outputsChanged();
 		}
 
 		// Stop when the desired number of entities have been removed
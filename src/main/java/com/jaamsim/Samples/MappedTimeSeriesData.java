@@ -0,0 +1,328 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Time series data held in a binary file that is memory-mapped, so that the records
+ * are paged in by the operating system as they are used rather than copied to the heap.
+ * <p>
+ * The file is in big-endian byte order and has the following layout:
+ * <pre>
+ * int    magic number 0x4A535453 ("JSTS")
+ * int    format version (1)
+ * long   number of records, n
+ * int    offset of the first time from the start of the file, a multiple of 8
+ * long   length of the file the data was converted from, or zero
+ * long   modification time of the file the data was converted from, or zero
+ * double minimum value
+ * double maximum value
+ * short  length of the unit type name, followed by the name in UTF-8, e.g. "DistanceUnit"
+ * ...    padding up to the offset of the first time
+ * long[n]   times in microseconds, in increasing order
+ * double[n] values in SI units
+ * </pre>
+ * If the source length is zero, the file is assumed to have been written by another
+ * program. The order of its times is checked and its minimum and maximum values are
+ * recalculated when it is opened.
+ */
+public final class MappedTimeSeriesData extends TimeSeriesData {
+	private static final int MAGIC = 0x4A535453;
+	private static final int VERSION = 1;
+	private static final int FIXED_HEADER = 54;
+
+	private final LongBuffer times;
+	private final DoubleBuffer values;
+	private final double usPerTick;
+	private final String unitType;
+	private final long sourceLength;
+	private final long sourceModified;
+	private double minValue;
+	private double maxValue;
+
+	private MappedTimeSeriesData(FileChannel ch, double tickLength) throws IOException {
+		ByteBuffer hdr = ByteBuffer.allocate(FIXED_HEADER);
+		read(ch, hdr, 0);
+		if (hdr.getInt() != MAGIC)
+			throw new IOException("Not a time series data file");
+		if (hdr.getInt() != VERSION)
+			throw new IOException("Unsupported time series data file version");
+
+		long count = hdr.getLong();
+		int offset = hdr.getInt();
+		sourceLength = hdr.getLong();
+		sourceModified = hdr.getLong();
+		minValue = hdr.getDouble();
+		maxValue = hdr.getDouble();
+
+		ByteBuffer name = ByteBuffer.allocate(hdr.getShort() & 0xFFFF);
+		read(ch, name, FIXED_HEADER);
+		unitType = new String(name.array(), StandardCharsets.UTF_8);
+
+		if (count <= 0 || count > Integer.MAX_VALUE / 8)
+			throw new IOException("Invalid number of records: " + count);
+		if (offset < FIXED_HEADER + name.capacity() || ch.size() != offset + 16 * count)
+			throw new IOException("Invalid time series data file length");
+
+		times = ch.map(FileChannel.MapMode.READ_ONLY, offset, 8 * count).asLongBuffer();
+		values = ch.map(FileChannel.MapMode.READ_ONLY, offset + 8 * count, 8 * count).asDoubleBuffer();
+		usPerTick = 1.0e6d * tickLength;
+
+		if (sourceLength == 0)
+			checkRecords();
+	}
+
+	/**
+	 * Opens the given time series data file.
+	 * @param file - the binary file to be mapped.
+	 * @param tickLength - simulation clock tick length used to convert times into ticks.
+	 */
+	public static MappedTimeSeriesData open(File file, double tickLength) throws IOException {
+		FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			return new MappedTimeSeriesData(ch, tickLength);
+		}
+		finally {
+			// The mapped buffers remain valid after the channel is closed
+			ch.close();
+		}
+	}
+
+	private static void read(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+		while (buf.hasRemaining()) {
+			if (ch.read(buf, pos + buf.position()) < 0)
+				throw new IOException("Unexpected end of time series data file");
+		}
+		buf.flip();
+	}
+
+	private void checkRecords() throws IOException {
+		minValue = Double.POSITIVE_INFINITY;
+		maxValue = Double.NEGATIVE_INFINITY;
+		long last = Long.MIN_VALUE;
+		for (int i = 0; i < times.limit(); i++) {
+			long t = times.get(i);
+			if (t <= last)
+				throw new IOException(String.format("The times must be given in increasing order at record %d", i + 1));
+			last = t;
+
+			double val = values.get(i);
+			minValue = Math.min(minValue, val);
+			maxValue = Math.max(maxValue, val);
+		}
+	}
+
+	/**
+	 * Returns the name of the unit type for the values, or an empty string if it was not given.
+	 */
+	public String getUnitType() {
+		return unitType;
+	}
+
+	/**
+	 * Returns true if this data was converted from the present contents of the given file.
+	 */
+	public boolean isConvertedFrom(File source) {
+		return sourceLength != 0 && sourceLength == source.length()
+				&& sourceModified == source.lastModified();
+	}
+
+	@Override
+	public int size() {
+		return times.limit();
+	}
+
+	@Override
+	public long getTicks(int index) {
+		return Math.round(times.get(index) / usPerTick);
+	}
+
+	@Override
+	public double getValue(int index) {
+		return values.get(index);
+	}
+
+	@Override
+	public double getMaxValue() {
+		return maxValue;
+	}
+
+	@Override
+	public double getMinValue() {
+		return minValue;
+	}
+
+	/**
+	 * Writes a time series data file one record at a time. The values are held in
+	 * a temporary file until the writer is closed, so that neither column needs to
+	 * be held on the heap.
+	 * <p>
+	 * The data is written to a temporary file in the same directory, which replaces
+	 * the given file when it is complete. A previous version of the file that is
+	 * still mapped into memory is therefore never truncated or overwritten.
+	 */
+	public static final class Writer {
+		private final File file;
+		private final File tmpFile;
+		private final File valueFile;
+		private final FileChannel ch;
+		private final DataOutputStream valueOut;
+		private final ByteBuffer timeBuf = ByteBuffer.allocate(65536);
+		private final byte[] unitType;
+		private final int offset;
+		private final File source;
+
+		private long count;
+		private long lastTime = Long.MIN_VALUE;
+		private double minValue = Double.POSITIVE_INFINITY;
+		private double maxValue = Double.NEGATIVE_INFINITY;
+
+		/**
+		 * Creates a writer for the given file.
+		 * @param f - file to be written.
+		 * @param ut - name of the unit type for the values.
+		 * @param src - file from which the data is being converted, or null.
+		 */
+		public Writer(File f, String ut, File src) throws IOException {
+			file = f;
+			source = src;
+			unitType = ut.getBytes(StandardCharsets.UTF_8);
+			offset = (FIXED_HEADER + unitType.length + 7) & ~7;
+
+			File dir = f.getAbsoluteFile().getParentFile();
+			tmpFile = File.createTempFile(f.getName() + ".", ".part", dir);
+			valueFile = File.createTempFile(f.getName() + ".", ".tmp", dir);
+			ch = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE);
+			ch.position(offset);
+			valueOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(valueFile), 65536));
+		}
+
+		/**
+		 * Adds a record to the file.
+		 * @param us - time in microseconds, which must be greater than for the previous record.
+		 * @param val - value in SI units.
+		 */
+		public void add(long us, double val) throws IOException {
+			if (us <= lastTime)
+				throw new IllegalArgumentException("The times must be given in increasing order");
+			lastTime = us;
+
+			if (!timeBuf.hasRemaining())
+				flushTimes();
+			timeBuf.putLong(us);
+			valueOut.writeDouble(val);
+
+			minValue = Math.min(minValue, val);
+			maxValue = Math.max(maxValue, val);
+			count++;
+		}
+
+		private void flushTimes() throws IOException {
+			timeBuf.flip();
+			while (timeBuf.hasRemaining()) {
+				ch.write(timeBuf);
+			}
+			timeBuf.clear();
+		}
+
+		/**
+		 * Closes and deletes the temporary files without completing the file. An
+		 * existing file is left unchanged.
+		 */
+		public void abort() {
+			try {
+				valueOut.close();
+				ch.close();
+			}
+			catch (IOException e) {}
+			valueFile.delete();
+			tmpFile.delete();
+		}
+
+		/**
+		 * Completes the file and moves it into place. An existing file is left
+		 * unchanged if the new file could not be completed.
+		 */
+		public void close() throws IOException {
+			boolean done = false;
+			try {
+				flushTimes();
+				valueOut.close();
+
+				FileChannel in = FileChannel.open(valueFile.toPath(), StandardOpenOption.READ);
+				try {
+					long pos = 0;
+					long len = in.size();
+					while (pos < len) {
+						pos += in.transferTo(pos, len - pos, ch);
+					}
+				}
+				finally {
+					in.close();
+				}
+
+				ByteBuffer hdr = ByteBuffer.allocate(offset);
+				hdr.putInt(MAGIC);
+				hdr.putInt(VERSION);
+				hdr.putLong(count);
+				hdr.putInt(offset);
+				hdr.putLong(source == null ? 0 : source.length());
+				hdr.putLong(source == null ? 0 : source.lastModified());
+				hdr.putDouble(minValue);
+				hdr.putDouble(maxValue);
+				hdr.putShort((short)unitType.length);
+				hdr.put(unitType);
+				hdr.rewind();
+				long pos = 0;
+				while (hdr.hasRemaining()) {
+					pos += ch.write(hdr, pos);
+				}
+				ch.force(false);
+				ch.close();
+
+				try {
+					Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException e) {
+					Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+				done = true;
+			}
+			finally {
+				valueOut.close();
+				ch.close();
+				valueFile.delete();
+				if (!done)
+					tmpFile.delete();
+			}
+		}
+	}
+}
@@ -16,8 +16,11 @@
  */
 package com.jaamsim.Samples;
 
+import java.util.ArrayList;
+
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ObjectType;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.input.ExpError;
 import com.jaamsim.input.ExpEvaluator;
 import com.jaamsim.input.ExpParser;
@@ -89,6 +92,23 @@ public class SampleExpression implements SampleProvider {
 		return Double.POSITIVE_INFINITY;
 	}
 
+	/**
+	 * Adds the signals that are triggered when the value returned by the given
+	 * SampleProvider can change to the list. Returns false if its value can change
+	 * without a signal being triggered, which is assumed for any SampleProvider that
+	 * is neither a constant nor an expression.
+	 * @param samp - SampleProvider to be tested.
+	 * @param signals - list of signals to which the SampleProvider's signals are added.
+	 * @return true if every change to the value of the SampleProvider triggers a signal.
+	 */
+	public static boolean addChangeSignals(SampleProvider samp, ArrayList<ChangeSignal> signals) {
+		if (samp instanceof SampleConstant)
+			return true;
+		if (samp instanceof SampleExpression)
+			return ExpEvaluator.addChangeSignals(((SampleExpression)samp).exp, signals);
+		return false;
+	}
+
 	public String getExpressionString() {
 		return parseContext.getUpdatedSource();
 	}
@@ -137,6 +137,12 @@ public class SampleInput extends Input<SampleProvider> {
 					this.getKeyword(), maxValue, ((Entity)value).getName(), value.getMaxValue());
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value instanceof Entity)
+			refs.add((Entity)value);
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == ent) {
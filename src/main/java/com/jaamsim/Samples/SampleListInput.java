@@ -186,6 +186,17 @@ public class SampleListInput extends ListInput<ArrayList<SampleProvider>> {
 		return tmp.toString();
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null)
+			return;
+
+		for (SampleProvider samp : value) {
+			if (samp instanceof Entity)
+				refs.add((Entity)samp);
+		}
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
@@ -1,27 +0,0 @@
-/*
- * JaamSim Discrete Event Simulation
- * Copyright (C) 2015 Ausenco Engineering Canada Inc.
- *
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- *
- *     http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- */
-package com.jaamsim.Samples;
-
-public class TSPoint {
-	public int index;            // index number for the time series point
-	public long numberOfCycles;  // number of passes through the time series data
-
-	public TSPoint(int ind, long n) {
-		index = ind;
-		numberOfCycles = n;
-	}
-}
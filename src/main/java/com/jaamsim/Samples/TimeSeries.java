@@ -16,8 +16,6 @@
  */
 package com.jaamsim.Samples;
 
-import java.util.Arrays;
-
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.events.EventManager;
@@ -26,6 +24,7 @@ import com.jaamsim.input.InputErrorException;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.TimeSeriesDataInput;
+import com.jaamsim.input.TimeSeriesFileInput;
 import com.jaamsim.input.UnitTypeInput;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.units.TimeUnit;
@@ -54,10 +53,31 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	                        "{ '2010-01-01 00:00:00' 0.5 m } { '2010-01-01 03:00:00' 1.5 m }"} )
 	private final TimeSeriesDataInput value;
 
+	@Keyword(description = "A file containing the time series records, used in place of the "
+	                     + "Value input for a long time series. A CSV file has one record per "
+	                     + "line with format 'time, value', where the time and value are entered "
+	                     + "in the same way as for the Value input. It is converted to a binary "
+	                     + "file with the extension '.csv.tsd' the first time it is read. A binary "
+	                     + "file with the extension 'tsd' is read directly. The records in a "
+	                     + "binary file are read from the disk as they are needed rather than "
+	                     + "being held in memory.",
+	         exampleList = {"demand.csv", "demand.tsd"})
+	private final TimeSeriesFileInput dataFile;
+
 	@Keyword(description = "The time at which the time series will repeat from the start.",
 	         exampleList = {"8760.0 h"})
 	private final ValueInput cycleTime;
 
+	// Maximum number of records to step through from the last position found
+	// before a binary search is used instead
+	private static final int CURSOR_STEPS = 8;
+
+	// Indices found by the last lookups made by the model. They are hints that
+	// are checked before use, and are not updated by the lookups made by the
+	// user interface, so that each lookup gives the same result on any thread.
+	private int ticksCursor;  // index found by the last lookup for a time
+	private int valueCursor;  // index found by the last lookup for a value
+
 	{
 		unitType = new UnitTypeInput("UnitType", "Key Inputs", UserSpecifiedUnit.class);
 		unitType.setRequired(true);
@@ -65,9 +85,12 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 		value = new TimeSeriesDataInput("Value", "Key Inputs", null);
 		value.setUnitType(UserSpecifiedUnit.class);
-		value.setRequired(true);
 		this.addInput(value);
 
+		dataFile = new TimeSeriesFileInput("DataFile", "Key Inputs", null);
+		dataFile.setUnitType(UserSpecifiedUnit.class);
+		this.addInput(dataFile);
+
 		cycleTime = new ValueInput("CycleTime", "Key Inputs", Double.POSITIVE_INFINITY);
 		cycleTime.setUnitType(TimeUnit.class);
 		this.addInput(cycleTime);
@@ -79,13 +102,20 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	public void validate() {
 		super.validate();
 
-		if (value.getTickLength() != Simulation.getTickLength())
+		if (value.getValue() == null && dataFile.getValue() == null)
+			throw new InputErrorException("Either the Value or the DataFile input must be specified");
+
+		if (value.getValue() != null && dataFile.getValue() != null)
+			throw new InputErrorException("The Value and DataFile inputs cannot both be specified");
+
+		double tickLength = (dataFile.getValue() != null) ? dataFile.getTickLength() : value.getTickLength();
+		if (tickLength != Simulation.getTickLength())
 			throw new InputErrorException("A new value was entered for the Simulation keyword TickLength " +
 					"after the TimeSeries data had been loaded.%n" +
 					"The configuration file must be saved and reloaded before the simulation can be executed.");
 
-		long[] ticksList = value.getValue().ticksList;
-		if (getTicks(cycleTime.getValue()) < ticksList[ticksList.length - 1])
+		TimeSeriesData data = getData();
+		if (getTicks(cycleTime.getValue()) < data.getTicks(data.size() - 1))
 			throw new InputErrorException( "CycleTime must be larger than the last time in the series" );
 	}
 
@@ -95,6 +125,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 		if (in == unitType) {
 			value.setUnitType( unitType.getUnitType() );
+			dataFile.setUnitType( unitType.getUnitType() );
 			this.getOutputHandle("PresentValue").setUnitType( unitType.getUnitType() );
 			return;
 		}
@@ -105,6 +136,15 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		return unitType.getUnitType();
 	}
 
+	/**
+	 * Returns the time series data from either the Value or the DataFile input.
+	 */
+	private TimeSeriesData getData() {
+		if (dataFile.getValue() != null)
+			return dataFile.getValue();
+		return value.getValue();
+	}
+
 	private long getTicks(double simTime) {
 		return EventManager.secsToNearestTick(simTime);
 	}
@@ -121,7 +161,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	@Override
 	public double getValueForTicks(long ticks) {
-		return getValue(getTSPointForTicks(ticks));
+		return getValue(getIndexForTicks(ticks));
 	}
 
 	/**
@@ -132,7 +172,9 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	@Override
 	public long getNextChangeAfterTicks(long ticks) {
-		return getTicks(getTSPointAfter(getTSPointForTicks(ticks)));
+		int k = getIndexForTicks(ticks);
+		long n = getCyclesForTicks(ticks);
+		return getTicks(getNextIndex(k), getNextCycles(k, n));
 	}
 
 	@Override
@@ -145,8 +187,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if (cycleTime.getValue() < Double.POSITIVE_INFINITY)
 			return getTicks(cycleTime.getValue());
 
-		long[] ticksList = value.getValue().ticksList;
-		return ticksList[ ticksList.length-1 ];
+		TimeSeriesData data = getData();
+		return data.getTicks(data.size() - 1);
 	}
 
 	@Override
@@ -156,12 +198,12 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 	@Override
 	public double getMaxValue() {
-		return value.getValue().getMaxValue();
+		return getData().getMaxValue();
 	}
 
 	@Override
 	public double getMinValue() {
-		return value.getValue().getMinValue();
+		return getData().getMinValue();
 	}
 
 	@Override
@@ -170,112 +212,176 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	}
 
 	/**
-	 * Returns the position in the time series that corresponds to the specified
-	 * time in simulation clock ticks.
+	 * Returns the index of the position in the time series that corresponds to
+	 * the specified time in simulation clock ticks.
 	 * <p>
-	 * The position returned is the largest one whose ticks value is less than
-	 * or equal to the specified ticks.
+	 * The position is the largest one whose ticks value is less than or equal to
+	 * the specified ticks within the present cycle.
 	 * @param ticks - simulation time in clock ticks.
-	 * @return position in the TimeSeries.
 	 */
-	private TSPoint getTSPointForTicks(long ticks) {
+	private int getIndexForTicks(long ticks) {
 
-		long[] ticksList = value.getValue().ticksList;
-		if (ticks == Long.MAX_VALUE) {
-			if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-				return new TSPoint(ticksList.length - 1, 0);
-			return new TSPoint(ticksList.length - 1, Long.MAX_VALUE);
-		}
+		TimeSeriesData data = getData();
+		int last = data.size() - 1;
+		if (ticks == Long.MAX_VALUE)
+			return last;
 
 		// Find the time within the present cycle
-		final long cycleTicks = getTicks(cycleTime.getValue());
-		long numberOfCycles = ticks / cycleTicks;
-		long ticksInCycle = ticks % cycleTicks;
+		long ticksInCycle = ticks % getTicks(cycleTime.getValue());
 
 		// If the time in the cycle is greater than the last time, return the last value
-		if (ticksInCycle >= ticksList[ticksList.length - 1]) {
-			return new TSPoint(ticksList.length - 1, numberOfCycles);
+		if (ticksInCycle >= data.getTicks(last))
+			return last;
+
+		// Simulation time normally advances by no more than a few records between
+		// calls, so the search starts from the position found by the last call
+		int k = ticksCursor;
+		if (k < 0 || k > last || data.getTicks(k) > ticksInCycle) {
+			k = findTicks(data, ticksInCycle);
+		}
+		else {
+			int n = 0;
+			while (data.getTicks(k + 1) <= ticksInCycle) {
+				if (++n > CURSOR_STEPS) {
+					k = findTicks(data, ticksInCycle);
+					break;
+				}
+				k++;
+			}
 		}
-
-		// Find the index by binary search
-		int k = Arrays.binarySearch(ticksList, ticksInCycle);
-
-		// If the returned index is greater or equal to zero,
-		// then an exact match was found
-		if (k >= 0)
-			return new TSPoint(k, numberOfCycles);
 
 		if (k == -1)
 			error("No value found at time: %f", getSimTime(ticks));
 
+		if (EventManager.hasCurrent())
+			ticksCursor = k;
+		return k;
+	}
+
+	/**
+	 * Returns the number of passes through the time series data that have been
+	 * completed at the specified time in simulation clock ticks.
+	 * @param ticks - simulation time in clock ticks.
+	 */
+	private long getCyclesForTicks(long ticks) {
+		if (ticks == Long.MAX_VALUE) {
+			if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
+				return 0;
+			return Long.MAX_VALUE;
+		}
+		return ticks / getTicks(cycleTime.getValue());
+	}
+
+	/**
+	 * Returns the index of the largest time that is less than or equal to the
+	 * specified time, or -1 if the specified time precedes the first time.
+	 */
+	private static int findTicks(TimeSeriesData data, long ticks) {
+		int k = data.findTicks(ticks);
+
 		// If the returned index is negative, then (insertion index) = -k-1
 		// Return the index before the insertion index
-		return new TSPoint(-k - 2, numberOfCycles);
+		if (k < 0)
+			k = -k - 2;
+		return k;
 	}
 
 	/**
-	 * Returns the position in the time series that corresponds to the specified value.
+	 * Returns the index of the position in the time series that corresponds to
+	 * the specified value.
 	 * <p>
-	 * The TimeSeries values must increase monotonically. The position returned
-	 * is the largest one whose value is less than or equal to the specified value.
+	 * The TimeSeries values must increase monotonically. The position is the
+	 * largest one whose value is less than or equal to the specified value within
+	 * the present cycle.
 	 * @param val - specified value.
-	 * @return position in the TimeSeries.
 	 */
-	private TSPoint getTSPointForValue(double val) {
+	private int getIndexForValue(double val) {
 
-		double[] valueList = value.getValue().valueList;
+		TimeSeriesData data = getData();
+		int last = data.size() - 1;
 		if (val > getMaxValue() && cycleTime.getValue() == Double.POSITIVE_INFINITY)
-			return new TSPoint(valueList.length - 1, 0);
+			return last;
 
 		// Find the value within the present cycle
 		double valInCycle = val % getMaxValue();
-		long numberOfCycles = Math.round((val - valInCycle) / getMaxValue());
 
 		// If the value in the cycle is greater than or equal to the last value, return the last index
-		if (valInCycle >= valueList[valueList.length - 1])
-			return new TSPoint(valueList.length - 1, numberOfCycles);
-
-		// Find the index by binary search
-		int k = Arrays.binarySearch(valueList, valInCycle);
+		if (valInCycle >= data.getValue(last))
+			return last;
 
-		// If the returned index is greater or equal to zero,
-		// then an exact match was found
-		if (k >= 0)
-			return new TSPoint(k, numberOfCycles);
+		// Start the search from the position found by the last call
+		int k = valueCursor;
+		if (k < 0 || k > last || data.getValue(k) > valInCycle) {
+			k = findValue(data, valInCycle);
+		}
+		else {
+			int n = 0;
+			while (data.getValue(k + 1) <= valInCycle) {
+				if (++n > CURSOR_STEPS) {
+					k = findValue(data, valInCycle);
+					break;
+				}
+				k++;
+			}
+		}
 
 		if (k == -1)
 			error("No entry found for value: %f", val);
 
-		// If the returned index is negative, then (insertion index) = -k-1
-		// Return the index before the insertion index
-		return new TSPoint(-k - 2, numberOfCycles);
+		if (EventManager.hasCurrent())
+			valueCursor = k;
+		return k;
+	}
+
+	/**
+	 * Returns the number of passes through the time series data that have been
+	 * completed when the cumulative value reaches the specified value.
+	 * @param val - specified value.
+	 */
+	private long getCyclesForValue(double val) {
+		if (val > getMaxValue() && cycleTime.getValue() == Double.POSITIVE_INFINITY)
+			return 0;
+		double valInCycle = val % getMaxValue();
+		return Math.round((val - valInCycle) / getMaxValue());
+	}
+
+	/**
+	 * Returns the index of the largest value that is less than or equal to the
+	 * specified value, or -1 if the specified value precedes the first value.
+	 */
+	private static int findValue(TimeSeriesData data, double val) {
+		int k = data.findValue(val);
+		if (k < 0)
+			k = -k - 2;
+		return k;
 	}
 
 	/**
 	 * Returns the simulation time in clock ticks for the specified position in
 	 * the time series.
-	 * @param pt - position in the time series.
+	 * @param index - index of the position, or -1 if past the end of the data.
+	 * @param cycles - number of passes through the time series data.
 	 * @return simulation time in clock ticks.
 	 */
-	private long getTicks(TSPoint pt) {
-		if (pt.index == -1)
+	private long getTicks(int index, long cycles) {
+		if (index == -1)
 			return Long.MAX_VALUE;
 		if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-			return value.getValue().ticksList[pt.index];
-		return value.getValue().ticksList[pt.index] + pt.numberOfCycles*getTicks(cycleTime.getValue());
+			return getData().getTicks(index);
+		return getData().getTicks(index) + cycles*getTicks(cycleTime.getValue());
 	}
 
 	/**
 	 * Returns the time series value for the specified position in the time
 	 * series.
-	 * @param pt - position in the time series.
+	 * @param index - index of the position, or -1 if past the end of the data.
 	 * @return value for the time series.
 	 */
-	private double getValue(TSPoint pt) {
-		double valueList[] = value.getValue().valueList;
-		if (pt.index == -1)
-			return valueList[ valueList.length - 1 ];
-		return valueList[pt.index];
+	private double getValue(int index) {
+		TimeSeriesData data = getData();
+		if (index == -1)
+			return data.getValue(data.size() - 1);
+		return data.getValue(index);
 	}
 
 	/**
@@ -283,56 +389,70 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 * <p>
 	 * If a cycle time has been specified, then the total time increases
 	 * with each pass through the time series.
-	 * @param pt - position in the time series.
+	 * @param index - index of the position, or -1 if past the end of the data.
+	 * @param cycles - number of passes through the time series data.
 	 * @return total value for the time series.
 	 */
-	private double getCumulativeValue(TSPoint pt) {
+	private double getCumulativeValue(int index, long cycles) {
 		if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-			return getValue(pt);
-		return getValue(pt) + pt.numberOfCycles*getMaxValue();
+			return getValue(index);
+		return getValue(index) + cycles*getMaxValue();
 	}
 
 	/**
-	 * Returns the position in the time series that follows the specified
-	 * position.
+	 * Returns the index of the position that follows the specified one in the
+	 * time series.
 	 * <p>
-	 * An index of -1 is returned if the specified position is a the end
-	 * of the time series data and a cycle time is not specified.
-	 * @param pt - specified position in the time series.
-	 * @return next position in the time series.
+	 * The index is -1 if the specified position is at the end of the time
+	 * series data and a cycle time is not specified.
+	 * @param index - index of the position, or -1 if past the end of the data.
 	 */
-	private TSPoint getTSPointAfter(TSPoint pt) {
-		if (pt.index == -1)
-			return new TSPoint(pt.index, pt.numberOfCycles);
+	private int getNextIndex(int index) {
+		if (index == -1)
+			return -1;
 
-		if (pt.index == value.getValue().ticksList.length - 1) {
+		if (index == getData().size() - 1) {
 			if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-				return new TSPoint(-1, pt.numberOfCycles);
-
-			return new TSPoint(0, pt.numberOfCycles + 1);
+				return -1;
+			return 0;
 		}
 
-		return new TSPoint(pt.index + 1, pt.numberOfCycles);
+		return index + 1;
+	}
+
+	/**
+	 * Returns the number of cycles for the position that follows the specified
+	 * one in the time series.
+	 * @param index - index of the position, or -1 if past the end of the data.
+	 * @param cycles - number of passes through the time series data.
+	 */
+	private long getNextCycles(int index, long cycles) {
+		if (index == getData().size() - 1 && cycleTime.getValue() != Double.POSITIVE_INFINITY)
+			return cycles + 1;
+		return cycles;
 	}
 
 	@Override
 	public long getInterpolatedTicksForValue(double val) {
 
-		TSPoint low = getTSPointForValue(val);
-		TSPoint high = getTSPointAfter(low);
-		if (high.index == -1)
+		int lowIndex = getIndexForValue(val);
+		long lowCycles = getCyclesForValue(val);
+		int highIndex = getNextIndex(lowIndex);
+		long highCycles = getNextCycles(lowIndex, lowCycles);
+		if (highIndex == -1)
 			return Long.MAX_VALUE;
 
-		long ticksLow = getTicks(low);
-		long ticksHigh = getTicks(high);
-		double valueLow = getCumulativeValue(low);
-		double valueHigh = getCumulativeValue(high);
+		long ticksLow = getTicks(lowIndex, lowCycles);
+		long ticksHigh = getTicks(highIndex, highCycles);
+		double valueLow = getCumulativeValue(lowIndex, lowCycles);
+		double valueHigh = getCumulativeValue(highIndex, highCycles);
 
 		// The value at the end of the cycle is equal to the value at the start of the next cycle
 		if (valueHigh == valueLow) {
-			high = getTSPointAfter(high);
-			ticksHigh = getTicks(high);
-			valueHigh = getCumulativeValue(high);
+			highCycles = getNextCycles(highIndex, highCycles);
+			highIndex = getNextIndex(highIndex);
+			ticksHigh = getTicks(highIndex, highCycles);
+			valueHigh = getCumulativeValue(highIndex, highCycles);
 		}
 
 		return ticksLow + Math.round((val - valueLow)*(ticksHigh - ticksLow)/(valueHigh - valueLow));
@@ -341,23 +461,26 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	@Override
 	public double getInterpolatedCumulativeValueForTicks(long ticks) {
 
-		TSPoint low = getTSPointForTicks(ticks);
-		TSPoint high = getTSPointAfter(low);
-		if (high.index == -1) {
-			double valueList[] = value.getValue().valueList;
-			return valueList[ valueList.length - 1 ];
+		int lowIndex = getIndexForTicks(ticks);
+		long lowCycles = getCyclesForTicks(ticks);
+		int highIndex = getNextIndex(lowIndex);
+		long highCycles = getNextCycles(lowIndex, lowCycles);
+		if (highIndex == -1) {
+			TimeSeriesData data = getData();
+			return data.getValue(data.size() - 1);
 		}
 
-		long ticksLow = getTicks(low);
-		long ticksHigh = getTicks(high);
-		double valueLow = getCumulativeValue(low);
-		double valueHigh = getCumulativeValue(high);
+		long ticksLow = getTicks(lowIndex, lowCycles);
+		long ticksHigh = getTicks(highIndex, highCycles);
+		double valueLow = getCumulativeValue(lowIndex, lowCycles);
+		double valueHigh = getCumulativeValue(highIndex, highCycles);
 
 		// The value at the end of the cycle is equal to the value at the start of the next cycle
 		if (valueHigh == valueLow) {
-			high = getTSPointAfter(high);
-			ticksHigh = getTicks(high);
-			valueHigh = getCumulativeValue(high);
+			highCycles = getNextCycles(highIndex, highCycles);
+			highIndex = getNextIndex(highIndex);
+			ticksHigh = getTicks(highIndex, highCycles);
+			valueHigh = getCumulativeValue(highIndex, highCycles);
 		}
 
 		return valueLow + (ticks - ticksLow)*(valueHigh - valueLow)/(ticksHigh - ticksLow);
@@ -365,7 +488,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 	@Override
 	public final double getNextSample(double simTime) {
-		return getValue(getTSPointForTicks(getTicks(simTime)));
+		return getValueForTicks(getTicks(simTime));
 	}
 
 	// ******************************************************************************************************
@@ -376,7 +499,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	        description = "The time series value for the present time.",
 	        unitType = UserSpecifiedUnit.class)
 	public final double getPresentValue(double simTime) {
-		if (value.getValue() == null)
+		if (getData() == null)
 			return Double.NaN;
 		return this.getNextSample(simTime);
 	}
@@ -16,35 +16,141 @@
  */
 package com.jaamsim.Samples;
 
+import java.util.Arrays;
+
 import com.jaamsim.datatypes.DoubleVector;
 
-public class TimeSeriesData {
-	final long[] ticksList;   // time in clock ticks corresponding to each value
-	final double[] valueList;
-	private double maxValue;  // The maximum value that occurs in valueList
-	private double minValue;  // The minimum value that occurs in valueList
+/**
+ * The times and values for a TimeSeries.
+ * <p>
+ * The times are given in simulation clock ticks and must be in increasing order.
+ * The records are accessed by index, so that large series can be held outside the
+ * Java heap, as for MappedTimeSeriesData.
+ */
+public abstract class TimeSeriesData {
 
-	public TimeSeriesData( DoubleVector times, DoubleVector values ) {
-		ticksList = new long[times.size()];
-		for (int i = 0; i < times.size(); i++) {
-			ticksList[i] = Math.round(times.get(i));
-		}
+	/**
+	 * Returns a time series whose times and values are held on the heap.
+	 */
+	public static TimeSeriesData create(DoubleVector times, DoubleVector values) {
+		return new ArrayData(times, values);
+	}
+
+	/**
+	 * Returns the number of records in the time series.
+	 */
+	public abstract int size();
+
+	/**
+	 * Returns the time in clock ticks for the specified record.
+	 */
+	public abstract long getTicks(int index);
+
+	/**
+	 * Returns the value for the specified record.
+	 */
+	public abstract double getValue(int index);
 
-		valueList = new double[values.size()];
-		maxValue = Double.NEGATIVE_INFINITY;
-		minValue = Double.POSITIVE_INFINITY;
-		for (int i = 0; i < values.size(); i++) {
-			valueList[i] = values.get(i);
-			maxValue = Math.max(maxValue, valueList[i]);
-			minValue = Math.min(minValue, valueList[i]);
+	public abstract double getMaxValue();
+
+	public abstract double getMinValue();
+
+	/**
+	 * Searches the times for the specified number of clock ticks. The result
+	 * follows the convention for Arrays.binarySearch: the index of the matching
+	 * record if it is found, otherwise (-(insertion point) - 1).
+	 */
+	public int findTicks(long ticks) {
+		int low = 0;
+		int high = size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midTicks = getTicks(mid);
+			if (midTicks < ticks)
+				low = mid + 1;
+			else if (midTicks > ticks)
+				high = mid - 1;
+			else
+				return mid;
 		}
+		return -(low + 1);
 	}
 
-	public double getMaxValue() {
-		return maxValue;
+	/**
+	 * Searches the values for the specified value, which must be in increasing
+	 * order. The result follows the convention for Arrays.binarySearch.
+	 */
+	public int findValue(double val) {
+		int low = 0;
+		int high = size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = Double.compare(getValue(mid), val);
+			if (cmp < 0)
+				low = mid + 1;
+			else if (cmp > 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -(low + 1);
 	}
 
-	public double getMinValue() {
-		return minValue;
+	private static final class ArrayData extends TimeSeriesData {
+		private final long[] ticksList;   // time in clock ticks corresponding to each value
+		private final double[] valueList;
+		private double maxValue;  // The maximum value that occurs in valueList
+		private double minValue;  // The minimum value that occurs in valueList
+
+		ArrayData(DoubleVector times, DoubleVector values) {
+			ticksList = new long[times.size()];
+			for (int i = 0; i < times.size(); i++) {
+				ticksList[i] = Math.round(times.get(i));
+			}
+
+			valueList = new double[values.size()];
+			maxValue = Double.NEGATIVE_INFINITY;
+			minValue = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < values.size(); i++) {
+				valueList[i] = values.get(i);
+				maxValue = Math.max(maxValue, valueList[i]);
+				minValue = Math.min(minValue, valueList[i]);
+			}
+		}
+
+		@Override
+		public int size() {
+			return ticksList.length;
+		}
+
+		@Override
+		public long getTicks(int index) {
+			return ticksList[index];
+		}
+
+		@Override
+		public double getValue(int index) {
+			return valueList[index];
+		}
+
+		@Override
+		public double getMaxValue() {
+			return maxValue;
+		}
+
+		@Override
+		public double getMinValue() {
+			return minValue;
+		}
+
+		@Override
+		public int findTicks(long ticks) {
+			return Arrays.binarySearch(ticksList, ticks);
+		}
+
+		@Override
+		public int findValue(double val) {
+			return Arrays.binarySearch(valueList, val);
+		}
 	}
 }
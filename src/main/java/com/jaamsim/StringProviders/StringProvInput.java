@@ -83,6 +83,15 @@ public class StringProvInput extends Input<StringProvider> {
 		toks.add(value.toString());
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value instanceof StringProvSample) {
+			SampleProvider samp = ((StringProvSample) value).getSampleProvider();
+			if (samp instanceof Entity)
+				refs.add((Entity)samp);
+		}
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
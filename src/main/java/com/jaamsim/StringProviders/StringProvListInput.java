@@ -123,6 +123,20 @@ public class StringProvListInput extends ListInput<ArrayList<StringProvider>> {
 		}
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null)
+			return;
+
+		for (StringProvider samp : value) {
+			if (samp instanceof StringProvSample) {
+				SampleProvider sp = ((StringProvSample) samp).getSampleProvider();
+				if (sp instanceof Entity)
+					refs.add((Entity)sp);
+			}
+		}
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
@@ -17,8 +17,11 @@
  */
 package com.jaamsim.Thresholds;
 
+import java.util.ArrayList;
+
 import com.jaamsim.DisplayModels.ShapeModel;
 import com.jaamsim.basicsim.EntityTarget;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.Conditional;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -101,6 +104,12 @@ public class ExpressionThreshold extends Threshold {
 
 	public ExpressionThreshold() {}
 
+	@Override
+	public boolean isParallelInit() {
+		// Evaluates an expression that can refer to other entities
+		return false;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -146,6 +155,23 @@ public class ExpressionThreshold extends Threshold {
 		return getOpenConditionValue(getSimTime()) != super.isOpen();
 	}
 
+	/**
+	 * Returns the signals that are triggered when the value returned by
+	 * openStateChanged() can change, or null if its value can change without a
+	 * signal being triggered.
+	 */
+	ChangeSignal[] getOpenStateSignals() {
+		ArrayList<ChangeSignal> ret = new ArrayList<>();
+		ret.add(this.getStateSignal());
+		if (openCondition.getValue() != null
+				&& !ExpEvaluator.addChangeSignals(openCondition.getValue(), ret))
+			return null;
+		if (closeCondition.getValue() != null
+				&& !ExpEvaluator.addChangeSignals(closeCondition.getValue(), ret))
+			return null;
+		return ret.toArray(new ChangeSignal[ret.size()]);
+	}
+
 	/**
 	 * Returns the state implied by the present values for the OpenCondition
 	 * and CloseCondition expressions.
@@ -220,6 +246,11 @@ public class ExpressionThreshold extends Threshold {
 		public boolean evaluate() {
 			return ExpressionThreshold.this.openStateChanged();
 		}
+
+		@Override
+		public ChangeSignal[] getDependencies() {
+			return ExpressionThreshold.this.getOpenStateSignals();
+		}
 	}
 	private final Conditional openChanged = new OpenChangedConditional();
 
@@ -29,6 +29,7 @@ import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.math.Color4d;
 import com.jaamsim.states.StateEntity;
+import com.jaamsim.states.StateHandle;
 import com.jaamsim.units.DimensionlessUnit;
 
 public class Threshold extends StateEntity {
@@ -49,6 +50,9 @@ public class Threshold extends StateEntity {
 	         exampleList = { "FALSE" })
 	private final BooleanInput showWhenClosed;
 
+	private static final StateHandle STATE_OPEN = StateHandle.define("Open");
+	private static final StateHandle STATE_CLOSED = StateHandle.define("Closed");
+
 	private final ArrayList<ThresholdUser> userList;
 
 	private boolean open;
@@ -78,6 +82,12 @@ public class Threshold extends StateEntity {
 		open = true;
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Resets its own state and finds its users from their inputs
+		return true;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
@@ -151,9 +161,9 @@ public class Threshold extends StateEntity {
 
 		open = bool;
 		if (open)
-			setPresentState("Open");
+			setPresentState(STATE_OPEN);
 		else
-			setPresentState("Closed");
+			setPresentState(STATE_CLOSED);
 
 		for (ThresholdUser user : this.userList) {
 			if (!thresholdChangedTarget.users.contains(user))
@@ -200,8 +210,8 @@ public class Threshold extends StateEntity {
 	    sequence = 1)
 	public double getOpenFraction(double simTime) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		long openTicks = this.getTicksInState(simTicks, getState("Open"));
-		long closedTicks = this.getTicksInState(simTicks, getState("Closed"));
+		long openTicks = this.getTicksInState(simTicks, getState(STATE_OPEN));
+		long closedTicks = this.getTicksInState(simTicks, getState(STATE_CLOSED));
 		long totTicks = openTicks + closedTicks;
 
 		return (double)openTicks / totTicks;
@@ -213,8 +223,8 @@ public class Threshold extends StateEntity {
 	    sequence = 2)
 	public double getClosedFraction(double simTime) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		long openTicks = this.getTicksInState(simTicks, getState("Open"));
-		long closedTicks = this.getTicksInState(simTicks, getState("Closed"));
+		long openTicks = this.getTicksInState(simTicks, getState(STATE_OPEN));
+		long closedTicks = this.getTicksInState(simTicks, getState(STATE_CLOSED));
 		long totTicks = openTicks + closedTicks;
 
 		return (double)closedTicks / totTicks;
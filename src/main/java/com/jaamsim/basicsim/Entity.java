@@ -17,8 +17,6 @@
 package com.jaamsim.basicsim;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
@@ -26,6 +24,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.datatypes.DoubleVector;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.Conditional;
 import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
@@ -45,6 +44,7 @@ import com.jaamsim.input.NamedExpression;
 import com.jaamsim.input.NamedExpressionListInput;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.OutputHandle;
+import com.jaamsim.input.ReferenceIndex;
 import com.jaamsim.input.StringInput;
 import com.jaamsim.input.SynonymInput;
 import com.jaamsim.ui.FrameBox;
@@ -60,11 +60,14 @@ import com.jaamsim.units.UserSpecifiedUnit;
  */
 public class Entity {
 	private static AtomicLong entityCount = new AtomicLong(0);
-	private static final ArrayList<Entity> allInstances;
+	private static final EntityRegistry registry;
 	private static final HashMap<String, Entity> namedEntities;
 
 	private String entityName;
-	private final long entityNumber;
+	private long entityNumber;
+	EntityRegistry.EntityList registryList;  // list holding this entity in the registry
+	int registryIndex;                       // position of this entity in its registry list
+	EntityPool pool;                         // pool that recycles this entity when it is killed
 
 	//public static final int FLAG_TRACE = 0x01; // reserved in case we want to treat tracing like the other flags
 	//public static final int FLAG_TRACEREQUIRED = 0x02;
@@ -80,8 +83,17 @@ public class Entity {
 
 	private final ArrayList<Input<?>> inpList = new ArrayList<>();
 
-	private final HashMap<String, AttributeHandle> attributeMap = new LinkedHashMap<>();
-	private final HashMap<String, ExpressionHandle> customOutputMap = new LinkedHashMap<>();
+	// The attribute and custom output maps are shared by every entity that does not define
+	// attributes or custom outputs, and are replaced by private maps when they are assigned
+	private static final HashMap<String, AttributeHandle> NO_ATTRIBUTES = new LinkedHashMap<>(0);
+	private static final HashMap<String, ExpressionHandle> NO_CUSTOM_OUTPUTS = new LinkedHashMap<>(0);
+	private static final ArrayList<AttributeHandle> NO_ATTRIBUTE_DEFS = new ArrayList<>(0);
+	private static final ArrayList<NamedExpression> NO_NAMED_EXPRESSIONS = new ArrayList<>(0);
+
+	private HashMap<String, AttributeHandle> attributeMap = NO_ATTRIBUTES;
+	private HashMap<String, ExpressionHandle> customOutputMap = NO_CUSTOM_OUTPUTS;
+	private ChangeSignal attributeSignal; // triggered when an attribute value is set
+	private ChangeSignal outputSignal; // triggered when the state reported by the outputs changes
 
 	@Keyword(description = "Provides the programmer with a detailed trace of the logic executed "
 	                     + "by the entity. Trace information is sent to standard out.",
@@ -105,7 +117,7 @@ public class Entity {
 	public final NamedExpressionListInput namedExpressionInput;
 
 	static {
-		allInstances = new ArrayList<>(100);
+		registry = new EntityRegistry();
 		namedEntities = new HashMap<>(100);
 	}
 
@@ -119,12 +131,12 @@ public class Entity {
 		this.addInput(desc);
 
 		attributeDefinitionList = new AttributeDefinitionListInput(this, "AttributeDefinitionList",
-				"Key Inputs", new ArrayList<AttributeHandle>());
+				"Key Inputs", NO_ATTRIBUTE_DEFS);
 		attributeDefinitionList.setHidden(false);
 		this.addInput(attributeDefinitionList);
 
 		namedExpressionInput = new NamedExpressionListInput(this, "CustomOutputList",
-				"Key Inputs", new ArrayList<NamedExpression>());
+				"Key Inputs", NO_NAMED_EXPRESSIONS);
 		namedExpressionInput.setHidden(false);
 		this.addInput(namedExpressionInput);
 
@@ -135,21 +147,58 @@ public class Entity {
 	 */
 	public Entity() {
 		entityNumber = getNextID();
-		synchronized(allInstances) {
-			allInstances.add(this);
-		}
-
 		flags = 0;
+		registry.add(this);
 	}
 
 	private static long getNextID() {
 		return entityCount.incrementAndGet();
 	}
 
+	/**
+	 * Prepares an entity that was returned to its pool to be used again.
+	 */
+	void reuse(String name) {
+		entityNumber = getNextID();
+		flags = FLAG_GENERATED;
+		entityName = name;
+		registry.add(this);
+	}
+
+	/**
+	 * Returns the pool that recycles this entity, or null if it is not recycled.
+	 */
+	public EntityPool getEntityPool() {
+		return pool;
+	}
+
+	static EntityRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Returns a new list containing every entity in order of entity number.
+	 */
 	public static ArrayList<? extends Entity> getAll() {
-		synchronized(allInstances) {
-			return allInstances;
+		ArrayList<Entity> ret = new ArrayList<>(registry.size());
+		for (Entity each : getClonesOfIterator(Entity.class)) {
+			ret.add(each);
 		}
+		return ret;
+	}
+
+	/**
+	 * Returns a new list containing the entities with FLAG_GENERATED set.
+	 */
+	public static ArrayList<Entity> getGenerated() {
+		return registry.getGenerated();
+	}
+
+	/**
+	 * Returns the entity with the largest entity number, or null if there are no entities.
+	 */
+	public static Entity getLastEntity() {
+		return registry.getLast();
 	}
 
 	public static <T extends Entity> InstanceIterable<T> getInstanceIterator(Class<T> proto){
@@ -170,14 +219,7 @@ public class Entity {
 	}
 
 	public static Entity idToEntity(long id) {
-		synchronized (allInstances) {
-			for (Entity e : allInstances) {
-				if (e.getEntityNumber() == id) {
-					return e;
-				}
-			}
-			return null;
-		}
+		return registry.get(id);
 	}
 
 	public void validate() throws InputErrorException {
@@ -200,6 +242,17 @@ public class Entity {
 		}
 	}
 
+	/**
+	 * Returns true if earlyInit() can be executed at the same time as earlyInit()
+	 * for other entities. A class returns true only after its earlyInit() method
+	 * has been checked to change nothing but its own state. A subclass whose
+	 * earlyInit() method uses other entities, for example by sampling a
+	 * distribution or evaluating an expression, must return false again.
+	 */
+	public boolean isParallelInit() {
+		return false;
+	}
+
 	/**
 	 * Initialises the entity prior to the start of the model run.
 	 * <p>
@@ -207,6 +260,14 @@ public class Entity {
 	 */
 	public void lateInit() {}
 
+	/**
+	 * Returns the entities whose lateInit() method must be executed before the
+	 * lateInit() method for this entity, or null if there are none.
+	 */
+	public ArrayList<? extends Entity> getLateInitDependencies() {
+		return null;
+	}
+
 	/**
 	 * Starts the execution of the model run for this entity.
 	 * <p>
@@ -226,21 +287,18 @@ public class Entity {
 	 */
 	public void setInputsForDragAndDrop() {}
 
-	private static class EntityComparator implements Comparator<Entity> {
-		@Override
-        public int compare(Entity e1, Entity e2) {
-			return Long.compare(e1.getEntityNumber(), e2.getEntityNumber());
-        }
-     }
-
-	private static final EntityComparator entityComparator = new EntityComparator();
-
 	public void kill() {
-		synchronized (allInstances) {
-			int index = Collections.binarySearch(allInstances, this, entityComparator);
-			if (index >= 0)
-				allInstances.remove(index);
+		registry.remove(this);
+
+		// Return a recycled entity to its pool
+		if (pool != null && testFlag(FLAG_GENERATED)) {
+			if (!testFlag(FLAG_DEAD)) {
+				setFlag(FLAG_DEAD);
+				pool.release(this);
+			}
+			return;
 		}
+
 		if (!testFlag(FLAG_GENERATED)) {
 			synchronized (namedEntities) {
 				if (namedEntities.get(entityName) == this)
@@ -253,8 +311,13 @@ public class Entity {
 		setFlag(FLAG_DEAD);
 
 		// Remove any references to the deleted entity from the inputs to other entities
+		// The inputs for generated entities are not held in the reference index
 		if (!testFlag(FLAG_GENERATED)) {
-			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
+			EntityPool.removePool(this);
+			for (Input<?> in : ReferenceIndex.remove(this)) {
+				in.removeReferences(this);
+			}
+			for (Entity ent : Entity.getGenerated()) {
 				for (Input<?> in : ent.getEditableInputs()) {
 					in.removeReferences(this);
 				}
@@ -267,8 +330,30 @@ public class Entity {
 	 */
 	public void doEnd() {}
 
+	/**
+	 * Adds the values that describe the present state of the entity to the given
+	 * hash. The hash is used to verify that a later execution of a run reaches
+	 * the same state as the run that wrote a state digest.
+	 */
+	public void addStateDigest(StateDigest.Hash digest) {
+		digest.add(entityName);
+		digest.add(entityNumber);
+		digest.add(testFlag(FLAG_GENERATED));
+		for (Entry<String, AttributeHandle> each : attributeMap.entrySet()) {
+			digest.add(each.getKey());
+			ExpResult val = each.getValue().getValue(0.0d, ExpResult.class);
+			if (val == null)
+				continue;
+			digest.add(val.type.ordinal());
+			digest.add(val.value);
+			digest.add(val.stringVal);
+			if (val.entVal != null)
+				digest.add(val.entVal.getEntityNumber());
+		}
+	}
+
 	public static long getEntitySequence() {
-		long seq = (long)allInstances.size() << 32;
+		long seq = (long)registry.size() << 32;
 		seq += entityCount.get();
 		return seq;
 	}
@@ -334,6 +419,11 @@ public class Entity {
 	 * <p>
 	 * All the entity's inputs are copied to the new entity, but its internal
 	 * properties are left uninitialised.
+	 * <p>
+	 * The copy's inputs refer to the same values as the original entity's
+	 * inputs. A private value is created only when a new value is assigned to
+	 * the copy. The Input objects themselves are still created for each copy
+	 * by the instance initialisers of its class.
 	 * @param ent - entity to be copied.
 	 * @param name - name of the copied entity.
 	 * @return - copied entity.
@@ -371,10 +461,14 @@ public class Entity {
 	}
 
 	public void setFlag(int flag) {
+		if ((flag & FLAG_GENERATED) != 0 && !testFlag(FLAG_GENERATED))
+			registry.setGenerated(this, true);
 		flags |= flag;
 	}
 
 	public void clearFlag(int flag) {
+		if ((flag & FLAG_GENERATED) != 0 && testFlag(FLAG_GENERATED))
+			registry.setGenerated(this, false);
 		flags &= ~flag;
 	}
 
@@ -452,7 +546,7 @@ public class Entity {
 		}
 
 		if (in == attributeDefinitionList) {
-			attributeMap.clear();
+			attributeMap = NO_ATTRIBUTES;
 			for (AttributeHandle h : attributeDefinitionList.getValue()) {
 				this.addAttribute(h.getName(), h);
 			}
@@ -462,10 +556,12 @@ public class Entity {
 			return;
 		}
 		if (in == namedExpressionInput) {
-			customOutputMap.clear();
+			customOutputMap = NO_CUSTOM_OUTPUTS;
 			for (NamedExpression ne : namedExpressionInput.getValue()) {
 				ExpressionHandle eh = new ExpressionHandle(this, ne.getExpression(), ne.getName());
 				eh.setUnitType(ne.getUnitType());
+				if (customOutputMap == NO_CUSTOM_OUTPUTS)
+					customOutputMap = new LinkedHashMap<>();
 				customOutputMap.put(ne.getName(), eh);
 			}
 
@@ -788,6 +884,8 @@ public class Entity {
 	}
 
 	private void addAttribute(String name, AttributeHandle h) {
+		if (attributeMap == NO_ATTRIBUTES)
+			attributeMap = new LinkedHashMap<>();
 		attributeMap.put(name, h);
 	}
 
@@ -812,6 +910,46 @@ public class Entity {
 					value.unitType.getSimpleName(), h.getUnitType().getSimpleName(), "");
 
 		h.setValue(value);
+		ChangeSignal.changed(attributeSignal);
+	}
+
+	/**
+	 * Returns the signal that is triggered each time one of the entity's
+	 * attributes is assigned a new value.
+	 */
+	public ChangeSignal getAttributeSignal() {
+		if (attributeSignal == null)
+			attributeSignal = new ChangeSignal();
+		return attributeSignal;
+	}
+
+	/**
+	 * Triggers the signal for a change to the state of the entity that is reported
+	 * by its outputs, such as the number of entities it has processed.
+	 */
+	public final void outputsChanged() {
+		ChangeSignal.changed(outputSignal);
+	}
+
+	/**
+	 * Returns the signal that is triggered by the outputsChanged() method.
+	 */
+	public final ChangeSignal getOutputSignal() {
+		if (outputSignal == null)
+			outputSignal = new ChangeSignal();
+		return outputSignal;
+	}
+
+	/**
+	 * Returns the signal that is triggered whenever the value of the specified
+	 * output can change, or null if its value can change without a signal being
+	 * triggered, for example because it depends on the simulation time.
+	 * @param outputName - name of the output or attribute.
+	 */
+	public ChangeSignal getChangeSignal(String outputName) {
+		if (attributeMap.containsKey(outputName))
+			return this.getAttributeSignal();
+		return null;
 	}
 
 	public ArrayList<String> getAttributeNames(){
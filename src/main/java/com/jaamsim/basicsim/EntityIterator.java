@@ -16,59 +16,116 @@
  */
 package com.jaamsim.basicsim;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import com.jaamsim.basicsim.EntityRegistry.Cursor;
+import com.jaamsim.basicsim.EntityRegistry.EntityList;
 
+/**
+ * Iterates over the entities whose class is accepted by the matches() method,
+ * in order of entity number. Only the registry lists whose class matches are
+ * visited, and the lists are merged using a heap of cursors ordered by the
+ * entity number of the next entity in each list.
+ */
 public abstract class EntityIterator<T extends Entity> implements Iterable<T>, Iterator<T> {
-	private final ArrayList<? extends Entity> allInstances = Entity.getAll();
 	protected final Class<T> entClass;
-	private int curPos;
-	private int nextPos;
+	private Cursor[] heap;
+	private int heapSize;
+	private T next;
 
 	public EntityIterator(Class<T> aClass) {
 		entClass = aClass;
-		curPos = -1;
-		nextPos = -1;
 	}
 
 	abstract boolean matches(Class<?> entklass);
 
-	private void updatePos() {
-		if (nextPos >= allInstances.size())
+	// The cursors are created on first use as matches() can depend on the
+	// fields of a sub-class that are not yet set in this constructor
+	private void init() {
+		EntityList[] lists = Entity.getRegistry().getView(entClass);
+		heap = new Cursor[lists.length];
+		for (EntityList each : lists) {
+			if (!matches(each.klass))
+				continue;
+
+			Cursor c = new Cursor(each);
+			Entity ent = c.peek();
+			if (ent == null)
+				continue;
+			c.key = ent.getEntityNumber();
+			heap[heapSize++] = c;
+		}
+
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	private void updateNext() {
+		if (heap == null)
+			init();
+
+		while (heapSize > 0) {
+			Cursor top = heap[0];
+			Entity ent = top.peek();
+
+			// Remove the cursor when its list is exhausted
+			if (ent == null) {
+				heap[0] = heap[--heapSize];
+				heap[heapSize] = null;
+				siftDown(0);
+				continue;
+			}
+
+			// The next entity has changed since the cursor was ordered
+			if (ent.getEntityNumber() != top.key) {
+				top.key = ent.getEntityNumber();
+				siftDown(0);
+				continue;
+			}
+
+			top.advance(ent);
+			next = entClass.cast(ent);
 			return;
+		}
+	}
 
-		while (++nextPos < allInstances.size()) {
-			// If we find a match, break out
-			if (matches(allInstances.get(nextPos).getClass()))
+	private void siftDown(int i) {
+		Cursor c = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize)
 				break;
+			if (child + 1 < heapSize && heap[child + 1].key < heap[child].key)
+				child++;
+			if (c.key <= heap[child].key)
+				break;
+			heap[i] = heap[child];
+			i = child;
 		}
+		heap[i] = c;
 	}
 
 	@Override
 	public boolean hasNext() {
-		if (curPos == nextPos)
-			updatePos();
+		if (next == null)
+			updateNext();
 
-		if (nextPos < allInstances.size())
-			return true;
-		else
-			return false;
+		return next != null;
 	}
 
 	@Override
 	public T next() {
-		if (curPos == nextPos)
-			updatePos();
+		if (next == null)
+			updateNext();
 
-		if (nextPos < allInstances.size()) {
-			curPos = nextPos;
-			return entClass.cast(allInstances.get(curPos));
-		}
-		else {
+		if (next == null)
 			throw new NoSuchElementException();
-		}
+
+		T ret = next;
+		next = null;
+		return ret;
 	}
 
 	@Override
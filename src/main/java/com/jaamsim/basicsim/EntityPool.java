@@ -0,0 +1,179 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.jaamsim.Samples.SampleInput;
+import com.jaamsim.input.Input;
+
+/**
+ * Holds the entities copied from a prototype that have been killed, so that
+ * they can be reused in place of a new copy of the prototype.
+ * <p>
+ * An entity obtained from a pool is returned to it by kill() instead of being
+ * discarded. When the entity is reused, it is given a new entity number and
+ * name, any inputs that no longer match the prototype are copied again, and
+ * earlyInit() is called to clear its internal state. Recycling must only be
+ * used when no other object holds a reference to an entity after it has been
+ * killed.
+ */
+public final class EntityPool {
+	private static final HashMap<Entity, EntityPool> pools = new HashMap<>();
+
+	private final Entity proto;
+	private final ArrayList<Entity> freeList = new ArrayList<>();
+	private long numCreated;
+	private long numReused;
+
+	private EntityPool(Entity ent) {
+		proto = ent;
+	}
+
+	/**
+	 * Returns a copy of the specified prototype, reusing an entity that was
+	 * killed if one is available.
+	 * @param ent - entity to be copied.
+	 * @param name - name of the copied entity.
+	 * @return - copied entity.
+	 */
+	public static <T extends Entity> T getCopy(T ent, String name) {
+		EntityPool pool;
+		synchronized (pools) {
+			pool = pools.get(ent);
+			if (pool == null) {
+				pool = new EntityPool(ent);
+				pools.put(ent, pool);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		T ret = (T)pool.get(ent, name);
+		return ret;
+	}
+
+	/**
+	 * Returns a copy of the specified entity, reusing an entity from this pool if
+	 * one is available. The entity to be copied must be a copy of the prototype
+	 * for this pool, such as an entity that was obtained from it.
+	 * @param ent - entity to be copied.
+	 * @param name - name of the copied entity.
+	 * @return - copied entity.
+	 */
+	public <T extends Entity> T getCopyOf(T ent, String name) {
+		@SuppressWarnings("unchecked")
+		T ret = (T)this.get(ent, name);
+		return ret;
+	}
+
+	/**
+	 * Returns the pool of copies for the specified prototype, or null if no copies
+	 * have been made.
+	 */
+	public static EntityPool getPool(Entity ent) {
+		synchronized (pools) {
+			return pools.get(ent);
+		}
+	}
+
+	/**
+	 * Discards the pool of copies for the specified prototype.
+	 */
+	static void removePool(Entity ent) {
+		synchronized (pools) {
+			pools.remove(ent);
+		}
+	}
+
+	/**
+	 * Discards all the pools.
+	 */
+	public static void clear() {
+		synchronized (pools) {
+			pools.clear();
+		}
+	}
+
+	private Entity get(Entity source, String name) {
+		if (freeList.isEmpty()) {
+			numCreated++;
+			Entity ret = Entity.fastCopy(source, name);
+			ret.pool = this;
+			return ret;
+		}
+
+		numReused++;
+		Entity ret = freeList.remove(freeList.size() - 1);
+		ret.reuse(name);
+		updateInputs(source, ret);
+		ret.earlyInit();
+		return ret;
+	}
+
+	void release(Entity ent) {
+		freeList.add(ent);
+	}
+
+	/**
+	 * Copies the inputs of the source entity that differ from those of the entity
+	 * being reused.
+	 */
+	private static void updateInputs(Entity source, Entity ent) {
+		ArrayList<Input<?>> orig = source.getEditableInputs();
+		ArrayList<Input<?>> target = ent.getEditableInputs();
+		for (int i = 0; i < orig.size(); i++) {
+			Input<?> sourceInput = orig.get(i);
+			Input<?> targetInput = target.get(i);
+			if (sourceInput.isSynonym())
+				continue;
+
+			if (sourceInput.isDefault()) {
+				if (targetInput.isDefault())
+					continue;
+				targetInput.reset();
+				ent.updateForInput(targetInput);
+				continue;
+			}
+
+			if (targetInput.isCopyOf(sourceInput))
+				continue;
+
+			if (sourceInput instanceof SampleInput) {
+				((SampleInput)targetInput).setEntity(ent);
+			}
+			targetInput.copyFrom(sourceInput);
+			ent.updateForInput(targetInput);
+		}
+	}
+
+	public Entity getPrototype() {
+		return proto;
+	}
+
+	public int getNumFree() {
+		return freeList.size();
+	}
+
+	public long getNumCreated() {
+		return numCreated;
+	}
+
+	public long getNumReused() {
+		return numReused;
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Holds every Entity that has not been killed, indexed by entity number and by
+ * concrete class.
+ * <p>
+ * The entities of each concrete class are kept in an EntityList in order of
+ * entity number. Entities with FLAG_GENERATED set are held in a separate set
+ * of lists so that the large numbers of short-lived entities created during a
+ * run do not disturb the lists for the entities defined by the inputs. Killing
+ * an entity leaves an empty slot in its list which is removed when the list is
+ * next compacted, so that the cost of a kill does not depend on the number of
+ * entities.
+ * <p>
+ * The lists for a class and all its sub-classes are cached so that an
+ * EntityIterator only visits the entities that match its class, and the lists
+ * are merged in order of entity number to preserve the order of iteration.
+ */
+final class EntityRegistry {
+	private final HashMap<Long, Entity> idMap = new HashMap<>();
+	private final HashMap<Class<?>, EntityList> persistentLists = new HashMap<>();
+	private final HashMap<Class<?>, EntityList> generatedLists = new HashMap<>();
+	private final ArrayList<EntityList> allLists = new ArrayList<>();
+	private final HashMap<Class<?>, EntityList[]> views = new HashMap<>();
+	private int numEntities;
+
+	synchronized void add(Entity ent) {
+		idMap.put(ent.getEntityNumber(), ent);
+		getList(ent.getClass(), ent.testFlag(Entity.FLAG_GENERATED)).add(ent);
+		numEntities++;
+	}
+
+	synchronized void remove(Entity ent) {
+		if (ent.registryList == null)
+			return;
+
+		ent.registryList.remove(ent);
+		idMap.remove(ent.getEntityNumber());
+		numEntities--;
+	}
+
+	/**
+	 * Moves the entity to the lists for generated or persistent entities.
+	 */
+	synchronized void setGenerated(Entity ent, boolean gen) {
+		if (ent.registryList == null || ent.registryList.generated == gen)
+			return;
+
+		ent.registryList.remove(ent);
+		getList(ent.getClass(), gen).add(ent);
+	}
+
+	synchronized Entity get(long id) {
+		return idMap.get(id);
+	}
+
+	synchronized int size() {
+		return numEntities;
+	}
+
+	/**
+	 * Returns the lists holding the instances of the given class and its sub-classes.
+	 */
+	synchronized EntityList[] getView(Class<?> klass) {
+		EntityList[] ret = views.get(klass);
+		if (ret != null)
+			return ret;
+
+		ArrayList<EntityList> temp = new ArrayList<>();
+		for (EntityList each : allLists) {
+			if (klass.isAssignableFrom(each.klass))
+				temp.add(each);
+		}
+		ret = temp.toArray(new EntityList[temp.size()]);
+		views.put(klass, ret);
+		return ret;
+	}
+
+	/**
+	 * Returns the generated entities in no particular order.
+	 */
+	synchronized ArrayList<Entity> getGenerated() {
+		ArrayList<Entity> ret = new ArrayList<>();
+		for (EntityList each : generatedLists.values()) {
+			for (int i = 0; i < each.size; i++) {
+				if (each.ents[i] != null)
+					ret.add(each.ents[i]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the entity with the largest entity number.
+	 */
+	synchronized Entity getLast() {
+		Entity ret = null;
+		for (EntityList each : allLists) {
+			Entity ent = each.getLast();
+			if (ent == null)
+				continue;
+			if (ret == null || ent.getEntityNumber() > ret.getEntityNumber())
+				ret = ent;
+		}
+		return ret;
+	}
+
+	private EntityList getList(Class<?> klass, boolean gen) {
+		HashMap<Class<?>, EntityList> map = gen ? generatedLists : persistentLists;
+		EntityList ret = map.get(klass);
+		if (ret != null)
+			return ret;
+
+		ret = new EntityList(klass, gen);
+		map.put(klass, ret);
+		allLists.add(ret);
+		views.clear();
+		return ret;
+	}
+
+	/**
+	 * The instances of a single concrete class in order of entity number. A
+	 * killed entity is replaced by null until the list is compacted.
+	 * <p>
+	 * The array is replaced rather than modified when the list is compacted so
+	 * that an iterator on another thread always sees a consistent array. The
+	 * generation number is incremented each time the positions of the
+	 * entities change so that an iterator can find its place again.
+	 */
+	static final class EntityList {
+		private static final int MIN_DEAD = 16;
+
+		final Class<?> klass;
+		final boolean generated;
+		Entity[] ents = new Entity[8];
+		int size;
+		int gen;
+		private int numDead;
+
+		EntityList(Class<?> k, boolean g) {
+			klass = k;
+			generated = g;
+		}
+
+		void add(Entity ent) {
+			if (size == ents.length) {
+				Entity[] temp = new Entity[Math.max(8, 2 * (size - numDead))];
+				size = copyLive(temp);
+				ents = temp;
+				gen++;
+			}
+
+			// Entities are normally added in order of entity number
+			int pos = size;
+			Entity last = this.getLast();
+			if (last != null && last.getEntityNumber() > ent.getEntityNumber()) {
+				pos = indexAfter(ent.getEntityNumber() - 1);
+				System.arraycopy(ents, pos, ents, pos + 1, size - pos);
+				for (int i = pos + 1; i <= size; i++) {
+					if (ents[i] != null)
+						ents[i].registryIndex = i;
+				}
+				gen++;
+			}
+
+			ents[pos] = ent;
+			ent.registryList = this;
+			ent.registryIndex = pos;
+			size++;
+		}
+
+		void remove(Entity ent) {
+			ents[ent.registryIndex] = null;
+			ent.registryList = null;
+			ent.registryIndex = -1;
+			numDead++;
+
+			if (numDead == size) {
+				ents = new Entity[8];
+				size = 0;
+				numDead = 0;
+				gen++;
+				return;
+			}
+
+			if (numDead >= MIN_DEAD && 2 * numDead > size) {
+				Entity[] temp = new Entity[Math.max(8, 2 * (size - numDead))];
+				size = copyLive(temp);
+				ents = temp;
+				gen++;
+			}
+		}
+
+		private int copyLive(Entity[] dest) {
+			int n = 0;
+			for (int i = 0; i < size; i++) {
+				Entity ent = ents[i];
+				if (ent == null)
+					continue;
+				ent.registryIndex = n;
+				dest[n++] = ent;
+			}
+			numDead = 0;
+			return n;
+		}
+
+		Entity getLast() {
+			for (int i = size - 1; i >= 0; i--) {
+				if (ents[i] != null)
+					return ents[i];
+			}
+			return null;
+		}
+
+		/**
+		 * Returns the position of the first entity whose number is greater than
+		 * the given value.
+		 */
+		int indexAfter(long num) {
+			Entity[] arr = ents;
+			int lo = 0;
+			int hi = Math.min(size, arr.length);
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				// Skip over the empty slots to find an entity to compare with
+				int probe = mid;
+				while (probe < hi && arr[probe] == null)
+					probe++;
+				if (probe == hi) {
+					hi = mid;
+					continue;
+				}
+				if (arr[probe].getEntityNumber() <= num)
+					lo = probe + 1;
+				else
+					hi = mid;
+			}
+			return lo;
+		}
+	}
+
+	/**
+	 * Position of an iterator within an EntityList.
+	 */
+	static final class Cursor {
+		final EntityList list;
+		private int pos;
+		private int gen;
+		private long lastNum;
+		long key;  // entity number of the next entity, used to order the cursors
+
+		Cursor(EntityList l) {
+			list = l;
+			gen = l.gen;
+			lastNum = Long.MIN_VALUE;
+		}
+
+		/**
+		 * Returns the next entity in the list without advancing the cursor, or
+		 * null if there are no more entities.
+		 */
+		Entity peek() {
+			if (gen != list.gen) {
+				gen = list.gen;
+				pos = list.indexAfter(lastNum);
+			}
+
+			Entity[] arr = list.ents;
+			int n = Math.min(list.size, arr.length);
+			while (pos < n) {
+				Entity ent = arr[pos];
+				if (ent != null && ent.getEntityNumber() > lastNum)
+					return ent;
+				pos++;
+			}
+			return null;
+		}
+
+		void advance(Entity ent) {
+			lastNum = ent.getEntityNumber();
+			pos++;
+		}
+	}
+}
@@ -16,80 +16,120 @@
  */
 package com.jaamsim.basicsim;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import com.jaamsim.events.EventManager;
-import com.jaamsim.events.EventTraceListener;
-import com.jaamsim.events.ProcessTarget;
-import com.jaamsim.input.Input;
 import com.jaamsim.input.InputErrorException;
 
-public class EventRecorder implements EventTraceListener {
-	private BufferedWriter outputStream;
-	private int traceLevel;
-	private final ArrayList<String> traces = new ArrayList<>();
+/**
+ * Writes the trace of the events executed by the model to a file in the binary
+ * format described by EventTraceFormat. The records are accumulated in a buffer
+ * that is written to the file each time it is full, and when the recorder is
+ * closed.
+ */
+public class EventRecorder extends EventTraceFormat {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buf;
 
 	public EventRecorder(String fileName) {
-		traceLevel = 0;
 		try {
-			File backingFileObject = new File(fileName);
-			backingFileObject.createNewFile();
-			outputStream = new BufferedWriter(new FileWriter(backingFileObject, false));
+			channel = new FileOutputStream(new File(fileName), false).getChannel();
 		}
 		catch (IOException e) {
 			throw new InputErrorException("IOException thrown trying to open FileEntity: " + e);
 		}
-		catch (IllegalArgumentException e) {
-			throw new InputErrorException("IllegalArgumentException thrown trying to open File (Should not happen): " + e);
-		}
 		catch (SecurityException e) {
 			throw new InputErrorException("SecurityException thrown trying to open File: " + e);
 		}
-	}
 
-	private void append(String record) {
-		StringBuilder rec = new StringBuilder();
+		buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buf.put(MAGIC);
+		putVarLong(VERSION);
+	}
 
-		for (int i = 0; i < traceLevel; i++) {
-			rec.append(Input.SEPARATOR);
+	@Override
+	void defineName(int id, String name) {
+		byte[] bytes = name.getBytes(UTF8);
+		reserve(MAX_RECORD_SIZE);
+		buf.put((byte)NAME);
+		putVarLong(bytes.length);
+
+		// Names that do not fit in the buffer are written directly to the file
+		if (bytes.length > buf.remaining()) {
+			flush();
+			write(ByteBuffer.wrap(bytes));
+			return;
 		}
-		rec.append(record);
-		traces.add(rec.toString());
+		buf.put(bytes);
 	}
 
-	private void addHeader(String name, long internalTime) {
-		// Don't write anything if not at level 0
-		if (traceLevel != 0)
-			return;
+	@Override
+	void record(int op, int evtId, long curTickDelta, long tickDelta, int priority, int nameId) {
+		reserve(MAX_RECORD_SIZE);
+		buf.put((byte)op);
+		putVarLong(evtId);
+		putVarLong(zigZag(curTickDelta));
+		if (hasSchedule(op)) {
+			putVarLong(zigZag(tickDelta));
+			putVarLong(zigZag(priority));
+		}
+		if (hasName(op))
+			putVarLong(nameId);
+	}
 
-		StringBuilder header = new StringBuilder(name).append("\t").append(internalTime);
-		traces.add(header.toString());
-		traceLevel++;
+	private void putVarLong(long val) {
+		while ((val & ~0x7FL) != 0) {
+			buf.put((byte)((val & 0x7F) | 0x80));
+			val >>>= 7;
+		}
+		buf.put((byte)val);
 	}
 
-	private void finish(EventManager e) {
-		if(traceLevel != 1)
-			return;
+	private void reserve(int size) {
+		if (buf.remaining() < size)
+			flush();
+	}
 
-		traces.add("");
-		for (String each : traces) {
-			try {
-				outputStream.write( each );
-				outputStream.newLine();
+	private void write(ByteBuffer src) {
+		try {
+			while (src.hasRemaining()) {
+				channel.write(src);
 			}
-			catch( IOException ioe ) {}
 		}
-		try {
-			outputStream.flush();
+		catch (IOException e) {
+			throw new ErrorException(e);
 		}
-		catch( IOException ioe ) {}
+	}
 
-		traces.clear();
-		traceLevel--;
+	/**
+	 * Writes the buffered records to the file.
+	 */
+	public synchronized void flush() {
+		buf.flip();
+		write(buf);
+		buf.clear();
+	}
+
+	/**
+	 * Writes the buffered records and closes the file.
+	 */
+	public synchronized void close() {
+		if (closed)
+			return;
+		closed = true;
+		flush();
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
 	}
 
 	private static final String entClassName = Entity.class.getName();
@@ -128,75 +168,4 @@ public class EventRecorder implements EventTraceListener {
 
 		return String.format("%s:%s", elem.getClassName(), elem.getMethodName());
 	}
-
-	@Override
-	public synchronized void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		traceLevel--;
-
-		this.append(String.format("Wait\t%d\t%d\t%s", tick, priority, getWaitDescription()));
-
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Event\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		traceLevel++;
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Int\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		traceLevel++;
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Kill\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceWaitUntil(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("WaitUntil");
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceWaitUntilEnded(EventManager e, long curTick, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("WaitUntilEnded\t%s", t.getDescription()));
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
-		this.addHeader(e.name, tick);
-		this.append(String.format("StartProcess\t%s", t.getDescription()));
-		traceLevel++;
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceProcessEnd(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("Exit");
-		this.finish(e);
-	}
-
-	@Override
-	public synchronized void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("SchedProcess\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		this.finish(e);
-	}
 }
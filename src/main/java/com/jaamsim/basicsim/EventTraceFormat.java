@@ -0,0 +1,184 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTraceListener;
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Common structure for the binary event trace written by EventRecorder and
+ * verified by EventTracer.
+ * <p>
+ * The file starts with a header consisting of the MAGIC bytes and the format
+ * VERSION, followed by one record for each trace call. Each record starts with
+ * an opcode byte followed by the fields for that opcode, with integer values
+ * stored as variable length ZigZag encoded integers:
+ * <pre>
+ * NAME                             nameLength, UTF-8 bytes
+ * EVENT, INT, KILL, WAIT, SCHED    evtId, curTick, tick, priority, nameId
+ * START, WAITUNTILENDED            evtId, curTick, nameId
+ * EXIT, WAITUNTIL                  evtId, curTick
+ * </pre>
+ * The EventManager and target names are written once using a NAME record, the
+ * first name being assigned the id 0, the second 1, and so on. Later records
+ * refer to the name using its id. The curTick field is the difference from the
+ * curTick for the previous record and the tick field is the difference from
+ * curTick, so most records are only a few bytes long.
+ */
+abstract class EventTraceFormat implements EventTraceListener {
+	static final byte[] MAGIC = { 'J', 'S', 'E', 'V', 'T' };
+	static final int VERSION = 1;
+
+	static final int NAME = 0;
+	static final int EVENT = 1;
+	static final int WAIT = 2;
+	static final int SCHED = 3;
+	static final int START = 4;
+	static final int EXIT = 5;
+	static final int INT = 6;
+	static final int KILL = 7;
+	static final int WAITUNTIL = 8;
+	static final int WAITUNTILENDED = 9;
+
+	static final String[] OPCODE_NAMES = { "Name", "Event", "Wait", "SchedProcess", "StartProcess",
+			"Exit", "Int", "Kill", "WaitUntil", "WaitUntilEnded" };
+
+	// Upper bound on the size of a record, excluding the bytes for a name
+	static final int MAX_RECORD_SIZE = 1 + 5 * 10;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final HashMap<String, Integer> nameIds = new HashMap<>();
+	private long lastTick = 0; // curTick for the previous record
+	boolean closed = false;    // TRUE if trace calls are to be ignored
+	EventManager curEvt;       // EventManager for the present trace call
+
+	/**
+	 * Processes the record with the given contents.
+	 * @param op - opcode for the record
+	 * @param evtId - id for the name of the EventManager
+	 * @param curTickDelta - present tick minus the present tick for the previous record
+	 * @param tickDelta - scheduled tick minus the present tick
+	 * @param priority - event priority
+	 * @param nameId - id for the name of the ProcessTarget or waiting method, or -1 if not used
+	 */
+	abstract void record(int op, int evtId, long curTickDelta, long tickDelta, int priority, int nameId);
+
+	/**
+	 * Processes the definition of a new name that has been assigned the given id.
+	 */
+	abstract void defineName(int id, String name);
+
+	/**
+	 * Completes the trace and releases the file.
+	 */
+	public abstract void close();
+
+	private int getNameId(String name) {
+		Integer id = nameIds.get(name);
+		if (id != null)
+			return id;
+
+		int ret = nameIds.size();
+		nameIds.put(name, ret);
+		defineName(ret, name);
+		return ret;
+	}
+
+	private void record(int op, EventManager e, long curTick, long tick, int priority, String name) {
+		if (closed)
+			return;
+
+		curEvt = e;
+		int evtId = getNameId(e.name);
+		int nameId = (name == null) ? -1 : getNameId(name);
+		long curTickDelta = curTick - lastTick;
+		lastTick = curTick;
+		record(op, evtId, curTickDelta, tick - curTick, priority, nameId);
+	}
+
+	@Override
+	public synchronized void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		record(WAIT, e, curTick, tick, priority, EventRecorder.getWaitDescription());
+	}
+
+	@Override
+	public synchronized void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		record(EVENT, e, curTick, tick, priority, t.getDescription());
+	}
+
+	@Override
+	public synchronized void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		record(INT, e, curTick, tick, priority, t.getDescription());
+	}
+
+	@Override
+	public synchronized void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		record(KILL, e, curTick, tick, priority, t.getDescription());
+	}
+
+	@Override
+	public synchronized void traceWaitUntil(EventManager e, long tick) {
+		record(WAITUNTIL, e, tick, tick, 0, null);
+	}
+
+	@Override
+	public synchronized void traceWaitUntilEnded(EventManager e, long curTick, ProcessTarget t) {
+		record(WAITUNTILENDED, e, curTick, curTick, 0, t.getDescription());
+	}
+
+	@Override
+	public synchronized void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
+		record(START, e, tick, tick, 0, t.getDescription());
+	}
+
+	@Override
+	public synchronized void traceProcessEnd(EventManager e, long tick) {
+		record(EXIT, e, tick, tick, 0, null);
+	}
+
+	@Override
+	public synchronized void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		record(SCHED, e, curTick, tick, priority, t.getDescription());
+	}
+
+	/**
+	 * Returns true if records with the given opcode include the tick and priority fields.
+	 */
+	static boolean hasSchedule(int op) {
+		return op == EVENT || op == WAIT || op == SCHED || op == INT || op == KILL;
+	}
+
+	/**
+	 * Returns true if records with the given opcode include a name id.
+	 */
+	static boolean hasName(int op) {
+		return hasSchedule(op) || op == START || op == WAITUNTILENDED;
+	}
+
+	static long zigZag(long val) {
+		return (val << 1) ^ (val >> 63);
+	}
+
+	static long unZigZag(long val) {
+		return (val >>> 1) ^ -(val & 1);
+	}
+}
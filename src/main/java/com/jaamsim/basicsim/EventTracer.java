@@ -16,185 +16,285 @@
  */
 package com.jaamsim.basicsim;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 
-import com.jaamsim.events.EventManager;
-import com.jaamsim.events.EventTraceListener;
-import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.InputAgent;
 
-class EventTracer implements EventTraceListener {
-	private BufferedReader eventVerifyReader;
-	private EventTraceRecord reader;
-	private long bufferTime; // Internal sim time buffer has been filled to
-	private final ArrayList<EventTraceRecord> eventBuffer;
+/**
+ * Verifies that the events executed by the model match those in a trace file
+ * written by EventRecorder. The file is memory-mapped in sections and each trace
+ * call is compared directly with the next record in the file, so that the
+ * memory used does not depend on the length of the run. Names are compared
+ * only when they are first defined, after which their ids are compared.
+ * <p>
+ * The model is paused at the first difference that is detected.
+ */
+class EventTracer extends EventTraceFormat {
+	private static final long WINDOW_SIZE = 1L << 26;
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;  // file position for the start of the mapped section
+	private MappedByteBuffer buf;
+	private final ArrayList<byte[]> names;  // name definitions read from the file, indexed by id
+	private long numRecords;
+	private boolean failed;
 
 	public EventTracer(String evtName) {
-		eventBuffer = new ArrayList<>();
-		bufferTime = 0;
-		File evtFile = new File(evtName);
+		names = new ArrayList<>();
 		try {
-			eventVerifyReader = new BufferedReader(new FileReader(evtFile));
+			channel = new RandomAccessFile(new File(evtName), "r").getChannel();
+			fileSize = channel.size();
+			map(0L);
+			verifyHeader();
 		}
-		catch (FileNotFoundException e) {}
-		if (eventVerifyReader == null)
+		catch (IOException e) {
 			InputAgent.logMessage("Unable to open an event verification file.");
-
-		reader = new EventTraceRecord();
+			failed = true;
+		}
 	}
 
-	private void fillBufferUntil(long internalTime) {
-		while (bufferTime <= internalTime) {
-			// Read a full trace record form the file, terminated at a blank line
-			EventTraceRecord temp = new EventTraceRecord();
-			while (true) {
-				String line = null;
-				try {
-					line = eventVerifyReader.readLine();
-				}
-				catch (IOException e) {}
-
-				if (line == null)
-					break;
+	private void map(long pos) throws IOException {
+		windowStart = pos;
+		buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW_SIZE, fileSize - pos));
+	}
 
-				temp.add(line);
+	/**
+	 * Ensures that the given number of bytes can be read from the mapped section,
+	 * unless the end of the file is reached first.
+	 */
+	private void ensure(int size) throws IOException {
+		if (buf.remaining() >= size)
+			return;
+		long pos = windowStart + buf.position();
+		if (pos == fileSize)
+			return;
+		if (size > WINDOW_SIZE) {
+			windowStart = pos;
+			buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size, fileSize - pos));
+			return;
+		}
+		map(pos);
+	}
 
-				if (line.length() == 0)
-					break;
+	private void verifyHeader() throws IOException {
+		ensure(MAGIC.length + 10);
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (!buf.hasRemaining() || buf.get() != MAGIC[i]) {
+				InputAgent.logMessage("The event verification file is not in the binary trace format.");
+				failed = true;
+				return;
 			}
+		}
+		long ver;
+		try {
+			ver = getVarLong();
+		}
+		catch (BadRecordException e) {
+			InputAgent.logMessage("The event verification file is not in the binary trace format.");
+			failed = true;
+			return;
+		}
+		if (ver != VERSION) {
+			InputAgent.logMessage("The event verification file has an unsupported version: %d", ver);
+			failed = true;
+		}
+	}
 
-			if (temp.size() == 0)
-				break;
+	/**
+	 * Thrown when a record in the trace file is incomplete or cannot be decoded.
+	 * The message describes the expected record for the difference report.
+	 */
+	private static final class BadRecordException extends Exception {
+		BadRecordException(String msg) {
+			super(msg);
+		}
+	}
 
-			// Parse the key information from the record
-			temp.parse();
-			if (temp.isDefaultEventManager() && temp.getInternalTime() > bufferTime) {
-				bufferTime = temp.getInternalTime();
-			}
-			eventBuffer.add(temp);
+	private long getVarLong() throws BadRecordException {
+		long ret = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (!buf.hasRemaining())
+				throw new BadRecordException("<end of file>");
+			byte b = buf.get();
+			ret |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return ret;
 		}
+		throw new BadRecordException("<corrupt record>");
 	}
 
-	private void findEventInBuffer(EventManager e, EventTraceRecord record) {
-		// Ensure we have read enough from the log to find this record
-		this.fillBufferUntil(record.getInternalTime());
+	// Returns the opcode for the next record, or -1 if the end of the file has been reached
+	private int nextOpcode() throws IOException {
+		ensure(MAX_RECORD_SIZE);
+		if (!buf.hasRemaining())
+			return -1;
+		return buf.get();
+	}
 
-		// Try an optimistic approach first looking for exact matches
-		for (EventTraceRecord each : eventBuffer) {
-			if (!each.basicCompare(record)) {
-				continue;
+	@Override
+	void defineName(int id, String name) {
+		if (failed)
+			return;
+
+		byte[] expected = name.getBytes(UTF8);
+		try {
+			int op = nextOpcode();
+			if (op != NAME) {
+				fail("Name:" + name, op);
+				return;
 			}
 
-			for (int i = 1; i < record.size(); i++) {
-				if (!record.get(i).equals(each.get(i))) {
-					System.out.println("Difference in event stream detected");
-					System.out.println("Received:");
-					for (String line : record) {
-						System.out.println(line);
-					}
-
-					System.out.println("Expected:");
-					for (String line : each) {
-						System.out.println(line);
-					}
-
-					System.out.println("Lines:");
-					System.out.println("R:" + record.get(i));
-					System.out.println("E:" + each.get(i));
-
-					e.pause();
-					new Throwable().printStackTrace();
-					break;
+			long size = getVarLong();
+			if (size > Integer.MAX_VALUE)
+				throw new BadRecordException("<corrupt record>");
+			int len = (int)size;
+			ensure(len);
+			if (buf.remaining() < len)
+				throw new BadRecordException("<end of file>");
+			byte[] bytes = new byte[len];
+			buf.get(bytes);
+			names.add(bytes);
+			numRecords++;
+
+			if (len != expected.length) {
+				fail("Name:" + name, NAME);
+				return;
+			}
+			for (int i = 0; i < len; i++) {
+				if (bytes[i] != expected[i]) {
+					fail("Name:" + name, NAME);
+					return;
 				}
 			}
-
-			// Found the event, it compared OK, remove from the buffer
-			eventBuffer.remove(each);
-			//System.out.println("Buffersize:" + eventBuffer.size());
-			return;
 		}
-
-		System.out.println("No matching event found for:");
-		for (String line : record) {
-			System.out.println(line);
+		catch (BadRecordException e) {
+			failed = true;
+			report("Name:" + name, e.getMessage());
 		}
-		for (EventTraceRecord rec : eventBuffer) {
-			System.out.println("Buffered Record:");
-			for (String line : rec) {
-				System.out.println(line);
-			}
-			System.out.println();
+		catch (IOException e) {
+			throw new ErrorException(e);
 		}
-		e.pause();
 	}
 
-	private void finish(EventManager e) {
-		if (reader.traceLevel != 1)
+	@Override
+	void record(int op, int evtId, long curTickDelta, long tickDelta, int priority, int nameId) {
+		if (failed)
 			return;
 
-		reader.add("");
-		reader.parse();
-		findEventInBuffer(e, reader);
-		reader.clear();
-		reader.traceLevel--;
-	}
+		try {
+			int fileOp = nextOpcode();
+			if (fileOp != op) {
+				fail(describe(op, evtId, curTickDelta, tickDelta, priority, nameId), fileOp);
+				return;
+			}
 
-	@Override
-	public void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		reader.traceWait(e, curTick, tick, priority, t);
-		this.finish(e);
-	}
+			long fileEvtId = getVarLong();
+			long fileCurTickDelta = unZigZag(getVarLong());
+			long fileTickDelta = tickDelta;
+			long filePriority = priority;
+			long fileNameId = nameId;
+			if (hasSchedule(op)) {
+				fileTickDelta = unZigZag(getVarLong());
+				filePriority = unZigZag(getVarLong());
+			}
+			if (hasName(op))
+				fileNameId = getVarLong();
+			numRecords++;
 
-	@Override
-	public void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		reader.traceEvent(e, curTick, tick, priority, t);
-		this.finish(e);
+			if (fileEvtId != evtId || fileCurTickDelta != curTickDelta || fileTickDelta != tickDelta
+					|| filePriority != priority || fileNameId != nameId) {
+				failed = true;
+				report(describe(op, evtId, curTickDelta, tickDelta, priority, nameId),
+				       describe(op, (int)fileEvtId, fileCurTickDelta, fileTickDelta, (int)filePriority, (int)fileNameId));
+			}
+		}
+		catch (BadRecordException e) {
+			failed = true;
+			report(describe(op, evtId, curTickDelta, tickDelta, priority, nameId), e.getMessage());
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
 	}
 
-	@Override
-	public void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		reader.traceSchedProcess(e, curTick, tick, priority, t);
-		this.finish(e);
+	private void fail(String received, int fileOp) {
+		failed = true;
+		String expected;
+		if (fileOp == -1)
+			expected = "<end of file>";
+		else if (fileOp < 0 || fileOp >= OPCODE_NAMES.length)
+			expected = "<unknown record type " + fileOp + ">";
+		else
+			expected = OPCODE_NAMES[fileOp];
+		report(received, expected);
 	}
 
-	@Override
-	public void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
-		reader.traceProcessStart(e, t, tick);
-		this.finish(e);
-	}
+	private void report(String received, String expected) {
+		System.out.println("Difference in event stream detected at record " + numRecords);
+		System.out.println("Received:");
+		System.out.println(received);
+		System.out.println("Expected:");
+		System.out.println(expected);
+		new Throwable().printStackTrace();
 
-	@Override
-	public void traceProcessEnd(EventManager e, long tick) {
-		reader.traceProcessEnd(e, tick);
-		this.finish(e);
+		curEvt.pause();
 	}
 
-	@Override
-	public void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		reader.traceInterrupt(e, curTick, tick, priority, t);
-		this.finish(e);
+	// Human readable form of a record, used only to report a difference
+	private String describe(int op, int evtId, long curTickDelta, long tickDelta, int priority, int nameId) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(getName(evtId)).append("\t").append(OPCODE_NAMES[op]);
+		sb.append("\tcurTickDelta=").append(curTickDelta);
+		if (hasSchedule(op))
+			sb.append("\ttickDelta=").append(tickDelta).append("\tpriority=").append(priority);
+		if (hasName(op))
+			sb.append("\t").append(getName(nameId));
+		return sb.toString();
 	}
 
-	@Override
-	public void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		reader.traceKill(e, curTick, tick, priority, t);
-		this.finish(e);
+	private String getName(int id) {
+		if (id < 0 || id >= names.size())
+			return "<name " + id + ">";
+		return new String(names.get(id), UTF8);
 	}
 
-	@Override
-	public void traceWaitUntil(EventManager e, long tick) {
-		reader.traceWaitUntil(e, tick);
-		this.finish(e);
+	/**
+	 * Returns true if a difference from the trace file has been detected.
+	 */
+	boolean hasFailed() {
+		return failed;
 	}
 
-	@Override
-	public void traceWaitUntilEnded(EventManager e, long curTick, ProcessTarget t) {
-		reader.traceWaitUntilEnded(e, curTick, t);
-		this.finish(e);
+	/**
+	 * Closes the verification file, reporting whether the model executed all
+	 * the events it contains.
+	 */
+	public synchronized void close() {
+		if (closed)
+			return;
+		closed = true;
+		if (channel == null)
+			return;
+
+		try {
+			if (!failed) {
+				long remaining = fileSize - windowStart - buf.position();
+				if (remaining > 0)
+					InputAgent.logMessage("Event verification ended with %d bytes of the trace file not verified.", remaining);
+				else
+					InputAgent.logMessage("Event verification completed: %d records matched.", numRecords);
+			}
+			channel.close();
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
+		buf = null;
 	}
 }
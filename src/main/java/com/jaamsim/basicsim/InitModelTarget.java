@@ -16,6 +16,8 @@
  */
 package com.jaamsim.basicsim;
 
+import java.util.ArrayList;
+
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
 
@@ -31,14 +33,15 @@ public class InitModelTarget extends ProcessTarget {
 	public void process() {
 
 		// Initialise each entity
-		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
-			each.earlyInit();
-		}
+		ArrayList<? extends Entity> ents = Entity.getAll();
+		ModelInitializer.Failure fail = ModelInitializer.earlyInit(ents);
+		if (fail != null)
+			fail.rethrow();
 
 		// Initialise each entity a second time
-		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
-			each.lateInit();
-		}
+		fail = ModelInitializer.lateInit(ents, true);
+		if (fail != null)
+			fail.rethrow();
 
 		// Start each entity
 		double startTime = Simulation.getStartTime();
@@ -52,6 +55,9 @@ public class InitModelTarget extends ProcessTarget {
 			EventManager.scheduleSeconds(clearTime, 5, false, new ClearStatisticsTarget(), null);
 		}
 
+		// Schedule the state digests
+		Simulation.scheduleStateDigests();
+
 		// Schedule the end of the simulation run
 		double endTime = Simulation.getEndTime();
 		EventManager.scheduleSeconds(endTime, 5, false, new EndModelTarget(), null);
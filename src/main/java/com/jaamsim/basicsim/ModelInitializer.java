@@ -0,0 +1,287 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Executes the validate(), earlyInit() and lateInit() methods for a list of
+ * entities.
+ * <p>
+ * validate() and earlyInit() depend only on the inputs and state of the entity
+ * itself, so they are executed in parallel by a fork/join pool when there are
+ * enough entities for this to be worthwhile. An entity that returns false from
+ * isParallelInit() is initialised on the calling thread instead. If earlyInit()
+ * fails on a worker thread, for example because it requires the simulation
+ * clock, it is executed again on the calling thread. The entities initialised
+ * on the calling thread are processed in their original order after the
+ * parallel phase.
+ * <p>
+ * lateInit() is executed on the calling thread in an order that satisfies the
+ * dependencies returned by getLateInitDependencies(), and otherwise in the
+ * order of the list.
+ * <p>
+ * When more than one entity fails, the failure for the entity that is first in
+ * the list is reported, as it would be if the entities were processed in
+ * sequence.
+ */
+final class ModelInitializer {
+	private static final int MIN_PARALLEL = 256;  // smallest list to be processed in parallel
+	private static final int CHUNK_SIZE = 32;     // number of entities processed by each task
+
+	private static ForkJoinPool pool;
+
+	private ModelInitializer() {}
+
+	/**
+	 * An entity whose method threw an exception.
+	 */
+	static final class Failure {
+		final Entity ent;
+		final Throwable cause;
+
+		Failure(Entity e, Throwable t) {
+			ent = e;
+			cause = t;
+		}
+
+		/**
+		 * Re-throws the exception for the failure.
+		 */
+		void rethrow() {
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw new ErrorException(cause);
+		}
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (pool == null)
+			pool = new ForkJoinPool();
+		return pool;
+	}
+
+	/**
+	 * Validates each entity and returns the failure for the first entity in the
+	 * list that is not valid, or null if every entity is valid.
+	 */
+	static Failure validate(ArrayList<? extends Entity> ents) {
+		Throwable[] errors = new Throwable[ents.size()];
+		if (ents.size() < MIN_PARALLEL) {
+			for (int i = 0; i < ents.size(); i++) {
+				try {
+					ents.get(i).validate();
+				}
+				catch (Throwable t) {
+					return new Failure(ents.get(i), t);
+				}
+			}
+			return null;
+		}
+
+		getPool().invoke(new Task(ents, errors, 0, ents.size(), Task.VALIDATE));
+		return getFirstFailure(ents, errors);
+	}
+
+	/**
+	 * Executes earlyInit() for each entity and returns the failure for the first
+	 * entity in the list whose initialisation failed, or null if there were no
+	 * failures. Each entity is initialised even if an earlier entity has failed.
+	 */
+	static Failure earlyInit(ArrayList<? extends Entity> ents) {
+		Throwable[] errors = new Throwable[ents.size()];
+		boolean parallel = ents.size() >= MIN_PARALLEL;
+		if (parallel)
+			getPool().invoke(new Task(ents, errors, 0, ents.size(), Task.EARLY_INIT));
+
+		for (int i = 0; i < ents.size(); i++) {
+			Entity ent = ents.get(i);
+			if (parallel && ent.isParallelInit() && errors[i] == null)
+				continue;
+
+			errors[i] = null;
+			try {
+				ent.earlyInit();
+			}
+			catch (Throwable t) {
+				errors[i] = t;
+			}
+		}
+		return getFirstFailure(ents, errors);
+	}
+
+	/**
+	 * Executes lateInit() for each entity and returns the failure for the first
+	 * entity whose initialisation failed, or null if there were no failures.
+	 * @param ents - entities to be initialised.
+	 * @param stopOnError - if true, no further entities are initialised after a failure.
+	 */
+	static Failure lateInit(ArrayList<? extends Entity> ents, boolean stopOnError) {
+		Failure ret = null;
+		for (Entity ent : getLateInitOrder(ents)) {
+			try {
+				ent.lateInit();
+			}
+			catch (Throwable t) {
+				if (ret == null)
+					ret = new Failure(ent, t);
+				if (stopOnError)
+					break;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the entities in an order in which each entity follows the
+	 * entities it depends on for lateInit(). Entities whose dependencies have
+	 * been satisfied are taken in the order of the original list.
+	 */
+	static ArrayList<Entity> getLateInitOrder(ArrayList<? extends Entity> ents) {
+		ArrayList<Entity> ret = new ArrayList<>(ents.size());
+
+		// Keep the original order if no dependencies have been declared
+		boolean found = false;
+		for (Entity each : ents) {
+			ArrayList<? extends Entity> deps = each.getLateInitDependencies();
+			if (deps != null && !deps.isEmpty()) {
+				found = true;
+				break;
+			}
+		}
+		if (!found) {
+			ret.addAll(ents);
+			return ret;
+		}
+
+		HashMap<Entity, Integer> indexMap = new HashMap<>(ents.size());
+		for (int i = 0; i < ents.size(); i++) {
+			indexMap.put(ents.get(i), i);
+		}
+
+		// Build the graph from each entity to the entities that depend on it
+		int[] numDeps = new int[ents.size()];
+		ArrayList<ArrayList<Integer>> dependants = new ArrayList<>(ents.size());
+		for (int i = 0; i < ents.size(); i++) {
+			dependants.add(null);
+		}
+		for (int i = 0; i < ents.size(); i++) {
+			ArrayList<? extends Entity> deps = ents.get(i).getLateInitDependencies();
+			if (deps == null)
+				continue;
+
+			for (Entity dep : deps) {
+				Integer j = indexMap.get(dep);
+				if (j == null || j == i)
+					continue;
+				if (dependants.get(j) == null)
+					dependants.set(j, new ArrayList<Integer>());
+				dependants.get(j).add(i);
+				numDeps[i]++;
+			}
+		}
+
+		// Remove the entities whose dependencies are satisfied, lowest position first
+		PriorityQueue<Integer> ready = new PriorityQueue<>();
+		for (int i = 0; i < ents.size(); i++) {
+			if (numDeps[i] == 0)
+				ready.add(i);
+		}
+		while (!ready.isEmpty()) {
+			int i = ready.poll();
+			ret.add(ents.get(i));
+			if (dependants.get(i) == null)
+				continue;
+			for (int j : dependants.get(i)) {
+				numDeps[j]--;
+				if (numDeps[j] == 0)
+					ready.add(j);
+			}
+		}
+
+		if (ret.size() < ents.size()) {
+			for (int i = 0; i < ents.size(); i++) {
+				if (numDeps[i] > 0)
+					throw new ErrorException("Circular dependency found for the initialisation of %s",
+							ents.get(i).getName());
+			}
+		}
+		return ret;
+	}
+
+	private static Failure getFirstFailure(ArrayList<? extends Entity> ents, Throwable[] errors) {
+		for (int i = 0; i < errors.length; i++) {
+			if (errors[i] != null)
+				return new Failure(ents.get(i), errors[i]);
+		}
+		return null;
+	}
+
+	/**
+	 * Executes validate() or earlyInit() for a range of entities, splitting the
+	 * range in half until it contains no more than CHUNK_SIZE entities.
+	 */
+	private static class Task extends RecursiveAction {
+		static final int VALIDATE = 0;
+		static final int EARLY_INIT = 1;
+
+		private final ArrayList<? extends Entity> ents;
+		private final Throwable[] errors;
+		private final int start;
+		private final int end;
+		private final int method;
+
+		Task(ArrayList<? extends Entity> ents, Throwable[] errors, int start, int end, int method) {
+			this.ents = ents;
+			this.errors = errors;
+			this.start = start;
+			this.end = end;
+			this.method = method;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > CHUNK_SIZE) {
+				int mid = (start + end) >>> 1;
+				invokeAll(new Task(ents, errors, start, mid, method),
+				          new Task(ents, errors, mid, end, method));
+				return;
+			}
+
+			for (int i = start; i < end; i++) {
+				Entity ent = ents.get(i);
+				try {
+					if (method == VALIDATE) {
+						ent.validate();
+					}
+					else if (ent.isParallelInit()) {
+						ent.earlyInit();
+					}
+				}
+				catch (Throwable t) {
+					errors[i] = t;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.jaamsim.events.EventErrorListener;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.InputErrorException;
+import com.jaamsim.ui.LogBox;
+
+/**
+ * Executes the runs from StartingRunNumber to EndingRunNumber as concurrent
+ * replications within a single JVM.
+ * <p>
+ * The model state held in static fields by Entity, Simulation, InputAgent and the
+ * other simulation classes is isolated by loading the classes for each replication
+ * in a separate class loader. Each replication loads the configuration file, executes
+ * its run with its own EventManager, and writes its output files to a temporary
+ * directory. The files are then merged with the outputs in the report directory in
+ * run number order, so that the results are identical to those for sequential runs.
+ */
+public class ReplicationRunner {
+	private static final String ISOLATED_PREFIX = "com.jaamsim.";
+
+	// Files that are created again by each run: the state traces and the input report
+	private static final String[] REWRITTEN_EXTENSIONS = { ".trc", ".inp" };
+
+	private final File configFile;
+	private final File reportDir;
+	private final URL[] classPath;
+	private final HashSet<String> mergedFiles = new HashSet<>();
+
+	private ReplicationRunner(File cfg, File dir) {
+		configFile = cfg;
+		reportDir = dir;
+		classPath = getClassPath();
+	}
+
+	/**
+	 * Executes the runs for the loaded configuration file using the given number of threads.
+	 * @param numThreads - maximum number of runs to execute at the same time.
+	 */
+	public static void execute(int numThreads) {
+		File dir = new File(InputAgent.getReportFileName(""));
+		ReplicationRunner runner = new ReplicationRunner(InputAgent.getConfigFile(), dir);
+		runner.run(Simulation.getStartingRunNumber(), Simulation.getEndingRunNumber(), numThreads);
+	}
+
+	private void run(int firstRun, int lastRun, int numThreads) {
+		LogBox.logLine(String.format("Executing runs %d to %d using %d threads",
+				firstRun, lastRun, numThreads));
+
+		File tmpDir;
+		try {
+			reportDir.mkdirs();
+			tmpDir = Files.createTempDirectory(reportDir.toPath(), InputAgent.getRunName() + "-runs").toFile();
+		}
+		catch (IOException e) {
+			throw new ErrorException(e);
+		}
+
+		ExecutorService exec = Executors.newFixedThreadPool(numThreads);
+		try {
+			ArrayList<Future<File>> results = new ArrayList<>();
+			for (int n = firstRun; n <= lastRun; n++) {
+				results.add(exec.submit(new RunTask(n, new File(tmpDir, "run" + n))));
+			}
+
+			// Merge the outputs in run number order as each run is completed
+			for (Future<File> each : results) {
+				File runDir = each.get();
+				mergeRun(runDir);
+				delete(runDir);
+			}
+		}
+		catch (InterruptedException e) {
+			throw new ErrorException(e);
+		}
+		catch (ExecutionException e) {
+			throw new ErrorException(e.getCause());
+		}
+		finally {
+			exec.shutdownNow();
+			delete(tmpDir);
+		}
+	}
+
+	/**
+	 * Merges each file written by a run with the file of the same name in the report
+	 * directory. A file that is re-written by each run, such as a state trace, replaces
+	 * the file from the previous run. Any other file is appended to the file from the
+	 * previous run, since its writer keeps it open from one run to the next and
+	 * writes its header lines only for the first run.
+	 */
+	private void mergeRun(File runDir) {
+		File[] files = runDir.listFiles();
+		if (files == null)
+			return;
+
+		Arrays.sort(files);
+		for (File each : files) {
+			if (!each.isFile())
+				continue;
+
+			String name = each.getName();
+			boolean append = !mergedFiles.add(name) && !isRewrittenEachRun(name);
+			try {
+				copy(each, new File(reportDir, name), append);
+			}
+			catch (IOException e) {
+				throw new ErrorException(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the file is created again by each run when the runs are
+	 * executed in sequence.
+	 */
+	static boolean isRewrittenEachRun(String fileName) {
+		for (String each : REWRITTEN_EXTENSIONS) {
+			if (fileName.endsWith(each))
+				return true;
+		}
+		return false;
+	}
+
+	private static void copy(File src, File dest, boolean append) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(src));
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(dest, append));
+		try {
+			byte[] buf = new byte[8192];
+			int len;
+			while ((len = in.read(buf)) != -1) {
+				out.write(buf, 0, len);
+			}
+		}
+		finally {
+			in.close();
+			out.close();
+		}
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				delete(each);
+			}
+		}
+		file.delete();
+	}
+
+	private static URL[] getClassPath() {
+		String[] paths = System.getProperty("java.class.path").split(File.pathSeparator);
+		URL[] ret = new URL[paths.length];
+		try {
+			for (int i = 0; i < paths.length; i++) {
+				ret[i] = new File(paths[i]).toURI().toURL();
+			}
+		}
+		catch (MalformedURLException e) {
+			throw new ErrorException(e);
+		}
+		return ret;
+	}
+
+	/**
+	 * Executes a single run in its own class loader and returns the directory
+	 * containing its output files.
+	 */
+	private class RunTask implements Callable<File> {
+		private final int runNumber;
+		private final File runDir;
+
+		RunTask(int n, File dir) {
+			runNumber = n;
+			runDir = dir;
+		}
+
+		@Override
+		public File call() throws Exception {
+			runDir.mkdirs();
+			IsolatingClassLoader loader = new IsolatingClassLoader(classPath, ReplicationRunner.class.getClassLoader());
+			try {
+				Class<?> cls = Class.forName(Replication.class.getName(), true, loader);
+				Callable<?> rep = (Callable<?>)cls.getConstructor(File.class, File.class, int.class)
+						.newInstance(configFile, runDir, runNumber);
+				rep.call();
+			}
+			finally {
+				loader.close();
+			}
+			return runDir;
+		}
+	}
+
+	/**
+	 * Class loader that loads its own copy of each JaamSim class, while the Java
+	 * and third party classes are shared with the parent class loader.
+	 */
+	private static class IsolatingClassLoader extends URLClassLoader {
+		IsolatingClassLoader(URL[] urls, ClassLoader parent) {
+			super(urls, parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(ISOLATED_PREFIX))
+				return super.loadClass(name, resolve);
+
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> cls = findLoadedClass(name);
+				if (cls == null)
+					cls = findClass(name);
+				if (resolve)
+					resolveClass(cls);
+				return cls;
+			}
+		}
+	}
+
+	/**
+	 * The entry point for a replication. This class is instantiated within the
+	 * isolating class loader, so the classes it references are private to the run.
+	 */
+	public static class Replication implements Callable<Object>, EventTimeListener, EventErrorListener {
+		private final File configFile;
+		private final File runDir;
+		private final int runNumber;
+
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile Throwable error;
+
+		public Replication(File cfg, File dir, int n) {
+			configFile = cfg;
+			runDir = dir;
+			runNumber = n;
+		}
+
+		@Override
+		public Object call() throws Exception {
+			// Load the model
+			InputAgent.setBatch(true);
+			InputAgent.setRecordEdits(false);
+			InputAgent.readResource("<res>/inputs/autoload.cfg");
+			InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
+
+			InputAgent.setConfigFile(configFile);
+			InputAgent.readStream("", configFile.getParentFile().toURI(), configFile.getName());
+			if (InputAgent.numErrors() > 0)
+				throw new InputErrorException("%d input errors found in run %d", InputAgent.numErrors(), runNumber);
+
+			// Execute the run, writing the outputs to the run's temporary directory
+			InputAgent.setReportDirectory(runDir);
+			Simulation.setReplicationRun(runNumber);
+			EventManager evt = new EventManager("ReplicationEventManager-" + runNumber);
+			evt.setTimeListener(this);
+			evt.setErrorListener(this);
+			try {
+				Simulation.start(evt);
+				done.await();
+			}
+			finally {
+				evt.pause();
+				evt.clear();
+				InputAgent.stop();
+				EventManager.closeProcessPool();
+			}
+
+			if (error != null)
+				throw new ErrorException(error);
+			return null;
+		}
+
+		@Override
+		public void tickUpdate(long tick) {}
+
+		@Override
+		public void timeRunning(boolean running) {
+			if (!running)
+				done.countDown();
+		}
+
+		@Override
+		public void handleError(EventManager evt, Throwable t, long currentTick) {
+			error = t;
+			done.countDown();
+		}
+	}
+}
@@ -53,6 +53,12 @@ public class ScriptEntity extends Entity {
 		tokens = new ArrayList<>();
 	}
 
+	@Override
+	public boolean isParallelInit() {
+		// Processes input records for other entities
+		return false;
+	}
+
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
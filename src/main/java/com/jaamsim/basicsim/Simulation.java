@@ -24,23 +24,31 @@ import java.util.Calendar;
 import javax.swing.JFrame;
 
 import com.jaamsim.Samples.SampleConstant;
+import com.jaamsim.Samples.SampleExpression;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.StringProviders.StringProvListInput;
 import com.jaamsim.datatypes.IntegerVector;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.Conditional;
 import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventProfiler;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.DirInput;
 import com.jaamsim.input.EntityListInput;
+import com.jaamsim.input.EnumInput;
+import com.jaamsim.input.FileInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.IntegerListInput;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
+import com.jaamsim.input.OutputCache;
+import com.jaamsim.input.ReferenceIndex;
 import com.jaamsim.input.RunNumberInput;
 import com.jaamsim.input.UnitTypeListInput;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.math.Vec3d;
+import com.jaamsim.states.StateHandle;
 import com.jaamsim.ui.AboutBox;
 import com.jaamsim.ui.EditBox;
 import com.jaamsim.ui.EntityPallet;
@@ -131,6 +139,51 @@ public class Simulation extends Entity {
 	             example = "Simulation TickLength { 1e-6 s }")
 	private static final ValueInput tickLengthInput;
 
+	@Keyword(description = "The data structure used to store the future events. "
+	                     + "RED_BLACK_TREE requires O(log n) time to schedule an event. "
+	                     + "CALENDAR_QUEUE requires O(1) time on average and can be faster "
+	                     + "for models with a very large number of pending events.",
+	             example = "Simulation EventList { CALENDAR_QUEUE }")
+	private static final EnumInput<EventManager.EventListType> eventListInput;
+
+	@Keyword(description = "If TRUE, execution statistics are collected for the event manager "
+	                     + "and written to the file <configuration file name>.prof at the end "
+	                     + "of each run. The statistics include the numbers of events executed, "
+	                     + "scheduled and killed, and the execution time for each type of event.",
+	             example = "Simulation ProfileEvents { TRUE }")
+	private static final BooleanInput profileEvents;
+
+	@Keyword(description = "If TRUE, the value returned by each output is saved and re-used "
+	                     + "by other expressions, loggers, graphs and thresholds until the "
+	                     + "simulation time advances or the state of the model changes. "
+	                     + "The numbers of values re-used and calculated are given by the "
+	                     + "OutputCacheHits and OutputCacheMisses outputs.",
+	             example = "Simulation CacheOutputValues { TRUE }")
+	private static final BooleanInput cacheOutputValues;
+
+	@Keyword(description = "The simulation time at which a digest of the model state is written "
+	                     + "for each run. The digest is written to the file <configuration file "
+	                     + "name>.digest and can be used to verify that a later execution of the "
+	                     + "run is identical by using the VerifyStateDigest keyword. A digest "
+	                     + "can also be written by the 'Save State Digest' item in the File menu "
+	                     + "while the model is running or paused. A digest cannot be used to "
+	                     + "restart a run.",
+	             example = "Simulation StateDigestTime { 30 h }")
+	private static final ValueInput stateDigestTime;
+
+	@Keyword(description = "If TRUE, a digest of the model state is written for each run at the "
+	                     + "end of the initialization period.",
+	             example = "Simulation StateDigestAtInitialization { TRUE }")
+	private static final BooleanInput stateDigestAtInit;
+
+	@Keyword(description = "A state digest file written by an earlier execution of the model. "
+	                     + "The run recorded by the digest is executed again from its start. When "
+	                     + "it reaches the time of the digest, its state is compared with the digest "
+	                     + "and the run is stopped with an error if they differ. No digests are "
+	                     + "written while a digest is being verified.",
+	             example = "Simulation VerifyStateDigest { 'model.digest' }")
+	private static final FileInput verifyStateDigest;
+
 	// Multiple Runs tab
 	@Keyword(description = "Defines the number of run indices and the maximum value N for each "
 	                     + "index. When making multiple runs, each index will be iterated from "
@@ -243,6 +296,10 @@ public class Simulation extends Entity {
 	private static double endTime;   // simulation time (seconds) for the end of the run
 	private static int runNumber;    // labels each run when multiple runs are being made
 	private static IntegerVector runIndexList;
+	private static int replicationRun; // the single run executed by a parallel replication, or zero
+	private static EventProfiler eventProfiler; // execution statistics for the present run, or null
+	private static EventTraceFormat eventTrace; // event trace being recorded or verified, or null
+	private static StateDigest expectedDigest; // state digest to be verified by the run, or null
 
 	private static Simulation myInstance;
 
@@ -287,6 +344,23 @@ public class Simulation extends Entity {
 		tickLengthInput.setUnitType(TimeUnit.class);
 		tickLengthInput.setValidRange(1e-9d, 5.0d);
 
+		eventListInput = new EnumInput<>(EventManager.EventListType.class, "EventList", "Key Inputs",
+				EventManager.EventListType.RED_BLACK_TREE);
+
+		profileEvents = new BooleanInput("ProfileEvents", "Key Inputs", false);
+
+		cacheOutputValues = new BooleanInput("CacheOutputValues", "Key Inputs", false);
+
+		stateDigestTime = new ValueInput("StateDigestTime", "Key Inputs", Double.POSITIVE_INFINITY);
+		stateDigestTime.setUnitType(TimeUnit.class);
+		stateDigestTime.setValidRange(0.0d, Double.POSITIVE_INFINITY);
+		stateDigestTime.setPromptReqd(false);
+
+		stateDigestAtInit = new BooleanInput("StateDigestAtInitialization", "Key Inputs", false);
+
+		verifyStateDigest = new FileInput("VerifyStateDigest", "Key Inputs", null);
+		verifyStateDigest.setValidFileExtensions("digest");
+
 		// Multiple Runs tab
 		IntegerVector defRangeList = new IntegerVector();
 		defRangeList.add(1);
@@ -375,6 +449,12 @@ public class Simulation extends Entity {
 		this.addInput(unitTypeList);
 		this.addInput(runOutputList);
 		this.addInput(tickLengthInput);
+		this.addInput(eventListInput);
+		this.addInput(profileEvents);
+		this.addInput(cacheOutputValues);
+		this.addInput(stateDigestTime);
+		this.addInput(stateDigestAtInit);
+		this.addInput(verifyStateDigest);
 
 		// Multiple Runs tab
 		this.addInput(runIndexDefinitionList);
@@ -530,15 +610,19 @@ public class Simulation extends Entity {
 		startTime = 0.0;
 		endTime = 8760.0*3600.0;
 		myInstance = null;
+		expectedDigest = null;
 
 		// close warning/error trace file
 		InputAgent.closeLogFile();
 
 		// Kill all entities except simulation
-		while(Entity.getAll().size() > 0) {
-			Entity ent = Entity.getAll().get(Entity.getAll().size()-1);
-			ent.kill();
+		ArrayList<? extends Entity> ents = Entity.getAll();
+		for (int i = ents.size() - 1; i >= 0; i--) {
+			ents.get(i).kill();
 		}
+		EntityPool.clear();
+		ReferenceIndex.clear();
+		StateHandle.clear();
 
 		// Reset the run number and run indices
 		Simulation.setRunNumber(1);
@@ -552,15 +636,30 @@ public class Simulation extends Entity {
 	 */
 	public static void start(EventManager evt) {
 		// Validate each entity based on inputs only
-		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
+		ModelInitializer.Failure fail = ModelInitializer.validate(Entity.getAll());
+		if (fail != null) {
+			InputAgent.logMessage("%s: Validation error - %s", fail.ent.getName(), fail.cause.getMessage());
+			GUIFrame.showErrorDialog("Input Error Detected During Validation",
+			                         "%s: %-70s",
+			                         fail.ent.getName(), fail.cause.getMessage());
+
+			GUIFrame.updateForSimState(GUIFrame.SIM_STATE_CONFIGURED);
+			return;
+		}
+
+		// Read the state digest for a run that is to be verified
+		expectedDigest = null;
+		if (verifyStateDigest.getValue() != null) {
 			try {
-				each.validate();
+				expectedDigest = StateDigest.read(new File(verifyStateDigest.getValue()));
+				if (expectedDigest.getTickLength() != tickLengthInput.getValue())
+					throw new ErrorException("The state digest was written using a TickLength of %s seconds",
+							expectedDigest.getTickLength());
 			}
-			catch (Throwable e) {
-				InputAgent.logMessage("%s: Validation error - %s", each.getName(), e.getMessage());
-				GUIFrame.showErrorDialog("Input Error Detected During Validation",
-				                         "%s: %-70s",
-				                         each.getName(), e.getMessage());
+			catch (ErrorException e) {
+				expectedDigest = null;
+				InputAgent.logMessage("State digest error - %s", e.getMessage());
+				GUIFrame.showErrorDialog("Unable to Verify State Digest", "%-70s", e.getMessage());
 
 				GUIFrame.updateForSimState(GUIFrame.SIM_STATE_CONFIGURED);
 				return;
@@ -569,17 +668,19 @@ public class Simulation extends Entity {
 
 		InputAgent.prepareReportDirectory();
 		evt.clear();
+		evt.setEventListType(eventListInput.getValue());
 		evt.setTraceListener(null);
+		closeEventTrace();
 
 		if( Simulation.traceEvents() ) {
 			String evtName = InputAgent.getConfigFile().getParentFile() + File.separator + InputAgent.getRunName() + ".evt";
-			EventRecorder rec = new EventRecorder(evtName);
-			evt.setTraceListener(rec);
+			eventTrace = new EventRecorder(evtName);
+			evt.setTraceListener(eventTrace);
 		}
 		else if( Simulation.verifyEvents() ) {
 			String evtName = InputAgent.getConfigFile().getParentFile() + File.separator + InputAgent.getRunName() + ".evt";
-			EventTracer trc = new EventTracer(evtName);
-			evt.setTraceListener(trc);
+			eventTrace = new EventTracer(evtName);
+			evt.setTraceListener(eventTrace);
 		}
 
 		evt.setTickLength(tickLengthInput.getValue());
@@ -587,15 +688,32 @@ public class Simulation extends Entity {
 		startTime = startTimeInput.getValue();
 		endTime = startTime + Simulation.getInitializationTime() + Simulation.getRunDuration();
 
-		Simulation.setRunNumber(startingRunNumber.getValue());
+		if (replicationRun > 0)
+			Simulation.setRunNumber(replicationRun);
+		else if (expectedDigest != null)
+			Simulation.setRunNumber(expectedDigest.getRunNumber());
+		else
+			Simulation.setRunNumber(startingRunNumber.getValue());
 		Simulation.startRun(evt);
 	}
 
+	/**
+	 * Restricts the model to executing the single given run, for use when the
+	 * runs are executed as parallel replications.
+	 * @param n - run number to execute, or zero to execute every run.
+	 */
+	public static void setReplicationRun(int n) {
+		replicationRun = n;
+	}
+
 	/**
 	 * Starts a single simulation run.
 	 * @param evt - EventManager for the run.
 	 */
 	private static void startRun(EventManager evt) {
+		eventProfiler = profileEvents.getValue() ? new EventProfiler() : null;
+		evt.setProfiler(eventProfiler);
+		OutputCache.setEnabled(cacheOutputValues.getValue());
 		evt.scheduleProcessExternal(0, 0, false, new InitModelTarget(), null);
 		evt.resume(evt.secondsToNearestTick(Simulation.getPauseTime()));
 	}
@@ -619,6 +737,10 @@ public class Simulation extends Entity {
 			InputAgent.printRunOutputs(EventManager.simSeconds());
 		}
 
+		// Print the event profile
+		if (eventProfiler != null)
+			InputAgent.printEventProfile(eventProfiler, EventManager.simSeconds());
+
 		// Increment the run number and check for last run
 		if (Simulation.isLastRun()) {
 			Simulation.end();
@@ -644,10 +766,12 @@ public class Simulation extends Entity {
 
 		// Close warning/error trace file
 		LogBox.logLine("Made it to do end at");
+		closeEventTrace();
 		InputAgent.closeLogFile();
 
-		// Always terminate the run when in batch mode
-		if (InputAgent.getBatch() || exitAtStop.getValue())
+		// Always terminate the run when in batch mode, unless this is one of
+		// several replications being executed in parallel
+		if (replicationRun == 0 && (InputAgent.getBatch() || exitAtStop.getValue()))
 			GUIFrame.shutdown(0);
 
 		EventManager.current().pause();
@@ -667,6 +791,17 @@ public class Simulation extends Entity {
 
 		// Close the output reports
 		InputAgent.stop();
+		closeEventTrace();
+	}
+
+	/**
+	 * Completes the event trace file that is being recorded or verified.
+	 */
+	private static void closeEventTrace() {
+		if (eventTrace == null)
+			return;
+		eventTrace.close();
+		eventTrace = null;
 	}
 
 	/**
@@ -680,29 +815,92 @@ public class Simulation extends Entity {
 		evt.clear();
 
 		// Destroy the entities that were generated during the run
-		for (int i = 0; i < Entity.getAll().size();) {
-			Entity ent = Entity.getAll().get(i);
-			if (ent.testFlag(Entity.FLAG_GENERATED))
-				ent.kill();
-			else
-				i++;
+		for (Entity ent : Entity.getGenerated()) {
+			ent.kill();
 		}
 
 		// Re-initialise the model
-		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
-			// Try/catch is required because some earlyInit methods use simTime which is only
-			// available from a process thread
-			try {
-				each.earlyInit();
-			} catch (Exception e) {}
-		}
+		// Failures are ignored because some earlyInit methods use simTime which is only
+		// available from a process thread
+		ArrayList<? extends Entity> ents = Entity.getAll();
+		ModelInitializer.earlyInit(ents);
 
 		// Initialise each entity a second time
-		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
-			try {
-				each.lateInit();
-			} catch (Exception e) {}
+		ModelInitializer.lateInit(ents, false);
+	}
+
+	/**
+	 * Schedules the events that write a digest of the state of the present run,
+	 * or that verify the state of the run against an earlier digest.
+	 */
+	static void scheduleStateDigests() {
+		if (expectedDigest != null) {
+			if (expectedDigest.getRunNumber() == runNumber) {
+				long wait = expectedDigest.getTick() - EventManager.simTicks();
+				EventManager.scheduleTicks(wait, StateDigest.PRIORITY, false, new StateDigestTarget(expectedDigest), null);
+			}
+			return;
+		}
+
+		if (stateDigestAtInit.getValue() && Simulation.getInitializationTime() > 0.0) {
+			double initTime = startTime + Simulation.getInitializationTime();
+			EventManager.scheduleSeconds(initTime, StateDigest.PRIORITY, false, new StateDigestTarget(), null);
+		}
+
+		if (stateDigestTime.getValue() != Double.POSITIVE_INFINITY)
+			EventManager.scheduleSeconds(stateDigestTime.getValue(), StateDigest.PRIORITY, false, new StateDigestTarget(), null);
+	}
+
+	/**
+	 * Writes a digest of the state of the present run at its next simulation
+	 * tick. The request is made from outside the model thread, such as by the
+	 * GUI, and is injected so that the events for the run are not disturbed.
+	 * No digest is written while the run is verifying an earlier digest.
+	 * @param evt - EventManager for the present run.
+	 */
+	public static void requestStateDigest(EventManager evt) {
+		if (expectedDigest != null) {
+			InputAgent.logMessage("State digests are not written while a digest is being verified");
+			return;
 		}
+		evt.injectProcessExternal(1, StateDigest.PRIORITY, false, new StateDigestTarget());
+	}
+
+	/**
+	 * Writes a digest of the present state of the model. Each digest replaces
+	 * the previous one for the same run.
+	 */
+	static void writeStateDigest() {
+		StateDigest dgst = StateDigest.capture(runNumber, EventManager.simTicks(), tickLengthInput.getValue());
+		String name = InputAgent.getRunName();
+		if (Simulation.isMultipleRuns())
+			name = name + "-" + Simulation.getRunCode();
+		String fileName = InputAgent.getReportFileName(name + ".digest");
+
+		InputAgent.prepareReportDirectory();
+		dgst.write(fileName);
+		InputAgent.logMessage("State digest for run %d written to %s at %s seconds",
+				runNumber, fileName, EventManager.simSeconds());
+	}
+
+	/**
+	 * Compares the present state of the run with the digest written by an
+	 * earlier execution of the same run.
+	 * @throws ErrorException if the run has not reached the state recorded by the digest.
+	 */
+	static void verifyStateDigest(StateDigest dgst) {
+		StateDigest present = StateDigest.capture(runNumber, EventManager.simTicks(), tickLengthInput.getValue());
+		ArrayList<String> diffs = dgst.getDifferences(present);
+		if (!diffs.isEmpty()) {
+			for (int i = 0; i < Math.min(diffs.size(), 10); i++) {
+				InputAgent.logMessage("State digest mismatch - %s", diffs.get(i));
+			}
+			if (diffs.size() > 10)
+				InputAgent.logMessage("State digest mismatch - %d further differences", diffs.size() - 10);
+			throw new ErrorException("The run does not match its state digest: %s", diffs.get(0));
+		}
+
+		InputAgent.logMessage("Run %d matches its state digest at %s seconds", runNumber, EventManager.simSeconds());
 	}
 
 	public static int getSubstreamNumber() {
@@ -794,6 +992,16 @@ public class Simulation extends Entity {
 			double simTime = EventManager.simSeconds();
 			return pauseConditionInput.getValue().getNextSample(simTime) != 0.0d;
 		}
+
+		@Override
+		public ChangeSignal[] getDependencies() {
+			if (pauseConditionInput.getValue() == null)
+				return null;
+			ArrayList<ChangeSignal> ret = new ArrayList<>();
+			if (!SampleExpression.addChangeSignals(pauseConditionInput.getValue(), ret))
+				return null;
+			return ret.toArray(new ChangeSignal[ret.size()]);
+		}
 	}
 	private final Conditional pauseCondition = new PauseConditional();
 
@@ -951,6 +1159,14 @@ public class Simulation extends Entity {
 		return String.format("##### RUN %s #####", Simulation.getRunCode());
 	}
 
+	public static int getStartingRunNumber() {
+		return startingRunNumber.getValue();
+	}
+
+	public static int getEndingRunNumber() {
+		return endingRunNumber.getValue();
+	}
+
 	public static boolean isMultipleRuns() {
 		return endingRunNumber.getValue() > startingRunNumber.getValue();
 	}
@@ -960,6 +1176,8 @@ public class Simulation extends Entity {
 	}
 
 	public static boolean isLastRun() {
+		if (replicationRun > 0)
+			return true;
 		return runNumber >= endingRunNumber.getValue();
 	}
 
@@ -1046,4 +1264,91 @@ public class Simulation extends Entity {
 		return simTime;
 	}
 
+	@Output(name = "EventsExecuted",
+	 description = "The number of events executed in the present run. "
+	             + "Recorded only when the ProfileEvents keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 9)
+	public long getEventsExecuted(double simTime) {
+		if (eventProfiler == null)
+			return 0;
+		return eventProfiler.getEventsExecuted();
+	}
+
+	@Output(name = "EventsScheduled",
+	 description = "The number of events scheduled in the present run. "
+	             + "Recorded only when the ProfileEvents keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 10)
+	public long getEventsScheduled(double simTime) {
+		if (eventProfiler == null)
+			return 0;
+		return eventProfiler.getEventsScheduled();
+	}
+
+	@Output(name = "EventsKilled",
+	 description = "The number of scheduled events that were killed or interrupted "
+	             + "in the present run. "
+	             + "Recorded only when the ProfileEvents keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 11)
+	public long getEventsKilled(double simTime) {
+		if (eventProfiler == null)
+			return 0;
+		return eventProfiler.getEventsKilled() + eventProfiler.getEventsInterrupted();
+	}
+
+	@Output(name = "ConditionalEvaluations",
+	 description = "The number of times a condition for a WaitUntil event was evaluated "
+	             + "in the present run. "
+	             + "Recorded only when the ProfileEvents keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 12)
+	public long getConditionalEvaluations(double simTime) {
+		if (eventProfiler == null)
+			return 0;
+		return eventProfiler.getConditionalEvaluations();
+	}
+
+	@Output(name = "ProcessHandoffs",
+	 description = "The number of times that execution was transferred from one process "
+	             + "thread to another in the present run. "
+	             + "Recorded only when the ProfileEvents keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 13)
+	public long getProcessHandoffs(double simTime) {
+		if (eventProfiler == null)
+			return 0;
+		return eventProfiler.getProcessHandoffs();
+	}
+
+	@Output(name = "ProcessPoolHighWaterMark",
+	 description = "The largest number of idle process threads held for re-use since "
+	             + "the program was started.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 14)
+	public int getProcessPoolHighWaterMark(double simTime) {
+		return EventProfiler.getPoolHighWaterMark();
+	}
+
+	@Output(name = "OutputCacheHits",
+	 description = "The number of output values that were re-used instead of being calculated "
+	             + "in the present run. "
+	             + "Recorded only when the CacheOutputValues keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 15)
+	public long getOutputCacheHits(double simTime) {
+		return OutputCache.getHits();
+	}
+
+	@Output(name = "OutputCacheMisses",
+	 description = "The number of output values that were calculated and saved for re-use "
+	             + "in the present run. "
+	             + "Recorded only when the CacheOutputValues keyword is set to TRUE.",
+	    unitType = DimensionlessUnit.class,
+	    sequence = 16)
+	public long getOutputCacheMisses(double simTime) {
+		return OutputCache.getMisses();
+	}
+
 }
@@ -0,0 +1,266 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.rng.MRG1999a;
+
+/**
+ * A digest of the state of a simulation run at a given simulation time, used
+ * to verify that a later execution of the same run reproduces it exactly.
+ * <p>
+ * A state digest cannot be used to restart a run. The Process threads and
+ * ProcessTargets held by the event list cannot be written to a file, so a run
+ * is verified by executing it again from its start up to the tick at which the
+ * digest was written. The digest records the run number and tick, a hash of the
+ * pending events, and a hash of the state of each entity, including the generated
+ * entities, the contents of queues, the StateEntity statistics and the seeds for
+ * each random number stream. Hashes can collide, so matching digests show that
+ * two runs agree with a high probability rather than with certainty.
+ * <p>
+ * Digests are taken by an event with the highest possible priority, so that
+ * they record the state before any other event at that tick is executed.
+ */
+public final class StateDigest {
+	private static final String HEADER = "JaamSimStateDigest";
+	private static final int VERSION = 2;
+
+	/**
+	 * Priority for the events that write and verify state digests.
+	 */
+	static final int PRIORITY = Integer.MIN_VALUE;
+
+	private final int runNumber;
+	private final long tick;
+	private final double tickLength;
+	private long eventDigest;
+	private final LinkedHashMap<Long, EntityState> entities;
+
+	private static final class EntityState {
+		final String name;
+		final long digest;
+
+		EntityState(String n, long d) {
+			name = n;
+			digest = d;
+		}
+	}
+
+	private StateDigest(int run, long t, double len) {
+		runNumber = run;
+		tick = t;
+		tickLength = len;
+		entities = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Returns a digest of the present state of the model.
+	 * @param run - run number for the present run.
+	 * @param t - present simulation tick.
+	 * @param len - length of each tick in seconds.
+	 */
+	public static StateDigest capture(int run, long t, double len) {
+		StateDigest ret = new StateDigest(run, t, len);
+		if (EventManager.hasCurrent())
+			ret.eventDigest = EventManager.current().getEventListDigest(StateDigestTarget.class);
+		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
+			Hash hash = new Hash();
+			each.addStateDigest(hash);
+			addRandomStreams(each, hash);
+			ret.entities.put(each.getEntityNumber(), new EntityState(String.valueOf(each.getName()), hash.getValue()));
+		}
+		return ret;
+	}
+
+	/**
+	 * Adds the seeds for the random number streams held by the entity to the
+	 * hash. Each stream is found from the fields declared by the entity's class
+	 * and its superclasses.
+	 */
+	private static void addRandomStreams(Entity ent, Hash hash) {
+		for (Class<?> klass = ent.getClass(); klass != Entity.class; klass = klass.getSuperclass()) {
+			for (Field field : klass.getDeclaredFields()) {
+				if (field.getType() != MRG1999a.class || Modifier.isStatic(field.getModifiers()))
+					continue;
+
+				try {
+					field.setAccessible(true);
+					Object rng = field.get(ent);
+					if (rng != null)
+						hash.add(rng.toString());
+				}
+				catch (IllegalAccessException e) {
+					throw new ErrorException(e);
+				}
+			}
+		}
+	}
+
+	public int getRunNumber() {
+		return runNumber;
+	}
+
+	public long getTick() {
+		return tick;
+	}
+
+	public double getTickLength() {
+		return tickLength;
+	}
+
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Returns a description of each difference between the state recorded by
+	 * this digest and the state recorded by the given digest.
+	 */
+	public ArrayList<String> getDifferences(StateDigest other) {
+		ArrayList<String> ret = new ArrayList<>();
+		if (tick != other.tick)
+			ret.add(String.format("Simulation tick %d differs from %d", other.tick, tick));
+		if (eventDigest != other.eventDigest)
+			ret.add("The pending events are different");
+
+		for (Entry<Long, EntityState> each : entities.entrySet()) {
+			EntityState state = each.getValue();
+			EntityState otherState = other.entities.get(each.getKey());
+			if (otherState == null) {
+				ret.add(String.format("Entity %s (%d) does not exist", state.name, each.getKey()));
+				continue;
+			}
+			if (!otherState.name.equals(state.name) || otherState.digest != state.digest)
+				ret.add(String.format("Entity %s (%d) is in a different state", state.name, each.getKey()));
+		}
+
+		for (Entry<Long, EntityState> each : other.entities.entrySet()) {
+			if (!entities.containsKey(each.getKey()))
+				ret.add(String.format("Entity %s (%d) was not expected", each.getValue().name, each.getKey()));
+		}
+		return ret;
+	}
+
+	/**
+	 * Writes the digest to the given file.
+	 */
+	public void write(String fileName) {
+		FileEntity file = new FileEntity(fileName);
+		file.format("%s\t%d%n", HEADER, VERSION);
+		file.format("RunNumber\t%d%n", runNumber);
+		file.format("Tick\t%d%n", tick);
+		file.format("TickLength\t%s%n", Double.toString(tickLength));
+		file.format("Events\t%016x%n", eventDigest);
+		for (Entry<Long, EntityState> each : entities.entrySet()) {
+			EntityState state = each.getValue();
+			file.format("Entity\t%d\t%s\t%016x%n", each.getKey(), state.name, state.digest);
+		}
+		file.close();
+	}
+
+	/**
+	 * Reads a digest from the given file.
+	 * @throws ErrorException if the file cannot be read or is not a state digest.
+	 */
+	public static StateDigest read(File file) {
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				String[] header = split(reader.readLine(), 2);
+				if (!header[0].equals(HEADER) || Integer.parseInt(header[1]) != VERSION)
+					throw new ErrorException("%s is not a state digest file", file);
+
+				int run = Integer.parseInt(split(reader.readLine(), 2)[1]);
+				long t = Long.parseLong(split(reader.readLine(), 2)[1]);
+				double len = Double.parseDouble(split(reader.readLine(), 2)[1]);
+				StateDigest ret = new StateDigest(run, t, len);
+				ret.eventDigest = new BigInteger(split(reader.readLine(), 2)[1], 16).longValue();
+
+				String line;
+				while ((line = reader.readLine()) != null) {
+					String[] vals = split(line, 4);
+					long digest = new BigInteger(vals[3], 16).longValue();
+					ret.entities.put(Long.parseLong(vals[1]), new EntityState(vals[2], digest));
+				}
+				return ret;
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (IOException | NumberFormatException e) {
+			throw new ErrorException("Unable to read state digest file %s - %s", file, e.getMessage());
+		}
+	}
+
+	private static String[] split(String line, int num) {
+		if (line == null)
+			throw new NumberFormatException("unexpected end of file");
+		String[] ret = line.split("\t");
+		if (ret.length != num)
+			throw new NumberFormatException("invalid line: " + line);
+		return ret;
+	}
+
+	/**
+	 * Accumulates a 64-bit hash of the values that describe the state of an
+	 * entity.
+	 */
+	public static final class Hash {
+		private long value = 0xcbf29ce484222325L;
+
+		Hash() {}
+
+		public void add(long val) {
+			value ^= val;
+			value *= 0x100000001b3L;
+			value ^= value >>> 29;
+		}
+
+		public void add(double val) {
+			add(Double.doubleToLongBits(val));
+		}
+
+		public void add(boolean val) {
+			add(val ? 1L : 0L);
+		}
+
+		public void add(String val) {
+			if (val == null) {
+				add(0L);
+				return;
+			}
+			add(val.hashCode());
+			add(val.length());
+		}
+
+		long getValue() {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Writes a state digest for the present run, or verifies that the run has
+ * reached the state recorded by an earlier digest.
+ */
+public class StateDigestTarget extends ProcessTarget {
+	private final StateDigest expected;
+
+	/**
+	 * Creates a target that writes a digest of the present state of the model.
+	 */
+	public StateDigestTarget() {
+		expected = null;
+	}
+
+	/**
+	 * Creates a target that compares the present state of the model with the
+	 * given digest.
+	 */
+	public StateDigestTarget(StateDigest dgst) {
+		expected = dgst;
+	}
+
+	@Override
+	public String getDescription() {
+		return expected == null ? "SimulationStateDigest" : "SimulationVerifyStateDigest";
+	}
+
+	@Override
+	public void process() {
+		if (expected == null)
+			Simulation.writeStateDigest();
+		else
+			Simulation.verifyStateDigest(expected);
+	}
+}
@@ -341,19 +341,11 @@ public class RenderManager implements DragSourceListener {
 				ArrayList<DisplayModelBinding> selectedBindings = new ArrayList<>();
 
 				// Update all graphical entities in the simulation
-				final ArrayList<? extends Entity> allEnts = Entity.getAll();
-				for (int i = 0; i < allEnts.size(); i++) {
-					DisplayEntity de;
-					try {
-						Entity e = allEnts.get(i);
-						if (e instanceof DisplayEntity)
-							de = (DisplayEntity)e;
-						else
-							continue;
-					}
-					catch (IndexOutOfBoundsException e) {
-						break;
-					}
+				final ArrayList<DisplayEntity> allEnts = new ArrayList<>();
+				for (DisplayEntity each : Entity.getClonesOfIterator(DisplayEntity.class)) {
+					allEnts.add(each);
+				}
+				for (DisplayEntity de : allEnts) {
 
 					try {
 						de.updateGraphics(renderTime);
@@ -367,18 +359,7 @@ public class RenderManager implements DragSourceListener {
 				long updateNanos = System.nanoTime();
 
 				int totalBindings = 0;
-				for (int i = 0; i < allEnts.size(); i++) {
-					DisplayEntity de;
-					try {
-						Entity e = allEnts.get(i);
-						if (e instanceof DisplayEntity)
-							de = (DisplayEntity)e;
-						else
-							continue;
-					}
-					catch (IndexOutOfBoundsException e) {
-						break;
-					}
+				for (DisplayEntity de : allEnts) {
 
 					for (DisplayModelBinding binding : de.getDisplayBindings()) {
 						try {
@@ -927,7 +908,7 @@ public class RenderManager implements DragSourceListener {
 
 		// LINE MOVE
 		if (dragHandleID == LINEDRAG_PICK_ID)
-			return handleLineMove(currentRay, lastRay, currentDist, lastDist, dragInfo.shiftDown());
+			return handleLineMove(currentRay, firstRay, currentDist, firstDist, dragInfo.shiftDown());
 
 		// LINE NODE MOVE
 		if (dragHandleID <= LINENODE_PICK_ID)
@@ -936,6 +917,16 @@ public class RenderManager implements DragSourceListener {
 		return false;
 	}
 
+	/**
+	 * Moves the selected entity to the given global position and sets its
+	 * Position input to the new local position.
+	 */
+	private void setGlobalPositionInput(Vec3d pos) {
+		selectedEntity.setGlobalPosition(pos);
+		KeywordIndex kw = InputAgent.formatPointInputs("Position", selectedEntity.getPosition(), "m");
+		GUIFrame.applyInput(selectedEntity, kw);
+	}
+
 	//Moves the selected entity to a new position in space
 	private boolean handleMove(Ray currentRay, Ray firstRay, double currentDist, double firstDist, boolean shift) {
 
@@ -951,7 +942,7 @@ public class RenderManager implements DragSourceListener {
 			entPos.z += zDiff;
 			if (Simulation.isSnapToGrid())
 				entPos = Simulation.getSnapGridPosition(entPos, selectedEntity.getGlobalPosition());
-			selectedEntity.setInputForGlobalPosition(entPos);
+			this.setGlobalPositionInput(entPos);
 			return true;
 		}
 
@@ -974,7 +965,7 @@ public class RenderManager implements DragSourceListener {
 		pos.add3(del);
 		if (Simulation.isSnapToGrid())
 			pos = Simulation.getSnapGridPosition(pos, selectedEntity.getGlobalPosition());
-		selectedEntity.setInputForGlobalPosition(pos);
+		this.setGlobalPositionInput(pos);
 		return true;
 	}
 
@@ -1075,10 +1066,10 @@ public class RenderManager implements DragSourceListener {
 		posAdjust.sub3(oldFixed, newFixed);
 
 		pos.add3(posAdjust);
-		selectedEntity.setInputForGlobalPosition(pos);
+		this.setGlobalPositionInput(pos);
 
 		KeywordIndex kw = InputAgent.formatPointInputs("Size", selectedEntity.getSize(), "m");
-		InputAgent.apply(selectedEntity, kw);
+		GUIFrame.applyInput(selectedEntity, kw);
 		return true;
 	}
 
@@ -1109,17 +1100,18 @@ public class RenderManager implements DragSourceListener {
 		Vec3d orient = selectedEntity.getOrientation();
 		orient.z += theta;
 		KeywordIndex kw = InputAgent.formatPointInputs("Orientation", orient, "rad");
-		InputAgent.apply(selectedEntity, kw);
+		GUIFrame.applyInput(selectedEntity, kw);
 		return true;
 	}
 
-	private boolean handleLineMove(Ray currentRay, Ray lastRay, double currentDist, double lastDist, boolean shift) {
+	private boolean handleLineMove(Ray currentRay, Ray firstRay, double currentDist, double firstDist, boolean shift) {
 
-		// The points where the previous pick ended and current position. Collision is with the entity's XY plane
+		// The points where the drag started and current position. Collision is with the entity's XY plane
+		// The move is measured from the start of the drag as the inputs can be applied later on the model thread
 		Vec3d currentPoint = currentRay.getPointAtDist(currentDist);
-		Vec3d lastPoint = lastRay.getPointAtDist(lastDist);
+		Vec3d firstPoint = firstRay.getPointAtDist(firstDist);
 
-		ArrayList<Vec3d> screenPoints = selectedEntity.getPoints();
+		ArrayList<Vec3d> screenPoints = dragEntityPoints;
 		if (screenPoints == null || screenPoints.isEmpty())
 			return true;
 
@@ -1127,10 +1119,10 @@ public class RenderManager implements DragSourceListener {
 
 		if (shift) {
 			Vec4d medPoint = RenderUtils.getGeometricMedian(screenPoints);
-			delta.z = RenderUtils.getZDiff(medPoint, currentRay, lastRay);
+			delta.z = RenderUtils.getZDiff(medPoint, currentRay, firstRay);
 		}
 		else {
-			delta.sub3(currentPoint, lastPoint);
+			delta.sub3(currentPoint, firstPoint);
 			if (selectedEntity.getCurrentRegion() != null) {
 				Transform invTrans = selectedEntity.getCurrentRegion().getInverseRegionTransForVectors();
 				invTrans.multAndTrans(delta, delta);
@@ -1138,10 +1130,12 @@ public class RenderManager implements DragSourceListener {
 		}
 
 		// Set the new position for the line
-		InputAgent.apply(selectedEntity, InputAgent.formatPointsInputs("Points", screenPoints, delta));
+		GUIFrame.applyInput(selectedEntity, InputAgent.formatPointsInputs("Points", screenPoints, delta));
 
 		// Set the position of the entity to the coordinates of the first node
-		InputAgent.apply(selectedEntity, InputAgent.formatPointInputs("Position", screenPoints.get(0), "m"));
+		Vec3d pos = new Vec3d(screenPoints.get(0));
+		pos.add3(delta);
+		GUIFrame.applyInput(selectedEntity, InputAgent.formatPointInputs("Position", pos, "m"));
 		return true;
 	}
 
@@ -1173,11 +1167,11 @@ public class RenderManager implements DragSourceListener {
 
 		// Set the new position for the node
 		screenPoints.get(nodeIndex).set3(selectedEntity.getLocalPosition(point));
-		InputAgent.apply(selectedEntity, InputAgent.formatPointsInputs("Points", screenPoints, new Vec3d()));
+		GUIFrame.applyInput(selectedEntity, InputAgent.formatPointsInputs("Points", screenPoints, new Vec3d()));
 
 		// Set the position of the entity to the coordinates of the first node
 		if (nodeIndex == 0)
-			InputAgent.apply(selectedEntity, InputAgent.formatPointInputs("Position", screenPoints.get(0), "m"));
+			GUIFrame.applyInput(selectedEntity, InputAgent.formatPointInputs("Position", screenPoints.get(0), "m"));
 		return true;
 	}
 
@@ -1235,7 +1229,7 @@ public class RenderManager implements DragSourceListener {
 			splitPoints.add(points.get(i));
 		}
 		KeywordIndex kw = InputAgent.formatPointsInputs("Points", splitPoints, new Vec3d());
-		InputAgent.apply(selectedEntity, kw);
+		GUIFrame.applyInput(selectedEntity, kw);
 	}
 
 	private void removeLineNode(int windowID, int x, int y) {
@@ -1278,7 +1272,7 @@ public class RenderManager implements DragSourceListener {
 			splitPoints.add(points.get(i));
 		}
 		KeywordIndex kw = InputAgent.formatPointsInputs("Points", splitPoints, new Vec3d());
-		InputAgent.apply(selectedEntity, kw);
+		GUIFrame.applyInput(selectedEntity, kw);
 	}
 
 	private boolean isMouseHandleID(long id) {
@@ -0,0 +1,378 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+/**
+ * CalendarQueue is an EventList based on the calendar queue described in R. Brown,
+ * "Calendar Queues: A Fast O(1) Priority Queue Implementation for the Simulation
+ * Event Set Problem", Communications of the ACM, 31(10), 1988.
+ * <p>
+ * Each bucket holds the nodes whose schedTick falls in one 'day' of the calendar,
+ * modulo the length of a 'year', as a sorted list linked through EventNode.right.
+ * The number of buckets is doubled or halved as the number of nodes changes and
+ * the bucket width is re-estimated from the nodes at the front of the queue each
+ * time the calendar is resized.
+ */
+class CalendarQueue implements EventList {
+
+	private static final int MIN_BUCKETS = 16;  // must be a power of two
+	private static final int NUM_SAMPLES = 25;  // number of nodes used to estimate the bucket width
+
+	private EventNode[] buckets;
+	private long width;     // the number of ticks covered by each bucket
+	private int numNodes;
+	private long scanTick;  // lower bound for the schedTick of every node in the queue
+	private EventNode lowest = null;
+
+	private final long[] samples = new long[NUM_SAMPLES];
+
+	CalendarQueue() {
+		reset();
+	}
+
+	@Override
+	public EventNode getNextNode() {
+		if (lowest == null) updateLowest();
+		return lowest;
+	}
+
+	@Override
+	public final void reset() {
+		// Return the nodes to the free list so that they are reused by the next run
+		if (buckets != null) {
+			for (int i = 0; i < buckets.length; i++) {
+				EventNode curr = buckets[i];
+				while (curr != null) {
+					EventNode next = curr.right;
+					reuseNode(curr);
+					curr = next;
+				}
+			}
+		}
+
+		buckets = new EventNode[MIN_BUCKETS];
+		width = 1;
+		numNodes = 0;
+		scanTick = 0;
+		lowest = null;
+	}
+
+	private void updateLowest() {
+		if (numNodes == 0) {
+			lowest = null;
+			return;
+		}
+
+		// Search one year of the calendar starting with the day containing scanTick
+		int mask = buckets.length - 1;
+		long day = floorDiv(scanTick, width);
+		for (int i = 0; i < buckets.length; i++, day++) {
+			EventNode head = buckets[(int)(day & mask)];
+			if (head != null && floorDiv(head.schedTick, width) <= day) {
+				lowest = head;
+				scanTick = head.schedTick;
+				return;
+			}
+		}
+
+		// No node in the next year, perform a direct search of the bucket heads
+		EventNode min = null;
+		for (int i = 0; i < buckets.length; i++) {
+			EventNode head = buckets[i];
+			if (head == null)
+				continue;
+			if (min == null || head.compareToNode(min) < 0)
+				min = head;
+		}
+		lowest = min;
+		scanTick = min.schedTick;
+
+		// The bucket width is no longer suited to the nodes in the queue
+		if (numNodes > buckets.length / 2)
+			resize(buckets.length);
+	}
+
+	@Override
+	public final EventNode createOrFindNode(long schedTick, int priority) {
+		int idx = (int)(floorDiv(schedTick, width) & (buckets.length - 1));
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (curr != null) {
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				return curr; // Found existing node
+			if (comp > 0)
+				break;
+			prev = curr;
+			curr = curr.right;
+		}
+
+		// There is no current node for this time/priority
+		EventNode newNode = getNewNode(schedTick, priority);
+		newNode.right = curr;
+		if (prev == null)
+			buckets[idx] = newNode;
+		else
+			prev.right = newNode;
+
+		if (numNodes == 0 || schedTick < scanTick)
+			scanTick = schedTick;
+		numNodes++;
+
+		if (lowest != null && newNode.compareToNode(lowest) < 0)
+			lowest = newNode;
+
+		if (numNodes > 2 * buckets.length)
+			resize(2 * buckets.length);
+
+		return newNode;
+	}
+
+	@Override
+	public final boolean removeNode(long schedTick, int priority) {
+		int idx = (int)(floorDiv(schedTick, width) & (buckets.length - 1));
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (true) {
+			if (curr == null)
+				return false; // Node not found
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				break;
+			if (comp > 0)
+				return false; // Node not found
+			prev = curr;
+			curr = curr.right;
+		}
+
+		// Debugging
+		if (curr.head != null || curr.tail != null)
+			throw new RuntimeException("Removing non-empy node");
+
+		if (prev == null)
+			buckets[idx] = curr.right;
+		else
+			prev.right = curr.right;
+		numNodes--;
+
+		// scanTick remains a valid lower bound after a removal
+		if (curr == lowest)
+			lowest = null;
+
+		reuseNode(curr);
+
+		if (numNodes < buckets.length / 2 && buckets.length > MIN_BUCKETS)
+			resize(buckets.length / 2);
+
+		return true;
+	}
+
+	/**
+	 * Re-distributes the nodes into the given number of buckets using a new
+	 * estimate for the bucket width.
+	 */
+	private void resize(int newSize) {
+		EventNode[] oldBuckets = buckets;
+		width = estimateWidth();
+		buckets = new EventNode[newSize];
+
+		for (int i = 0; i < oldBuckets.length; i++) {
+			EventNode curr = oldBuckets[i];
+			while (curr != null) {
+				EventNode next = curr.right;
+				insertNode(curr);
+				curr = next;
+			}
+		}
+	}
+
+	private void insertNode(EventNode node) {
+		int idx = (int)(floorDiv(node.schedTick, width) & (buckets.length - 1));
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (curr != null && curr.compareToNode(node) < 0) {
+			prev = curr;
+			curr = curr.right;
+		}
+
+		node.right = curr;
+		if (prev == null)
+			buckets[idx] = node;
+		else
+			prev.right = node;
+	}
+
+	/**
+	 * Returns the bucket width as three times the average separation between the
+	 * earliest event times in the queue, after discarding separations that are
+	 * more than twice the initial average.
+	 */
+	private long estimateWidth() {
+		// Collect the earliest distinct event times in ascending order
+		int num = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			for (EventNode curr = buckets[i]; curr != null; curr = curr.right) {
+				num = addSample(curr.schedTick, num);
+			}
+		}
+
+		if (num < 2)
+			return width;
+
+		double sum = 0.0d;
+		for (int i = 1; i < num; i++) {
+			sum += (double)samples[i] - (double)samples[i - 1];
+		}
+		double avg = sum / (num - 1);
+
+		double trimmedSum = 0.0d;
+		int trimmedNum = 0;
+		for (int i = 1; i < num; i++) {
+			double sep = (double)samples[i] - (double)samples[i - 1];
+			if (sep > 2.0d * avg)
+				continue;
+			trimmedSum += sep;
+			trimmedNum++;
+		}
+		if (trimmedNum > 0)
+			avg = trimmedSum / trimmedNum;
+
+		double ret = Math.ceil(3.0d * avg);
+		if (ret >= Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+		return Math.max(1L, (long)ret);
+	}
+
+	// Insert the tick into the sorted array of samples, keeping the lowest values
+	private int addSample(long tick, int num) {
+		int pos = num;
+		while (pos > 0 && samples[pos - 1] >= tick) {
+			if (samples[pos - 1] == tick)
+				return num;
+			pos--;
+		}
+
+		if (pos == NUM_SAMPLES)
+			return num;
+
+		int last = Math.min(num, NUM_SAMPLES - 1);
+		System.arraycopy(samples, pos, samples, pos + 1, last - pos);
+		samples[pos] = tick;
+		return last + 1;
+	}
+
+	/**
+	 * Returns the largest integer that is less than or equal to a/b for b > 0.
+	 */
+	private static long floorDiv(long a, long b) {
+		if (a >= 0)
+			return a / b;
+		return -((-(a + 1)) / b) - 1;
+	}
+
+	@Override
+	public final void runOnAllNodes(EventNode.Runner runner) {
+		for (int i = 0; i < buckets.length; i++) {
+			EventNode curr = buckets[i];
+			while (curr != null) {
+				EventNode next = curr.right;
+				runner.runOnNode(curr);
+				curr = next;
+			}
+		}
+	}
+
+	// Verify the bucket structure and return the number of nodes
+	@Override
+	public final int verify() {
+		int count = 0;
+		int mask = buckets.length - 1;
+		for (int i = 0; i < buckets.length; i++) {
+			EventNode prev = null;
+			for (EventNode curr = buckets[i]; curr != null; curr = curr.right) {
+				if ((floorDiv(curr.schedTick, width) & mask) != i)
+					throw new RuntimeException("Calendar queue bucket verify failed");
+				if (prev != null && prev.compareToNode(curr) >= 0)
+					throw new RuntimeException("Calendar queue order verify failed");
+				if (curr.schedTick < scanTick)
+					throw new RuntimeException("Calendar queue lower bound verify failed");
+				prev = curr;
+				count++;
+			}
+		}
+
+		if (count != numNodes)
+			throw new RuntimeException("Calendar queue node count verify failed");
+		return count;
+	}
+
+	@Override
+	public final EventNode find(long schedTick, int priority) {
+		int idx = (int)(floorDiv(schedTick, width) & (buckets.length - 1));
+		for (EventNode curr = buckets[idx]; curr != null; curr = curr.right) {
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				return curr;
+			if (comp > 0)
+				return null;
+		}
+		return null;
+	}
+
+	@Override
+	public final int verifyNodeCount() {
+		int count = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			for (EventNode curr = buckets[i]; curr != null; curr = curr.right) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private EventNode freeList = null;
+
+	private EventNode getNewNode(long schedTick, int priority) {
+		if (freeList == null) {
+			return new EventNode(schedTick, priority);
+		}
+
+		EventNode ret = freeList;
+		freeList = freeList.left;
+
+		ret.schedTick = schedTick;
+		ret.priority = priority;
+		ret.head = null;
+		ret.tail = null;
+
+		ret.left = EventNode.nilNode;
+		ret.right = EventNode.nilNode;
+		ret.red = false;
+
+		return ret;
+	}
+
+	private void reuseNode(EventNode node) {
+		// Clear the node
+		node.right = null;
+		node.head = null;
+		node.tail = null;
+
+		node.left = freeList;
+		freeList = node;
+	}
+}
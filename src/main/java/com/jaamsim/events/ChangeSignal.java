@@ -0,0 +1,116 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+/**
+ * A ChangeSignal is triggered by model code whenever a value that can be tested
+ * by a Conditional has changed, for example the state of an entity or the number
+ * of entities in a queue. A Conditional that returns its signals from
+ * getDependencies() is only re-evaluated after one of them has been triggered.
+ * <p>
+ * Every signal that is triggered also increments a count of the changes made to
+ * the state of the model, which is used to discard the values held by OutputCache.
+ */
+public final class ChangeSignal {
+	private static long numChanges; // number of times a signal has been triggered
+
+	// Conditional events to be notified on the next change, each entry is only
+	// valid if the event has not been re-armed since it was added
+	private ConditionalEvent[] waiters;
+	private int[] armCounts;
+	private int numWaiters;
+
+	public ChangeSignal() {
+		waiters = new ConditionalEvent[4];
+		armCounts = new int[4];
+		numWaiters = 0;
+	}
+
+	/**
+	 * Notifies the EventManager that the Conditionals depending on this signal
+	 * must be re-evaluated before simulation time is advanced.
+	 */
+	public final void changed() {
+		numChanges++;
+		if (numWaiters == 0)
+			return;
+
+		for (int i = 0; i < numWaiters; i++) {
+			ConditionalEvent ce = waiters[i];
+			waiters[i] = null;
+			if (ce.armCount == armCounts[i])
+				ce.evt.markDirty(ce);
+		}
+		numWaiters = 0;
+	}
+
+	/**
+	 * Triggers the given signal. The signal can be null when it is created only
+	 * once a Conditional depends on it, in which case only the count of changes is
+	 * incremented.
+	 */
+	public static final void changed(ChangeSignal sig) {
+		if (sig == null) {
+			numChanges++;
+			return;
+		}
+		sig.changed();
+	}
+
+	/**
+	 * Returns the number of times that a signal has been triggered. The value
+	 * differs whenever the state of the model has changed.
+	 */
+	public static final long getNumChanges() {
+		return numChanges;
+	}
+
+	final void add(ConditionalEvent ce) {
+		if (numWaiters == waiters.length) {
+			removeStale();
+			if (numWaiters > waiters.length / 2) {
+				int newSize = 2 * waiters.length;
+				ConditionalEvent[] tmpWaiters = new ConditionalEvent[newSize];
+				int[] tmpArmCounts = new int[newSize];
+				System.arraycopy(waiters, 0, tmpWaiters, 0, numWaiters);
+				System.arraycopy(armCounts, 0, tmpArmCounts, 0, numWaiters);
+				waiters = tmpWaiters;
+				armCounts = tmpArmCounts;
+			}
+		}
+
+		waiters[numWaiters] = ce;
+		armCounts[numWaiters] = ce.armCount;
+		numWaiters++;
+	}
+
+	// Drop the entries for events that have been satisfied, killed, or re-armed
+	private void removeStale() {
+		int num = 0;
+		for (int i = 0; i < numWaiters; i++) {
+			ConditionalEvent ce = waiters[i];
+			waiters[i] = null;
+			if (!ce.waiting || ce.dirty || ce.armCount != armCounts[i])
+				continue;
+
+			waiters[num] = ce;
+			armCounts[num] = armCounts[i];
+			num++;
+		}
+		numWaiters = num;
+	}
+}
@@ -18,4 +18,17 @@ package com.jaamsim.events;
 
 public abstract class Conditional {
 	public abstract boolean evaluate();
+
+	/**
+	 * Returns the signals that are triggered whenever the result of evaluate()
+	 * could change. A Conditional that returns a non-null array is only
+	 * re-evaluated after one of its signals has been triggered, otherwise it is
+	 * evaluated each time simulation time is about to advance.
+	 * <p>
+	 * The dependencies are requested again each time the Conditional evaluates
+	 * to false.
+	 */
+	public ChangeSignal[] getDependencies() {
+		return null;
+	}
 }
@@ -18,8 +18,20 @@ package com.jaamsim.events;
 
 final class ConditionalEvent extends BaseEvent {
 	Conditional c;
+	final EventManager evt;
+	final long seq; // insertion order, used to evaluate the conditions in order
 
-	ConditionalEvent(Conditional c, ProcessTarget t, EventHandle hand) {
+	ConditionalEvent prev;
+	ConditionalEvent next;
+
+	boolean tracked; // TRUE if the conditional declared its dependencies
+	boolean waiting; // TRUE while the event is held by the EventManager
+	boolean dirty;   // TRUE if the conditional must be re-evaluated
+	int armCount;    // incremented each time the event is registered with its signals
+
+	ConditionalEvent(EventManager evt, long seq, Conditional c, ProcessTarget t, EventHandle hand) {
+		this.evt = evt;
+		this.seq = seq;
 		this.target = t;
 		this.handle = hand;
 		this.c = c;
@@ -23,6 +23,7 @@ package com.jaamsim.events;
 final class Event extends BaseEvent {
 	EventNode node;
 	Event next;
+	Event prev;
 
 	Event() {}
 }
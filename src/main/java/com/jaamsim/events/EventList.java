@@ -0,0 +1,72 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+/**
+ * The future event list used by the EventManager. An EventList stores one
+ * EventNode for each distinct (schedTick, priority) pair that has scheduled
+ * events, and returns them in order of increasing time, then priority.
+ * <p>
+ * The ordering of the events within a node (FIFO/LIFO) is maintained by the
+ * EventNode itself and is independent of the EventList implementation.
+ */
+interface EventList {
+
+	/**
+	 * Returns the node with the lowest (schedTick, priority), or null if the
+	 * list is empty.
+	 */
+	EventNode getNextNode();
+
+	/**
+	 * Returns the node for the given time and priority, creating and inserting
+	 * a new empty node if one does not already exist.
+	 */
+	EventNode createOrFindNode(long schedTick, int priority);
+
+	/**
+	 * Removes the empty node for the given time and priority.
+	 * @return true if the node was found and removed
+	 */
+	boolean removeNode(long schedTick, int priority);
+
+	/**
+	 * Returns the node for the given time and priority, or null if it is not present.
+	 */
+	EventNode find(long schedTick, int priority);
+
+	/**
+	 * Calls the runner once for each node in the list.
+	 */
+	void runOnAllNodes(EventNode.Runner runner);
+
+	/**
+	 * Removes all nodes from the list.
+	 */
+	void reset();
+
+	/**
+	 * Verifies the internal structure of the list, throwing a RuntimeException
+	 * if an inconsistency is found.
+	 */
+	int verify();
+
+	/**
+	 * Returns the number of nodes in the list.
+	 */
+	int verifyNodeCount();
+}
@@ -17,6 +17,11 @@
 package com.jaamsim.events;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The EventManager is responsible for scheduling future events, controlling
@@ -41,23 +46,37 @@ public final class EventManager {
 
 	private final Object lockObject; // Object used as global lock for synchronization
 
-	private final EventTree eventTree;
+	private EventList eventList;
 
 	private volatile boolean executeEvents;
+	private volatile long numResumes; // number of times the event loop has been resumed
 	private boolean processRunning;
+	private volatile boolean stacklessExecution; // TRUE if stackless targets are run without a Process hand-off
 
-	private final ArrayList<ConditionalEvent> condEvents;
+	// Conditional events are held in two doubly-linked lists, those that are
+	// evaluated each time simulation time advances and those that are only
+	// evaluated after one of their ChangeSignals has been triggered
+	private ConditionalEvent untrackedHead;
+	private ConditionalEvent untrackedTail;
+	private ConditionalEvent trackedHead;
+	private final ArrayList<ConditionalEvent> dirtyConds;
+	private long condSeq;
 
 	private long currentTick; // Master simulation time (long)
+	private long targetsExecuted; // number of targets and processes resumed, changes whenever the model state may change
 	private long nextTick; // The next tick to execute events at
 	private long targetTick; // the largest time we will execute events for (run to time)
 
 	private double ticksPerSecond; // The number of discrete ticks per simulated second
 	private double secsPerTick;    // The length of time in seconds each tick represents
 
+	// Events injected by threads outside the simulation, drained by the event loop
+	private final ConcurrentLinkedQueue<InjectedEvent> inbox;
+	private final AtomicReference<Process> realTimeWaiter; // the Process waiting for a real-time deadline
+
 	// Real time execution state
-	private long realTimeTick;    // the simulation tick corresponding to the wall-clock millis value
-	private long realTimeMillis;  // the wall-clock time in millis
+	private long realTimeTick;    // the simulation tick corresponding to the wall-clock nanos value
+	private long realTimeNanos;   // the wall-clock time in nanos
 
 	private volatile boolean executeRealTime;  // TRUE if the simulation is to be executed in Real Time mode
 	private volatile boolean rebaseRealTime;   // TRUE if the time keeping for Real Time model needs re-basing
@@ -66,6 +85,7 @@ public final class EventManager {
 	private EventTimeListener timelistener;
 	private EventErrorListener errListener;
 	private EventTraceListener trcListener;
+	private EventProfiler profiler;
 
 	/**
 	 * Allocates a new EventManager with the given parent and name
@@ -84,11 +104,14 @@ public final class EventManager {
 
 		setTickLength(1e-6d);
 
-		eventTree = new EventTree();
-		condEvents = new ArrayList<>();
+		eventList = new EventTree();
+		dirtyConds = new ArrayList<>();
+		inbox = new ConcurrentLinkedQueue<>();
+		realTimeWaiter = new AtomicReference<>();
 
 		executeEvents = false;
 		processRunning = false;
+		stacklessExecution = true;
 		executeRealTime = false;
 		realTimeFactor = 1;
 		rebaseRealTime = true;
@@ -122,6 +145,73 @@ public final class EventManager {
 		}
 	}
 
+	/**
+	 * Sets the profiler used to collect execution statistics for this
+	 * EventManager, or null if no statistics are to be collected.
+	 */
+	public final void setProfiler(EventProfiler p) {
+		synchronized (lockObject) {
+			profiler = p;
+		}
+	}
+
+	public final EventProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Selects the execution mode for ProcessTargets that report themselves as
+	 * stackless. When enabled, startProcess() and interruptEvent() run a
+	 * stackless target directly on the calling Process. When disabled, every
+	 * target is handed off to a Process taken from the pool.
+	 * @param enable - TRUE if stackless targets are to be executed inline
+	 */
+	public final void setStacklessExecution(boolean enable) {
+		stacklessExecution = enable;
+	}
+
+	public final boolean isStacklessExecution() {
+		return stacklessExecution;
+	}
+
+	/**
+	 * The available implementations for the future event list.
+	 */
+	public enum EventListType {
+		RED_BLACK_TREE,
+		CALENDAR_QUEUE
+	}
+
+	/**
+	 * Selects the data structure used to store the future events. The event
+	 * list can only be changed when no events are scheduled.
+	 * @param type - implementation to be used for the future event list
+	 */
+	public final void setEventListType(EventListType type) {
+		synchronized (lockObject) {
+			if (getEventListType() == type)
+				return;
+
+			if (eventList.getNextNode() != null)
+				throw new ProcessError("Cannot change the event list while events are scheduled");
+
+			switch (type) {
+			case CALENDAR_QUEUE:
+				eventList = new CalendarQueue();
+				break;
+			default:
+				eventList = new EventTree();
+				break;
+			}
+		}
+	}
+
+	public final EventListType getEventListType() {
+		if (eventList instanceof CalendarQueue)
+			return EventListType.CALENDAR_QUEUE;
+		return EventListType.RED_BLACK_TREE;
+	}
+
 	public void clear() {
 		synchronized (lockObject) {
 			currentTick = 0;
@@ -130,21 +220,37 @@ public final class EventManager {
 			timelistener.tickUpdate(currentTick);
 			rebaseRealTime = true;
 
-			eventTree.runOnAllNodes(new KillAllEvents());
-			eventTree.reset();
-			clearFreeList();
+			eventList.runOnAllNodes(new KillAllEvents());
+			eventList.reset();
 
-			for (int i = 0; i < condEvents.size(); i++) {
-				condEvents.get(i).target.kill();
-				if (condEvents.get(i).handle != null) {
-					condEvents.get(i).handle.event = null;
-				}
+			InjectedEvent inj;
+			while ((inj = inbox.poll()) != null) {
+				inj.target.kill();
 			}
-			condEvents.clear();
+
+			killConditions(untrackedHead);
+			killConditions(trackedHead);
+			untrackedHead = null;
+			untrackedTail = null;
+			trackedHead = null;
+			dirtyConds.clear();
+			condSeq = 0;
 		}
 	}
 
-	private static class KillAllEvents implements EventNode.Runner {
+	private static void killConditions(ConditionalEvent head) {
+		for (ConditionalEvent each = head; each != null; each = each.next) {
+			each.waiting = false;
+			each.armCount++;
+			each.target.kill();
+			if (each.handle != null) {
+				each.handle.event = null;
+			}
+		}
+	}
+
+	// Kills each event and returns it to the free list
+	private class KillAllEvents implements EventNode.Runner {
 		@Override
 		public void runOnNode(EventNode node) {
 			Event each = node.head;
@@ -155,16 +261,27 @@ public final class EventManager {
 				}
 
 				each.target.kill();
-				each = each.next;
+
+				Event next = each.next;
+				each.node = null;
+				each.target = null;
+				each.prev = null;
+				each.next = freeEvents;
+				freeEvents = each;
+				each = next;
 			}
+			node.head = null;
+			node.tail = null;
 		}
 	}
 
 	private boolean executeTarget(Process cur, ProcessTarget t) {
+		targetsExecuted++;
 		try {
 			// If the event has a captured process, pass control to it
 			Process p = t.getProcess();
 			if (p != null) {
+				if (profiler != null) profiler.processHandoffs++;
 				p.setNextProcess(cur);
 				p.wake();
 				threadWait(cur);
@@ -181,6 +298,7 @@ public final class EventManager {
 				cur.endCallbacks();
 			}
 			if (cur.hasNext()) {
+				if (profiler != null) profiler.processHandoffs++;
 				cur.wakeNextProcess();
 				return false;
 			}
@@ -226,7 +344,13 @@ public final class EventManager {
 
 			// Loop continuously
 			while (true) {
-				EventNode nextNode = eventTree.getNextNode();
+				if (profiler != null)
+					profiler.endEvent();
+
+				if (!inbox.isEmpty())
+					drainInbox(cur);
+
+				EventNode nextNode = eventList.getNextNode();
 				if (nextNode == null ||
 				    currentTick >= targetTick) {
 					executeEvents = false;
@@ -250,6 +374,8 @@ public final class EventManager {
 					}
 
 					removeEvent(nextEvent);
+					if (profiler != null)
+						profiler.beginEvent(nextTarget);
 
 					// the return from execute target informs whether or not this
 					// thread should grab an new Event, or return to the pool
@@ -261,8 +387,8 @@ public final class EventManager {
 
 				// If the next event would require us to advance the time, check the
 				// conditonal events
-				if (eventTree.getNextNode().schedTick > nextTick) {
-					if (condEvents.size() > 0) {
+				if (eventList.getNextNode().schedTick > nextTick) {
+					if (untrackedHead != null || !dirtyConds.isEmpty()) {
 						evaluateConditions(cur);
 						if (!executeEvents) continue;
 					}
@@ -270,7 +396,7 @@ public final class EventManager {
 					// If a conditional event was satisfied, we will have a new event at the
 					// beginning of the eventStack for the current tick, go back to the
 					// beginning, otherwise fall through to the time-advance
-					nextTick = eventTree.getNextNode().schedTick;
+					nextTick = eventList.getNextNode().schedTick;
 					if (nextTick == currentTick)
 						continue;
 				}
@@ -279,12 +405,23 @@ public final class EventManager {
 				if (executeRealTime) {
 					// Loop until the next event time is reached
 					long realTick = this.calcRealTimeTick();
-					if (realTick < nextTick && realTick < targetTick) {
+					long wakeTick = Math.min(nextTick, targetTick);
+					if (realTick < wakeTick) {
 						// Update the displayed simulation time
 						currentTick = realTick;
 						timelistener.tickUpdate(currentTick);
-						//Halt the thread for 20ms and then reevaluate the loop
-						try { lockObject.wait(20); } catch( InterruptedException e ) {}
+						// Sleep until the wall-clock deadline for the next event, waking
+						// at least every 20ms to update the displayed time
+						long waitNanos = this.calcRealTimeNanos(wakeTick) - System.nanoTime();
+						waitRealTime(cur, Math.min(waitNanos, MAX_REAL_TIME_WAIT));
+
+						// Injected events are scheduled relative to the wall-clock time
+						// at which they were received
+						realTick = this.calcRealTimeTick();
+						if (realTick < wakeTick) {
+							currentTick = realTick;
+							timelistener.tickUpdate(currentTick);
+						}
 						continue;
 					}
 				}
@@ -304,10 +441,38 @@ public final class EventManager {
 		// Protecting the conditional evaluate() callbacks and the traceWaitUntilEnded callback
 		cur.beginCallbacks();
 		try {
-			for (int i = 0; i < condEvents.size();) {
-				ConditionalEvent c = condEvents.get(i);
+			// Merge the untracked conditions with the tracked conditions that need
+			// to be re-evaluated, preserving the order they were added in
+			ConditionalEvent[] dirty = null;
+			if (!dirtyConds.isEmpty()) {
+				dirty = dirtyConds.toArray(new ConditionalEvent[dirtyConds.size()]);
+				dirtyConds.clear();
+				if (dirty.length > 1)
+					Arrays.sort(dirty, condSeqOrder);
+			}
+
+			int di = 0;
+			ConditionalEvent u = untrackedHead;
+			while (true) {
+				ConditionalEvent c;
+				if (dirty != null && di < dirty.length && (u == null || dirty[di].seq < u.seq)) {
+					c = dirty[di++];
+					c.dirty = false;
+					// Skip events that were killed after they were marked dirty
+					if (!c.waiting)
+						continue;
+				}
+				else if (u != null) {
+					c = u;
+					u = u.next;
+				}
+				else {
+					break;
+				}
+
+				if (profiler != null) profiler.conditionalEvaluations++;
 				if (c.c.evaluate()) {
-					condEvents.remove(i);
+					removeCondition(c);
 					EventNode node = getEventNode(currentTick, 0);
 					Event evt = getEvent();
 					evt.node = node;
@@ -322,7 +487,9 @@ public final class EventManager {
 					node.addEvent(evt, true);
 					continue;
 				}
-				i++;
+
+				if (c.tracked)
+					armCondition(c);
 			}
 		}
 		catch (Throwable e) {
@@ -334,24 +501,152 @@ public final class EventManager {
 		cur.endCallbacks();
 	}
 
+	private static final Comparator<ConditionalEvent> condSeqOrder = new Comparator<ConditionalEvent>() {
+		@Override
+		public int compare(ConditionalEvent c1, ConditionalEvent c2) {
+			return Long.compare(c1.seq, c2.seq);
+		}
+	};
+
+	/**
+	 * Adds a new conditional event, a conditional that declares its dependencies
+	 * is evaluated once before it waits for one of its signals.
+	 */
+	private ConditionalEvent addCondition(Conditional cond, ProcessTarget t, EventHandle handle) {
+		ConditionalEvent ce = new ConditionalEvent(this, condSeq++, cond, t, handle);
+		ce.waiting = true;
+		ce.tracked = cond.getDependencies() != null;
+		if (ce.tracked) {
+			ce.next = trackedHead;
+			if (trackedHead != null)
+				trackedHead.prev = ce;
+			trackedHead = ce;
+			markDirty(ce);
+			return ce;
+		}
+
+		ce.prev = untrackedTail;
+		if (untrackedTail != null)
+			untrackedTail.next = ce;
+		else
+			untrackedHead = ce;
+		untrackedTail = ce;
+		return ce;
+	}
+
+	private void removeCondition(ConditionalEvent ce) {
+		ce.waiting = false;
+		ce.armCount++;
+
+		if (ce.prev != null)
+			ce.prev.next = ce.next;
+		else if (ce.tracked)
+			trackedHead = ce.next;
+		else
+			untrackedHead = ce.next;
+
+		if (ce.next != null)
+			ce.next.prev = ce.prev;
+		else if (!ce.tracked)
+			untrackedTail = ce.prev;
+
+		ce.prev = null;
+		ce.next = null;
+	}
+
+	// Register the conditional event with each of its signals
+	private void armCondition(ConditionalEvent ce) {
+		ce.armCount++;
+		ChangeSignal[] deps = ce.c.getDependencies();
+		if (deps == null) {
+			// The conditional no longer declares its dependencies, evaluate it
+			// again at the next time advance
+			markDirty(ce);
+			return;
+		}
+
+		for (ChangeSignal sig : deps) {
+			sig.add(ce);
+		}
+	}
+
+	/**
+	 * Flags the conditional event for evaluation the next time simulation time
+	 * is about to advance. Called from ChangeSignal.changed() by model code.
+	 */
+	final void markDirty(ConditionalEvent ce) {
+		if (ce.dirty || !ce.waiting)
+			return;
+
+		ce.dirty = true;
+		dirtyConds.add(ce);
+	}
+
 	/**
 	 * Return the simulation time corresponding the given wall clock time
 	 * @param simTime = the current simulation time used when setting a real-time basis
 	 * @return simulation time in seconds
 	 */
 	private long calcRealTimeTick() {
-		long curMS = System.currentTimeMillis();
+		long curNanos = System.nanoTime();
 		if (rebaseRealTime) {
 			realTimeTick = currentTick;
-			realTimeMillis = curMS;
+			realTimeNanos = curNanos;
 			rebaseRealTime = false;
 		}
 
-		double simElapsedsec = ((curMS - realTimeMillis) * realTimeFactor) / 1000.0d;
+		double simElapsedsec = ((curNanos - realTimeNanos) * realTimeFactor) / 1.0e9d;
 		long simElapsedTicks = secondsToNearestTick(simElapsedsec);
 		return realTimeTick + simElapsedTicks;
 	}
 
+	/**
+	 * Return the wall clock time in nanos at which the given simulation tick is reached.
+	 */
+	private long calcRealTimeNanos(long tick) {
+		double simElapsedsec = ticksToSeconds(tick - realTimeTick);
+		double realElapsedNanos = simElapsedsec / realTimeFactor * 1.0e9d;
+		if (realElapsedNanos >= Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+		return realTimeNanos + (long)realElapsedNanos;
+	}
+
+	private static final long MAX_REAL_TIME_WAIT = 20000000L; // 20ms
+	private static final long MIN_MONITOR_WAIT = 2000000L; // 2ms
+
+	/**
+	 * Waits for the given number of nanoseconds, or until an event is injected
+	 * by an external thread. Long waits release the lockObject and are ended a
+	 * millisecond early, the remainder is parked to avoid overshooting the
+	 * deadline by the granularity of Object.wait().
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void waitRealTime(Process cur, long nanos) {
+		if (nanos <= 0)
+			return;
+
+		realTimeWaiter.set(cur);
+		boolean woken = false;
+		try {
+			if (nanos >= MIN_MONITOR_WAIT)
+				lockObject.wait(nanos / 1000000L - 1);
+			else {
+				LockSupport.parkNanos(nanos);
+				woken = Thread.interrupted();
+			}
+		}
+		catch (InterruptedException e) {
+			woken = true;
+		}
+
+		// An injecting thread that has claimed this Process will interrupt it,
+		// the interrupt must be received here so it is not seen by a later wait
+		if (realTimeWaiter.getAndSet(null) == null && !woken) {
+			try { while (true) { lockObject.wait(); } }
+			catch (InterruptedException e) {}
+		}
+	}
+
 	/**
 	// Pause the current active thread and restart the next thread on the
 	// active thread list. For this case, a future event or conditional event
@@ -363,6 +658,7 @@ public final class EventManager {
 	 */
 	private void captureProcess(Process cur) {
 		// if we don't wake a new process, take one from the pool
+		if (profiler != null) profiler.processHandoffs++;
 		Process next = cur.preCapture();
 		if (next == null) {
 			processRunning = false;
@@ -436,6 +732,7 @@ public final class EventManager {
 	private void waitTicks(Process cur, long ticks, int priority, boolean fifo, EventHandle handle) {
 		synchronized (lockObject) {
 			cur.checkCallback();
+			cur.checkStackless();
 			long nextEventTime = calculateEventTime(ticks);
 			WaitTarget t = new WaitTarget(cur);
 			EventNode node = getEventNode(nextEventTime, priority);
@@ -464,11 +761,12 @@ public final class EventManager {
 	 * insert it.
 	 */
 	private EventNode getEventNode(long tick, int prio) {
-		return eventTree.createOrFindNode(tick, prio);
+		return eventList.createOrFindNode(tick, prio);
 	}
 
 	private Event freeEvents = null;
 	private Event getEvent() {
+		if (profiler != null) profiler.eventsScheduled++;
 		if (freeEvents != null) {
 			Event evt = freeEvents;
 			freeEvents = evt.next;
@@ -478,10 +776,6 @@ public final class EventManager {
 		return new Event();
 	}
 
-	private void clearFreeList() {
-		freeEvents = null;
-	}
-
 	public static final void waitUntil(Conditional cond, EventHandle handle) {
 		Process cur = Process.current();
 		cur.evt().waitUntil(cur, cond, handle);
@@ -495,14 +789,13 @@ public final class EventManager {
 	private void waitUntil(Process cur, Conditional cond, EventHandle handle) {
 		synchronized (lockObject) {
 			cur.checkCallback();
+			cur.checkStackless();
 			WaitTarget t = new WaitTarget(cur);
-			ConditionalEvent evt = new ConditionalEvent(cond, t, handle);
-			if (handle != null) {
-				if (handle.isScheduled())
-					throw new ProcessError("Tried to waitUntil using a handle already in use");
+			if (handle != null && handle.isScheduled())
+				throw new ProcessError("Tried to waitUntil using a handle already in use");
+			ConditionalEvent evt = addCondition(cond, t, handle);
+			if (handle != null)
 				handle.event = evt;
-			}
-			condEvents.add(evt);
 			if (trcListener != null) {
 				cur.beginCallbacks();
 				trcListener.traceWaitUntil(this, currentTick);
@@ -520,13 +813,11 @@ public final class EventManager {
 	private void schedUntil(Process cur, ProcessTarget t, Conditional cond, EventHandle handle) {
 		synchronized (lockObject) {
 			cur.checkCallback();
-			ConditionalEvent evt = new ConditionalEvent(cond, t, handle);
-			if (handle != null) {
-				if (handle.isScheduled())
-					throw new ProcessError("Tried to scheduleUntil using a handle already in use");
+			if (handle != null && handle.isScheduled())
+				throw new ProcessError("Tried to scheduleUntil using a handle already in use");
+			ConditionalEvent evt = addCondition(cond, t, handle);
+			if (handle != null)
 				handle.event = evt;
-			}
-			condEvents.add(evt);
 			if (trcListener != null) {
 				cur.beginCallbacks();
 				trcListener.traceWaitUntil(this, currentTick);
@@ -541,6 +832,19 @@ public final class EventManager {
 	}
 
 	private void start(Process cur, ProcessTarget t) {
+		if (stacklessExecution && t.isStackless()) {
+			synchronized (lockObject) {
+				cur.checkCallback();
+				if (trcListener != null) {
+					cur.beginCallbacks();
+					trcListener.traceProcessStart(this, t, currentTick);
+					cur.endCallbacks();
+				}
+				executeStackless(cur, t);
+			}
+			return;
+		}
+
 		Process newProcess = Process.allocate(this, cur, t);
 		// Notify the eventManager that a new process has been started
 		synchronized (lockObject) {
@@ -551,6 +855,7 @@ public final class EventManager {
 				cur.endCallbacks();
 			}
 			// Transfer control to the new process
+			if (profiler != null) profiler.processHandoffs++;
 			newProcess.wake();
 			threadWait(cur);
 		}
@@ -565,7 +870,7 @@ public final class EventManager {
 		EventNode node = evt.node;
 		node.removeEvent(evt);
 		if (node.head == null) {
-			if (!eventTree.removeNode(node.schedTick, node.priority))
+			if (!eventList.removeNode(node.schedTick, node.priority))
 				throw new ProcessError("Tried to remove an eventnode that could not be found");
 		}
 
@@ -590,7 +895,7 @@ public final class EventManager {
 			removeEvent((Event)base);
 		}
 		else {
-			condEvents.remove(base);
+			removeCondition((ConditionalEvent)base);
 		}
 		return t;
 	}
@@ -621,6 +926,7 @@ public final class EventManager {
 				trcKill(handle.event);
 				cur.endCallbacks();
 			}
+			if (profiler != null) profiler.eventsKilled++;
 			ProcessTarget t = rem(handle);
 
 			t.kill();
@@ -663,17 +969,46 @@ public final class EventManager {
 				trcInterrupt(handle.event);
 				cur.endCallbacks();
 			}
+			if (profiler != null) profiler.eventsInterrupted++;
 			ProcessTarget t = rem(handle);
 
 			Process proc = t.getProcess();
+			if (proc == null && stacklessExecution && t.isStackless()) {
+				executeStackless(cur, t);
+				return;
+			}
+
 			if (proc == null)
 				proc = Process.allocate(this, cur, t);
+			if (profiler != null) profiler.processHandoffs++;
 			proc.setNextProcess(cur);
 			proc.wake();
 			threadWait(cur);
 		}
 	}
 
+	/**
+	 * Executes a stackless target on the calling Process. This is equivalent to
+	 * handing the target off to a new Process and waiting for it to complete,
+	 * but without the thread hand-off. Must hold the lockObject.
+	 */
+	private void executeStackless(Process cur, ProcessTarget t) {
+		targetsExecuted++;
+		cur.beginStackless();
+		try {
+			t.process();
+		}
+		finally {
+			cur.endStackless();
+		}
+
+		if (trcListener != null) {
+			cur.beginCallbacks();
+			trcListener.traceProcessEnd(this, currentTick);
+			cur.endCallbacks();
+		}
+	}
+
 	private void trcInterrupt(BaseEvent event) {
 		if (event instanceof Event) {
 			EventNode node = ((Event)event).node;
@@ -684,11 +1019,16 @@ public final class EventManager {
 		}
 	}
 
+	/**
+	 * Sets the real-time mode and speed. An event loop that is waiting for a
+	 * real-time deadline is woken, so that the change takes effect at once.
+	 */
 	public void setExecuteRealTime(boolean useRealTime, double factor) {
 		executeRealTime = useRealTime;
 		realTimeFactor = factor;
 		if (useRealTime)
 			rebaseRealTime = true;
+		this.wakeRealTimeWaiter();
 	}
 
 	/**
@@ -759,6 +1099,111 @@ public final class EventManager {
 		}
 	}
 
+	/**
+	 * Schedules an event from a thread outside of the simulation without taking
+	 * the global lock. The event is added to a queue that is drained by the event
+	 * loop before it executes its next event, with the wait length measured from
+	 * the simulation time at which it is drained. When the model is executed in
+	 * real time, an event loop waiting for the next event time is woken
+	 * immediately and the simulation time is taken from the wall clock.
+	 * <p>
+	 * Events are added to the future event list in the order they were injected.
+	 * Injected events do not take an EventHandle and are not executed until the
+	 * model is resumed if it has been paused.
+	 *
+	 * @param waitLength the number of ticks in the future to schedule this event
+	 * @param eventPriority the priority of the scheduled event
+	 * @param fifo break ties with previously scheduled events using FIFO/LIFO ordering
+	 * @param t the process target to run when the event is executed
+	 */
+	public void injectProcessExternal(long waitLength, int eventPriority, boolean fifo, ProcessTarget t) {
+		if (waitLength < 0)
+			throw new ProcessError("Negative duration wait is invalid, waitLength = " + waitLength);
+
+		inbox.add(new InjectedEvent(waitLength, eventPriority, fifo, t));
+		this.wakeRealTimeWaiter();
+	}
+
+	/**
+	 * Pauses the model from a thread outside of the simulation. The pause is
+	 * injected as an event, so that it takes effect between two events and
+	 * wakes an event loop that is waiting for a real-time deadline. The pause is
+	 * discarded if the model has paused and been resumed before it is executed.
+	 */
+	public void injectPause() {
+		this.injectProcessExternal(0, 0, false, new PauseTarget(this, numResumes));
+	}
+
+	private static final class PauseTarget extends ProcessTarget {
+		final EventManager evt;
+		final long numResumes;
+
+		PauseTarget(EventManager evt, long numResumes) {
+			this.evt = evt;
+			this.numResumes = numResumes;
+		}
+
+		@Override
+		public String getDescription() {
+			return "PauseRequested";
+		}
+
+		@Override
+		public void process() {
+			if (evt.numResumes == numResumes)
+				evt.pause();
+		}
+	}
+
+	/**
+	 * Wakes the event loop if it is waiting for a real-time deadline.
+	 */
+	private void wakeRealTimeWaiter() {
+		Process waiter = realTimeWaiter.getAndSet(null);
+		if (waiter != null)
+			waiter.wake();
+	}
+
+	private static final class InjectedEvent {
+		final long waitLength;
+		final int priority;
+		final boolean fifo;
+		final ProcessTarget target;
+
+		InjectedEvent(long wait, int prio, boolean fifo, ProcessTarget t) {
+			this.waitLength = wait;
+			this.priority = prio;
+			this.fifo = fifo;
+			this.target = t;
+		}
+	}
+
+	/**
+	 * Moves the injected events to the future event list.
+	 * Must hold the lockObject when calling this method.
+	 */
+	private void drainInbox(Process cur) {
+		InjectedEvent inj;
+		while ((inj = inbox.poll()) != null) {
+			long schedTick = calculateEventTime(inj.waitLength);
+			EventNode node = getEventNode(schedTick, inj.priority);
+			Event evt = getEvent();
+			evt.node = node;
+			evt.target = inj.target;
+			evt.handle = null;
+			if (trcListener != null) {
+				cur.beginCallbacks();
+				trcListener.traceSchedProcess(this, currentTick, schedTick, inj.priority, inj.target);
+				cur.endCallbacks();
+			}
+			node.addEvent(evt, inj.fifo);
+		}
+
+		// The next event time must be found again as an injected event may
+		// precede the one that was found previously
+		nextTick = currentTick;
+	}
+
 	/**
 	 * Schedule a future event in the controlling EventManager for the current Process.
 	 * @throws ProcessError if called outside of a Process context
@@ -836,6 +1281,7 @@ public final class EventManager {
 			if (executeEvents)
 				return;
 
+			numResumes++;
 			executeEvents = true;
 			Process.processEvents(this);
 		}
@@ -846,6 +1292,15 @@ public final class EventManager {
 		return name;
 	}
 
+	/**
+	 * Terminates the threads held in the Process pool. This is only used when the
+	 * simulation classes are to be discarded, such as at the end of a replication
+	 * executed in its own class loader, as no further events can be executed.
+	 */
+	public static final void closeProcessPool() {
+		Process.closePool();
+	}
+
 	/**
 	 * Returns whether or not we are currently running in a Process context
 	 * that has a controlling EventManager.
@@ -871,6 +1326,43 @@ public final class EventManager {
 		return Process.current().evt().currentTick;
 	}
 
+	/**
+	 * Returns the number of targets that have been executed or resumed by this
+	 * EventManager. The value is unchanged between two events, including while
+	 * conditional events are evaluated, and can be used to detect that the
+	 * model may have changed state.
+	 */
+	public final long getTargetsExecuted() {
+		return targetsExecuted;
+	}
+
+	/**
+	 * Returns a hash of the time, priority and description of each pending event.
+	 * The hash does not depend on the type of event list or on its internal order.
+	 * @param exclude - events whose targets are of this class are ignored
+	 */
+	public final long getEventListDigest(final Class<? extends ProcessTarget> exclude) {
+		synchronized (lockObject) {
+			final long[] ret = new long[1];
+			eventList.runOnAllNodes(new EventNode.Runner() {
+				@Override
+				public void runOnNode(EventNode node) {
+					long hash = node.schedTick*31 + node.priority;
+					int count = 0;
+					for (Event each = node.head; each != null; each = each.next) {
+						if (exclude != null && exclude.isInstance(each.target))
+							continue;
+						hash = hash*31 + each.target.getDescription().hashCode();
+						count++;
+					}
+					if (count > 0)
+						ret[0] += hash*0x9e3779b97f4a7c15L;
+				}
+			});
+			return ret[0];
+		}
+	}
+
 	/**
 	 * Returns the current simulation time in seconds for the current Process.
 	 * @throws ProcessError if called outside of a Process context
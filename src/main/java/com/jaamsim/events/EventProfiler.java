@@ -0,0 +1,212 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+/**
+ * EventProfiler collects low-overhead execution statistics for an EventManager:
+ * counters for the events scheduled, executed, killed and interrupted, the number
+ * of conditional evaluations and Process hand-offs, and a histogram of execution
+ * times for each type of ProcessTarget, as identified by its class. The class is
+ * used rather than the description so that the profiler does not build a string
+ * for each event it measures.
+ * <p>
+ * The execution time for an event is measured from the time it is removed from
+ * the event list until the EventManager is ready to execute the next event, and
+ * includes any processes started or resumed by the event.
+ * <p>
+ * All updates are made by the thread executing events while it holds the
+ * EventManager lock. Values read from other threads are approximate.
+ */
+public final class EventProfiler {
+	public static final int NUM_BUCKETS = 40; // bucket i counts times in the range [2^(i-1), 2^i) ns
+
+	long eventsScheduled;
+	long eventsExecuted;
+	long eventsKilled;
+	long eventsInterrupted;
+	long conditionalEvaluations;
+	long processHandoffs;
+
+	private final IdentityHashMap<Class<?>, TargetProfile> targets;
+	private TargetProfile curTarget; // the target for the event presently being executed
+	private long curStartNanos;
+	private TargetProfile lastTarget; // the target for the previous event
+
+	public EventProfiler() {
+		targets = new IdentityHashMap<>();
+	}
+
+	final void beginEvent(ProcessTarget t) {
+		eventsExecuted++;
+		Class<?> klass = t.getClass();
+		TargetProfile prof = lastTarget;
+		if (prof == null || prof.klass != klass) {
+			prof = targets.get(klass);
+			if (prof == null) {
+				prof = new TargetProfile(klass);
+				targets.put(klass, prof);
+			}
+			lastTarget = prof;
+		}
+		curTarget = prof;
+		curStartNanos = System.nanoTime();
+	}
+
+	final void endEvent() {
+		if (curTarget == null)
+			return;
+		curTarget.add(System.nanoTime() - curStartNanos);
+		curTarget = null;
+	}
+
+	public long getEventsScheduled() {
+		return eventsScheduled;
+	}
+
+	public long getEventsExecuted() {
+		return eventsExecuted;
+	}
+
+	public long getEventsKilled() {
+		return eventsKilled;
+	}
+
+	public long getEventsInterrupted() {
+		return eventsInterrupted;
+	}
+
+	public long getConditionalEvaluations() {
+		return conditionalEvaluations;
+	}
+
+	public long getProcessHandoffs() {
+		return processHandoffs;
+	}
+
+	/**
+	 * Returns the largest number of idle Processes held in the Process pool
+	 * since the application was started.
+	 */
+	public static int getPoolHighWaterMark() {
+		return Process.getPoolHighWaterMark();
+	}
+
+	/**
+	 * Returns the total number of Processes created since the application was started.
+	 */
+	public static int getProcessesCreated() {
+		return Process.getNumProcesses();
+	}
+
+	/**
+	 * Returns the execution statistics for each type of ProcessTarget in order
+	 * of decreasing total execution time.
+	 */
+	public ArrayList<TargetProfile> getTargetProfiles() {
+		ArrayList<TargetProfile> ret = new ArrayList<>(targets.values());
+		Collections.sort(ret, totalTimeOrder);
+		return ret;
+	}
+
+	private static final Comparator<TargetProfile> totalTimeOrder = new Comparator<TargetProfile>() {
+		@Override
+		public int compare(TargetProfile p1, TargetProfile p2) {
+			return Long.compare(p2.totalNanos, p1.totalNanos);
+		}
+	};
+
+	/**
+	 * Execution time statistics for the events with a given class of ProcessTarget.
+	 */
+	public static final class TargetProfile {
+		private final Class<?> klass;
+		private final String desc;
+		private final long[] buckets;
+		private long count;
+		private long totalNanos;
+		private long maxNanos;
+
+		TargetProfile(Class<?> klass) {
+			this.klass = klass;
+			String name = klass.getName();
+			desc = name.substring(name.lastIndexOf('.') + 1);
+			buckets = new long[NUM_BUCKETS];
+		}
+
+		final void add(long nanos) {
+			count++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+			int idx = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0L));
+			buckets[Math.min(idx, NUM_BUCKETS - 1)]++;
+		}
+
+		/**
+		 * Returns the name of the ProcessTarget class without its package, for
+		 * example Device$EndStepTarget.
+		 */
+		public String getDescription() {
+			return desc;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		public double getMeanNanos() {
+			if (count == 0)
+				return 0.0d;
+			return (double)totalNanos / count;
+		}
+
+		/**
+		 * Returns the number of events whose execution time was at least 2^(i-1) ns
+		 * and less than 2^i ns. Bucket zero counts the events that took zero ns.
+		 */
+		public long getBucketCount(int i) {
+			return buckets[i];
+		}
+
+		/**
+		 * Returns an upper bound for the given quantile of the execution time,
+		 * to within a factor of two.
+		 */
+		public long getQuantileNanos(double q) {
+			long target = (long)Math.ceil(q * count);
+			long sum = 0;
+			for (int i = 0; i < NUM_BUCKETS; i++) {
+				sum += buckets[i];
+				if (sum >= target && sum > 0)
+					return Math.min(1L << i, maxNanos);
+			}
+			return maxNanos;
+		}
+	}
+}
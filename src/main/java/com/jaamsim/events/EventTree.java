@@ -25,7 +25,7 @@ import java.util.Arrays;
  * @author matt.chudleigh
  *
  */
-class EventTree {
+class EventTree implements EventList {
 
 	private EventNode root = EventNode.nilNode;
 	private EventNode lowest = null;
@@ -50,15 +50,18 @@ class EventTree {
 		scratchPos = 0;
 	}
 
-	EventNode getNextNode() {
+	@Override
+	public EventNode getNextNode() {
 		if (lowest == null) updateLowest();
 		return lowest;
 	}
 
-	final void reset() {
+	@Override
+	public final void reset() {
+		// Return the nodes to the free list so that they are reused by the next run
+		recycleNodes(root);
 		root = EventNode.nilNode;
 		lowest = null;
-		clearFreeList();
 		resetScratch();
 		Arrays.fill(scratch, null);
 	}
@@ -75,7 +78,8 @@ class EventTree {
 		lowest = current;
 	}
 
-	final EventNode createOrFindNode(long schedTick, int priority) {
+	@Override
+	public final EventNode createOrFindNode(long schedTick, int priority) {
 
 		if (root == EventNode.nilNode) {
 			root = getNewNode(schedTick, priority);
@@ -171,7 +175,8 @@ class EventTree {
 
 	}
 
-	final boolean removeNode(long schedTick, int priority) {
+	@Override
+	public final boolean removeNode(long schedTick, int priority) {
 		// First find the node to remove
 		resetScratch();
 		lowest = null;
@@ -337,7 +342,8 @@ class EventTree {
 		}
 	}
 
-	final void runOnAllNodes(EventNode.Runner runner) {
+	@Override
+	public final void runOnAllNodes(EventNode.Runner runner) {
 		runOnNode(root, runner);
 	}
 
@@ -353,7 +359,8 @@ class EventTree {
 	}
 
 	// Verify the sorting structure and return the number of nodes
-	final int verify() {
+	@Override
+	public final int verify() {
 		if (root == EventNode.nilNode) return 0;
 
 		if (EventNode.nilNode.red == true)
@@ -389,7 +396,8 @@ class EventTree {
 	}
 
 	// Search the tree and return true if this node is found
-	final EventNode find(long schedTick, int priority) {
+	@Override
+	public final EventNode find(long schedTick, int priority) {
 		EventNode curr = root;
 		while (true) {
 			if (curr == EventNode.nilNode) return null;
@@ -406,7 +414,8 @@ class EventTree {
 		}
 	}
 
-	final int verifyNodeCount() {
+	@Override
+	public final int verifyNodeCount() {
 		if (root == EventNode.nilNode) return 0;
 		return countNodes(root);
 	}
@@ -453,8 +462,15 @@ class EventTree {
 		freeList = node;
 	}
 
-	private void clearFreeList() {
-		freeList = null;
+	private void recycleNodes(EventNode node) {
+		if (node == EventNode.nilNode)
+			return;
+
+		EventNode left = node.left;
+		EventNode right = node.right;
+		reuseNode(node);
+		recycleNodes(left);
+		recycleNodes(right);
 	}
 
 }
@@ -37,6 +37,8 @@ final class Process extends Thread {
 	private static final ArrayList<Process> pool; // storage for all available Processes
 	private static final int maxPoolSize = 100; // Maximum number of Processes allowed to be pooled at a given time
 	private static int numProcesses = 0; // Total of all created processes to date (used to name new Processes)
+	private static boolean poolClosed = false; // TRUE if idle Processes are to exit instead of being pooled
+	private static int poolHighWaterMark = 0; // Largest number of Processes held in the pool to date
 
 	private EventManager eventManager; // The EventManager that is currently managing this Process
 	private Process nextProcess; // The Process from which the present process was created
@@ -51,6 +53,7 @@ final class Process extends Thread {
 	private boolean dieFlag;
 	private boolean activeFlag;
 	private boolean inUserCallback;
+	private int stacklessDepth; // number of nested stackless targets being executed
 
 	// Initialize the storage for the pooled Processes
 	static {
@@ -91,6 +94,10 @@ final class Process extends Thread {
 			// Process has been woken up, execute the method we have been assigned
 			ProcessTarget t;
 			synchronized (this) {
+				// A Process woken without an EventManager has been released from the pool
+				if (eventManager == null)
+					return;
+
 				evt = eventManager;
 				t = target;
 				target = null;
@@ -118,8 +125,12 @@ final class Process extends Thread {
 	// Useful to filter pooled threads when staring at stack traces.
 	private void waitInPool() {
 		synchronized (pool) {
+			if (poolClosed)
+				return;
+
 			// Add ourselves to the pool and wait to be assigned work
 			pool.add(this);
+			poolHighWaterMark = Math.max(poolHighWaterMark, pool.size());
 			// Set the present process to sleep, and release its lock
 			// (done by pool.wait();)
 			// Note: the try/while(true)/catch construct is needed to avoid
@@ -141,6 +152,33 @@ final class Process extends Thread {
 		activeFlag = false;
 		dieFlag = false;
 		inUserCallback = false;
+		stacklessDepth = 0;
+	}
+
+	/**
+	 * Terminates the idle Processes and prevents any Process from being returned
+	 * to the pool when it completes.
+	 */
+	static void closePool() {
+		synchronized (pool) {
+			poolClosed = true;
+			for (Process each : pool) {
+				each.wake();
+			}
+			pool.clear();
+		}
+	}
+
+	static int getPoolHighWaterMark() {
+		synchronized (pool) {
+			return poolHighWaterMark;
+		}
+	}
+
+	static int getNumProcesses() {
+		synchronized (pool) {
+			return numProcesses;
+		}
 	}
 
 	// Pull a process from the pool and have it attempt to execute events from the
@@ -264,4 +302,17 @@ final class Process extends Thread {
 		if (inUserCallback)
 			throw new ProcessError("Event Control attempted from inside a user callback");
 	}
+
+	final void beginStackless() {
+		stacklessDepth++;
+	}
+
+	final void endStackless() {
+		stacklessDepth--;
+	}
+
+	final void checkStackless() {
+		if (stacklessDepth > 0)
+			throw new ProcessError("Wait attempted from inside a stackless ProcessTarget");
+	}
 }
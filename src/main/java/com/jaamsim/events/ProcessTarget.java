@@ -21,6 +21,14 @@ public abstract class ProcessTarget {
 
 	void kill() {}
 
+	/**
+	 * Returns true if this target never suspends its Process, i.e. it does not
+	 * call waitTicks() or waitUntil() either directly or indirectly. A stackless
+	 * target can be executed directly on the calling Process by startProcess()
+	 * and interruptEvent() without handing off control to a new Process.
+	 */
+	public boolean isStackless() { return false; }
+
 	public abstract String getDescription();
 	public abstract void process();
 }
@@ -53,7 +53,7 @@ public class AttributeHandle extends OutputHandle {
 
 	@Override
 	public double getValueAsDouble(double simTime, double def) {
-		if (value.type == ExpResType.NUMBER)
+		if (value != null && value.type == ExpResType.NUMBER)
 			return value.value;
 		else
 			return def;
@@ -0,0 +1,466 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jaamsim.basicsim.ErrorException;
+
+/**
+ * Splits a configuration file on the local file system into records of tokens.
+ * <p>
+ * The file is scanned as bytes and a String is created only for each token, not for
+ * each line. This is possible because all the delimiters are ASCII characters, and
+ * the supported character sets never use the bytes for ASCII characters within a
+ * multi-byte character. Large files are memory-mapped rather than copied to the heap.
+ * <p>
+ * The records are returned to InputAgent, which processes them in order on the calling
+ * thread. If there is a spare processor, each file is tokenized in full when it is
+ * opened, and the files named by its Include records are tokenized by a thread pool
+ * while its records are being processed. Otherwise, the file is tokenized a line at
+ * a time as its records are requested.
+ */
+final class ConfigReader {
+	// Smaller files are copied to the heap because some platforms do not allow a
+	// mapped file to be overwritten until its buffer has been garbage collected
+	private static final long MAP_THRESHOLD = 8 * 1024 * 1024;
+
+	private static final int TOKEN_CACHE_SIZE = 4096;
+	private static final int MAX_CACHED_LENGTH = 32;
+
+	// Included files are read in advance only while there is a processor available
+	private static final int MAX_PENDING = Runtime.getRuntime().availableProcessors() - 1;
+
+	private static final ConcurrentHashMap<URI, Future<ConfigReader>> pending = new ConcurrentHashMap<>();
+	private static ThreadPoolExecutor pool;
+
+	private final URI uri;
+	private final String jail;
+	private final ByteBuffer buf;
+	private final byte[] data; // contents of a file that has been copied to the heap
+	private final Charset charset;
+	private char[] chars = new char[256];
+	private byte[] bytes = new byte[0];
+	private final String[] tokenCache = new String[TOKEN_CACHE_SIZE];
+
+	private int pos = 0; // position of the next line in the buffer
+	private boolean done = false;
+	private final ArrayList<Record> records = new ArrayList<>();
+	private int nextRecord = 0;
+	private ArrayList<String> record = new ArrayList<>();
+	private int braceDepth = 0;
+
+	/**
+	 * A complete record read from a configuration file, or an input error that was
+	 * found while reading it.
+	 */
+	static final class Record {
+		final ArrayList<String> tokens;
+		final String error;
+
+		Record(ArrayList<String> toks, String err) {
+			tokens = toks;
+			error = err;
+		}
+	}
+
+	private ConfigReader(URI uri, String jail, ByteBuffer buf, Charset cs) {
+		this.uri = uri;
+		this.jail = jail;
+		this.buf = buf;
+		this.data = buf.hasArray() ? buf.array() : null;
+		this.charset = cs;
+	}
+
+	/**
+	 * Returns true if the given file can be read by the ConfigReader.
+	 */
+	static boolean isSupported(URI uri) {
+		if (!"file".equals(uri.getScheme()))
+			return false;
+
+		Charset cs = Charset.defaultCharset();
+		return cs.equals(StandardCharsets.UTF_8)
+		    || cs.equals(StandardCharsets.US_ASCII)
+		    || cs.equals(StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Returns a reader for the given file, using the one from the thread pool if the
+	 * file has already been tokenized in response to an Include record.
+	 * @param uri - file to be read
+	 * @param jail - prefix that the included files must have, or null
+	 * @throws IOException if the file could not be read
+	 */
+	static ConfigReader open(URI uri, String jail) throws IOException {
+		Future<ConfigReader> task = pending.remove(uri);
+		if (task == null) {
+			ConfigReader ret = create(uri, jail);
+			if (MAX_PENDING > 0)
+				ret.readAll();
+			return ret;
+		}
+
+		try {
+			return task.get();
+		}
+		catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException)cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			throw new ErrorException(cause);
+		}
+	}
+
+	/**
+	 * Discards the files that were tokenized in advance but have not been opened.
+	 */
+	static void clear() {
+		for (Future<ConfigReader> each : pending.values()) {
+			each.cancel(false);
+		}
+		pending.clear();
+	}
+
+	private static ConfigReader create(URI uri, String jail) throws IOException {
+		Path path;
+		try {
+			path = Paths.get(uri);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException(e);
+		}
+
+		ByteBuffer buf;
+		FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = ch.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File is too large: " + path);
+
+			if (size >= MAP_THRESHOLD) {
+				buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+			else {
+				buf = ByteBuffer.allocate((int)size);
+				while (buf.hasRemaining() && ch.read(buf) != -1) {}
+				buf.flip();
+			}
+		}
+		finally {
+			ch.close();
+		}
+
+		return new ConfigReader(uri, jail, buf, Charset.defaultCharset());
+	}
+
+	private byte byteAt(int index) {
+		if (data != null)
+			return data[index];
+		return buf.get(index);
+	}
+
+	/**
+	 * Returns the next record in the file, or null if there are no more records.
+	 */
+	Record next() {
+		while (nextRecord == records.size()) {
+			if (done)
+				return null;
+
+			records.clear();
+			nextRecord = 0;
+			readLine();
+		}
+		return records.get(nextRecord++);
+	}
+
+	private void readAll() {
+		while (!done) {
+			readLine();
+		}
+	}
+
+	/**
+	 * Tokenizes the next line in the file in a single pass, following the same rules
+	 * as Parser.tokenize() with comments stripped, and adds the present record to the
+	 * list of records if it is complete.
+	 */
+	private void readLine() {
+		final int limit = buf.limit();
+		if (pos >= limit) {
+			// Leftover input at end of file
+			if (record.size() > 0)
+				records.add(new Record(record, "Leftover input at end of file"));
+			done = true;
+			return;
+		}
+
+		int previousRecordSize = record.size();
+		int tokStart = -1;
+		int quoteStart = -1;
+		int i = pos;
+		for (; i < limit; i++) {
+			byte c = byteAt(i);
+
+			// The contents of the line end at the first " character
+			if (c == '\n' || c == '\r' || c == '\"')
+				break;
+
+			if (c == '\'') {
+				// end the current token
+				if (tokStart != -1) {
+					addToken(tokStart, i);
+					tokStart = -1;
+				}
+
+				// Set the quoting state
+				if (quoteStart != -1) {
+					addToken(quoteStart + 1, i);
+					quoteStart = -1;
+				}
+				else {
+					quoteStart = i;
+				}
+				continue;
+			}
+
+			// we are currently quoted, skip
+			if (quoteStart != -1)
+				continue;
+
+			// handle delimiter chars
+			if (c == '{' || c == '}' || c == ' ' || c == '\t') {
+				if (tokStart != -1) {
+					addToken(tokStart, i);
+					tokStart = -1;
+				}
+
+				if (c == '{')
+					record.add("{");
+				else if (c == '}')
+					record.add("}");
+				continue;
+			}
+
+			// start a new token
+			if (tokStart == -1)
+				tokStart = i;
+		}
+
+		// clean up the final trailing token
+		if (tokStart != -1)
+			addToken(tokStart, i);
+
+		if (quoteStart != -1)
+			addToken(quoteStart + 1, i);
+
+		// Skip any comment, and find the start of the next line using the same
+		// terminators as BufferedReader
+		while (i < limit) {
+			byte c = byteAt(i);
+			if (c == '\n' || c == '\r')
+				break;
+			i++;
+		}
+		pos = i + 1;
+		if (i < limit && byteAt(i) == '\r' && pos < limit && byteAt(pos) == '\n')
+			pos++;
+
+		updateBraceDepth(previousRecordSize);
+		if (braceDepth != 0 || record.size() == 0)
+			return;
+
+		records.add(new Record(record, null));
+		if (record.size() == 2 && "INCLUDE".equalsIgnoreCase(record.get(0)))
+			submitInclude(record.get(1));
+
+		record = new ArrayList<>();
+	}
+
+	private void addToken(int start, int end) {
+		int len = end - start;
+		if (len > MAX_CACHED_LENGTH) {
+			record.add(decode(start, len));
+			return;
+		}
+
+		// ASCII characters are the same in each of the supported character sets
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			byte b = byteAt(i);
+			if (b < 0) {
+				record.add(decode(start, len));
+				return;
+			}
+			hash = 31*hash + b;
+		}
+
+		// Short tokens such as keywords and units are repeated many times, so the same
+		// String is used for each occurrence, as far as the cache allows
+		int index = (hash ^ (hash >>> 16)) & (tokenCache.length - 1);
+		String tok = tokenCache[index];
+		if (tok == null || tok.hashCode() != hash || !matches(tok, start, len)) {
+			tok = newString(start, len);
+			tokenCache[index] = tok;
+		}
+		record.add(tok);
+	}
+
+	/**
+	 * Returns the token at the given position, which may contain characters that
+	 * are not ASCII.
+	 */
+	private String decode(int start, int len) {
+		if (data != null)
+			return new String(data, start, len, charset);
+
+		if (bytes.length < len)
+			bytes = new byte[Math.max(len, bytes.length * 2)];
+		for (int i = 0; i < len; i++) {
+			bytes[i] = byteAt(start + i);
+		}
+		return new String(bytes, 0, len, charset);
+	}
+
+	private String newString(int start, int len) {
+		if (chars.length < len)
+			chars = new char[Math.max(len, chars.length * 2)];
+		for (int i = 0; i < len; i++) {
+			chars[i] = (char)byteAt(start + i);
+		}
+		return new String(chars, 0, len);
+	}
+
+	private boolean matches(String tok, int start, int len) {
+		if (tok.length() != len)
+			return false;
+		for (int i = 0; i < len; i++) {
+			if (tok.charAt(i) != byteAt(start + i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Updates the brace depth for the tokens added to the present record, in the same
+	 * way as InputAgent. Errors are recorded so that they are reported in order with
+	 * the records.
+	 */
+	private void updateBraceDepth(int startingIndex) {
+		for (int i = startingIndex; i < record.size(); i++) {
+			String token = record.get(i);
+
+			if (token.equals("{"))
+				braceDepth++;
+
+			if (token.equals("}"))
+				braceDepth--;
+
+			if (braceDepth < 0) {
+				records.add(new Record(new ArrayList<>(record), "Extra closing braces found"));
+				record.clear();
+			}
+
+			if (braceDepth > 3) {
+				records.add(new Record(new ArrayList<>(record), "Maximum brace depth (3) exceeded"));
+				record.clear();
+			}
+		}
+	}
+
+	/**
+	 * Starts to tokenize the file named in an Include record. The file is not read if
+	 * it would not pass the jail test when the record is processed.
+	 */
+	private void submitInclude(String name) {
+		final URI inc;
+		try {
+			inc = InputAgent.getFileURI(uri, name.replaceAll("\\\\", "/"), null);
+		}
+		catch (URISyntaxException e) {
+			return;
+		}
+		if (inc == null || !isSupported(inc))
+			return;
+
+		if (jail != null && inc.toString().indexOf(jail) != 0)
+			return;
+
+		if (pending.size() >= MAX_PENDING)
+			return;
+
+		FutureTask<ConfigReader> task = new FutureTask<>(new Callable<ConfigReader>() {
+			@Override
+			public ConfigReader call() throws IOException {
+				ConfigReader ret = create(inc, jail);
+				ret.readAll();
+				return ret;
+			}
+		});
+		if (pending.putIfAbsent(inc, task) == null)
+			getPool().execute(task);
+	}
+
+	private static synchronized ThreadPoolExecutor getPool() {
+		if (pool == null) {
+			pool = new ThreadPoolExecutor(MAX_PENDING, MAX_PENDING, 1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ReaderThreadFactory());
+
+			// Allow the threads to exit when there is nothing to read
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	private static class ReaderThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "ConfigReader-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -28,12 +28,14 @@ public class EntityInput<T extends Entity> extends Input<T> {
 	private boolean includeSubclasses;  // flag to determine if subclasses are valid
 	private ArrayList<Class<? extends Entity>> invalidClasses; // list of invalid classes (including subclasses).  if empty, then all classes are valid
 
+	private static final ArrayList<Class<? extends Entity>> NO_CLASSES = new ArrayList<>(0);
+
 	public EntityInput(Class<T> aClass, String key, String cat, T def) {
 		super(key, cat, def);
 		entClass = aClass;
 		entSubClass = aClass;
 		includeSubclasses = true;
-		invalidClasses = new ArrayList<>();
+		invalidClasses = NO_CLASSES;
 	}
 
 	public void setSubClass(Class<? extends T> aClass) {
@@ -102,6 +104,12 @@ public class EntityInput<T extends Entity> extends Input<T> {
 		invalidClasses = classes;
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value != null)
+			refs.add(value);
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == ent) {
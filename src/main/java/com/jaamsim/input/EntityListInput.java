@@ -30,6 +30,8 @@ public class EntityListInput<T extends Entity> extends ListInput<ArrayList<T>> {
 	private ArrayList<Class<? extends Entity>> validClasses; // list of valid classes (including subclasses).  if empty, then all classes are valid
 	private ArrayList<Class<? extends Entity>> invalidClasses; // list of invalid classes (including subclasses).
 
+	private static final ArrayList<Class<? extends Entity>> NO_CLASSES = new ArrayList<>(0);
+
 	public EntityListInput(Class<T> aClass, String key, String cat, ArrayList<T> def) {
 		super(key, cat, def);
 		entClass = aClass;
@@ -37,8 +39,8 @@ public class EntityListInput<T extends Entity> extends ListInput<ArrayList<T>> {
 		even = false;
 		includeSubclasses = true;
 		includeSelf = true;
-		validClasses = new ArrayList<>();
-		invalidClasses = new ArrayList<>();
+		validClasses = NO_CLASSES;
+		invalidClasses = NO_CLASSES;
 	}
 
 	@Override
@@ -208,6 +210,13 @@ public class EntityListInput<T extends Entity> extends ListInput<ArrayList<T>> {
 		invalidClasses = classes;
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null)
+			return;
+		refs.addAll(value);
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
@@ -89,6 +89,16 @@ public class EntityListListInput<T extends Entity> extends ListInput<ArrayList<A
 		return tmp.toString();
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null)
+			return;
+
+		for (ArrayList<T> list : value) {
+			refs.addAll(list);
+		}
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
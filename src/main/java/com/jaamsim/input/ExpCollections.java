@@ -3,6 +3,7 @@ package com.jaamsim.input;
 import java.lang.reflect.Array;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.datatypes.IntegerVector;
@@ -63,7 +64,187 @@ public class ExpCollections {
 		return null;
 	}
 
-	private static class ListCollection implements ExpResult.Collection {
+	/**
+	 * Returns the number of elements in the given collection.
+	 */
+	public static int getSize(ExpResult.Collection col) throws ExpError {
+		if (col instanceof Summarizable)
+			return ((Summarizable)col).getSize();
+
+		int ret = 0;
+		ExpResult.Iterator it = col.getIter();
+		while (it.hasNext()) {
+			it.nextKey();
+			ret++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the count, sum, minimum and maximum of the numbers in the given
+	 * collection. The built-in collections are summarized in a single pass over
+	 * the underlying object without creating an ExpResult for each element.
+	 * @param col - collection to summarize
+	 * @param name - name of the function, used in the error messages
+	 * @param source - expression source, used in the error messages
+	 * @param pos - position in the source, used in the error messages
+	 * @throws ExpError if the collection contains a non-numeric value or values
+	 * with different unit types
+	 */
+	public static Summary summarize(ExpResult.Collection col, String name, String source, int pos) throws ExpError {
+		if (col instanceof Summarizable) {
+			Summarizable sc = (Summarizable)col;
+			Summary ret = new Summary(name, source, pos, sc.getUnitType());
+			sc.summarize(ret);
+			return ret;
+		}
+
+		Summary ret = new Summary(name, source, pos, DimensionlessUnit.class);
+
+		ExpResult.Iterator it = col.getIter();
+		int index = 0;
+		while (it.hasNext()) {
+			ExpResult key = it.nextKey();
+			ret.add(col.index(key), DimensionlessUnit.class, index, key);
+			index++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Collections that can be summarized directly from their underlying object.
+	 */
+	private static interface Summarizable {
+		public int getSize();
+		public Class<? extends Unit> getUnitType();
+		public void summarize(Summary sum) throws ExpError;
+	}
+
+	/**
+	 * The result of summarizing the numbers in a collection.
+	 */
+	public static final class Summary {
+		private final String name;
+		private final String source;
+		private final int pos;
+
+		private int count;
+		private double sum;
+		private double min;
+		private double max;
+		private Class<? extends Unit> unitType;  // unit type for the sum of an empty collection
+
+		// The position of the minimum and maximum values in the iteration order,
+		// and their keys for collections that are not indexed by position
+		private int minIndex;
+		private int maxIndex;
+		private Object minKey;
+		private Object maxKey;
+
+		Summary(String name, String source, int pos, Class<? extends Unit> ut) {
+			this.name = name;
+			this.source = source;
+			this.pos = pos;
+			this.unitType = ut;
+		}
+
+		void add(double val, Class<? extends Unit> ut, int index, Object key) throws ExpError {
+			if (count == 0) {
+				unitType = ut;
+				min = val;
+				max = val;
+				minIndex = index;
+				maxIndex = index;
+				minKey = key;
+				maxKey = key;
+			}
+			else {
+				if (ut != unitType) {
+					throw new ExpError(source, pos, "Unmatched Unit types in collection: %s, %s",
+					                   unitType.getSimpleName(), ut.getSimpleName());
+				}
+				if (val < min) {
+					min = val;
+					minIndex = index;
+					minKey = key;
+				}
+				if (val > max) {
+					max = val;
+					maxIndex = index;
+					maxKey = key;
+				}
+			}
+			sum += val;
+			count++;
+		}
+
+		void add(Object val, Class<? extends Unit> ut, int index, Object key) throws ExpError {
+			if (val instanceof Number) {
+				add(((Number)val).doubleValue(), ut, index, key);
+				return;
+			}
+			if (val instanceof ExpResult) {
+				ExpResult res = (ExpResult)val;
+				if (res.type == ExpResType.NUMBER) {
+					add(res.value, res.unitType, index, key);
+					return;
+				}
+			}
+			throw new ExpError(source, pos, "Can not take %s of non-numeric type in collection", name);
+		}
+
+		private void checkNotEmpty() throws ExpError {
+			if (count == 0)
+				throw new ExpError(source, pos, "Can not get %s of empty collection", name);
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		public ExpResult getSum() {
+			return ExpResult.makeNumResult(sum, unitType);
+		}
+
+		public ExpResult getAverage() throws ExpError {
+			checkNotEmpty();
+			return ExpResult.makeNumResult(sum/count, unitType);
+		}
+
+		public ExpResult getMin() throws ExpError {
+			checkNotEmpty();
+			return ExpResult.makeNumResult(min, unitType);
+		}
+
+		public ExpResult getMax() throws ExpError {
+			checkNotEmpty();
+			return ExpResult.makeNumResult(max, unitType);
+		}
+
+		public ExpResult getIndexOfMin() throws ExpError {
+			checkNotEmpty();
+			return getKey(minIndex, minKey);
+		}
+
+		public ExpResult getIndexOfMax() throws ExpError {
+			checkNotEmpty();
+			return getKey(maxIndex, maxKey);
+		}
+
+		private static ExpResult getKey(int index, Object key) throws ExpError {
+			if (key instanceof ExpResult)
+				return (ExpResult)key;
+			if (key != null)
+				return ExpEvaluator.getResultFromObject(key, DimensionlessUnit.class);
+			return ExpResult.makeNumResult(index + 1, DimensionlessUnit.class); // Expressions use 1-base arrays
+		}
+	}
+
+	private static class ListCollection implements ExpResult.Collection, Summarizable {
 
 		private class Iter implements ExpResult.Iterator {
 
@@ -110,9 +291,26 @@ public class ExpCollections {
 
 			return ExpEvaluator.getResultFromObject(val, unitType);
 		}
+
+		@Override
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		@Override
+		public int getSize() {
+			return list.size();
+		}
+
+		@Override
+		public void summarize(Summary sum) throws ExpError {
+			for (int i = 0; i < list.size(); i++) {
+				sum.add(list.get(i), unitType, i, null);
+			}
+		}
 	}
 
-	private static class ArrayCollection implements ExpResult.Collection {
+	private static class ArrayCollection implements ExpResult.Collection, Summarizable {
 
 		private final Object array;
 		private final Class<? extends Unit> unitType;
@@ -183,9 +381,50 @@ public class ExpCollections {
 			}
 			throw new ExpError(null, 0, "Unknown type in array");
 		}
+
+		@Override
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		@Override
+		public int getSize() {
+			return Array.getLength(array);
+		}
+
+		@Override
+		public void summarize(Summary sum) throws ExpError {
+			int length = Array.getLength(array);
+			Class<?> componentClass = array.getClass().getComponentType();
+
+			if (componentClass == Double.TYPE) {
+				double[] vals = (double[])array;
+				for (int i = 0; i < length; i++) {
+					sum.add(vals[i], unitType, i, null);
+				}
+				return;
+			}
+			if (!componentClass.isPrimitive()) {
+				Object[] vals = (Object[])array;
+				for (int i = 0; i < length; i++) {
+					sum.add(vals[i], unitType, i, null);
+				}
+				return;
+			}
+			if (componentClass == Boolean.TYPE) {
+				boolean[] vals = (boolean[])array;
+				for (int i = 0; i < length; i++) {
+					sum.add(vals[i] ? 1.0 : 0.0, unitType, i, null);
+				}
+				return;
+			}
+			for (int i = 0; i < length; i++) {
+				sum.add(Array.getDouble(array, i), unitType, i, null);
+			}
+		}
 	}
 
-	private static class DoubleVectorCollection implements ExpResult.Collection {
+	private static class DoubleVectorCollection implements ExpResult.Collection, Summarizable {
 
 		private final DoubleVector vector;
 		private final Class<? extends Unit> unitType;
@@ -233,9 +472,26 @@ public class ExpCollections {
 			return ExpResult.makeNumResult(value, unitType);
 		}
 
+		@Override
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		@Override
+		public int getSize() {
+			return vector.size();
+		}
+
+		@Override
+		public void summarize(Summary sum) throws ExpError {
+			for (int i = 0; i < vector.size(); i++) {
+				sum.add(vector.get(i), unitType, i, null);
+			}
+		}
+
 	}
 
-	private static class IntegerVectorCollection implements ExpResult.Collection {
+	private static class IntegerVectorCollection implements ExpResult.Collection, Summarizable {
 
 		private final IntegerVector vector;
 		private final Class<? extends Unit> unitType;
@@ -283,9 +539,26 @@ public class ExpCollections {
 			return ExpResult.makeNumResult(value, unitType);
 		}
 
+		@Override
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		@Override
+		public int getSize() {
+			return vector.size();
+		}
+
+		@Override
+		public void summarize(Summary sum) throws ExpError {
+			for (int i = 0; i < vector.size(); i++) {
+				sum.add(vector.get(i), unitType, i, null);
+			}
+		}
+
 	}
 
-	private static class MapCollection implements ExpResult.Collection {
+	private static class MapCollection implements ExpResult.Collection, Summarizable {
 
 		private final Map<?,?> map;
 		private final Class<? extends Unit> unitType;
@@ -343,6 +616,29 @@ public class ExpCollections {
 			return ExpEvaluator.getResultFromObject(val, unitType);
 		}
 
+		@Override
+		public Class<? extends Unit> getUnitType() {
+			return unitType;
+		}
+
+		@Override
+		public int getSize() {
+			return map.size();
+		}
+
+		@Override
+		public void summarize(Summary sum) throws ExpError {
+			int index = 0;
+			for (Entry<?,?> each : map.entrySet()) {
+				Object val = each.getValue();
+				if (val == null)
+					sum.add(0.0d, unitType, index, each.getKey());
+				else
+					sum.add(val, unitType, index, each.getKey());
+				index++;
+			}
+		}
+
 	}
 
 }
@@ -0,0 +1,485 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import com.jaamsim.input.ExpParser.BinaryOp;
+import com.jaamsim.input.ExpParser.Conditional;
+import com.jaamsim.input.ExpParser.Constant;
+import com.jaamsim.input.ExpParser.EvalContext;
+import com.jaamsim.input.ExpParser.ExpNode;
+import com.jaamsim.input.ExpParser.FuncCall;
+import com.jaamsim.input.ExpParser.UnaryOp;
+
+/**
+ * Compiles a validated expression into a tree of nodes that evaluate its numeric
+ * sub-expressions using primitive double arithmetic.
+ * <p>
+ * A sub-expression is compiled only if validation has shown that it returns a
+ * number, so that its type and unit checks have already been performed at parse
+ * time. Operators and functions with a numeric equivalent are evaluated without
+ * creating an ExpResult for each intermediate value. Any other sub-expression,
+ * such as an output, an indexed collection, or an operation on strings or
+ * entities, is evaluated by the interpreter and only its numeric value is used.
+ * The operands are evaluated in the same order as the interpreter, including
+ * both operands of '&&' and '||', so that the results are identical.
+ */
+final class ExpCompiler {
+
+	private ExpCompiler() {}
+
+	/**
+	 * A compiled sub-expression that returns a number.
+	 */
+	abstract static class NumNode {
+		abstract double eval(EvalContext ec) throws ExpError;
+	}
+
+	/**
+	 * Returns the compiled version of an expression, or null if the expression
+	 * does not return a number or if compilation would not improve its speed.
+	 */
+	static NumNode compile(ExpNode root) {
+		if (!isNumber(root))
+			return null;
+
+		NumNode ret = compileNode(root);
+		if (ret == null || ret instanceof Const)
+			return null;
+		return ret;
+	}
+
+	private static boolean isNumber(ExpNode node) {
+		ExpValResult res = node.validate();
+		return res.state == ExpValResult.State.VALID && res.type == ExpResType.NUMBER;
+	}
+
+	/**
+	 * Returns the compiled version of a node that has been validated as a number,
+	 * using the interpreter for the node if it cannot be compiled.
+	 */
+	private static NumNode compileNumber(ExpNode node) {
+		if (!isNumber(node))
+			return null;
+
+		NumNode ret = compileNode(node);
+		if (ret == null)
+			return new Interpreted(node);
+		return ret;
+	}
+
+	private static NumNode compileNode(ExpNode node) {
+		if (node instanceof Constant)
+			return new Const(((Constant)node).val.value);
+
+		if (node instanceof UnaryOp) {
+			UnaryOp uo = (UnaryOp)node;
+			NumNode sub = compileNumber(uo.subExp);
+			if (sub == null)
+				return null;
+			return compileUnaryOp(uo.name, sub);
+		}
+
+		if (node instanceof BinaryOp) {
+			BinaryOp bo = (BinaryOp)node;
+			NumNode lSub = compileNumber(bo.lSubExp);
+			NumNode rSub = compileNumber(bo.rSubExp);
+			if (lSub == null || rSub == null)
+				return null;
+			return compileBinaryOp(bo.name, lSub, rSub);
+		}
+
+		if (node instanceof Conditional) {
+			Conditional cond = (Conditional)node;
+			NumNode condSub = compileNumber(cond.condExp);
+			NumNode trueSub = compileNumber(cond.trueExp);
+			NumNode falseSub = compileNumber(cond.falseExp);
+			if (condSub == null || trueSub == null || falseSub == null)
+				return null;
+			return new Cond(condSub, trueSub, falseSub);
+		}
+
+		if (node instanceof FuncCall) {
+			FuncCall fc = (FuncCall)node;
+			NumNode[] args = new NumNode[fc.args.size()];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = compileNumber(fc.args.get(i));
+				if (args[i] == null)
+					return null;
+			}
+			return compileFunction(fc, args);
+		}
+
+		return null;
+	}
+
+	private static NumNode compileUnaryOp(String name, NumNode sub) {
+		switch (name) {
+		case "+":
+			return sub;
+		case "-":
+			return new UnNode(sub) {
+				@Override
+				double apply(double val) { return -val; }
+			};
+		case "!":
+			return new UnNode(sub) {
+				@Override
+				double apply(double val) { return val == 0 ? 1 : 0; }
+			};
+		default:
+			return null;
+		}
+	}
+
+	private static NumNode compileBinaryOp(String name, NumNode lSub, NumNode rSub) {
+		switch (name) {
+		case "+":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval + rval; }
+			};
+		case "-":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval - rval; }
+			};
+		case "*":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval * rval; }
+			};
+		case "/":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval / rval; }
+			};
+		case "^":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return Math.pow(lval, rval); }
+			};
+		case "%":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval % rval; }
+			};
+		case "==":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval == rval ? 1 : 0; }
+			};
+		case "!=":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval != rval ? 1 : 0; }
+			};
+		case "&&":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return (lval != 0) && (rval != 0) ? 1 : 0; }
+			};
+		case "||":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return (lval != 0) || (rval != 0) ? 1 : 0; }
+			};
+		case "<":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval < rval ? 1 : 0; }
+			};
+		case "<=":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval <= rval ? 1 : 0; }
+			};
+		case ">":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval > rval ? 1 : 0; }
+			};
+		case ">=":
+			return new BinNode(lSub, rSub) {
+				@Override
+				double apply(double lval, double rval) { return lval >= rval ? 1 : 0; }
+			};
+		default:
+			return null;
+		}
+	}
+
+	private static NumNode compileFunction(final FuncCall fc, final NumNode[] args) {
+		switch (fc.name) {
+		case "max":
+			return new ArgsNode(args) {
+				@Override
+				double eval(EvalContext ec) throws ExpError {
+					double ret = args[0].eval(ec);
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].eval(ec);
+						if (val > ret)
+							ret = val;
+					}
+					return ret;
+				}
+			};
+		case "min":
+			return new ArgsNode(args) {
+				@Override
+				double eval(EvalContext ec) throws ExpError {
+					double ret = args[0].eval(ec);
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].eval(ec);
+						if (val < ret)
+							ret = val;
+					}
+					return ret;
+				}
+			};
+		case "indexOfMax":
+			return new ArgsNode(args) {
+				@Override
+				double eval(EvalContext ec) throws ExpError {
+					double max = args[0].eval(ec);
+					int index = 0;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].eval(ec);
+						if (val > max) {
+							max = val;
+							index = i;
+						}
+					}
+					return index + 1;
+				}
+			};
+		case "indexOfMin":
+			return new ArgsNode(args) {
+				@Override
+				double eval(EvalContext ec) throws ExpError {
+					double min = args[0].eval(ec);
+					int index = 0;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].eval(ec);
+						if (val < min) {
+							min = val;
+							index = i;
+						}
+					}
+					return index + 1;
+				}
+			};
+		case "choose":
+			return new ArgsNode(args) {
+				@Override
+				double eval(EvalContext ec) throws ExpError {
+					int k = (int) args[0].eval(ec);
+					double ret = 0.0d;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].eval(ec);
+						if (i == k)
+							ret = val;
+					}
+					if (k < 1 || k >= args.length)
+						throw new ExpError(fc.exp.source, fc.tokenPos,
+								String.format("Invalid index: %s. Index must be between 1 and %s.", k, args.length-1));
+					return ret;
+				}
+			};
+		case "atan2":
+			return new BinNode(args[0], args[1]) {
+				@Override
+				double apply(double lval, double rval) { return Math.atan2(lval, rval); }
+			};
+		default:
+			break;
+		}
+
+		if (args.length != 1)
+			return null;
+
+		switch (fc.name) {
+		case "abs":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.abs(val); }
+			};
+		case "ceil":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.ceil(val); }
+			};
+		case "floor":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.floor(val); }
+			};
+		case "signum":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.signum(val); }
+			};
+		case "sqrt":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.sqrt(val); }
+			};
+		case "cbrt":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.cbrt(val); }
+			};
+		case "sin":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.sin(val); }
+			};
+		case "cos":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.cos(val); }
+			};
+		case "tan":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.tan(val); }
+			};
+		case "asin":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.asin(val); }
+			};
+		case "acos":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.acos(val); }
+			};
+		case "atan":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.atan(val); }
+			};
+		case "exp":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.exp(val); }
+			};
+		case "ln":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.log(val); }
+			};
+		case "log":
+			return new UnNode(args[0]) {
+				@Override
+				double apply(double val) { return Math.log10(val); }
+			};
+		default:
+			return null;
+		}
+	}
+
+	private static final class Const extends NumNode {
+		private final double val;
+
+		Const(double val) {
+			this.val = val;
+		}
+
+		@Override
+		double eval(EvalContext ec) {
+			return val;
+		}
+	}
+
+	/**
+	 * A sub-expression that is evaluated by the interpreter.
+	 */
+	private static final class Interpreted extends NumNode {
+		private final ExpNode node;
+
+		Interpreted(ExpNode node) {
+			this.node = node;
+		}
+
+		@Override
+		double eval(EvalContext ec) throws ExpError {
+			return node.evaluate(ec).value;
+		}
+	}
+
+	private static final class Cond extends NumNode {
+		private final NumNode condSub;
+		private final NumNode trueSub;
+		private final NumNode falseSub;
+
+		Cond(NumNode c, NumNode t, NumNode f) {
+			condSub = c;
+			trueSub = t;
+			falseSub = f;
+		}
+
+		@Override
+		double eval(EvalContext ec) throws ExpError {
+			if (condSub.eval(ec) == 0)
+				return falseSub.eval(ec);
+			else
+				return trueSub.eval(ec);
+		}
+	}
+
+	private abstract static class UnNode extends NumNode {
+		private final NumNode sub;
+
+		UnNode(NumNode sub) {
+			this.sub = sub;
+		}
+
+		abstract double apply(double val);
+
+		@Override
+		final double eval(EvalContext ec) throws ExpError {
+			return apply(sub.eval(ec));
+		}
+	}
+
+	private abstract static class BinNode extends NumNode {
+		private final NumNode lSub;
+		private final NumNode rSub;
+
+		BinNode(NumNode lSub, NumNode rSub) {
+			this.lSub = lSub;
+			this.rSub = rSub;
+		}
+
+		abstract double apply(double lval, double rval);
+
+		@Override
+		final double eval(EvalContext ec) throws ExpError {
+			double lval = lSub.eval(ec);
+			double rval = rSub.eval(ec);
+			return apply(lval, rval);
+		}
+	}
+
+	private abstract static class ArgsNode extends NumNode {
+		final NumNode[] args;
+
+		ArgsNode(NumNode[] args) {
+			this.args = args;
+		}
+	}
+}
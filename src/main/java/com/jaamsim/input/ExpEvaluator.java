@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.input.ExpParser.EvalContext;
 import com.jaamsim.input.ExpParser.OutputResolver;
 import com.jaamsim.units.DimensionlessUnit;
@@ -174,6 +175,11 @@ public class ExpEvaluator {
 			entityReferences.put(ent, ent.getName());
 		}
 
+		// Add the entities used in the expression to the given list
+		public void getReferences(ArrayList<Entity> refs) {
+			refs.addAll(entityReferences.keySet());
+		}
+
 		// Return a version of the expression string updated for an entities that have changed their names
 		// since the expression was parsed
 		public String getUpdatedSource() {
@@ -433,4 +439,30 @@ public class ExpEvaluator {
 		EntityEvalContext evalContext = new EntityEvalContext(simTime);
 		return exp.evaluate(evalContext);
 	}
+
+	/**
+	 * Adds the signals that are triggered when the value of the given expression can
+	 * change to the list. Returns false if its value can change without a signal being
+	 * triggered, for example because it uses an output that depends on the simulation
+	 * time.
+	 * @param exp - expression to be tested.
+	 * @param signals - list of signals to which the expression's signals are added.
+	 * @return true if every change to the value of the expression triggers a signal.
+	 */
+	public static boolean addChangeSignals(ExpParser.Expression exp, ArrayList<ChangeSignal> signals)
+	{
+		ArrayList<Entity> ents = new ArrayList<>();
+		ArrayList<String> names = new ArrayList<>();
+		if (!exp.getOutputReferences(ents, names))
+			return false;
+
+		for (int i = 0; i < ents.size(); i++) {
+			ChangeSignal sig = ents.get(i).getChangeSignal(names.get(i));
+			if (sig == null)
+				return false;
+			if (!signals.contains(sig))
+				signals.add(sig);
+		}
+		return true;
+	}
 }
@@ -18,7 +18,9 @@
 package com.jaamsim.input;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ObjectType;
 import com.jaamsim.units.AngleUnit;
 import com.jaamsim.units.DimensionlessUnit;
@@ -26,6 +28,20 @@ import com.jaamsim.units.Unit;
 
 public class ExpParser {
 
+	private static volatile boolean compileExpressions = true;
+
+	/**
+	 * Sets whether new expressions are compiled to primitive arithmetic, where
+	 * possible, or are always evaluated by the interpreter.
+	 */
+	public static void setCompileExpressions(boolean bool) {
+		compileExpressions = bool;
+	}
+
+	public static boolean isCompileExpressions() {
+		return compileExpressions;
+	}
+
 	public interface UnOpFunc {
 		public void checkTypeAndUnits(ParseContext context, ExpResult val, String source, int pos) throws ExpError;
 		public ExpResult apply(ParseContext context, ExpResult val) throws ExpError;
@@ -86,32 +102,87 @@ public class ExpParser {
 
 		public ExpValResult validationResult;
 
+		// The thread that is evaluating the expression. The list of threads is used
+		// only when the expression is evaluated by more than one thread at a time.
+		private final AtomicReference<Thread> executingThread = new AtomicReference<>();
 		private final ArrayList<Thread> executingThreads = new ArrayList<>();
 
 		private ExpNode rootNode;
+		private ExpCompiler.NumNode compiledNode; // compiled version of rootNode, or null
+		private Class<? extends Unit> compiledUnitType;
+
 		public Expression(String source) {
 			this.source = source;
 		}
 		public ExpResult evaluate(EvalContext ec) throws ExpError {
+			Thread cur = Thread.currentThread();
+			if (executingThread.compareAndSet(null, cur)) {
+				try {
+					return evaluateRoot(ec);
+				} finally {
+					executingThread.set(null);
+				}
+			}
+			if (executingThread.get() == cur) {
+				throw new ExpError(null, 0, "Expression recursion detected for expression: %s", source);
+			}
+
+			// The expression is being evaluated by another thread
 			synchronized(executingThreads) {
-				if (executingThreads.contains(Thread.currentThread())) {
+				if (executingThreads.contains(cur)) {
 					throw new ExpError(null, 0, "Expression recursion detected for expression: %s", source);
 				}
 
-				executingThreads.add(Thread.currentThread());
+				executingThreads.add(cur);
 			}
 			ExpResult res = null;
 			try {
-				res = rootNode.evaluate(ec);
+				res = evaluateRoot(ec);
 			} finally {
 				synchronized(executingThreads) {
-					executingThreads.remove(Thread.currentThread());
+					executingThreads.remove(cur);
 				}
 			}
 			return res;
 		}
+		private ExpResult evaluateRoot(EvalContext ec) throws ExpError {
+			if (compiledNode != null)
+				return ExpResult.makeNumResult(compiledNode.eval(ec), compiledUnitType);
+			return rootNode.evaluate(ec);
+		}
 		void setRootNode(ExpNode node) {
 			rootNode = node;
+			compiledNode = null;
+			if (compileExpressions && validationResult != null) {
+				compiledNode = ExpCompiler.compile(node);
+				compiledUnitType = validationResult.unitType;
+			}
+		}
+
+		/**
+		 * Adds the entities and output names referred to by the expression to the
+		 * given lists. Returns false if the expression refers to an output of an
+		 * entity that is known only once the expression is evaluated, such as the
+		 * output of an entity returned by another output.
+		 * @param ents - entity for each reference.
+		 * @param names - output name for each reference.
+		 */
+		public boolean getOutputReferences(ArrayList<Entity> ents, ArrayList<String> names) {
+			OutputRefWalker w = new OutputRefWalker(ents, names);
+			try {
+				rootNode.walk(w);
+			}
+			catch (ExpError e) {
+				return false;
+			}
+			return w.fixed;
+		}
+
+		/**
+		 * Returns true if the expression is evaluated by its compiled version.
+		 */
+		public boolean isCompiled() {
+			return compiledNode != null;
 		}
 
 		@Override
@@ -120,7 +191,7 @@ public class ExpParser {
 		}
 	}
 
-	private abstract static class ExpNode {
+	abstract static class ExpNode {
 		public final ParseContext context;
 		public final Expression exp;
 		public final int tokenPos;
@@ -139,7 +210,7 @@ public class ExpParser {
 		}
 	}
 
-	private static class Constant extends ExpNode {
+	static class Constant extends ExpNode {
 		public ExpResult val;
 		public Constant(ParseContext context, ExpResult val, Expression exp, int pos) {
 			super(context, exp, pos);
@@ -266,7 +337,7 @@ public class ExpParser {
 	}
 
 
-	private static class UnaryOp extends ExpNode {
+	static class UnaryOp extends ExpNode {
 		public ExpNode subExp;
 		protected final UnOpFunc func;
 		public String name;
@@ -329,7 +400,7 @@ public class ExpParser {
 
 	}
 
-	private static class BinaryOp extends ExpNode {
+	static class BinaryOp extends ExpNode {
 		public ExpNode lSubExp;
 		public ExpNode rSubExp;
 		public boolean canSkipRuntimeChecks = false;
@@ -403,9 +474,9 @@ public class ExpParser {
 
 
 	public static class Conditional extends ExpNode {
-		private ExpNode condExp;
-		private ExpNode trueExp;
-		private ExpNode falseExp;
+		ExpNode condExp;
+		ExpNode trueExp;
+		ExpNode falseExp;
 		public Conditional(ParseContext context, ExpNode c, ExpNode t, ExpNode f, Expression exp, int pos) {
 			super(context, exp, pos);
 			condExp = c;
@@ -490,7 +561,7 @@ public class ExpParser {
 		protected final ArrayList<ExpNode> args;
 		protected final CallableFunc function;
 		private boolean canSkipRuntimeChecks = false;
-		private final String name;
+		final String name;
 		public FuncCall(String name, ParseContext context, CallableFunc function, ArrayList<ExpNode> args, Expression exp, int pos) {
 			super(context, exp, pos);
 			this.function = function;
@@ -837,6 +908,14 @@ public class ExpParser {
 	}
 
 
+	// Summarize the single collection argument of an aggregate function
+	private static ExpCollections.Summary summarizeCollection(String name, ExpResult[] args, String source, int pos) throws ExpError {
+		if (args[0].type != ExpResType.COLLECTION) {
+			throw new ExpError(source, pos, "Expected Collection type argument");
+		}
+		return ExpCollections.summarize(args[0].colVal, name, source, pos);
+	}
+
 	// Check that a single argument is not an error and is a dimensionless unit
 	private static ExpValResult validateSingleArgDimensionless(ParseContext context, ExpValResult arg, String source, int pos) {
 		if (	arg.state == ExpValResult.State.ERROR ||
@@ -1325,7 +1404,7 @@ public class ExpParser {
 
 		////////////////////////////////////////////////////
 		// Functions
-		addFunction("max", 2, -1, new CallableFunc() {
+		addFunction("max", 1, -1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
 					String source, int pos) throws ExpError {
@@ -1337,6 +1416,9 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				if (args.length == 1)
+					return summarizeCollection("max", args, source, pos).getMax();
+
 				ExpResult res = args[0];
 				for (int i = 1; i < args.length; ++ i) {
 					if (args[i].value > res.value)
@@ -1347,11 +1429,13 @@ public class ExpParser {
 
 			@Override
 			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				if (args.length == 1)
+					return validateCollection(context, args, source, pos);
 				return validateSameUnits(context, args, source, pos, args[0].unitType);
 			}
 		});
 
-		addFunction("min", 2, -1, new CallableFunc() {
+		addFunction("min", 1, -1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
 					String source, int pos) throws ExpError {
@@ -1363,6 +1447,9 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				if (args.length == 1)
+					return summarizeCollection("min", args, source, pos).getMin();
+
 				ExpResult res = args[0];
 				for (int i = 1; i < args.length; ++ i) {
 					if (args[i].value < res.value)
@@ -1372,6 +1459,8 @@ public class ExpParser {
 			}
 			@Override
 			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				if (args.length == 1)
+					return validateCollection(context, args, source, pos);
 				return validateSameUnits(context, args, source, pos, args[0].unitType);
 			}
 		});
@@ -1384,35 +1473,24 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
-				if (args[0].type != ExpResType.COLLECTION) {
-					throw new ExpError(source, pos, "Expected Collection type argument");
-				}
+				return summarizeCollection("max", args, source, pos).getMax();
+			}
 
-				ExpResult.Collection col = args[0].colVal;
-				ExpResult.Iterator it = col.getIter();
-				if (!it.hasNext()) {
-					throw new ExpError(source, pos, "Can not get max of empty collection");
-				}
-				ExpResult ret = col.index(it.nextKey());
-				Class<? extends Unit> ut = ret.unitType;
-				if (ret.type != ExpResType.NUMBER) {
-					throw new ExpError(source, pos, "Can not take max of non-numeric type in collection");
-				}
+			@Override
+			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				return validateCollection(context, args, source, pos);
+			}
+		});
 
-				while (it.hasNext()) {
-					ExpResult comp = col.index(it.nextKey());
-					if (comp.unitType != ut) {
-						throw new ExpError(source, pos, "Unmatched Unit types in collection: %s, %s",
-						                   ut.getSimpleName(), comp.unitType.getSimpleName());
-					}
-					if (comp.type != ExpResType.NUMBER) {
-						throw new ExpError(source, pos, "Can not take max of non-numeric type in collection");
-					}
-					if (comp.value > ret.value) {
-						ret = comp;
-					}
-				}
-				return ret;
+		addFunction("minCol", 1, 1, new CallableFunc() {
+			@Override
+			public void checkUnits(ParseContext context, ExpResult[] args,
+					String source, int pos) throws ExpError {
+			}
+
+			@Override
+			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				return summarizeCollection("min", args, source, pos).getMin();
 			}
 
 			@Override
@@ -1421,7 +1499,7 @@ public class ExpParser {
 			}
 		});
 
-		addFunction("minCol", 1, 1, new CallableFunc() {
+		addFunction("sum", 1, 1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
 					String source, int pos) throws ExpError {
@@ -1429,35 +1507,24 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
-				if (args[0].type != ExpResType.COLLECTION) {
-					throw new ExpError(source, pos, "Expected Collection type argument");
-				}
+				return summarizeCollection("sum", args, source, pos).getSum();
+			}
 
-				ExpResult.Collection col = args[0].colVal;
-				ExpResult.Iterator it = col.getIter();
-				if (!it.hasNext()) {
-					throw new ExpError(source, pos, "Can not get min of empty collection");
-				}
-				ExpResult ret = col.index(it.nextKey());
-				Class<? extends Unit> ut = ret.unitType;
-				if (ret.type != ExpResType.NUMBER) {
-					throw new ExpError(source, pos, "Can not take min of non-numeric type in collection");
-				}
+			@Override
+			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				return validateCollection(context, args, source, pos);
+			}
+		});
 
-				while (it.hasNext()) {
-					ExpResult comp = col.index(it.nextKey());
-					if (comp.unitType != ut) {
-						throw new ExpError(source, pos, "Unmatched Unit types in collection: %s, %s",
-						                   ut.getSimpleName(), comp.unitType.getSimpleName());
-					}
-					if (comp.type != ExpResType.NUMBER) {
-						throw new ExpError(source, pos, "Can not take min of non-numeric type in collection");
-					}
-					if (comp.value < ret.value) {
-						ret = comp;
-					}
-				}
-				return ret;
+		addFunction("average", 1, 1, new CallableFunc() {
+			@Override
+			public void checkUnits(ParseContext context, ExpResult[] args,
+					String source, int pos) throws ExpError {
+			}
+
+			@Override
+			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				return summarizeCollection("average", args, source, pos).getAverage();
 			}
 
 			@Override
@@ -1466,6 +1533,30 @@ public class ExpParser {
 			}
 		});
 
+		addFunction("count", 1, 1, new CallableFunc() {
+			@Override
+			public void checkUnits(ParseContext context, ExpResult[] args,
+					String source, int pos) throws ExpError {
+			}
+
+			@Override
+			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				if (args[0].type != ExpResType.COLLECTION) {
+					throw new ExpError(source, pos, "Expected Collection type argument");
+				}
+				int size = ExpCollections.getSize(args[0].colVal);
+				return ExpResult.makeNumResult(size, DimensionlessUnit.class);
+			}
+
+			@Override
+			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				ExpValResult ret = validateCollection(context, args, source, pos);
+				if (ret.state != ExpValResult.State.UNDECIDABLE)
+					return ret;
+				return ExpValResult.makeValidRes(ExpResType.NUMBER, DimensionlessUnit.class);
+			}
+		});
+
 		addFunction("abs", 1, 1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
@@ -1573,7 +1664,7 @@ public class ExpParser {
 			}
 		});
 
-		addFunction("indexOfMin", 2, -1, new CallableFunc() {
+		addFunction("indexOfMin", 1, -1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
 					String source, int pos) throws ExpError {
@@ -1585,6 +1676,9 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				if (args.length == 1)
+					return summarizeCollection("min", args, source, pos).getIndexOfMin();
+
 				ExpResult res = args[0];
 				int index = 0;
 				for (int i = 1; i < args.length; ++ i) {
@@ -1597,11 +1691,13 @@ public class ExpParser {
 			}
 			@Override
 			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				if (args.length == 1)
+					return validateCollection(context, args, source, pos);
 				return validateSameUnits(context, args, source, pos, DimensionlessUnit.class);
 			}
 		});
 
-		addFunction("indexOfMax", 2, -1, new CallableFunc() {
+		addFunction("indexOfMax", 1, -1, new CallableFunc() {
 			@Override
 			public void checkUnits(ParseContext context, ExpResult[] args,
 					String source, int pos) throws ExpError {
@@ -1613,6 +1709,9 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
+				if (args.length == 1)
+					return summarizeCollection("max", args, source, pos).getIndexOfMax();
+
 				ExpResult res = args[0];
 				int index = 0;
 				for (int i = 1; i < args.length; ++ i) {
@@ -1625,6 +1724,8 @@ public class ExpParser {
 			}
 			@Override
 			public ExpValResult validate(ParseContext context, ExpValResult[] args, String source, int pos) {
+				if (args.length == 1)
+					return validateCollection(context, args, source, pos);
 				return validateSameUnits(context, args, source, pos, DimensionlessUnit.class);
 			}
 		});
@@ -1637,38 +1738,7 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
-				if (args[0].type != ExpResType.COLLECTION) {
-					throw new ExpError(source, pos, "Expected Collection type argument");
-				}
-
-				ExpResult.Collection col = args[0].colVal;
-				ExpResult.Iterator it = col.getIter();
-				if (!it.hasNext()) {
-					throw new ExpError(source, pos, "Can not get max of empty collection");
-				}
-				ExpResult retKey = it.nextKey();
-				ExpResult ret = col.index(retKey);
-				Class<? extends Unit> ut = ret.unitType;
-				if (ret.type != ExpResType.NUMBER) {
-					throw new ExpError(source, pos, "Can not take max of non-numeric type in collection");
-				}
-
-				while (it.hasNext()) {
-					ExpResult compKey = it.nextKey();
-					ExpResult comp = col.index(compKey);
-					if (comp.unitType != ut) {
-						throw new ExpError(source, pos, "Unmatched Unit types in collection: %s, %s",
-						                   ut.getSimpleName(), comp.unitType.getSimpleName());
-					}
-					if (comp.type != ExpResType.NUMBER) {
-						throw new ExpError(source, pos, "Can not take max of non-numeric type in collection");
-					}
-					if (comp.value > ret.value) {
-						ret = comp;
-						retKey = compKey;
-					}
-				}
-				return retKey;
+				return summarizeCollection("max", args, source, pos).getIndexOfMax();
 			}
 
 			@Override
@@ -1684,38 +1754,7 @@ public class ExpParser {
 
 			@Override
 			public ExpResult call(ParseContext context, ExpResult[] args, String source, int pos) throws ExpError {
-				if (args[0].type != ExpResType.COLLECTION) {
-					throw new ExpError(source, pos, "Expected Collection type argument");
-				}
-
-				ExpResult.Collection col = args[0].colVal;
-				ExpResult.Iterator it = col.getIter();
-				if (!it.hasNext()) {
-					throw new ExpError(source, pos, "Can not get min of empty collection");
-				}
-				ExpResult retKey = it.nextKey();
-				ExpResult ret = col.index(retKey);
-				Class<? extends Unit> ut = ret.unitType;
-				if (ret.type != ExpResType.NUMBER) {
-					throw new ExpError(source, pos, "Can not take min of non-numeric type in collection");
-				}
-
-				while (it.hasNext()) {
-					ExpResult compKey = it.nextKey();
-					ExpResult comp = col.index(compKey);
-					if (comp.unitType != ut) {
-						throw new ExpError(source, pos, "Unmatched Unit types in collection: %s, %s",
-						                   ut.getSimpleName(), comp.unitType.getSimpleName());
-					}
-					if (comp.type != ExpResType.NUMBER) {
-						throw new ExpError(source, pos, "Can not take min of non-numeric type in collection");
-					}
-					if (comp.value < ret.value) {
-						ret = comp;
-						retKey = compKey;
-					}
-				}
-				return retKey;
+				return summarizeCollection("min", args, source, pos).getIndexOfMin();
 			}
 
 			@Override
@@ -2126,6 +2165,41 @@ public class ExpParser {
 
 	private static ConstOptimizer CONST_OP = new ConstOptimizer();
 
+	private static class OutputRefWalker implements ExpressionWalker {
+		private final ArrayList<Entity> ents;
+		private final ArrayList<String> names;
+		boolean fixed = true; // false if an output belongs to an entity that is not a constant
+
+		OutputRefWalker(ArrayList<Entity> ents, ArrayList<String> names) {
+			this.ents = ents;
+			this.names = names;
+		}
+
+		@Override
+		public void visit(ExpNode exp) throws ExpError {
+			if (!(exp instanceof ResolveOutput))
+				return;
+
+			ResolveOutput ro = (ResolveOutput)exp;
+			if (!(ro.entNode instanceof Constant)) {
+				fixed = false;
+				return;
+			}
+			ExpResult ent = ((Constant)ro.entNode).val;
+			if (ent.type != ExpResType.ENTITY || ent.entVal == null) {
+				fixed = false;
+				return;
+			}
+			ents.add(ent.entVal);
+			names.add(ro.outputName);
+		}
+
+		@Override
+		public ExpNode updateRef(ExpNode exp) throws ExpError {
+			return exp;
+		}
+	}
+
 	private static class RuntimeCheckOptimizer implements ExpressionWalker {
 
 		@Override
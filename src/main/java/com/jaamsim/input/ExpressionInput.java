@@ -53,6 +53,13 @@ public class ExpressionInput extends Input<ExpParser.Expression> {
 		}
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null || parseContext == null)
+			return;
+		parseContext.getReferences(refs);
+	}
+
 	@Override
 	public void getValueTokens(ArrayList<String> toks) {
 		if (value == null) return;
@@ -143,6 +143,12 @@ public abstract class Input<T> {
 	 */
 	public void removeReferences(Entity ent) {}
 
+	/**
+	 * Adds the entities used by this input to the given list.
+	 * @param refs - list to which the referenced entities are added
+	 */
+	public void getReferences(ArrayList<Entity> refs) {}
+
 	@Override
 	public String toString() {
 		return String.format("%s", value);
@@ -172,6 +178,14 @@ public abstract class Input<T> {
 		return defText;
 	}
 
+	/**
+	 * Returns true if this input was copied from the specified input and neither
+	 * has been changed since.
+	 */
+	public boolean isCopyOf(Input<?> in) {
+		return !isDef && valueTokens != null && valueTokens == in.valueTokens;
+	}
+
 	public void setDefaultValue(T val) {
 		defValue = val;
 		value = val;
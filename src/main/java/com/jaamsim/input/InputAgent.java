@@ -45,6 +45,7 @@ import com.jaamsim.basicsim.ObjectType;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventProfiler;
 import com.jaamsim.math.Vec3d;
 import com.jaamsim.ui.GUIFrame;
 import com.jaamsim.ui.LogBox;
@@ -71,9 +72,13 @@ public class InputAgent {
 
 	private static File reportDir;
 	private static FileEntity reportFile;     // file to which the output report will be written
+	private static FileEntity profileFile;    // file to which the event profile will be written
 	private static PrintStream outStream;  // location where the selected outputs will be written
 
 	private static long preDefinedEntityCount; // Number of Entities after loading autoload.cfg
+	private static int readDepth; // Number of nested calls to readStream for local files
+	private static boolean useModelCache;  // TRUE if the configuration file is to be loaded from its cache
+	private static ModelCache recorder;    // cache in which the records being read are stored
 
 	static {
 		recordEditsFound = false;
@@ -82,6 +87,7 @@ public class InputAgent {
 		configFile = null;
 		reportDir = null;
 		reportFile = null;
+		profileFile = null;
 		outStream = null;
 		lastTickForTrace = -1l;
 	}
@@ -111,6 +117,10 @@ public class InputAgent {
 			reportFile.close();
 			reportFile = null;
 		}
+		if (profileFile != null) {
+			profileFile.close();
+			profileFile = null;
+		}
 		if (outStream != null) {
 			outStream.close();
 			outStream = null;
@@ -256,6 +266,15 @@ public class InputAgent {
 		return batchRun;
 	}
 
+	/**
+	 * Sets whether the records read from the configuration file are to be saved
+	 * in a cache file that is used instead of the configuration file the next time
+	 * it is loaded, provided that none of the files it read have changed.
+	 */
+	public static void setModelCache(boolean bool) {
+		useModelCache = bool;
+	}
+
 	public static void setScriptMode(boolean bool) {
 		scriptMode = bool;
 	}
@@ -337,6 +356,33 @@ public class InputAgent {
 			return false;
 		}
 
+		// Files on the local file system are tokenized by the ConfigReader, which
+		// can read the included files in parallel
+		if (ConfigReader.isSupported(resolved)) {
+			readDepth++;
+			try {
+				ConfigReader reader;
+				try {
+					reader = ConfigReader.open(resolved, root);
+				}
+				catch (IOException e) {
+					InputAgent.logError("Could not read from %s", url.toString());
+					return false;
+				}
+				if (recorder != null)
+					recorder.beginFile(resolved, root);
+				InputAgent.processRecords(reader, new ParseContext(resolved, root));
+				if (recorder != null)
+					recorder.endFile();
+			}
+			finally {
+				readDepth--;
+				if (readDepth == 0)
+					ConfigReader.clear();
+			}
+			return true;
+		}
+
 		BufferedReader buf = null;
 		try {
 			InputStream in = url.openStream();
@@ -346,7 +392,11 @@ public class InputAgent {
 			return false;
 		}
 
+		if (recorder != null)
+			recorder.beginFile(resolved, root);
 		InputAgent.readBufferedStream(buf, resolved, root);
+		if (recorder != null)
+			recorder.endFile();
 		return true;
 	}
 
@@ -373,34 +423,7 @@ public class InputAgent {
 				if (record.size() == 0)
 					continue;
 
-				InputAgent.echoInputRecord(record);
-
-				if ("DEFINE".equalsIgnoreCase(record.get(0))) {
-					InputAgent.processDefineRecord(record);
-					record.clear();
-					continue;
-				}
-
-				if ("INCLUDE".equalsIgnoreCase(record.get(0))) {
-					try {
-						InputAgent.processIncludeRecord(pc, record);
-					}
-					catch (URISyntaxException ex) {
-						rethrowWrapped(ex);
-					}
-					record.clear();
-					continue;
-				}
-
-				if ("RECORDEDITS".equalsIgnoreCase(record.get(0))) {
-					InputAgent.setRecordEditsFound(true);
-					InputAgent.setRecordEdits(true);
-					record.clear();
-					continue;
-				}
-
-				// Otherwise assume it is a Keyword record
-				InputAgent.processKeywordRecord(record, pc);
+				InputAgent.processRecord(record, pc);
 				record.clear();
 			}
 
@@ -415,6 +438,47 @@ public class InputAgent {
 		}
 	}
 
+	private static void processRecords(ConfigReader reader, ParseContext pc) {
+		for (ConfigReader.Record rec = reader.next(); rec != null; rec = reader.next()) {
+			if (rec.error != null) {
+				InputAgent.logBadInput(rec.tokens, rec.error);
+				continue;
+			}
+			InputAgent.processRecord(rec.tokens, pc);
+		}
+	}
+
+	private static void processRecord(ArrayList<String> record, ParseContext pc) {
+		if (recorder != null)
+			recorder.addRecord(record);
+
+		InputAgent.echoInputRecord(record);
+
+		if ("DEFINE".equalsIgnoreCase(record.get(0))) {
+			InputAgent.processDefineRecord(record);
+			return;
+		}
+
+		if ("INCLUDE".equalsIgnoreCase(record.get(0))) {
+			try {
+				InputAgent.processIncludeRecord(pc, record);
+			}
+			catch (URISyntaxException ex) {
+				rethrowWrapped(ex);
+			}
+			return;
+		}
+
+		if ("RECORDEDITS".equalsIgnoreCase(record.get(0))) {
+			InputAgent.setRecordEditsFound(true);
+			InputAgent.setRecordEdits(true);
+			return;
+		}
+
+		// Otherwise assume it is a Keyword record
+		InputAgent.processKeywordRecord(record, pc);
+	}
+
 	private static void processIncludeRecord(ParseContext pc, ArrayList<String> record) throws URISyntaxException {
 		if (record.size() != 2) {
 			InputAgent.logError("Bad Include record, should be: Include <File>");
@@ -552,6 +616,7 @@ public class InputAgent {
 		}
 
 		ent.setName(key);
+		ReferenceIndex.addAll(ent);
 		return ent;
 	}
 
@@ -659,7 +724,12 @@ public class InputAgent {
 		}
 
 		URI dirURI = file.getParentFile().toURI();
-		InputAgent.readStream("", dirURI, file.getName());
+		long startNanos = System.nanoTime();
+		if (useModelCache)
+			InputAgent.readCachedStream(file);
+		else
+			InputAgent.readStream("", dirURI, file.getName());
+		LogBox.format("Loaded %s in %.3f seconds", file.getName(), (System.nanoTime() - startNanos) / 1.0e9d);
 
 		// The session is not considered to be edited after loading a configuration file
 		sessionEdited = false;
@@ -682,6 +752,72 @@ public class InputAgent {
 			InputAgent.printInputFileKeywords();
 	}
 
+	/**
+	 * Reads the given configuration file from its model cache if the cache is still
+	 * valid. Otherwise, the configuration file is read and, if no errors are found, its
+	 * records are saved to the cache.
+	 */
+	static void readCachedStream(File file) throws URISyntaxException {
+		File cacheFile = ModelCache.getCacheFile(file);
+
+		ModelCache cache = null;
+		try {
+			cache = ModelCache.open(cacheFile, file.toURI());
+		}
+		catch (IOException e) {
+			InputAgent.logWarning("Could not open the model cache %s - %s", cacheFile.getName(), e.getMessage());
+		}
+
+		// The records are applied only after the whole cache has been read, so that
+		// the configuration file can still be read if the cache is damaged
+		if (cache != null) {
+			ArrayList<ModelCache.Record> records = null;
+			try {
+				records = cache.readRecords();
+			}
+			catch (IOException e) {
+				InputAgent.logWarning("Could not replay the model cache %s - %s", cacheFile.getName(), e.getMessage());
+			}
+			finally {
+				cache.close();
+			}
+
+			if (records != null) {
+				InputAgent.replayRecords(records);
+				LogBox.format("Read %s from %s", file.getName(), cacheFile.getName());
+				return;
+			}
+		}
+
+		int errors = numErrors;
+		recorder = new ModelCache();
+		try {
+			InputAgent.readStream("", file.getParentFile().toURI(), file.getName());
+			if (numErrors == errors)
+				recorder.save(cacheFile);
+		}
+		catch (IOException e) {
+			InputAgent.logWarning("Could not write the model cache %s - %s", cacheFile.getName(), e.getMessage());
+		}
+		finally {
+			recorder = null;
+		}
+	}
+
+	/**
+	 * Processes the records read from a model cache. The files named by the Include
+	 * records are not read, because their records follow in the cache.
+	 */
+	private static void replayRecords(ArrayList<ModelCache.Record> records) {
+		for (ModelCache.Record rec : records) {
+			if ("INCLUDE".equalsIgnoreCase(rec.tokens.get(0))) {
+				InputAgent.echoInputRecord(rec.tokens);
+				continue;
+			}
+			InputAgent.processRecord(rec.tokens, rec.context);
+		}
+	}
+
 	/**
 	 * Prepares the keyword and input value for processing.
 	 *
@@ -720,6 +856,7 @@ public class InputAgent {
 			in.parse(kw);
 			in.setTokens(kw);
 		}
+		ReferenceIndex.add(ent, in);
 
 		// Only mark the keyword edited if we have finished initial configuration
 		if (InputAgent.recordEdits()) {
@@ -1273,6 +1410,38 @@ public class InputAgent {
 		            ent.getName(), in.getKeyword(), in.getValueString());
 	}
 
+	/**
+	 * Prints the header lines for the selected outputs.
+	 */
+	private static void printRunOutputHeaders() {
+		// Write the header line for the expressions
+		StringBuilder sb = new StringBuilder();
+		ArrayList<String> toks = new ArrayList<>();
+		Simulation.getRunOutputList().getValueTokens(toks);
+		boolean first = true;
+		for (String str : toks) {
+			if (str.equals("{") || str.equals("}"))
+				continue;
+			if (first)
+				first = false;
+			else
+				sb.append("\t");
+			sb.append(str);
+		}
+		outStream.println(sb.toString());
+
+		// Write the header line for the units
+		sb = new StringBuilder();
+		for (int i=0; i<Simulation.getRunOutputList().getListSize(); i++) {
+			Class<? extends Unit> ut = Simulation.getRunOutputList().getUnitType(i);
+			String unit = Unit.getDisplayedUnit(ut);
+			if (i > 0)
+				sb.append("\t");
+			sb.append(unit);
+		}
+		outStream.println(sb.toString());
+	}
+
 	/**
 	 * Prints selected outputs for the simulation run to stdout or a file.
 	 * @param simTime - simulation time at which the outputs are printed.
@@ -1301,32 +1470,11 @@ public class InputAgent {
 				}
 			}
 
-			// Write the header line for the expressions
-			StringBuilder sb = new StringBuilder();
-			ArrayList<String> toks = new ArrayList<>();
-			Simulation.getRunOutputList().getValueTokens(toks);
-			boolean first = true;
-			for (String str : toks) {
-				if (str.equals("{") || str.equals("}"))
-					continue;
-				if (first)
-					first = false;
-				else
-					sb.append("\t");
-				sb.append(str);
-			}
-			outStream.println(sb.toString());
-
-			// Write the header line for the units
-			sb = new StringBuilder();
-			for (int i=0; i<Simulation.getRunOutputList().getListSize(); i++) {
-				Class<? extends Unit> ut = Simulation.getRunOutputList().getUnitType(i);
-				String unit = Unit.getDisplayedUnit(ut);
-				if (i > 0)
-					sb.append("\t");
-				sb.append(unit);
-			}
-			outStream.println(sb.toString());
+			// Write the header lines only for the first run, so that a run that is
+			// executed as a parallel replication writes the same lines as it would
+			// when the runs are executed in sequence
+			if (Simulation.isFirstRun())
+				printRunOutputHeaders();
 		}
 
 		// Write the selected outputs
@@ -1423,6 +1571,65 @@ public class InputAgent {
 		}
 	}
 
+	/**
+	 * Prints the execution statistics collected by the event profiler for the
+	 * present run.
+	 */
+	public static void printEventProfile(EventProfiler prof, double simTime) {
+
+		// Create the profile file
+		if (profileFile == null) {
+			StringBuilder tmp = new StringBuilder("");
+			tmp.append(InputAgent.getReportFileName(InputAgent.getRunName()));
+			tmp.append(".prof");
+			profileFile = new FileEntity(tmp.toString());
+		}
+
+		// Print run number header when multiple runs are to be performed
+		if (Simulation.isMultipleRuns())
+			profileFile.format("%s%n%n", Simulation.getRunHeader());
+
+		profileFile.format("Simulation Time\t%f\ts%n", simTime);
+		profileFile.format("EventsScheduled\t%d%n", prof.getEventsScheduled());
+		profileFile.format("EventsExecuted\t%d%n", prof.getEventsExecuted());
+		profileFile.format("EventsKilled\t%d%n", prof.getEventsKilled());
+		profileFile.format("EventsInterrupted\t%d%n", prof.getEventsInterrupted());
+		profileFile.format("ConditionalEvaluations\t%d%n", prof.getConditionalEvaluations());
+		profileFile.format("ProcessHandoffs\t%d%n", prof.getProcessHandoffs());
+		profileFile.format("ProcessPoolHighWaterMark\t%d%n", EventProfiler.getPoolHighWaterMark());
+		profileFile.format("ProcessesCreated\t%d%n%n", EventProfiler.getProcessesCreated());
+
+		// Print the execution times for each type of target, largest total first
+		profileFile.format("Target\tCount\tTotal (ms)\tMean (us)\tMedian (us)\t99th Percentile (us)\tMax (us)%n");
+		for (EventProfiler.TargetProfile each : prof.getTargetProfiles()) {
+			profileFile.format("%s\t%d\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f%n", each.getDescription(),
+					each.getCount(), each.getTotalNanos() / 1.0e6d, each.getMeanNanos() / 1.0e3d,
+					each.getQuantileNanos(0.5d) / 1.0e3d, each.getQuantileNanos(0.99d) / 1.0e3d,
+					each.getMaxNanos() / 1.0e3d);
+		}
+		profileFile.format("%n");
+
+		// Print the histogram of execution times for each type of target
+		profileFile.format("Target\tExecution Time Histogram (count of events taking less than the given time in us)%n");
+		for (EventProfiler.TargetProfile each : prof.getTargetProfiles()) {
+			profileFile.format("%s", each.getDescription());
+			for (int i = 0; i < EventProfiler.NUM_BUCKETS; i++) {
+				long n = each.getBucketCount(i);
+				if (n > 0)
+					profileFile.format("\t<%.3f:%d", (1L << i) / 1.0e3d, n);
+			}
+			profileFile.format("%n");
+		}
+		profileFile.format("%n");
+		profileFile.flush();
+
+		// Close the profile file
+		if (Simulation.isLastRun()) {
+			profileFile.close();
+			profileFile = null;
+		}
+	}
+
 	private static class ClassComparator implements Comparator<Class<? extends Entity>> {
 		@Override
 		public int compare(Class<? extends Entity> class0, Class<? extends Entity> class1) {
@@ -57,6 +57,12 @@ public class InterfaceEntityInput<T> extends Input<T> {
 		toks.add(value.toString());
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value instanceof Entity)
+			refs.add((Entity)value);
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == ent) {
@@ -102,6 +102,17 @@ public class InterfaceEntityListInput<T> extends ListInput<ArrayList<T>> {
 		}
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value == null)
+			return;
+
+		for (T each : value) {
+			if (each instanceof Entity)
+				refs.add((Entity)each);
+		}
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == null)
@@ -0,0 +1,380 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.jaamsim.basicsim.ErrorException;
+
+/**
+ * Binary cache of the records read from a configuration file and the files it includes.
+ * <p>
+ * The cache is written next to the configuration file after a load that found no input
+ * errors. It holds the records of tokens in the order they were processed and is keyed
+ * by a SHA-256 hash of the contents of all the files that were read. A later load uses
+ * the records without reading or tokenizing the files, provided that the hash of the
+ * files is unchanged.
+ * <p>
+ * Tokens are stored once in a string table, and each record is stored as a list of
+ * indices into the table.
+ */
+final class ModelCache {
+	private static final int MAGIC = 0x4A534D43; // "JSMC"
+	private static final int VERSION = 2;
+	private static final String SUFFIX = ".cache";
+
+	private static final int END = 0;
+	private static final int BEGIN_FILE = 1;
+	private static final int RECORD = 2;
+	private static final int END_FILE = 3;
+
+	private final ArrayList<URI> files = new ArrayList<>();
+	private final HashMap<String, Integer> tokenIndex = new HashMap<>();
+	private final ArrayList<String> tokens = new ArrayList<>();
+	private final ByteArrayOutputStream events = new ByteArrayOutputStream();
+
+	private DataInputStream in; // cache file that has been opened for replay
+
+	/**
+	 * A record read from the cache, together with the context of the file it was
+	 * read from.
+	 */
+	static final class Record {
+		final ArrayList<String> tokens;
+		final ParseContext context;
+
+		Record(ArrayList<String> toks, ParseContext pc) {
+			tokens = toks;
+			context = pc;
+		}
+	}
+
+	ModelCache() {}
+
+	/**
+	 * Returns the cache file for the given configuration file.
+	 */
+	static File getCacheFile(File cfg) {
+		String name = cfg.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0)
+			name = name.substring(0, dot);
+		return new File(cfg.getParentFile(), name + SUFFIX);
+	}
+
+	/**
+	 * Records the start of the records read from the given file.
+	 */
+	void beginFile(URI file, String root) {
+		if (!files.contains(file))
+			files.add(file);
+
+		events.write(BEGIN_FILE);
+		writeString(file.toString());
+		events.write(root == null ? 0 : 1);
+		if (root != null)
+			writeString(root);
+	}
+
+	void addRecord(ArrayList<String> rec) {
+		events.write(RECORD);
+		writeInt(rec.size());
+		for (String each : rec) {
+			Integer idx = tokenIndex.get(each);
+			if (idx == null) {
+				idx = tokens.size();
+				tokens.add(each);
+				tokenIndex.put(each, idx);
+			}
+			writeInt(idx);
+		}
+	}
+
+	void endFile() {
+		events.write(END_FILE);
+	}
+
+	/**
+	 * Writes the recorded files and records to the given cache file. The key is
+	 * calculated from the present contents of the files.
+	 */
+	void save(File cacheFile) throws IOException {
+		byte[] key = hash(files);
+		events.write(END);
+
+		File tmp = new File(cacheFile.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(Charset.defaultCharset().name());
+
+			out.writeInt(files.size());
+			for (URI each : files) {
+				out.writeUTF(each.toString());
+			}
+			out.writeInt(key.length);
+			out.write(key);
+
+			out.writeInt(tokens.size());
+			for (String each : tokens) {
+				byte[] b = each.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(b.length);
+				out.write(b);
+			}
+
+			events.writeTo(out);
+		}
+		finally {
+			out.close();
+		}
+
+		cacheFile.delete();
+		if (!tmp.renameTo(cacheFile)) {
+			tmp.delete();
+			throw new IOException("Could not rename " + tmp);
+		}
+	}
+
+	/**
+	 * Opens the given cache file for replay. Returns null if the file does not exist,
+	 * was written for the records of a different configuration file, or if the hash of
+	 * the files it was written from has changed.
+	 * @param cacheFile - the cache file
+	 * @param cfg - the configuration file whose records are to be replayed
+	 * @throws IOException if the cache file could not be read
+	 */
+	static ModelCache open(File cacheFile, URI cfg) throws IOException {
+		if (!cacheFile.isFile())
+			return null;
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+		boolean valid = false;
+		try {
+			ModelCache ret = new ModelCache();
+			if (!ret.readHeader(in, cfg))
+				return null;
+
+			ret.in = in;
+			valid = true;
+			return ret;
+		}
+		finally {
+			if (!valid)
+				in.close();
+		}
+	}
+
+	private boolean readHeader(DataInputStream data, URI cfg) throws IOException {
+		if (data.readInt() != MAGIC || data.readInt() != VERSION)
+			return false;
+
+		if (!data.readUTF().equals(Charset.defaultCharset().name()))
+			return false;
+
+		int numFiles = data.readInt();
+		for (int i = 0; i < numFiles; i++) {
+			try {
+				files.add(new URI(data.readUTF()));
+			}
+			catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+		if (files.isEmpty() || !files.get(0).equals(cfg))
+			return false;
+
+		byte[] expected = new byte[data.readInt()];
+		data.readFully(expected);
+
+		// A file that can no longer be read is treated as a change to the files
+		byte[] actual;
+		try {
+			actual = hash(files);
+		}
+		catch (IOException e) {
+			return false;
+		}
+		if (!Arrays.equals(expected, actual))
+			return false;
+
+		int numTokens = data.readInt();
+		tokens.ensureCapacity(numTokens);
+		byte[] buf = new byte[64];
+		for (int i = 0; i < numTokens; i++) {
+			int len = data.readInt();
+			if (len > buf.length)
+				buf = new byte[Math.max(len, buf.length * 2)];
+			data.readFully(buf, 0, len);
+			tokens.add(new String(buf, 0, len, StandardCharsets.UTF_8));
+		}
+		return true;
+	}
+
+	/**
+	 * Reads all the records from a cache that has been opened for replay. The whole
+	 * cache is read before any record is returned, so that a damaged cache is found
+	 * before any of its records have been applied to the model.
+	 * @throws IOException if the cache file could not be read or is damaged
+	 */
+	ArrayList<Record> readRecords() throws IOException {
+		ArrayList<Record> ret = new ArrayList<>();
+		ArrayList<ParseContext> stack = new ArrayList<>();
+		while (true) {
+			int type = in.read();
+			switch (type) {
+			case BEGIN_FILE:
+				URI uri;
+				try {
+					uri = new URI(readString(in));
+				}
+				catch (URISyntaxException e) {
+					throw new IOException(e);
+				}
+				String jail = (in.read() == 1) ? readString(in) : null;
+				stack.add(new ParseContext(uri, jail));
+				break;
+
+			case RECORD:
+				if (stack.isEmpty())
+					throw new IOException("Corrupt model cache");
+
+				int size = readInt(in);
+				ArrayList<String> record = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					int idx = readInt(in);
+					if (idx < 0 || idx >= tokens.size())
+						throw new IOException("Corrupt model cache");
+					record.add(tokens.get(idx));
+				}
+				ret.add(new Record(record, stack.get(stack.size() - 1)));
+				break;
+
+			case END_FILE:
+				if (stack.isEmpty())
+					throw new IOException("Corrupt model cache");
+				stack.remove(stack.size() - 1);
+				break;
+
+			case END:
+				if (!stack.isEmpty())
+					throw new IOException("Corrupt model cache");
+				return ret;
+
+			case -1:
+				throw new EOFException("Model cache is incomplete");
+
+			default:
+				throw new IOException("Corrupt model cache");
+			}
+		}
+	}
+
+	void close() {
+		if (in == null)
+			return;
+		try {
+			in.close();
+		}
+		catch (IOException e) {}
+		in = null;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the names and contents of the given files.
+	 */
+	static byte[] hash(ArrayList<URI> uris) throws IOException {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new ErrorException(e);
+		}
+
+		byte[] buf = new byte[65536];
+		for (URI each : uris) {
+			md.update(each.toString().getBytes(StandardCharsets.UTF_8));
+			md.update((byte)0);
+
+			InputStream is = each.toURL().openStream();
+			try {
+				int len;
+				while ((len = is.read(buf)) != -1) {
+					md.update(buf, 0, len);
+				}
+			}
+			finally {
+				is.close();
+			}
+		}
+		return md.digest();
+	}
+
+	// Strings and integers in the events are written as variable length values
+	private void writeString(String str) {
+		byte[] b = str.getBytes(StandardCharsets.UTF_8);
+		writeInt(b.length);
+		events.write(b, 0, b.length);
+	}
+
+	private void writeInt(int val) {
+		while ((val & ~0x7F) != 0) {
+			events.write((val & 0x7F) | 0x80);
+			val >>>= 7;
+		}
+		events.write(val);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		byte[] b = new byte[readInt(data)];
+		data.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private static int readInt(DataInputStream data) throws IOException {
+		int ret = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = data.read();
+			if (b == -1)
+				throw new EOFException();
+			ret |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return ret;
+		}
+		throw new IOException("Corrupt model cache");
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+import com.jaamsim.basicsim.Entity;
+import com.jaamsim.events.ChangeSignal;
+import com.jaamsim.events.EventManager;
+
+/**
+ * OutputCache holds the values returned by the outputs of each entity, so that an
+ * output used by several expressions, loggers, graphs and thresholds is calculated
+ * only once while the state of the model is unchanged.
+ * <p>
+ * A cached value is discarded when the simulation time advances, when the
+ * EventManager executes or resumes another event or process, or when a
+ * {@link ChangeSignal} is triggered by a change to the state of an entity, such as
+ * an attribute assignment, the sampling of a random distribution, the arrival or
+ * departure of an entity at a process flow object, or the seizing or release of
+ * a resource. Each of these changes starts a new generation of values, so the
+ * stale entries are replaced when they are next used instead of being cleared.
+ * Values requested outside the thread executing the model, such as by the user
+ * interface, are always calculated.
+ * <p>
+ * The cache is disabled by default and is enabled by the CacheOutputValues keyword
+ * for Simulation.
+ */
+public final class OutputCache {
+	private static boolean enabled = false;
+
+	private static final int MIN_SWEEP_SIZE = 1024;
+
+	private static final HashMap<Key, Entry> entries = new HashMap<>();
+	private static final Key probe = new Key();
+	private static int sweepSize = MIN_SWEEP_SIZE; // number of entries that triggers a sweep
+
+	// The model state for the present generation of cached values
+	private static EventManager stampEvt;
+	private static long stampTick;
+	private static long stampTargets;
+	private static long stampChanges;
+
+	private static long generation; // incremented each time the model changes state
+	private static long hits;
+	private static long misses;
+
+	private OutputCache() {}
+
+	/**
+	 * Sets whether output values are cached, and discards the present values and
+	 * statistics.
+	 */
+	public static void setEnabled(boolean bool) {
+		enabled = bool;
+		clear();
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Discards the cached values and resets the numbers of hits and misses.
+	 */
+	public static void clear() {
+		entries.clear();
+		sweepSize = MIN_SWEEP_SIZE;
+		stampEvt = null;
+		generation++;
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Returns the number of output values that were returned from the cache.
+	 */
+	public static long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of output values that were calculated because they were
+	 * not present in the cache.
+	 */
+	public static long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of entries held by the cache.
+	 */
+	static int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the entry for the given output at the given simulation time, or null
+	 * if the value cannot be cached. The value for the entry is valid if the
+	 * entry's isSet() method returns true, otherwise the value is to be calculated
+	 * and recorded with the set() method. The isDoubleSet() and setDouble() methods
+	 * are used instead for a value that is returned as a primitive double.
+	 * @param ent - entity whose output is required.
+	 * @param output - identifies the output.
+	 * @param simTime - simulation time at which the output is evaluated.
+	 * @param primitive - true if the value is returned as a primitive double.
+	 */
+	static Entry getEntry(Entity ent, Object output, double simTime, boolean primitive) {
+		if (!enabled || !EventManager.hasCurrent())
+			return null;
+
+		// Start a new generation of values if the model may have changed state
+		EventManager evt = EventManager.current();
+		long tick = EventManager.simTicks();
+		long targets = evt.getTargetsExecuted();
+		long changes = ChangeSignal.getNumChanges();
+		if (evt != stampEvt || tick != stampTick || targets != stampTargets || changes != stampChanges) {
+			stampEvt = evt;
+			stampTick = tick;
+			stampTargets = targets;
+			stampChanges = changes;
+			generation++;
+		}
+
+		probe.ent = ent;
+		probe.output = output;
+		Entry ret = entries.get(probe);
+		probe.ent = null;
+		probe.output = null;
+		if (ret == null) {
+			if (entries.size() >= sweepSize)
+				sweep();
+			ret = new Entry();
+			entries.put(new Key(ent, output), ret);
+		}
+
+		// Discard a value from an earlier generation or for a different time
+		if (ret.generation != generation || ret.simTime != simTime) {
+			ret.set = false;
+			ret.doubleSet = false;
+			ret.generation = generation;
+			ret.changes = changes;
+			ret.simTime = simTime;
+		}
+
+		if (primitive ? ret.doubleSet : ret.set)
+			hits++;
+		else
+			misses++;
+		return ret;
+	}
+
+	/**
+	 * Removes the entries from earlier generations, such as those for the entities
+	 * that have been killed, so that the map does not grow without limit. The
+	 * number of entries that triggers the next sweep is set to twice the number
+	 * that remain, so that the cost of the sweeps is proportional to the number of
+	 * entries added.
+	 */
+	private static void sweep() {
+		Iterator<Entry> itr = entries.values().iterator();
+		while (itr.hasNext()) {
+			if (itr.next().generation != generation)
+				itr.remove();
+		}
+		sweepSize = Math.max(MIN_SWEEP_SIZE, 2 * entries.size());
+	}
+
+	static final class Entry {
+		private boolean set;
+		private boolean doubleSet;
+		private double simTime;
+		private long generation;
+		private long changes; // number of state changes when the entry was reset
+		private Object value;
+		private double doubleValue;
+
+		Entry() {
+			generation = -1L;
+			simTime = Double.NaN;
+		}
+
+		boolean isSet() {
+			return set;
+		}
+
+		Object getValue() {
+			return value;
+		}
+
+		/**
+		 * Records the value for the output. The value is not retained if the model
+		 * changed state while it was being calculated.
+		 */
+		void set(Object val) {
+			if (changes != ChangeSignal.getNumChanges())
+				return;
+			value = val;
+			set = true;
+		}
+
+		boolean isDoubleSet() {
+			return doubleSet;
+		}
+
+		double getDoubleValue() {
+			return doubleValue;
+		}
+
+		/**
+		 * Records the value for an output that is returned as a primitive double.
+		 */
+		void setDouble(double val) {
+			if (changes != ChangeSignal.getNumChanges())
+				return;
+			doubleValue = val;
+			doubleSet = true;
+		}
+	}
+
+	private static final class Key {
+		Entity ent;
+		Object output;
+
+		Key() {}
+
+		Key(Entity e, Object o) {
+			ent = e;
+			output = o;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(ent) + System.identityHashCode(output);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key)obj;
+			return ent == other.ent && output == other.output;
+		}
+	}
+}
@@ -16,6 +16,9 @@
  */
 package com.jaamsim.input;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -55,6 +58,24 @@ public class OutputHandle {
 		ent = e;
 	}
 
+	private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, Entity.class, double.class);
+	private static final MethodType DOUBLE_TYPE = MethodType.methodType(double.class, Entity.class, double.class);
+	private static final MethodHandle BOOLEAN_TO_DOUBLE;
+
+	static {
+		try {
+			BOOLEAN_TO_DOUBLE = MethodHandles.lookup().findStatic(OutputHandle.class, "booleanToDouble",
+					MethodType.methodType(double.class, boolean.class));
+		}
+		catch (ReflectiveOperationException e) {
+			throw new ErrorException(e);
+		}
+	}
+
+	private static double booleanToDouble(boolean bool) {
+		return bool ? 1.0d : 0.0d;
+	}
+
 	/**
 	 * A data class containing the 'static' (ie: class derived) information for a single output
 	 */
@@ -66,6 +87,12 @@ public class OutputHandle {
 		public final Class<? extends Unit> unitType;
 		public final int sequence;
 
+		// Accessors for the output method. The value is returned as an Object by
+		// 'handle' and as a primitive double by 'doubleHandle', which is null if the
+		// method does not return a primitive number or boolean.
+		public final MethodHandle handle;
+		public final MethodHandle doubleHandle;
+
 		public OutputStaticInfo(Method m, Output a) {
 			method = m;
 			desc = a.description();
@@ -73,6 +100,23 @@ public class OutputHandle {
 			name = a.name().intern();
 			unitType = a.unitType();
 			sequence = a.sequence();
+
+			try {
+				m.setAccessible(true);
+				MethodHandle mh = MethodHandles.lookup().unreflect(m);
+				handle = mh.asType(OBJECT_TYPE);
+
+				Class<?> retType = m.getReturnType();
+				if (retType == boolean.class)
+					doubleHandle = MethodHandles.filterReturnValue(mh, BOOLEAN_TO_DOUBLE).asType(DOUBLE_TYPE);
+				else if (retType.isPrimitive() && retType != void.class)
+					doubleHandle = mh.asType(DOUBLE_TYPE);
+				else
+					doubleHandle = null;
+			}
+			catch (IllegalAccessException | SecurityException e) {
+				throw new ErrorException(e);
+			}
 		}
 	}
 
@@ -203,14 +247,43 @@ public class OutputHandle {
 			if (!klass.isAssignableFrom(outputInfo.method.getReturnType()))
 				return null;
 
-			ret = (T)outputInfo.method.invoke(ent, simTime);
+			// Use the cached value for the output, if there is one
+			OutputCache.Entry entry = OutputCache.getEntry(ent, outputInfo, simTime, false);
+			if (entry == null)
+				return (T)invoke(simTime);
+
+			if (entry.isSet())
+				return (T)entry.getValue();
+
+			ret = (T)invoke(simTime);
+			entry.set(ret);
 		}
-		catch (InvocationTargetException | IllegalAccessException | ClassCastException ex) {
+		catch (ClassCastException ex) {
 			throw new ErrorException(ex);
 		}
 		return ret;
 	}
 
+	private Object invoke(double simTime) {
+		try {
+			return outputInfo.handle.invokeExact(ent, simTime);
+		}
+		catch (Throwable t) {
+			// Wrap the exception in the same way as Method.invoke
+			throw new ErrorException(new InvocationTargetException(t));
+		}
+	}
+
+	private double invokeDouble(double simTime) {
+		try {
+			return (double)outputInfo.doubleHandle.invokeExact(ent, simTime);
+		}
+		catch (Throwable t) {
+			// Wrap the exception in the same way as Method.invoke
+			throw new ErrorException(new InvocationTargetException(t));
+		}
+	}
+
 	public boolean canCache() {
 		return true;
 	}
@@ -279,29 +352,22 @@ public class OutputHandle {
 	 * @return
 	 */
 	public double getValueAsDouble(double simTime, double def) {
-		Class<?> retType = this.getReturnType();
-
-		if (retType == double.class)
-			return this.getValue(simTime, double.class);
-
-		if (retType == int.class)
-			return this.getValue(simTime, int.class).doubleValue();
-
-		if (retType == boolean.class)
-			return this.getValue(simTime, boolean.class) ? 1.0d : 0.0d;
 
-		if (retType == float.class)
-			return this.getValue(simTime, float.class).doubleValue();
+		// Primitive return types are converted to a double without boxing
+		if (outputInfo.doubleHandle != null) {
+			OutputCache.Entry entry = OutputCache.getEntry(ent, outputInfo, simTime, true);
+			if (entry == null)
+				return invokeDouble(simTime);
 
-		if (retType == long.class)
-			return this.getValue(simTime, long.class).doubleValue();
+			if (entry.isDoubleSet())
+				return entry.getDoubleValue();
 
-		if (retType == short.class)
-			return this.getValue(simTime, short.class).doubleValue();
-
-		if (retType == char.class)
-			return this.getValue(simTime, char.class).charValue();
+			double ret = invokeDouble(simTime);
+			entry.setDouble(ret);
+			return ret;
+		}
 
+		Class<?> retType = this.getReturnType();
 		if (retType == Double.class) {
 			Double val = getValue(simTime, Double.class);
 			if (val == null) return def;
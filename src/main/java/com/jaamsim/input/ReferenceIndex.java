@@ -0,0 +1,150 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.jaamsim.basicsim.Entity;
+
+/**
+ * Records the inputs that refer to each entity, so that the references to an
+ * entity can be found without examining the inputs for every entity in the model.
+ * <p>
+ * An input is added to the index each time it is assigned a value. Entries are
+ * not removed when a reference is replaced, so an input listed for an entity may
+ * no longer refer to it. The inputs for generated entities are not included.
+ */
+public final class ReferenceIndex {
+	private static final HashMap<Entity, IdentityHashMap<Input<?>, Entity>> index = new HashMap<>();
+	private static final ArrayList<Entity> refs = new ArrayList<>();
+
+	private ReferenceIndex() {}
+
+	/**
+	 * Adds the entities used by the given input to the index.
+	 * @param owner - entity to which the input belongs
+	 * @param in - input whose references are to be added
+	 */
+	public static void add(Entity owner, Input<?> in) {
+		if (owner.testFlag(Entity.FLAG_GENERATED))
+			return;
+
+		synchronized (index) {
+			addInput(owner, in);
+		}
+	}
+
+	/**
+	 * Adds the entities used by each of the given entity's inputs to the index.
+	 * @param owner - entity whose inputs are to be added
+	 */
+	public static void addAll(Entity owner) {
+		if (owner.testFlag(Entity.FLAG_GENERATED))
+			return;
+
+		synchronized (index) {
+			for (Input<?> in : owner.getEditableInputs()) {
+				addInput(owner, in);
+			}
+		}
+	}
+
+	private static void addInput(Entity owner, Input<?> in) {
+		refs.clear();
+		in.getReferences(refs);
+		for (Entity ent : refs) {
+			IdentityHashMap<Input<?>, Entity> inputs = index.get(ent);
+			if (inputs == null) {
+				inputs = new IdentityHashMap<>();
+				index.put(ent, inputs);
+			}
+			inputs.put(in, owner);
+		}
+	}
+
+	/**
+	 * Removes the given entity and its inputs from the index.
+	 * @param ent - entity that has been deleted
+	 * @return the inputs that may refer to the entity
+	 */
+	public static Set<Input<?>> remove(Entity ent) {
+		synchronized (index) {
+			for (Input<?> in : ent.getEditableInputs()) {
+				refs.clear();
+				in.getReferences(refs);
+				for (Entity each : refs) {
+					IdentityHashMap<Input<?>, Entity> inputs = index.get(each);
+					if (inputs != null)
+						inputs.remove(in);
+				}
+			}
+
+			IdentityHashMap<Input<?>, Entity> inputs = index.remove(ent);
+			if (inputs == null)
+				return Collections.emptySet();
+			return inputs.keySet();
+		}
+	}
+
+	/**
+	 * Returns the entities with inputs that refer to the given entity.
+	 * @param ent - entity whose references are to be found
+	 * @return the referring entities, in order of entity number
+	 */
+	public static ArrayList<Entity> getReferences(Entity ent) {
+		ArrayList<Entity> ret = new ArrayList<>();
+		synchronized (index) {
+			IdentityHashMap<Input<?>, Entity> inputs = index.get(ent);
+			if (inputs == null)
+				return ret;
+
+			for (Map.Entry<Input<?>, Entity> each : inputs.entrySet()) {
+				Entity owner = each.getValue();
+				if (owner.testFlag(Entity.FLAG_DEAD) || ret.contains(owner))
+					continue;
+
+				refs.clear();
+				each.getKey().getReferences(refs);
+				if (refs.contains(ent))
+					ret.add(owner);
+			}
+		}
+
+		Collections.sort(ret, new Comparator<Entity>() {
+			@Override
+			public int compare(Entity e1, Entity e2) {
+				return Long.compare(e1.getEntityNumber(), e2.getEntityNumber());
+			}
+		});
+		return ret;
+	}
+
+	/**
+	 * Removes all the entries from the index.
+	 */
+	public static void clear() {
+		synchronized (index) {
+			index.clear();
+		}
+	}
+}
@@ -81,27 +81,7 @@ public class TimeSeriesDataInput extends Input<TimeSeriesData> {
 				each.add(kw.getArg(j));
 			}
 
-			// Time input in RFC8601 date/time format
-			long recordus;
-			if (Input.isRFC8601DateTime(each.get(0))) {
-				Input.assertCountRange(each, 2, 3);
-				recordus = Input.parseRFC8601DateTime(each.get(0));
-				each.remove(0);
-			}
-			// Time input in number/unit format
-			else {
-				// Parse the unit portion of the time input
-				Input.assertCountRange(each, 3, 4);
-				TimeUnit unit = Input.tryParseUnit(each.get(1), TimeUnit.class);
-				if (unit == null)
-					throw new InputErrorException(INP_ERR_NOUNITFOUND, each.get(1), "TimeUnit");
-
-				// Parse the numeric portion of the time input
-				double factor = unit.getConversionFactorToSI();
-				recordus = (long) (Input.parseDouble(each.get(0), 0.0, Double.POSITIVE_INFINITY, factor)*1e6);
-				each.remove(0);
-				each.remove(0);
-			}
+			long recordus = parseRecordTime(each);
 
 			// Make sure the times are in increasing order
 			if (recordus <= lastTime)
@@ -129,7 +109,37 @@ public class TimeSeriesDataInput extends Input<TimeSeriesData> {
 			throw new InputErrorException("Final closing brace ( } ) is missing.");
 
 		// Set the value to a new time series data object
-		value = new TimeSeriesData( times, values );
+		value = TimeSeriesData.create( times, values );
+	}
+
+	/**
+	 * Parses the time for a time series record and removes its tokens from the record,
+	 * leaving the tokens for the value.
+	 * @param each - tokens for the time and value of the record.
+	 * @return time in microseconds.
+	 */
+	static long parseRecordTime(ArrayList<String> each) throws InputErrorException {
+		// Time input in RFC8601 date/time format
+		if (Input.isRFC8601DateTime(each.get(0))) {
+			Input.assertCountRange(each, 2, 3);
+			long recordus = Input.parseRFC8601DateTime(each.get(0));
+			each.remove(0);
+			return recordus;
+		}
+
+		// Time input in number/unit format
+		// Parse the unit portion of the time input
+		Input.assertCountRange(each, 3, 4);
+		TimeUnit unit = Input.tryParseUnit(each.get(1), TimeUnit.class);
+		if (unit == null)
+			throw new InputErrorException(INP_ERR_NOUNITFOUND, each.get(1), "TimeUnit");
+
+		// Parse the numeric portion of the time input
+		double factor = unit.getConversionFactorToSI();
+		long recordus = (long) (Input.parseDouble(each.get(0), 0.0, Double.POSITIVE_INFINITY, factor)*1e6);
+		each.remove(0);
+		each.remove(0);
+		return recordus;
 	}
 
 	public void setUnitType(Class<? extends Unit> u) {
@@ -0,0 +1,219 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+
+import com.jaamsim.Samples.MappedTimeSeriesData;
+import com.jaamsim.Samples.TimeSeriesData;
+import com.jaamsim.basicsim.Simulation;
+import com.jaamsim.datatypes.DoubleVector;
+import com.jaamsim.units.DimensionlessUnit;
+import com.jaamsim.units.Unit;
+import com.jaamsim.units.UserSpecifiedUnit;
+
+/**
+ * Time series data read from a file on the local file system rather than entered
+ * in the configuration file.
+ * <p>
+ * A binary file with the extension "tsd" is memory-mapped as described for
+ * MappedTimeSeriesData. A CSV file is converted to a binary file with the same name
+ * followed by ".tsd" the first time it is read, and the binary file is used until the
+ * CSV file is changed. Each line of a CSV file is a record of the form "time, value",
+ * where the time and value are entered in the same way as for the records in the
+ * TimeSeriesDataInput, for example "2 h, 1.5 m" or "2010-01-01 02:00:00, 1.5 m".
+ * Blank lines, and a first line that starts with a letter, are ignored.
+ */
+public class TimeSeriesFileInput extends Input<TimeSeriesData> {
+	private Class<? extends Unit> unitType;
+	private double tickLength;  // simulation clock tick length used to convert times into ticks
+	private URI uri;
+
+	public TimeSeriesFileInput(String key, String cat, TimeSeriesData def) {
+		super(key, cat, def);
+		unitType = DimensionlessUnit.class;
+	}
+
+	@Override
+	public void parse(KeywordIndex kw) throws InputErrorException {
+
+		// Set the clock tick length
+		tickLength = Simulation.getTickLength();
+
+		if (unitType == UserSpecifiedUnit.class)
+			throw new InputErrorException(INP_ERR_UNITUNSPECIFIED);
+
+		URI temp = Input.parseURI(kw);
+		if (!"file".equals(temp.getScheme()))
+			throw new InputErrorException("The time series file must be on the local file system.\n" +
+					"File path = %s", kw.getArg(0));
+
+		File file = new File(temp);
+		if (!file.isFile())
+			throw new InputErrorException("The specified file does not exist.\n" +
+					"File path = %s", kw.getArg(0));
+
+		try {
+			if (file.getName().toLowerCase().endsWith(".csv"))
+				value = openCSV(file);
+			else
+				value = openBinary(file);
+		}
+		catch (IOException e) {
+			throw new InputErrorException("Could not read the time series file %s - %s", file.getName(), e.getMessage());
+		}
+		uri = temp;
+	}
+
+	private MappedTimeSeriesData openBinary(File file) throws IOException {
+		MappedTimeSeriesData ret = MappedTimeSeriesData.open(file, tickLength);
+		if (!ret.getUnitType().isEmpty() && !ret.getUnitType().equals(unitType.getSimpleName()))
+			throw new InputErrorException("The values in the time series file are for %s rather than %s",
+					ret.getUnitType(), unitType.getSimpleName());
+		return ret;
+	}
+
+	private MappedTimeSeriesData openCSV(File file) throws IOException {
+		File bin = new File(file.getPath() + ".tsd");
+		if (bin.isFile()) {
+			try {
+				MappedTimeSeriesData ret = MappedTimeSeriesData.open(bin, tickLength);
+				if (ret.isConvertedFrom(file) && ret.getUnitType().equals(unitType.getSimpleName()))
+					return ret;
+			}
+			catch (IOException e) {}
+		}
+
+		convertCSV(file, bin);
+		return MappedTimeSeriesData.open(bin, tickLength);
+	}
+
+	private void convertCSV(File file, File bin) throws IOException {
+		MappedTimeSeriesData.Writer out = new MappedTimeSeriesData.Writer(bin, unitType.getSimpleName(), file);
+		BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+		boolean done = false;
+		try {
+			long startingYearOffset = -1;
+			long lastTime = -1;
+			int lineNum = 0;
+			ArrayList<String> each = new ArrayList<>();
+			while (true) {
+				String line = in.readLine();
+				if (line == null)
+					break;
+
+				lineNum++;
+				line = line.trim();
+				if (line.isEmpty())
+					continue;
+
+				// Skip a header line
+				if (lineNum == 1 && Character.isLetter(line.charAt(0)))
+					continue;
+
+				try {
+					splitRecord(line, each);
+					long recordus = TimeSeriesDataInput.parseRecordTime(each);
+
+					// Make sure the times are in increasing order
+					if (recordus <= lastTime)
+						throw new InputErrorException("The times must be given in increasing order");
+					lastTime = recordus;
+
+					// set the offset to the number of whole years from the first record
+					if (startingYearOffset == -1) {
+						startingYearOffset = recordus / Input.usPerYr;
+						startingYearOffset *= Input.usPerYr;
+					}
+
+					DoubleVector v = Input.parseDoubles(each, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, unitType);
+					out.add(recordus - startingYearOffset, v.get(0));
+				}
+				catch (InputErrorException e) {
+					throw new InputErrorException("Line %d: %s", lineNum, e.getMessage());
+				}
+			}
+
+			if (lastTime == -1)
+				throw new InputErrorException("The time series file contains no records");
+
+			done = true;
+		}
+		finally {
+			in.close();
+			if (done)
+				out.close();
+			else
+				out.abort();
+		}
+	}
+
+	/**
+	 * Splits a line of a CSV file into the tokens for a time series record.
+	 */
+	private static void splitRecord(String line, ArrayList<String> each) {
+		each.clear();
+		int comma = line.indexOf(',');
+		if (comma < 0 || line.indexOf(',', comma + 1) >= 0)
+			throw new InputErrorException("Expected a record of the form: time, value");
+
+		String time = line.substring(0, comma).trim();
+		if (Input.isRFC8601DateTime(time))
+			each.add(time);
+		else
+			addWords(time, each);
+		addWords(line.substring(comma + 1), each);
+		if (each.size() < 2)
+			throw new InputErrorException("Expected a record of the form: time, value");
+	}
+
+	private static void addWords(String str, ArrayList<String> each) {
+		for (String word : str.trim().split("\\s+")) {
+			if (!word.isEmpty())
+				each.add(word);
+		}
+	}
+
+	@Override
+	public void getValueTokens(ArrayList<String> toks) {
+		if (uri == null) return;
+
+		toks.add(InputAgent.getRelativeFilePath(uri));
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		uri = null;
+	}
+
+	public void setUnitType(Class<? extends Unit> u) {
+		if (u != unitType)
+			this.reset();
+		unitType = u;
+	}
+
+	public double getTickLength() {
+		return tickLength;
+	}
+}
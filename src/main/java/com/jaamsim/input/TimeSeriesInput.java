@@ -90,6 +90,12 @@ public class TimeSeriesInput extends Input<TimeSeriesProvider> {
 		}
 	}
 
+	@Override
+	public void getReferences(ArrayList<Entity> refs) {
+		if (value instanceof Entity)
+			refs.add((Entity)value);
+	}
+
 	@Override
 	public void removeReferences(Entity ent) {
 		if (value == ent) {
@@ -17,14 +17,15 @@
 package com.jaamsim.states;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 
 import com.jaamsim.Graphics.DisplayEntity;
-import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.FileEntity;
+import com.jaamsim.basicsim.StateDigest;
+import com.jaamsim.events.ChangeSignal;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.InputAgent;
@@ -32,6 +33,7 @@ import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.StringKeyInput;
 import com.jaamsim.input.StringListInput;
+import com.jaamsim.statistics.BatchMeans;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.TimeUnit;
 
@@ -50,12 +52,20 @@ public class StateEntity extends DisplayEntity {
 		     exampleList = "'Transit - Seg1L' 'Transit - Seg1B'")
 	protected final StringListInput workingStateListInput;
 
+	protected static final ArrayList<String> NO_STATES = new ArrayList<>(0);
+
+	protected static final StateHandle STATE_IDLE = StateHandle.define("Idle");
+	protected static final StateHandle STATE_WORKING = StateHandle.define("Working");
+
 	private StateRecord presentState; // The present state of the entity
-	private final HashMap<String, StateRecord> states;
+	private StateRecord[] states;     // The state records indexed by StateHandle
+	private int numStates;
 	private final ArrayList<StateEntityListener> stateListeners;
+	private ChangeSignal stateSignal; // triggered on each state transition
 
 	private long lastStateCollectionTick;
 	private long workingTicks;
+	private BatchMeans workingBatches;  // working fraction after the initialisation period, null for generated entities
 
 	protected FileEntity stateReportFile;        // The file to store the state information
 
@@ -68,12 +78,12 @@ public class StateEntity extends DisplayEntity {
 		traceState.setHidden(true);
 		this.addInput(traceState);
 
-		workingStateListInput = new StringListInput("WorkingStateList", "Maintenance", new ArrayList<String>(0));
+		workingStateListInput = new StringListInput("WorkingStateList", "Maintenance", NO_STATES);
 		this.addInput(workingStateListInput);
 	}
 
 	public StateEntity() {
-		states = new HashMap<>();
+		states = new StateRecord[0];
 		stateListeners = new ArrayList<>();
 	}
 
@@ -97,12 +107,8 @@ public class StateEntity extends DisplayEntity {
 	public void lateInit() {
 		super.lateInit();
 
+		// The listeners add themselves in their own lateInit() methods
 		stateListeners.clear();
-		for (Entity ent : Entity.getClonesOfIterator(Entity.class, StateEntityListener.class)) {
-			StateEntityListener sel = (StateEntityListener)ent;
-			if (sel.isWatching(this))
-				stateListeners.add(sel);
-		}
 	}
 
 	private void initStateData() {
@@ -110,21 +116,53 @@ public class StateEntity extends DisplayEntity {
 		if (EventManager.hasCurrent())
 			lastStateCollectionTick = getSimTicks();
 		workingTicks = 0;
-		states.clear();
-
-		String initState = getInitialState().intern();
-		StateRecord init = new StateRecord(initState, isValidWorkingState(initState));
+		if (testFlag(FLAG_GENERATED))
+			workingBatches = null;
+		else if (workingBatches == null)
+			workingBatches = new BatchMeans();
+		else
+			workingBatches.clear();
+		Arrays.fill(states, null);
+		numStates = 0;
+
+		StateRecord init = this.addStateRecord(StateHandle.get(getInitialState()));
 		init.startTick = lastStateCollectionTick;
 		presentState = init;
-		states.put(init.name, init);
 
-		this.setGraphicsForState(initState);
+		this.setGraphicsForState(init.name);
+	}
+
+	private StateRecord getStateRecord(StateHandle state) {
+		if (state.index >= states.length)
+			return null;
+		return states[state.index];
+	}
+
+	private StateRecord addStateRecord(StateHandle state) {
+		if (state.index >= states.length)
+			states = Arrays.copyOf(states, Math.max(state.index + 1, StateHandle.size()));
+
+		StateRecord rec = new StateRecord(state, isValidWorkingState(state.name));
+		states[state.index] = rec;
+		numStates++;
+		return rec;
 	}
 
 	public ArrayList<StateEntityListener> getStateListeners() {
 		return stateListeners;
 	}
 
+	/**
+	 * Adds a listener to be notified of each change of state. A listener adds
+	 * itself from its lateInit() method, and returns this entity from
+	 * getLateInitDependencies() so that it is added after the listeners for
+	 * the previous run have been removed.
+	 */
+	public void addStateListener(StateEntityListener listener) {
+		if (!stateListeners.contains(listener))
+			stateListeners.add(listener);
+	}
+
 	/**
 	 * Get the name of the initial state this Entity will be initialized with.
 	 * @return
@@ -160,32 +198,54 @@ public class StateEntity extends DisplayEntity {
 	 * Sets the state of this Entity to the given state.
 	 */
 	public final void setPresentState( String state ) {
+		this.setPresentState(StateHandle.get(state));
+	}
+
+	/**
+	 * Sets the state of this Entity to the state with the given handle.
+	 */
+	public final void setPresentState( StateHandle state ) {
 		if (presentState == null)
 			this.initStateData();
 
-		if (presentState.name.equals(state))
+		if (presentState.handle == state)
 			return;
 
-		StateRecord nextState = states.get(state);
+		StateRecord nextState = this.getStateRecord(state);
 		if (nextState == null) {
-			if (!isValidState(state))
-				error("Specified state: %s is not valid", state);
+			if (!isValidState(state.name))
+				error("Specified state: %s is not valid", state.name);
 
-			String intState = state.intern();
-			nextState = new StateRecord(intState, isValidWorkingState(intState));
-			states.put(nextState.name, nextState);
+			nextState = this.addStateRecord(state);
 		}
 
-		this.setGraphicsForState(state);
+		this.setGraphicsForState(state.name);
 
 		updateStateStats();
 		nextState.startTick = lastStateCollectionTick;
 
 		StateRecord prev = presentState;
 		presentState = nextState;
+		ChangeSignal.changed(stateSignal);
 		stateChanged(prev, presentState);
 	}
 
+	/**
+	 * Returns the signal that is triggered each time the present state changes.
+	 */
+	public ChangeSignal getStateSignal() {
+		if (stateSignal == null)
+			stateSignal = new ChangeSignal();
+		return stateSignal;
+	}
+
+	@Override
+	public ChangeSignal getChangeSignal(String outputName) {
+		if (outputName.equals("State"))
+			return this.getStateSignal();
+		return super.getChangeSignal(outputName);
+	}
+
 	private void setGraphicsForState(String state) {
 
 		if (stateGraphics.getValue() == null)
@@ -224,7 +284,7 @@ public class StateEntity extends DisplayEntity {
 		}
 
 		for (StateEntityListener each : stateListeners) {
-			each.updateForStateChange(this, prev, next);
+			each.updateForStateChange(this, prev.handle, next.handle);
 		}
 	}
 
@@ -243,6 +303,8 @@ public class StateEntity extends DisplayEntity {
 		presentState.currentCycleTicks += durTicks;
 		if (presentState.working)
 			workingTicks += durTicks;
+		if (workingBatches != null)
+			workingBatches.add(presentState.working ? 1.0 : 0.0, durTicks);
 	}
 
 	/**
@@ -250,8 +312,12 @@ public class StateEntity extends DisplayEntity {
 	 */
 	public void collectInitializationStats() {
 		updateStateStats();
+		if (workingBatches != null)
+			workingBatches.clear();
 
-		for (StateRecord each : states.values()) {
+		for (StateRecord each : states) {
+			if (each == null)
+				continue;
 			each.initTicks = each.totalTicks;
 			each.totalTicks = 0;
 			each.completedCycleTicks = 0;
@@ -263,9 +329,13 @@ public class StateEntity extends DisplayEntity {
 	 */
 	public void clearReportStats() {
 		updateStateStats();
+		if (workingBatches != null)
+			workingBatches.clear();
 
 		// clear totalHours for each state record
-		for (StateRecord each : states.values()) {
+		for (StateRecord each : states) {
+			if (each == null)
+				continue;
 			each.totalTicks = 0;
 			each.completedCycleTicks = 0;
 		}
@@ -278,7 +348,9 @@ public class StateEntity extends DisplayEntity {
 		updateStateStats();
 
 		// clear current cycle hours for each state record
-		for (StateRecord each : states.values()) {
+		for (StateRecord each : states) {
+			if (each == null)
+				continue;
 			each.currentCycleTicks = 0;
 		}
 	}
@@ -290,25 +362,33 @@ public class StateEntity extends DisplayEntity {
 		updateStateStats();
 
 		// finalize cycle for each state record
-		for (StateRecord each : states.values()) {
+		for (StateRecord each : states) {
+			if (each == null)
+				continue;
 			each.completedCycleTicks += each.currentCycleTicks;
 			each.currentCycleTicks = 0;
 		}
 	}
 
 	public void addState(String str) {
-		if (states.get(str) != null)
+		StateHandle state = StateHandle.get(str);
+		if (this.getStateRecord(state) != null)
 			return;
 		if (!isValidState(str))
 			error("Specified state: %s is not valid", str);
 
-		String state = str.intern();
-		StateRecord stateRec = new StateRecord(state, isValidWorkingState(state));
-		states.put(stateRec.name, stateRec);
+		this.addStateRecord(state);
 	}
 
 	public StateRecord getState(String state) {
-		return states.get(state);
+		StateHandle handle = StateHandle.find(state);
+		if (handle == null)
+			return null;
+		return this.getStateRecord(handle);
+	}
+
+	public StateRecord getState(StateHandle state) {
+		return this.getStateRecord(state);
 	}
 
 	public StateRecord getState() {
@@ -323,13 +403,32 @@ public class StateEntity extends DisplayEntity {
 	}
 
 	public ArrayList<StateRecord> getStateRecs() {
-		ArrayList<StateRecord> recs = new ArrayList<>(states.size());
-		for (StateRecord rec : states.values())
-			recs.add(rec);
+		ArrayList<StateRecord> recs = new ArrayList<>(numStates);
+		for (StateRecord rec : states) {
+			if (rec != null)
+				recs.add(rec);
+		}
 		Collections.sort(recs, new StateRecSort());
 		return recs;
 	}
 
+	@Override
+	public void addStateDigest(StateDigest.Hash digest) {
+		super.addStateDigest(digest);
+		if (presentState == null)
+			return;
+
+		digest.add(presentState.name);
+		digest.add(getWorkingTicks(getSimTicks()));
+		for (StateRecord rec : getStateRecs()) {
+			digest.add(rec.name);
+			digest.add(getTicksInState(rec));
+			digest.add(getCurrentCycleTicks(rec));
+			digest.add(getCompletedCycleTicks(rec));
+			digest.add(getInitTicks(rec));
+		}
+	}
+
 	/**
 	 * Return true if the entity is working
 	 */
@@ -414,7 +513,7 @@ public class StateEntity extends DisplayEntity {
 	 */
 	public double getTimeInState(double simTime, String state) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		StateRecord rec = states.get(state.intern());
+		StateRecord rec = this.getState(state);
 		if (rec == null)
 			return 0.0;
 		long ticks = getTicksInState(simTicks, rec);
@@ -465,7 +564,7 @@ public class StateEntity extends DisplayEntity {
 	    sequence = 3)
 	public LinkedHashMap<String, Double> getStateTimes(double simTime) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		LinkedHashMap<String, Double> ret = new LinkedHashMap<>(states.size());
+		LinkedHashMap<String, Double> ret = new LinkedHashMap<>(numStates);
 		for (StateRecord stateRec : this.getStateRecs()) {
 			long ticks = getTicksInState(simTicks, stateRec);
 			Double t = EventManager.ticksToSecs(ticks);
@@ -474,4 +573,18 @@ public class StateEntity extends DisplayEntity {
 		return ret;
 	}
 
+	@Output(name = "WorkingFractionConfidenceHalfWidth",
+	 description = "The half-width of the 95% confidence interval for the fraction of time "
+	             + "spent in the working states after the completion of the initialisation "
+	             + "period, estimated by the method of batch means. NaN until enough time "
+	             + "has elapsed, and for entities created during the run.",
+	    unitType = DimensionlessUnit.class,
+	  reportable = true,
+	    sequence = 4)
+	public double getWorkingFractionConfidenceHalfWidth(double simTime) {
+		if (workingBatches == null)
+			return Double.NaN;
+		return workingBatches.getHalfWidth();
+	}
+
 }
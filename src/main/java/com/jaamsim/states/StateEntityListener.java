@@ -16,7 +16,11 @@
  */
 package com.jaamsim.states;
 
-
+/**
+ * Receives the changes of state for the StateEntities it watches. An
+ * implementation adds itself to each entity for which isWatching() returns
+ * true by calling StateEntity.addStateListener() from its lateInit() method.
+ */
 public interface StateEntityListener {
 
 	/**
@@ -32,5 +36,5 @@ public interface StateEntityListener {
 	 * @param prev - old state for the specified entity
 	 * @param next - new state for the specified entity
 	 */
-	public void updateForStateChange(StateEntity ent, StateRecord prev, StateRecord next);
+	public void updateForStateChange(StateEntity ent, StateHandle prev, StateHandle next);
 }
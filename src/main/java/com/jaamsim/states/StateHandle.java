@@ -0,0 +1,119 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.states;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies a state by a small integer index. A single handle is created for
+ * each state name and is shared by every StateEntity, so that a StateEntity can
+ * hold its state records in an array and change state without using the name.
+ *
+ * Handles held in static fields are created by define() and last for the life
+ * of the program. Handles created by get() belong to the present model and are
+ * discarded by clear(), so that their indices are re-used by the next model.
+ */
+public final class StateHandle {
+	private static final ConcurrentHashMap<String, StateHandle> handles = new ConcurrentHashMap<>();
+	private static final BitSet usedIndices = new BitSet();
+
+	public final String name;
+	public final int index;
+	private boolean permanent; // guarded by handles
+
+	private StateHandle(String state, int i) {
+		name = state;
+		index = i;
+	}
+
+	/**
+	 * Returns the handle for the given state name, creating it if necessary.
+	 * The handle is kept by clear(), so it can be stored in a static field.
+	 * @param state - name of the state
+	 * @return handle for the state
+	 */
+	public static StateHandle define(String state) {
+		return getHandle(state, true);
+	}
+
+	/**
+	 * Returns the handle for the given state name, creating it if necessary.
+	 * @param state - name of the state
+	 * @return handle for the state
+	 */
+	public static StateHandle get(String state) {
+		StateHandle ret = handles.get(state);
+		if (ret != null)
+			return ret;
+
+		return getHandle(state, false);
+	}
+
+	private static StateHandle getHandle(String state, boolean perm) {
+		synchronized (handles) {
+			StateHandle ret = handles.get(state);
+			if (ret == null) {
+				ret = new StateHandle(state.intern(), usedIndices.nextClearBit(0));
+				usedIndices.set(ret.index);
+				handles.put(ret.name, ret);
+			}
+			if (perm)
+				ret.permanent = true;
+			return ret;
+		}
+	}
+
+	/**
+	 * Returns the handle for the given state name, or null if no handle has been
+	 * created for the name.
+	 */
+	static StateHandle find(String state) {
+		return handles.get(state);
+	}
+
+	/**
+	 * Returns one more than the largest index in use.
+	 */
+	static int size() {
+		synchronized (handles) {
+			return usedIndices.length();
+		}
+	}
+
+	/**
+	 * Discards the handles created by get() prior to loading a new model.
+	 */
+	public static void clear() {
+		synchronized (handles) {
+			Iterator<StateHandle> it = handles.values().iterator();
+			while (it.hasNext()) {
+				StateHandle each = it.next();
+				if (each.permanent)
+					continue;
+				usedIndices.clear(each.index);
+				it.remove();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
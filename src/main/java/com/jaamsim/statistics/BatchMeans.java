@@ -0,0 +1,161 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.statistics;
+
+/**
+ * Confidence interval for the mean of a series of weighted observations from a
+ * single run, estimated by the method of batch means.
+ * <p>
+ * The observations are divided in sequence into batches of equal total weight,
+ * i.e. equal numbers of observations or equal lengths of time. Whenever the
+ * maximum number of batches is reached, neighbouring batches are combined and
+ * the batch size is doubled, so that the number of batches stays between
+ * MAX_BATCHES/2 and MAX_BATCHES however long the run. The batch means are
+ * treated as independent samples from a normal distribution.
+ */
+public class BatchMeans {
+	private static final int MAX_BATCHES = 40;
+
+	// 97.5% quantiles of Student's t distribution for 1 to 5 degrees of freedom
+	private static final double[] T_975 = { 12.7062, 4.3027, 3.1824, 2.7764, 2.5706 };
+	private static final double Z_975 = 1.959964;
+
+	private double[] batchMeans;  // created when the first batch is completed
+	private int numBatches;
+	private double batchSize;   // total weight for each batch
+	private double curWeight;   // weight added to the present batch
+	private double curSum;      // weighted sum for the present batch
+
+	public BatchMeans() {
+		this.clear();
+	}
+
+	public void clear() {
+		numBatches = 0;
+		batchSize = 0.0;
+		curWeight = 0.0;
+		curSum = 0.0;
+	}
+
+	/**
+	 * Adds an observation with the given weight. An observation whose weight
+	 * spans the end of a batch is divided between the batches.
+	 * @param x - observed value
+	 * @param w - weight for the observation
+	 */
+	public void add(double x, double w) {
+		if (!(w > 0.0))
+			return;
+
+		// The first observation sets the initial batch size
+		if (batchSize == 0.0)
+			batchSize = w;
+
+		while (true) {
+			double room = batchSize - curWeight;
+			if (w < room) {
+				curSum += x*w;
+				curWeight += w;
+				return;
+			}
+
+			// Complete the present batch
+			curSum += x*room;
+			w -= room;
+			if (batchMeans == null)
+				batchMeans = new double[MAX_BATCHES];
+			batchMeans[numBatches] = curSum/batchSize;
+			numBatches++;
+			curSum = 0.0;
+			curWeight = 0.0;
+
+			if (numBatches == MAX_BATCHES)
+				this.combineBatches();
+
+			if (w <= 0.0)
+				return;
+		}
+	}
+
+	private void combineBatches() {
+		int n = numBatches/2;
+		for (int i = 0; i < n; i++) {
+			batchMeans[i] = (batchMeans[2*i] + batchMeans[2*i + 1])/2.0;
+		}
+		numBatches = n;
+		batchSize *= 2.0;
+	}
+
+	public int getBatchCount() {
+		return numBatches;
+	}
+
+	public double getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Returns the mean of the completed batches.
+	 */
+	public double getMean() {
+		if (numBatches == 0)
+			return Double.NaN;
+
+		double sum = 0.0;
+		for (int i = 0; i < numBatches; i++) {
+			sum += batchMeans[i];
+		}
+		return sum/numBatches;
+	}
+
+	/**
+	 * Returns the half-width of the 95% confidence interval for the mean, or NaN
+	 * if fewer than two batches have been completed.
+	 */
+	public double getHalfWidth() {
+		if (numBatches < 2)
+			return Double.NaN;
+
+		double mean = this.getMean();
+		double ss = 0.0;
+		for (int i = 0; i < numBatches; i++) {
+			double d = batchMeans[i] - mean;
+			ss += d*d;
+		}
+		double var = ss/(numBatches - 1);
+		return getTQuantile975(numBatches - 1)*Math.sqrt(var/numBatches);
+	}
+
+	/**
+	 * Returns the 97.5% quantile of Student's t distribution with the given
+	 * degrees of freedom. The Cornish-Fisher expansion is accurate to better than
+	 * 0.1% for six or more degrees of freedom.
+	 */
+	static double getTQuantile975(int df) {
+		if (df <= T_975.length)
+			return T_975[df - 1];
+
+		double z = Z_975;
+		double z2 = z*z;
+		double z3 = z2*z;
+		double z5 = z3*z2;
+		double z7 = z5*z2;
+		return z + (z3 + z)/(4.0*df)
+		         + (5.0*z5 + 16.0*z3 + 3.0*z)/(96.0*df*df)
+		         + (3.0*z7 + 19.0*z5 + 17.0*z3 - 15.0*z)/(384.0*df*df*df);
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.statistics;
+
+/**
+ * Accumulates the statistics for a series of observations in a single pass:
+ * minimum, maximum, mean, variance, quantile estimates, and a batch-means
+ * confidence interval for the mean. The variance is calculated by Welford's
+ * method, which avoids the loss of precision that occurs when the sum of the
+ * squares is used.
+ */
+public class SampleStatistics {
+	private static final double COMPRESSION = 100.0;
+
+	private long count;
+	private double minValue;
+	private double maxValue;
+	private double sum;
+	private double mean;
+	private double m2;      // sum of the squared differences from the mean
+	private TDigest digest;  // created when the first observation is added
+	private final BatchMeans batches;
+
+	public SampleStatistics() {
+		batches = new BatchMeans();
+		this.clear();
+	}
+
+	public void clear() {
+		count = 0;
+		minValue = Double.POSITIVE_INFINITY;
+		maxValue = Double.NEGATIVE_INFINITY;
+		sum = 0.0;
+		mean = 0.0;
+		m2 = 0.0;
+		if (digest != null)
+			digest.clear();
+		batches.clear();
+	}
+
+	/**
+	 * Records the given observation.
+	 */
+	public void add(double x) {
+		count++;
+		minValue = Math.min(minValue, x);
+		maxValue = Math.max(maxValue, x);
+		sum += x;
+
+		double delta = x - mean;
+		mean += delta/count;
+		m2 += delta*(x - mean);
+
+		if (digest == null)
+			digest = new TDigest(COMPRESSION);
+		digest.add(x, 1.0);
+		batches.add(x, 1.0);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the smallest observation, or positive infinity if there are none.
+	 */
+	public double getMin() {
+		return minValue;
+	}
+
+	/**
+	 * Returns the largest observation, or negative infinity if there are none.
+	 */
+	public double getMax() {
+		return maxValue;
+	}
+
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the mean of the observations, or NaN if there are none.
+	 */
+	public double getMean() {
+		return sum/count;
+	}
+
+	/**
+	 * Returns the population variance of the observations, or NaN if there are none.
+	 */
+	public double getVariance() {
+		return m2/count;
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(this.getVariance());
+	}
+
+	/**
+	 * Returns the estimated value for the given quantile, or NaN if there are
+	 * no observations.
+	 * @param q - quantile between 0 and 1
+	 */
+	public double getQuantile(double q) {
+		if (digest == null)
+			return Double.NaN;
+		return digest.quantile(q);
+	}
+
+	/**
+	 * Returns the half-width of the 95% confidence interval for the mean, or NaN
+	 * if there are too few observations.
+	 */
+	public double getConfidenceHalfWidth() {
+		return batches.getHalfWidth();
+	}
+}
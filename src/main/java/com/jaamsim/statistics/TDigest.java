@@ -0,0 +1,407 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimate of the quantiles of a weighted set of observations using
+ * the merging t-digest of Dunning and Ertl.
+ * <p>
+ * The observations are summarised by a sorted list of centroids, each holding
+ * the mean and total weight of a group of neighbouring observations. The
+ * centroids near the two tails of the distribution are kept small so that the
+ * extreme quantiles are estimated accurately. New observations are held in a
+ * buffer and are merged with the centroids when the buffer is full. The number
+ * of centroids is proportional to the compression factor and does not depend
+ * on the number of observations.
+ * <p>
+ * A centroid that holds a single value, such as an integer queue length, is
+ * treated as a point mass so that the quantiles of a discrete distribution are
+ * returned exactly.
+ * <p>
+ * Observations are added by a single thread. A quantile can be requested from
+ * any thread since it does not change the digest. Each merge publishes a new
+ * set of centroids, so a request made by another thread while observations are
+ * being added reads a complete set of centroids, but can include a buffered
+ * observation that is also held by them.
+ */
+public class TDigest {
+	private static final int BUFFER_FACTOR = 2;  // buffer size relative to the maximum number of centroids
+
+	private final double compression;
+	private final int maxCentroids;
+
+	private volatile Centroids centroids;  // centroids for the merged observations
+	private boolean mergeReverse;          // direction for the next merge
+
+	private double[] bufMeans;  // created when the first observation is added
+	private double[] bufWeights;
+	private int numBuffered;
+
+	private double totalWeight;
+
+	/**
+	 * A sorted list of centroids that is not changed once it has been published.
+	 */
+	private static final class Centroids {
+		final double[] means;    // centroid means in increasing order
+		final double[] weights;  // centroid weights
+		final boolean[] exact;   // true if every value in the centroid is the same
+		int count;
+		double minValue = Double.POSITIVE_INFINITY;  // smallest observation
+		double maxValue = Double.NEGATIVE_INFINITY;  // largest observation
+
+		Centroids(int size) {
+			means = new double[size];
+			weights = new double[size];
+			exact = new boolean[size];
+		}
+
+		double getTotalWeight() {
+			double ret = 0.0;
+			for (int i = 0; i < count; i++) {
+				ret += weights[i];
+			}
+			return ret;
+		}
+
+		void add(double mean, double weight, boolean ex) {
+			means[count] = mean;
+			weights[count] = weight;
+			exact[count] = ex;
+			count++;
+		}
+	}
+
+	private static final Centroids EMPTY = new Centroids(0);
+
+	/**
+	 * Creates a t-digest with the given compression factor.
+	 * @param comp - compression factor, typically 100. Larger values give more
+	 * accurate estimates at the cost of more memory.
+	 */
+	public TDigest(double comp) {
+		compression = comp;
+
+		// The k1 scale function spans comp/2 units and each pair of neighbouring
+		// centroids spans more than one unit, so there are at most comp + 1 centroids
+		maxCentroids = (int)Math.ceil(comp) + 10;
+		this.clear();
+	}
+
+	public void clear() {
+		centroids = EMPTY;
+		numBuffered = 0;
+		mergeReverse = false;
+		totalWeight = 0.0;
+	}
+
+	/**
+	 * Adds an observation with the given weight.
+	 * @param x - observed value
+	 * @param w - weight for the observation
+	 */
+	public void add(double x, double w) {
+		if (!(w > 0.0) || Double.isNaN(x))
+			return;
+
+		if (bufMeans == null) {
+			bufMeans = new double[BUFFER_FACTOR*maxCentroids];
+			bufWeights = new double[BUFFER_FACTOR*maxCentroids];
+		}
+		if (numBuffered == bufMeans.length)
+			this.merge();
+
+		bufMeans[numBuffered] = x;
+		bufWeights[numBuffered] = w;
+		numBuffered++;
+		totalWeight += w;
+	}
+
+	public double getTotalWeight() {
+		return totalWeight;
+	}
+
+	/**
+	 * Returns the number of centroids for the observations that have been merged.
+	 */
+	public int getCentroidCount() {
+		return centroids.count;
+	}
+
+	/**
+	 * Returns the estimated value for the given quantile, or NaN if there are
+	 * no observations.
+	 * @param q - quantile between 0 and 1
+	 */
+	public double quantile(double q) {
+		return this.quantile(q, Double.NaN, 0.0);
+	}
+
+	/**
+	 * Returns the estimated value for the given quantile as if an observation
+	 * with the given value and weight had been added. The digest is not changed.
+	 * @param q - quantile between 0 and 1
+	 * @param x - additional observed value
+	 * @param w - weight for the additional observation
+	 */
+	public double quantile(double q, double x, double w) {
+
+		// Merge a copy of the buffered observations with the centroids
+		Centroids c = centroids;
+		double[] bm = bufMeans;
+		double[] bw = bufWeights;
+		int n = (bm == null) ? 0 : Math.min(numBuffered, Math.min(bm.length, bw.length));
+		if (n > 0) {
+			double[] vals = Arrays.copyOf(bm, n);
+			double[] wts = Arrays.copyOf(bw, n);
+			sort(vals, wts, 0, n - 1);
+			c = this.compress(c, vals, wts, n, mergeReverse);
+		}
+
+		if (!(w > 0.0) || Double.isNaN(x))
+			return interpolate(c.means, c.weights, c.exact, c.count, c.getTotalWeight(),
+					c.minValue, c.maxValue, q);
+
+		// Insert the additional observation
+		int num = c.count + 1;
+		double[] m = new double[num];
+		double[] wt = new double[num];
+		boolean[] ex = new boolean[num];
+		int k = 0;
+		while (k < c.count && c.means[k] <= x) {
+			k++;
+		}
+		System.arraycopy(c.means, 0, m, 0, k);
+		System.arraycopy(c.weights, 0, wt, 0, k);
+		System.arraycopy(c.exact, 0, ex, 0, k);
+		m[k] = x;
+		wt[k] = w;
+		ex[k] = true;
+		System.arraycopy(c.means, k, m, k + 1, c.count - k);
+		System.arraycopy(c.weights, k, wt, k + 1, c.count - k);
+		System.arraycopy(c.exact, k, ex, k + 1, c.count - k);
+		return interpolate(m, wt, ex, num, c.getTotalWeight() + w,
+				Math.min(c.minValue, x), Math.max(c.maxValue, x), q);
+	}
+
+	/**
+	 * Returns the value for quantile q by interpolating between the centres of
+	 * the given centroids, and between the outer centroids and the extreme values.
+	 * A centroid that holds a single value covers its full range of weight.
+	 */
+	private static double interpolate(double[] m, double[] w, boolean[] ex, int n, double total,
+			double min, double max, double q) {
+		if (n == 0)
+			return Double.NaN;
+		if (q <= 0.0)
+			return min;
+		if (q >= 1.0)
+			return max;
+
+		double target = q*total;
+		double prevWeight = 0.0;
+		double prevValue = min;
+		double cum = 0.0;
+		for (int i = 0; i < n; i++) {
+			double left = ex[i] ? cum : cum + w[i]/2.0;
+			double right = ex[i] ? cum + w[i] : left;
+			if (target < left)
+				return prevValue + (m[i] - prevValue)*(target - prevWeight)/(left - prevWeight);
+			if (target < right)
+				return m[i];
+			prevWeight = right;
+			prevValue = m[i];
+			cum += w[i];
+		}
+
+		if (total <= prevWeight)
+			return max;
+		return prevValue + (max - prevValue)*(target - prevWeight)/(total - prevWeight);
+	}
+
+	/**
+	 * Merges the buffered observations with the centroids and publishes the new
+	 * centroids.
+	 */
+	private void merge() {
+		if (numBuffered == 0)
+			return;
+
+		sort(bufMeans, bufWeights, 0, numBuffered - 1);
+		Centroids ret = this.compress(centroids, bufMeans, bufWeights, numBuffered, mergeReverse);
+		numBuffered = 0;
+		mergeReverse = !mergeReverse;
+		centroids = ret;
+	}
+
+	/**
+	 * Returns the centroids for the given centroids and sorted observations.
+	 * <p>
+	 * The entries are taken in order of their means, and neighbouring entries
+	 * are merged while the size of the centroid is within the limit set by the
+	 * scale function. The direction of the merge is alternated by the caller
+	 * so that neither tail is favoured.
+	 * @param c - centroids to be merged
+	 * @param vals - observed values in increasing order
+	 * @param wts - weights for the observations
+	 * @param n - number of observations
+	 * @param rev - true if the entries are merged in decreasing order
+	 */
+	private Centroids compress(Centroids c, double[] vals, double[] wts, int n, boolean rev) {
+		double total = c.getTotalWeight();
+		for (int k = 0; k < n; k++) {
+			total += wts[k];
+		}
+
+		Centroids ret = new Centroids(maxCentroids);
+		ret.minValue = Math.min(c.minValue, vals[0]);
+		ret.maxValue = Math.max(c.maxValue, vals[n - 1]);
+
+		int i = rev ? c.count - 1 : 0;
+		int j = rev ? n - 1 : 0;
+		int step = rev ? -1 : 1;
+		double wSoFar = 0.0;
+		double wLimit = total*quantileForScale(scale(0.0) + 1.0);
+		double curMean = 0.0;
+		double curWeight = 0.0;
+		boolean curExact = false;
+		for (int k = 0; k < c.count + n; k++) {
+			double mean, weight;
+			boolean ex;
+			boolean fromCentroids;
+			if (j < 0 || j >= n)
+				fromCentroids = true;
+			else if (i < 0 || i >= c.count)
+				fromCentroids = false;
+			else
+				fromCentroids = rev ? c.means[i] >= vals[j] : c.means[i] <= vals[j];
+			if (fromCentroids) {
+				mean = c.means[i];
+				weight = c.weights[i];
+				ex = c.exact[i];
+				i += step;
+			}
+			else {
+				mean = vals[j];
+				weight = wts[j];
+				ex = true;
+				j += step;
+			}
+
+			if (k == 0) {
+				curMean = mean;
+				curWeight = weight;
+				curExact = ex;
+				continue;
+			}
+
+			double proposed = curWeight + weight;
+			if (wSoFar + proposed <= wLimit) {
+				curExact = curExact && ex && mean == curMean;
+				curWeight = proposed;
+				curMean += (mean - curMean)*weight/curWeight;
+				continue;
+			}
+			ret.add(curMean, curWeight, curExact);
+			wSoFar += curWeight;
+			wLimit = total*quantileForScale(scale(wSoFar/total) + 1.0);
+			curMean = mean;
+			curWeight = weight;
+			curExact = ex;
+		}
+		ret.add(curMean, curWeight, curExact);
+
+		if (rev) {
+			for (int lo = 0, hi = ret.count - 1; lo < hi; lo++, hi--) {
+				swap(ret.means, ret.weights, lo, hi);
+				boolean b = ret.exact[lo];
+				ret.exact[lo] = ret.exact[hi];
+				ret.exact[hi] = b;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * The k1 scale function, which limits the size of the centroids near the tails.
+	 */
+	private double scale(double q) {
+		q = Math.max(0.0, Math.min(1.0, q));
+		return compression/(2.0*Math.PI)*Math.asin(2.0*q - 1.0);
+	}
+
+	private double quantileForScale(double k) {
+		double x = k*2.0*Math.PI/compression;
+		if (x >= Math.PI/2.0)
+			return 1.0;
+		return (Math.sin(x) + 1.0)/2.0;
+	}
+
+	/**
+	 * Sorts the given values in increasing order, moving the corresponding
+	 * weights with them.
+	 */
+	private static void sort(double[] vals, double[] wts, int lo, int hi) {
+		while (hi - lo > 16) {
+			double pivot = vals[(lo + hi) >>> 1];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (vals[i] < pivot) i++;
+				while (vals[j] > pivot) j--;
+				if (i <= j) {
+					swap(vals, wts, i, j);
+					i++;
+					j--;
+				}
+			}
+			// Recurse on the smaller part
+			if (j - lo < hi - i) {
+				sort(vals, wts, lo, j);
+				lo = i;
+			}
+			else {
+				sort(vals, wts, i, hi);
+				hi = j;
+			}
+		}
+
+		for (int i = lo + 1; i <= hi; i++) {
+			double v = vals[i];
+			double w = wts[i];
+			int j = i - 1;
+			while (j >= lo && vals[j] > v) {
+				vals[j+1] = vals[j];
+				wts[j+1] = wts[j];
+				j--;
+			}
+			vals[j+1] = v;
+			wts[j+1] = w;
+		}
+	}
+
+	private static void swap(double[] vals, double[] wts, int i, int j) {
+		double v = vals[i];
+		vals[i] = vals[j];
+		vals[j] = v;
+		double w = wts[i];
+		wts[i] = wts[j];
+		wts[j] = w;
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.statistics;
+
+/**
+ * Accumulates the statistics for a quantity that changes value at discrete times,
+ * such as the number of entities in a queue. Each value is weighted by the length
+ * of time it was held. The statistics include the time from the last change to
+ * the time at which they are requested.
+ */
+public class TimeWeightedStatistics {
+	private static final double COMPRESSION = 100.0;
+
+	private double startTime;  // time at which statistics collection was started
+	private double lastTime;   // time at which the last completed interval ended
+	private double value;      // present value
+	private double minValue;
+	private double maxValue;
+	private double totalTime;  // total length of the completed intervals
+	private double sum;        // integral of the value over the completed intervals
+	private double mean;
+	private double m2;         // time-weighted sum of the squared differences from the mean
+	private TDigest digest;  // created when the first interval is completed
+	private final BatchMeans batches;
+
+	public TimeWeightedStatistics() {
+		batches = new BatchMeans();
+		this.clear(0.0, 0.0);
+	}
+
+	/**
+	 * Discards the statistics collected so far and starts collection again.
+	 * @param simTime - time at which collection starts
+	 * @param val - present value
+	 */
+	public void clear(double simTime, double val) {
+		startTime = simTime;
+		lastTime = simTime;
+		value = val;
+		minValue = val;
+		maxValue = val;
+		totalTime = 0.0;
+		sum = 0.0;
+		mean = 0.0;
+		m2 = 0.0;
+		if (digest != null)
+			digest.clear();
+		batches.clear();
+	}
+
+	/**
+	 * Records a change to the value.
+	 * @param simTime - time at which the value changed
+	 * @param val - new value
+	 */
+	public void set(double simTime, double val) {
+		double dt = simTime - lastTime;
+		if (dt > 0.0) {
+			totalTime += dt;
+			sum += dt*value;
+
+			double delta = value - mean;
+			mean += delta*dt/totalTime;
+			m2 += dt*delta*(value - mean);
+
+			if (digest == null)
+				digest = new TDigest(COMPRESSION);
+			digest.add(value, dt);
+			batches.add(value, dt);
+			lastTime = simTime;
+		}
+
+		value = val;
+		minValue = Math.min(minValue, val);
+		maxValue = Math.max(maxValue, val);
+	}
+
+	/**
+	 * Returns the time at which the last interval with a non-zero duration ended.
+	 */
+	public double getLastTime() {
+		return lastTime;
+	}
+
+	public double getValue() {
+		return value;
+	}
+
+	public double getMin() {
+		return minValue;
+	}
+
+	public double getMax() {
+		return maxValue;
+	}
+
+	/**
+	 * Returns the integral of the value from the start of collection to the given time.
+	 */
+	public double getSum(double simTime) {
+		return sum + (simTime - lastTime)*value;
+	}
+
+	/**
+	 * Returns the time-weighted mean from the start of collection to the given
+	 * time, or zero if no time has elapsed.
+	 */
+	public double getMean(double simTime) {
+		double dur = simTime - startTime;
+		if (dur <= 0.0)
+			return 0.0;
+		return this.getSum(simTime)/dur;
+	}
+
+	/**
+	 * Returns the time-weighted population variance from the start of collection
+	 * to the given time, or zero if no time has elapsed.
+	 */
+	public double getVariance(double simTime) {
+		double dt = simTime - lastTime;
+		if (dt <= 0.0) {
+			if (totalTime <= 0.0)
+				return 0.0;
+			return m2/totalTime;
+		}
+
+		double tot = totalTime + dt;
+		double delta = value - mean;
+		double mn = mean + delta*dt/tot;
+		return (m2 + dt*delta*(value - mn))/tot;
+	}
+
+	public double getStandardDeviation(double simTime) {
+		return Math.sqrt(this.getVariance(simTime));
+	}
+
+	/**
+	 * Returns the estimated value for the given quantile of the time-weighted
+	 * distribution, or the present value if no time has elapsed.
+	 * @param simTime - time at which the quantile is required
+	 * @param q - quantile between 0 and 1
+	 */
+	public double getQuantile(double simTime, double q) {
+		double dt = simTime - lastTime;
+		if (totalTime <= 0.0 && dt <= 0.0)
+			return value;
+
+		// Only the present value has been held if no interval has been completed
+		if (digest == null)
+			return value;
+		return digest.quantile(q, value, dt);
+	}
+
+	/**
+	 * Returns the half-width of the 95% confidence interval for the time-weighted
+	 * mean, or NaN if too little time has elapsed. The interval is estimated from
+	 * the batches of time that have been completed.
+	 */
+	public double getConfidenceHalfWidth() {
+		return batches.getHalfWidth();
+	}
+}
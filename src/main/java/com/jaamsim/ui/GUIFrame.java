@@ -76,12 +76,14 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ErrorException;
+import com.jaamsim.basicsim.ReplicationRunner;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.controllers.RateLimiter;
 import com.jaamsim.controllers.RenderManager;
 import com.jaamsim.events.EventErrorListener;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.InputErrorException;
@@ -114,6 +116,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 	private JCheckBoxMenuItem alwaysTop;
 	private JCheckBoxMenuItem graphicsDebug;
 	private JMenuItem printInputItem;
+	private JMenuItem saveStateDigestItem;
 	private JMenuItem saveConfigurationMenuItem;  // "Save"
 	private JLabel clockDisplay;
 	private JLabel speedUpDisplay;
@@ -335,7 +338,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		InputAgent.clear();
 		InputAgent.setRecordEdits(false);
 		InputAgent.readResource("<res>/inputs/autoload.cfg");
-		InputAgent.setPreDefinedEntityCount( Entity.getAll().get( Entity.getAll().size() - 1 ).getEntityNumber());
+		InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
 	}
 
 	/**
@@ -487,7 +490,19 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		} );
 		fileMenu.add( printInputItem );
 
-		// 7) "Exit" menu item
+		// 7) "Save State Digest" menu item
+		saveStateDigestItem = new JMenuItem( "Save State Digest" );
+		saveStateDigestItem.setMnemonic( 'D' );
+		saveStateDigestItem.addActionListener( new ActionListener() {
+
+			@Override
+			public void actionPerformed( ActionEvent event ) {
+				GUIFrame.this.saveStateDigest();
+			}
+		} );
+		fileMenu.add( saveStateDigestItem );
+
+		// 8) "Exit" menu item
 		JMenuItem exitMenuItem = new JMenuItem( "Exit" );
 		exitMenuItem.setMnemonic( 'x' );
 		exitMenuItem.addActionListener(new CloseListener());
@@ -1239,12 +1254,22 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 			throw new ErrorException( "Invalid Simulation State for Start/Resume" );
 	}
 
+	/**
+	 * Writes a digest of the state of the simulation run at its next tick.
+	 * A paused run is advanced to this tick and then paused again.
+	 */
+	private void saveStateDigest() {
+		Simulation.requestStateDigest(currentEvt);
+		if( getSimState() == SIM_STATE_PAUSED )
+			currentEvt.resume(simTicks + 2);
+	}
+
 	/**
 	 * Pauses the simulation run.
 	 */
 	private void pauseSimulation() {
 		if( getSimState() == SIM_STATE_RUNNING )
-			currentEvt.pause();
+			currentEvt.injectPause();
 		else
 			throw new ErrorException( "Invalid Simulation State for pause" );
 	}
@@ -1275,7 +1300,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 
 	private static final String LAST_USED_FOLDER = "";
 
-	private int simState;
+	private volatile int simState;
 	public int getSimState() {
 		return simState;
 	}
@@ -1285,6 +1310,45 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		currentEvt = e;
 	}
 
+	/**
+	 * Applies an input that has been edited in a view window. While the model is
+	 * running, the input is injected into the event loop so that it is applied
+	 * on the model thread between two events. Otherwise, it is applied at once.
+	 */
+	public static void applyInput(Entity ent, KeywordIndex kw) {
+		GUIFrame inst = GUIFrame.getInstance();
+		if (inst == null || inst.getSimState() != SIM_STATE_RUNNING) {
+			InputAgent.apply(ent, kw);
+			return;
+		}
+		inst.currentEvt.injectProcessExternal(0, 0, true, new ApplyInputTarget(ent, kw));
+	}
+
+	private static class ApplyInputTarget extends ProcessTarget {
+		final Entity ent;
+		final KeywordIndex kw;
+
+		ApplyInputTarget(Entity ent, KeywordIndex kw) {
+			this.ent = ent;
+			this.kw = kw;
+		}
+
+		@Override
+		public String getDescription() {
+			return "ApplyInput";
+		}
+
+		@Override
+		public void process() {
+			try {
+				InputAgent.apply(ent, kw);
+			}
+			catch (InputErrorException e) {
+				InputAgent.logMessage("Input error for %s: %s", ent.getName(), e.getMessage());
+			}
+		}
+	}
+
 	public static void updateForSimState(int state) {
 		GUIFrame inst = GUIFrame.getInstance();
 		if (inst == null)
@@ -1306,6 +1370,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 				for( int i = 0; i < fileMenu.getItemCount() - 1; i++ ) {
 					fileMenu.getItem(i).setEnabled(true);
 				}
+				saveStateDigestItem.setEnabled( false );
 				for( int i = 0; i < viewMenu.getItemCount(); i++ ) {
 					viewMenu.getItem(i).setEnabled(true);
 				}
@@ -1330,6 +1395,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 				for( int i = 0; i < fileMenu.getItemCount() - 1; i++ ) {
 					fileMenu.getItem(i).setEnabled(true);
 				}
+				saveStateDigestItem.setEnabled( false );
 				for( int i = 0; i < viewMenu.getItemCount(); i++ ) {
 					viewMenu.getItem(i).setEnabled(true);
 				}
@@ -1353,6 +1419,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 				for( int i = 0; i < fileMenu.getItemCount() - 1; i++ ) {
 					fileMenu.getItem(i).setEnabled(true);
 				}
+				saveStateDigestItem.setEnabled( false );
 				for( int i = 0; i < viewMenu.getItemCount(); i++ ) {
 					viewMenu.getItem(i).setEnabled(true);
 				}
@@ -1374,6 +1441,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 				break;
 
 			case SIM_STATE_RUNNING:
+				saveStateDigestItem.setEnabled( true );
 				speedUpDisplay.setEnabled( true );
 				remainingDisplay.setEnabled( true );
 				controlStartResume.setEnabled( true );
@@ -1384,6 +1452,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 				break;
 
 			case SIM_STATE_PAUSED:
+				saveStateDigestItem.setEnabled( true );
 				controlStartResume.setEnabled( true );
 				controlStartResume.setSelected( false );
 				controlStartResume.setToolTipText(RUN_TOOLTIP);
@@ -1576,14 +1645,42 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		boolean quiet = false;
 		boolean scriptMode = false;
 		boolean headless = false;
+		boolean cache = false;
+		int numThreads = 0;
+		boolean threadsArg = false;
 
 		for (String each : args) {
+			// Number of threads for parallel runs
+			if (threadsArg) {
+				threadsArg = false;
+				try {
+					numThreads = Integer.parseInt(each);
+					continue;
+				}
+				catch (NumberFormatException e) {
+					numThreads = Runtime.getRuntime().availableProcessors();
+				}
+			}
+			// Execute multiple runs in parallel (implies headless)
+			if (each.equalsIgnoreCase("-p") ||
+			    each.equalsIgnoreCase("-parallel")) {
+				threadsArg = true;
+				headless = true;
+				batch = true;
+				continue;
+			}
 			// Batch mode
 			if (each.equalsIgnoreCase("-b") ||
 			    each.equalsIgnoreCase("-batch")) {
 				batch = true;
 				continue;
 			}
+			// Load the configuration file from its model cache
+			if (each.equalsIgnoreCase("-c") ||
+			    each.equalsIgnoreCase("-cache")) {
+				cache = true;
+				continue;
+			}
 			// Script mode (command line I/O)
 			if (each.equalsIgnoreCase("-s") ||
 			    each.equalsIgnoreCase("-script")) {
@@ -1625,6 +1722,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		}
 
 		InputAgent.setScriptMode(scriptMode);
+		InputAgent.setModelCache(cache);
 
 		// If not running in batch mode, create the splash screen
 		JWindow splashScreen = null;
@@ -1676,7 +1774,7 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		// Load the autoload file
 		InputAgent.setRecordEdits(false);
 		InputAgent.readResource("<res>/inputs/autoload.cfg");
-		InputAgent.setPreDefinedEntityCount( Entity.getAll().get( Entity.getAll().size() - 1 ).getEntityNumber());
+		InputAgent.setPreDefinedEntityCount( Entity.getLastEntity().getEntityNumber());
 
 		// Show the Control Panel
 		if (gui != null) {
@@ -1738,6 +1836,24 @@ public class GUIFrame extends JFrame implements EventTimeListener, EventErrorLis
 		if (batch) {
 			if (InputAgent.numErrors() > 0)
 				GUIFrame.shutdown(0);
+
+			// Execute the runs as parallel replications
+			if ((threadsArg || numThreads > 1) && Simulation.isMultipleRuns()
+					&& InputAgent.getConfigFile() != null) {
+				if (threadsArg)
+					numThreads = Runtime.getRuntime().availableProcessors();
+				try {
+					ReplicationRunner.execute(numThreads);
+					InputAgent.closeLogFile();
+				}
+				catch (Throwable t) {
+					InputAgent.logMessage("Error: %s", t.getMessage());
+					InputAgent.logStackTrace(t);
+					GUIFrame.shutdown(1);
+				}
+				GUIFrame.shutdown(0);
+			}
+
 			Simulation.start(evt);
 			return;
 		}
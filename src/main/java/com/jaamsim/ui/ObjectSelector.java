@@ -226,10 +226,8 @@ public class ObjectSelector extends FrameBox {
 		// Prepare a sorted list of entities
 		int numGenerated = 0;
 		ArrayList<Entity> entityList = new ArrayList<>();
-		for (int i = 0; i < Entity.getAll().size(); i++) {
+		for (final Entity ent : Entity.getClonesOfIterator(Entity.class)) {
 			try {
-				final Entity ent = Entity.getAll().get(i);
-
 				// The instance for Simulation has already been added
 				if (ent == Simulation.getInstance())
 					continue;
@@ -24,6 +24,13 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	com.jaamsim.events.TestEventManager.class,
 	com.jaamsim.events.TestEventTree.class,
+	com.jaamsim.basicsim.TestEventTrace.class,
+	com.jaamsim.basicsim.TestEntityRegistry.class,
+	com.jaamsim.basicsim.TestEntityPool.class,
+	com.jaamsim.basicsim.TestFastCopy.class,
+	com.jaamsim.basicsim.TestModelInitializer.class,
+	com.jaamsim.basicsim.TestStateDigest.class,
+	com.jaamsim.basicsim.TestReplicationRunner.class,
 	com.jaamsim.math.TestAABB.class,
 	com.jaamsim.math.TestQuaternion.class,
 	com.jaamsim.math.TestTransform.class,
@@ -43,7 +50,15 @@ import org.junit.runners.Suite.SuiteClasses;
 	com.jaamsim.input.TestKeyedVec3dCurve.class,
 	com.jaamsim.input.TestExpParser.class,
 	com.jaamsim.input.TestParser.class,
+	com.jaamsim.input.TestConfigReader.class,
+	com.jaamsim.input.TestModelCache.class,
+	com.jaamsim.input.TestReferenceIndex.class,
+	com.jaamsim.statistics.TestStatistics.class,
+	com.jaamsim.states.TestStateEntity.class,
+	com.jaamsim.input.TestTimeSeriesFileInput.class,
 	com.jaamsim.input.TestOutput.class,
+	com.jaamsim.input.TestOutputCache.class,
+	com.jaamsim.Thresholds.TestExpressionThreshold.class,
 	com.jaamsim.probability.TestContinuousDistribution.class,
 	com.jaamsim.probability.TestDiscreteDistribution.class,
 	com.jaamsim.probability.TestErlangDistribution.class,
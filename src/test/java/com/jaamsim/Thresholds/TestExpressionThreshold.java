@@ -0,0 +1,105 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Thresholds;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.ProcessFlow.Queue;
+import com.jaamsim.events.ChangeSignal;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.input.InputAgent;
+
+public class TestExpressionThreshold {
+
+	@Test
+	public void testDependencies() {
+		Queue que = InputAgent.defineEntityWithUniqueName(Queue.class, "Que", "-", true);
+		ExpressionThreshold thr = InputAgent.defineEntityWithUniqueName(ExpressionThreshold.class, "Thr", "-", true);
+		try {
+			InputAgent.applyArgs(thr, "OpenCondition", "[" + que.getName() + "].QueueLength < 2");
+			List<ChangeSignal> sigs = Arrays.asList(thr.getOpenStateSignals());
+			assertEquals(2, sigs.size());
+			assertTrue(sigs.contains(que.getCountSignal()));
+			assertTrue(sigs.contains(thr.getStateSignal()));
+
+			// An output that changes with simulation time has no signal
+			InputAgent.applyArgs(thr, "OpenCondition", "[" + que.getName() + "].QueueLengthAverage < 2");
+			assertNull(thr.getOpenStateSignals());
+		}
+		finally {
+			que.kill();
+			thr.kill();
+		}
+	}
+
+	/**
+	 * Checks that a threshold that waits on the signals for its expression opens
+	 * and closes when the length of a queue changes.
+	 */
+	@Test
+	public void testQueueLength() {
+		final Queue que = InputAgent.defineEntityWithUniqueName(Queue.class, "Que", "-", true);
+		final ExpressionThreshold thr = InputAgent.defineEntityWithUniqueName(ExpressionThreshold.class, "Thr", "-", true);
+		InputAgent.applyArgs(thr, "OpenCondition", "[" + que.getName() + "].QueueLength < 2");
+		final String[] states = new String[3];
+		try {
+			EventManager evt = new EventManager("TestEVT");
+			evt.clear();
+			evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+				@Override
+				public String getDescription() { return "ChangeQueue"; }
+
+				@Override
+				public void process() {
+					que.earlyInit();
+					thr.earlyInit();
+					thr.startUp();
+					EventManager.waitTicks(1, 0, false, null);
+					states[0] = thr.getPresentState(1.0d);
+
+					que.addEntity(new DisplayEntity());
+					que.addEntity(new DisplayEntity());
+					EventManager.waitTicks(1, 0, false, null);
+					states[1] = thr.getPresentState(2.0d);
+
+					que.removeFirst();
+					EventManager.waitTicks(1, 0, false, null);
+					states[2] = thr.getPresentState(3.0d);
+				}
+			}, null);
+			TestFrameworkHelpers.runEventsToTick(evt, 10, 1000);
+
+			assertEquals("Open", states[0]);
+			assertEquals("Closed", states[1]);
+			assertEquals("Open", states[2]);
+		}
+		finally {
+			que.kill();
+			thr.kill();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jaamsim.input.InputAgent;
+
+public class TestEntityPool {
+
+	@Test
+	public void testRecycle() {
+		Entity proto = new Entity();
+		proto.setName("TestEntityPoolProto");
+		InputAgent.applyArgs(proto, "Description", "Recycled");
+
+		Entity ent1 = EntityPool.getCopy(proto, "Copy1");
+		assertTrue(ent1.getEntityPool() != null);
+		assertEquals("Recycled", ent1.getInput("Description").getValue());
+		long num1 = ent1.getEntityNumber();
+
+		// A killed copy is reused with a new entity number and name
+		ent1.kill();
+		assertNull(Entity.idToEntity(num1));
+		Entity ent2 = EntityPool.getCopy(proto, "Copy2");
+		assertTrue(ent2 == ent1);
+		assertTrue(ent2.getEntityNumber() > num1);
+		assertTrue(Entity.idToEntity(ent2.getEntityNumber()) == ent2);
+		assertEquals("Copy2", ent2.getName());
+		assertFalse(ent2.testFlag(Entity.FLAG_DEAD));
+		assertTrue(ent2.testFlag(Entity.FLAG_GENERATED));
+
+		// A change to the prototype's inputs is copied to the reused entity
+		ent2.kill();
+		ent2.kill();
+		InputAgent.applyArgs(proto, "Description", "Changed");
+		Entity ent3 = EntityPool.getCopy(proto, "Copy3");
+		assertTrue(ent3 == ent1);
+		assertEquals("Changed", ent3.getInput("Description").getValue());
+
+		// Only one entity was ever created
+		EntityPool pool = EntityPool.getPool(proto);
+		assertEquals(1, pool.getNumCreated());
+		assertEquals(2, pool.getNumReused());
+		assertEquals(0, pool.getNumFree());
+
+		ent3.kill();
+		proto.kill();
+		assertNull(EntityPool.getPool(proto));
+	}
+
+	@Test
+	public void testCopyOf() {
+		Entity proto = new Entity();
+		proto.setName("TestEntityPoolProto2");
+		InputAgent.applyArgs(proto, "Description", "Prototype");
+
+		Entity ent1 = EntityPool.getCopy(proto, "Copy1");
+		InputAgent.applyArgs(ent1, "Description", "Modified");
+		EntityPool pool = ent1.getEntityPool();
+
+		// The copy takes its inputs from the copied entity rather than the prototype
+		Entity dup1 = pool.getCopyOf(ent1, "Dup1");
+		assertTrue(dup1.getEntityPool() == pool);
+		assertEquals("Modified", dup1.getInput("Description").getValue());
+
+		// The same is true for a reused entity
+		dup1.kill();
+		Entity dup2 = pool.getCopyOf(ent1, "Dup2");
+		assertTrue(dup2 == dup1);
+		assertEquals("Modified", dup2.getInput("Description").getValue());
+
+		dup2.kill();
+		ent1.kill();
+		proto.kill();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class TestEntityRegistry {
+
+	public static class EntA extends Entity {}
+	public static class EntB extends EntA {}
+	public static class EntC extends Entity {}
+
+	@Test
+	public void testLookupAndKill() {
+		ArrayList<Entity> ents = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			ents.add(new EntC());
+		}
+
+		for (Entity each : ents) {
+			assertTrue(Entity.idToEntity(each.getEntityNumber()) == each);
+		}
+
+		// Kill every other entity to force the list to be compacted
+		for (int i = 0; i < ents.size(); i += 2) {
+			Entity ent = ents.get(i);
+			ent.kill();
+			assertNull(Entity.idToEntity(ent.getEntityNumber()));
+		}
+
+		ArrayList<EntC> found = new ArrayList<>();
+		for (EntC each : Entity.getInstanceIterator(EntC.class)) {
+			found.add(each);
+		}
+		assertEquals(50, found.size());
+		for (int i = 0; i < found.size(); i++) {
+			assertTrue(found.get(i) == ents.get(2*i + 1));
+		}
+
+		for (Entity each : found) {
+			each.kill();
+		}
+		assertFalse(Entity.getInstanceIterator(EntC.class).hasNext());
+	}
+
+	@Test
+	public void testSubclassOrder() {
+		ArrayList<Entity> ents = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			Entity ent = (i % 3 == 0) ? new EntB() : new EntA();
+			if (i % 4 == 0)
+				ent.setFlag(Entity.FLAG_GENERATED);
+			ents.add(ent);
+		}
+
+		// The subclass view merges the generated and persistent lists in order
+		int n = 0;
+		long last = -1;
+		for (EntA each : Entity.getClonesOfIterator(EntA.class)) {
+			assertTrue(each.getEntityNumber() > last);
+			last = each.getEntityNumber();
+			n++;
+		}
+		assertEquals(30, n);
+
+		n = 0;
+		for (EntB each : Entity.getInstanceIterator(EntB.class)) {
+			assertTrue(each instanceof EntB);
+			n++;
+		}
+		assertEquals(10, n);
+
+		// A list that is changed during iteration is not visited twice
+		n = 0;
+		for (EntA each : Entity.getClonesOfIterator(EntA.class)) {
+			each.kill();
+			n++;
+		}
+		assertEquals(30, n);
+		assertFalse(Entity.getClonesOfIterator(EntA.class).hasNext());
+	}
+
+	@Test
+	public void testGenerated() {
+		Entity pers = new EntC();
+		Entity gen = new EntC();
+		gen.setFlag(Entity.FLAG_GENERATED);
+
+		assertTrue(Entity.getGenerated().contains(gen));
+		assertFalse(Entity.getGenerated().contains(pers));
+		assertTrue(Entity.getLastEntity() == gen);
+
+		gen.clearFlag(Entity.FLAG_GENERATED);
+		assertFalse(Entity.getGenerated().contains(gen));
+
+		ArrayList<? extends Entity> all = Entity.getAll();
+		assertTrue(all.indexOf(pers) < all.indexOf(gen));
+
+		pers.kill();
+		gen.kill();
+	}
+
+	@Test
+	public void testAddAfterKill() {
+		Entity gen = new EntC();
+		gen.setFlag(Entity.FLAG_GENERATED);
+		Entity pers1 = new EntC();
+		Entity pers2 = new EntC();
+
+		// The entity is added to a list that ends with a killed entity
+		pers2.kill();
+		gen.clearFlag(Entity.FLAG_GENERATED);
+
+		long last = -1;
+		int n = 0;
+		for (EntC each : Entity.getInstanceIterator(EntC.class)) {
+			assertTrue(each.getEntityNumber() > last);
+			last = each.getEntityNumber();
+			n++;
+		}
+		assertEquals(2, n);
+
+		ArrayList<? extends Entity> all = Entity.getAll();
+		assertTrue(all.indexOf(gen) < all.indexOf(pers1));
+
+		gen.kill();
+		pers1.kill();
+	}
+}
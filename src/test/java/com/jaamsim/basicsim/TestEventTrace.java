@@ -0,0 +1,148 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.jaamsim.events.EventHandle;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTimeListener;
+import com.jaamsim.events.EventTraceListener;
+import com.jaamsim.events.ProcessTarget;
+
+public class TestEventTrace {
+
+	@Test
+	public void testRecordAndVerify() throws IOException {
+		File file = File.createTempFile("TestEventTrace", ".evt");
+		file.deleteOnExit();
+
+		EventRecorder rec = new EventRecorder(file.getPath());
+		runModel(rec, 10);
+		rec.close();
+		assertTrue(file.length() > 0);
+
+		EventTracer trc = new EventTracer(file.getPath());
+		runModel(trc, 10);
+		assertFalse(trc.hasFailed());
+		trc.close();
+
+		// A change to the event times is detected
+		trc = new EventTracer(file.getPath());
+		runModel(trc, 11);
+		assertTrue(trc.hasFailed());
+		trc.close();
+	}
+
+	@Test
+	public void testTruncatedTrace() throws IOException {
+		File file = File.createTempFile("TestEventTrace", ".evt");
+		file.deleteOnExit();
+
+		EventRecorder rec = new EventRecorder(file.getPath());
+		rec.close();
+
+		EventTracer trc = new EventTracer(file.getPath());
+		runModel(trc, 10);
+		assertTrue(trc.hasFailed());
+		trc.close();
+	}
+
+	@Test
+	public void testPartialRecord() throws IOException {
+		File file = File.createTempFile("TestEventTrace", ".evt");
+		file.deleteOnExit();
+
+		EventRecorder rec = new EventRecorder(file.getPath());
+		runModel(rec, 10);
+		rec.close();
+
+		// A trace that ends part way through a record is reported as a difference
+		long len = file.length();
+		for (long cut = len - 1; cut > len - 4; cut--) {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			raf.setLength(cut);
+			raf.close();
+
+			EventTracer trc = new EventTracer(file.getPath());
+			runModel(trc, 10);
+			assertTrue(trc.hasFailed());
+			trc.close();
+		}
+	}
+
+	private static void runModel(EventTraceListener trc, final long delay) {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setTraceListener(trc);
+
+		evt.scheduleProcessExternal(0, 0, false, new NamedTarget("Start") {
+			@Override
+			public void process() {
+				EventHandle handle = new EventHandle();
+				for (int i = 0; i < 5; i++) {
+					EventManager.scheduleTicks(delay * i, i, false, new NamedTarget("Target" + i), null);
+				}
+				EventManager.scheduleTicks(delay, 0, false, new NamedTarget("Killed"), handle);
+				EventManager.killEvent(handle);
+				EventManager.startProcess(new NamedTarget("Started"));
+				EventManager.waitTicks(delay, 0, false, null);
+			}
+		}, null);
+
+		final CountDownLatch done = new CountDownLatch(1);
+		evt.setTimeListener(new EventTimeListener() {
+			@Override
+			public void tickUpdate(long tick) {}
+
+			@Override
+			public void timeRunning(boolean running) {
+				if (!running)
+					done.countDown();
+			}
+		});
+		evt.resume(Long.MAX_VALUE);
+		try {
+			done.await();
+		}
+		catch (InterruptedException e) {}
+	}
+
+	private static class NamedTarget extends ProcessTarget {
+		private final String name;
+
+		NamedTarget(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getDescription() {
+			return name;
+		}
+
+		@Override
+		public void process() {}
+	}
+}
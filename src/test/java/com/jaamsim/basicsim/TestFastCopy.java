@@ -0,0 +1,101 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.input.ExpResult;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.math.Vec3d;
+import com.jaamsim.units.DimensionlessUnit;
+
+public class TestFastCopy {
+
+	/**
+	 * Checks that a copy refers to the input values of its prototype until a
+	 * new value is assigned to the copy.
+	 */
+	@Test
+	public void testSharedValues() {
+		DisplayEntity proto = InputAgent.defineEntityWithUniqueName(DisplayEntity.class, "Proto", "-", true);
+		DisplayEntity copy1 = null;
+		DisplayEntity copy2 = null;
+		try {
+			InputAgent.applyArgs(proto, "Description", "Prototype");
+			InputAgent.applyArgs(proto, "Alignment", "0.1", "0.2", "0.3");
+			copy1 = Entity.fastCopy(proto, "Copy1");
+			copy2 = Entity.fastCopy(proto, "Copy2");
+
+			assertTrue(copy1.getInput("Description").getValue() == proto.getInput("Description").getValue());
+			assertTrue(copy1.getInput("Alignment").getValue() == proto.getInput("Alignment").getValue());
+			assertTrue(copy1.getInput("Size").getValue() == copy2.getInput("Size").getValue());
+			assertTrue(copy1.getDisplayModelList() == proto.getDisplayModelList());
+
+			// Assigning a value to a copy does not affect the prototype or the other copies
+			InputAgent.applyArgs(copy1, "Alignment", "0.4", "0.5", "0.6");
+			assertTrue(copy1.getAlignment().equals3(new Vec3d(0.4d, 0.5d, 0.6d)));
+			assertTrue(proto.getAlignment().equals3(new Vec3d(0.1d, 0.2d, 0.3d)));
+			assertTrue(copy2.getAlignment().equals3(new Vec3d(0.1d, 0.2d, 0.3d)));
+		}
+		finally {
+			proto.kill();
+			if (copy1 != null)
+				copy1.kill();
+			if (copy2 != null)
+				copy2.kill();
+		}
+	}
+
+	/**
+	 * Checks that each copy receives its own attributes and tags on the first
+	 * assignment.
+	 */
+	@Test
+	public void testPrivateAttributes() {
+		DisplayEntity proto = InputAgent.defineEntityWithUniqueName(DisplayEntity.class, "Proto", "-", true);
+		DisplayEntity copy1 = null;
+		DisplayEntity copy2 = null;
+		try {
+			InputAgent.applyArgs(proto, "AttributeDefinitionList", "{", "A", "1", "}");
+			copy1 = Entity.fastCopy(proto, "Copy1");
+			copy2 = Entity.fastCopy(proto, "Copy2");
+			assertTrue(copy1.hasAttribute("A"));
+
+			copy1.setAttribute("A", ExpResult.makeNumResult(2.0d, DimensionlessUnit.class));
+			assertEquals(2.0d, copy1.getOutputHandle("A").getValueAsDouble(0.0d, 0.0d), 0.0d);
+			assertEquals(1.0d, copy2.getOutputHandle("A").getValueAsDouble(0.0d, 0.0d), 0.0d);
+			assertEquals(1.0d, proto.getOutputHandle("A").getValueAsDouble(0.0d, 0.0d), 0.0d);
+
+			copy1.setTagVisibility("Tag", false);
+			assertFalse(copy1.getTagSet().get("Tag").visible);
+			assertTrue(copy2.getTagSet().isEmpty());
+			assertTrue(proto.getTagSet().isEmpty());
+		}
+		finally {
+			proto.kill();
+			if (copy1 != null)
+				copy1.kill();
+			if (copy2 != null)
+				copy2.kill();
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.BasicObjects.ExpressionLogger;
+import com.jaamsim.ProbabilityDistributions.ExponentialDistribution;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.states.TestStateEntity;
+
+public class TestModelInitializer {
+
+	public static class InitEnt extends Entity {
+		final ArrayList<Entity> deps = new ArrayList<>();
+		boolean failValidate;
+		boolean serialOnly;
+		boolean failOnWorker;
+		int numEarlyInit;
+		Thread earlyInitThread;
+
+		@Override
+		public void validate() {
+			if (failValidate)
+				throw new ErrorException("invalid %s", getName());
+		}
+
+		@Override
+		public boolean isParallelInit() {
+			return !serialOnly;
+		}
+
+		@Override
+		public void earlyInit() {
+			numEarlyInit++;
+			earlyInitThread = Thread.currentThread();
+			if ((serialOnly || failOnWorker) && Thread.currentThread() != mainThread)
+				throw new ErrorException("earlyInit on a worker");
+		}
+
+		@Override
+		public ArrayList<? extends Entity> getLateInitDependencies() {
+			return deps;
+		}
+	}
+
+	static Thread mainThread;
+
+	private static ArrayList<InitEnt> createEntities(int num) {
+		mainThread = Thread.currentThread();
+		ArrayList<InitEnt> ret = new ArrayList<>(num);
+		for (int i = 0; i < num; i++) {
+			InitEnt ent = new InitEnt();
+			ent.setName("InitEnt" + i);
+			ret.add(ent);
+		}
+		return ret;
+	}
+
+	private static void kill(ArrayList<InitEnt> ents) {
+		for (InitEnt each : ents) {
+			each.kill();
+		}
+	}
+
+	@Test
+	public void testLateInitOrder() {
+		ArrayList<InitEnt> ents = createEntities(5);
+		ents.get(0).deps.add(ents.get(3));
+		ents.get(3).deps.add(ents.get(4));
+		ents.get(1).deps.add(ents.get(4));
+
+		ArrayList<Entity> order = ModelInitializer.getLateInitOrder(ents);
+		assertEquals(5, order.size());
+		assertTrue(order.get(0) == ents.get(2));
+		assertTrue(order.get(1) == ents.get(4));
+		assertTrue(order.get(2) == ents.get(1));
+		assertTrue(order.get(3) == ents.get(3));
+		assertTrue(order.get(4) == ents.get(0));
+
+		// Without dependencies the original order is kept
+		for (InitEnt each : ents) {
+			each.deps.clear();
+		}
+		order = ModelInitializer.getLateInitOrder(ents);
+		for (int i = 0; i < ents.size(); i++) {
+			assertTrue(order.get(i) == ents.get(i));
+		}
+		kill(ents);
+	}
+
+	@Test
+	public void testCircularDependency() {
+		ArrayList<InitEnt> ents = createEntities(3);
+		ents.get(0).deps.add(ents.get(1));
+		ents.get(1).deps.add(ents.get(2));
+		ents.get(2).deps.add(ents.get(0));
+		try {
+			ModelInitializer.getLateInitOrder(ents);
+			fail("circular dependency not detected");
+		}
+		catch (ErrorException e) {}
+		kill(ents);
+	}
+
+	@Test
+	public void testStateListenerOrder() {
+		// The logger precedes the entity it traces in the list of entities
+		ExpressionLogger logger = InputAgent.defineEntityWithUniqueName(ExpressionLogger.class, "Logger", "-", true);
+		TestStateEntity.TestEnt ent = InputAgent.defineEntityWithUniqueName(TestStateEntity.TestEnt.class, "Traced", "-", true);
+		InputAgent.applyArgs(logger, "StateTraceList", ent.getName());
+
+		ArrayList<Entity> ents = new ArrayList<>();
+		ents.add(logger);
+		ents.add(ent);
+		assertNull(ModelInitializer.lateInit(ents, true));
+
+		// The logger is added after the listeners for the previous run are removed
+		assertEquals(1, ent.getStateListeners().size());
+		assertTrue(ent.getStateListeners().get(0) == logger);
+
+		// Initialising the entities again does not add a second listener
+		assertNull(ModelInitializer.lateInit(ents, true));
+		assertEquals(1, ent.getStateListeners().size());
+		logger.kill();
+		ent.kill();
+	}
+
+	@Test
+	public void testParallelEarlyInit() {
+		ArrayList<InitEnt> ents = createEntities(1000);
+		for (int i = 0; i < ents.size(); i += 10) {
+			ents.get(i).serialOnly = true;
+			ents.get(i + 5).failOnWorker = true;
+		}
+
+		assertNull(ModelInitializer.validate(ents));
+		assertNull(ModelInitializer.earlyInit(ents));
+		for (InitEnt each : ents) {
+			if (each.serialOnly)
+				assertEquals(1, each.numEarlyInit);
+			if (each.serialOnly || each.failOnWorker)
+				assertTrue(each.earlyInitThread == mainThread);
+			else
+				assertEquals(1, each.numEarlyInit);
+		}
+		kill(ents);
+	}
+
+	@Test
+	public void testFirstFailureReported() {
+		ArrayList<InitEnt> ents = createEntities(1000);
+		ents.get(700).failValidate = true;
+		ents.get(300).failValidate = true;
+
+		ModelInitializer.Failure f = ModelInitializer.validate(ents);
+		assertTrue(f.ent == ents.get(300));
+		try {
+			f.rethrow();
+			fail("exception not re-thrown");
+		}
+		catch (ErrorException e) {
+			assertEquals("invalid InitEnt300", e.getMessage());
+		}
+
+		// The same failure is reported when the entities are validated in sequence
+		f = ModelInitializer.validate(new ArrayList<>(ents.subList(250, 350)));
+		assertTrue(f.ent == ents.get(300));
+		kill(ents);
+	}
+
+	static class InitAndSample extends ProcessTarget {
+		final ArrayList<Entity> ents;
+		final ExponentialDistribution dist;
+		final double[] samples;
+
+		InitAndSample(ArrayList<Entity> ents, ExponentialDistribution dist, int numSamples) {
+			this.ents = ents;
+			this.dist = dist;
+			samples = new double[numSamples];
+		}
+
+		@Override
+		public String getDescription() {
+			return "ModelInitializerUnitTest";
+		}
+
+		@Override
+		public void process() {
+			assertNull(ModelInitializer.validate(ents));
+			assertNull(ModelInitializer.earlyInit(ents));
+			for (int i = 0; i < samples.length; i++) {
+				samples[i] = dist.getNextSample(0.0d);
+			}
+		}
+	}
+
+	/**
+	 * Initialises a distribution whose mean is given by a second distribution
+	 * and returns the samples that follow.
+	 */
+	private static double[] sampleAfterInit(int numEnts) {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
+		InputAgent.applyArgs(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		ExponentialDistribution meanDist = InputAgent.defineEntityWithUniqueName(ExponentialDistribution.class, "MeanDist", "-", true);
+		InputAgent.applyArgs(meanDist, "UnitType", t.getName());
+		InputAgent.applyArgs(meanDist, "Mean", "10.0");
+		InputAgent.applyArgs(meanDist, "RandomSeed", "1");
+
+		ExponentialDistribution dist = InputAgent.defineEntityWithUniqueName(ExponentialDistribution.class, "Dist", "-", true);
+		InputAgent.applyArgs(dist, "UnitType", t.getName());
+		InputAgent.applyArgs(dist, "Mean", meanDist.getName());
+		InputAgent.applyArgs(dist, "RandomSeed", "2");
+
+		ArrayList<InitEnt> others = createEntities(numEnts);
+		ArrayList<Entity> ents = new ArrayList<>();
+		ents.add(meanDist);
+		ents.add(dist);
+		ents.addAll(others);
+
+		InitAndSample target = new InitAndSample(ents, dist, 100);
+		EventManager evt = new EventManager("ModelInitializerUnitTest");
+		evt.clear();
+		evt.scheduleProcessExternal(0, 0, false, target, null);
+		TestFrameworkHelpers.runEventsToTick(evt, Long.MAX_VALUE, 1000);
+
+		kill(others);
+		dist.kill();
+		meanDist.kill();
+		t.kill();
+		return target.samples;
+	}
+
+	@Test
+	public void testSampleStreams() {
+		// The random samples do not depend on whether the entities are initialised in parallel
+		double[] serial = sampleAfterInit(10);
+		double[] parallel = sampleAfterInit(1000);
+		assertArrayEquals(serial, parallel, 0.0d);
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestReplicationRunner {
+
+	private static final String[] MODEL = {
+		"Define ExponentialDistribution { ArrivalDist ServiceDist }",
+		"Define SimEntity { Proto }",
+		"Define EntityGenerator { Gen }",
+		"Define Queue { Que }",
+		"Define Server { Serv }",
+		"Define EntitySink { Sink }",
+		"Define ExpressionLogger { Log }",
+		"ArrivalDist UnitType { TimeUnit }",
+		"ArrivalDist Mean { 1 s }",
+		"ArrivalDist RandomSeed { 1 }",
+		"ServiceDist UnitType { TimeUnit }",
+		"ServiceDist Mean { 0.8 s }",
+		"ServiceDist RandomSeed { 2 }",
+		"Gen InterArrivalTime { ArrivalDist }",
+		"Gen PrototypeEntity { Proto }",
+		"Gen NextComponent { Que }",
+		"Serv WaitQueue { Que }",
+		"Serv ServiceTime { ServiceDist }",
+		"Serv NextComponent { Sink }",
+		"Serv TraceState { TRUE }",
+		"Log Interval { 10 s }",
+		"Log UnitTypeList { DimensionlessUnit DimensionlessUnit }",
+		"Log DataSource { { '[Simulation].RunNumber' } { '[Que].QueueLength' } }",
+		"Simulation RunDuration { 100 s }",
+		"Simulation RunIndexDefinitionList { 3 }",
+		"Simulation StartingRunNumber { 1 }",
+		"Simulation EndingRunNumber { 3 }",
+		"Simulation PrintReport { TRUE }",
+		"Simulation UnitTypeList { DimensionlessUnit DimensionlessUnit }",
+		"Simulation RunOutputList { { [Simulation].RunNumber } { [Sink].NumberAdded } }",
+	};
+
+	/**
+	 * Executes the model in a separate JVM with the given command line options and
+	 * returns the directory containing the configuration file and the outputs.
+	 */
+	private static File runModel(File dir, String... opts) throws IOException, InterruptedException {
+		dir.mkdirs();
+		Files.write(new File(dir, "model.cfg").toPath(), Arrays.asList(MODEL), StandardCharsets.UTF_8);
+
+		String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+		ArrayList<String> cmd = new ArrayList<>();
+		cmd.add(java);
+		cmd.add("-cp");
+		cmd.add(getClassPath());
+		cmd.add("com.jaamsim.ui.GUIFrame");
+		cmd.add("model.cfg");
+		cmd.addAll(Arrays.asList(opts));
+
+		ProcessBuilder pb = new ProcessBuilder(cmd);
+		pb.directory(dir);
+		pb.redirectErrorStream(true);
+		Process proc = pb.start();
+		InputStream in = proc.getInputStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[8192];
+		int len;
+		while ((len = in.read(buf)) != -1) {
+			out.write(buf, 0, len);
+		}
+		assertEquals(out.toString(), 0, proc.waitFor());
+		return dir;
+	}
+
+	// The class path for this JVM with absolute paths
+	private static String getClassPath() {
+		StringBuilder sb = new StringBuilder();
+		for (String each : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if (sb.length() > 0)
+				sb.append(File.pathSeparator);
+			sb.append(new File(each).getAbsolutePath());
+		}
+		return sb.toString();
+	}
+
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				delete(each);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Checks that the runs executed as parallel replications produce the same output
+	 * files as the runs executed in sequence.
+	 */
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		File tmp = Files.createTempDirectory("replications").toFile();
+		try {
+			File seq = runModel(new File(tmp, "seq"), "-b", "-h");
+			File par = runModel(new File(tmp, "par"), "-p", "3");
+
+			String[] seqFiles = seq.list();
+			String[] parFiles = par.list();
+			Arrays.sort(seqFiles);
+			Arrays.sort(parFiles);
+			assertArrayEquals(seqFiles, parFiles);
+			assertTrue(Arrays.asList(seqFiles).contains("model.dat"));
+			assertTrue(Arrays.asList(seqFiles).contains("model.rep"));
+			assertTrue(Arrays.asList(seqFiles).contains("model-Log.log"));
+			assertTrue(Arrays.asList(seqFiles).contains("model-Serv.trc"));
+
+			for (String name : seqFiles) {
+				String seqText = new String(Files.readAllBytes(new File(seq, name).toPath()), StandardCharsets.UTF_8);
+				String parText = new String(Files.readAllBytes(new File(par, name).toPath()), StandardCharsets.UTF_8);
+
+				// The report lists the path to the configuration file
+				if (name.endsWith(".rep"))
+					parText = parText.replace(par.getPath(), seq.getPath());
+				assertEquals(name, seqText, parText);
+			}
+		}
+		finally {
+			delete(tmp);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.rng.MRG1999a;
+
+public class TestStateDigest {
+
+	public static class StreamEnt extends Entity {
+		private final MRG1999a rng = new MRG1999a(1, 2);
+
+		void sample() {
+			rng.nextUniform();
+		}
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		StreamEnt ent1 = new StreamEnt();
+		ent1.setName("StreamEnt1");
+		StreamEnt ent2 = new StreamEnt();
+		ent2.setName("StreamEnt2");
+
+		StateDigest dgst = StateDigest.capture(3, 12345L, 1e-6d);
+		File file = File.createTempFile("test", ".digest");
+		try {
+			dgst.write(file.getPath());
+			StateDigest read = StateDigest.read(file);
+			assertEquals(3, read.getRunNumber());
+			assertEquals(12345L, read.getTick());
+			assertEquals(1e-6d, read.getTickLength(), 0.0d);
+			assertEquals(dgst.getNumEntities(), read.getNumEntities());
+			assertTrue(read.getDifferences(dgst).isEmpty());
+		}
+		finally {
+			file.delete();
+			ent1.kill();
+			ent2.kill();
+		}
+	}
+
+	@Test
+	public void testDifferences() {
+		StreamEnt ent1 = new StreamEnt();
+		ent1.setName("StreamEnt1");
+		StreamEnt ent2 = new StreamEnt();
+		ent2.setName("StreamEnt2");
+		StateDigest dgst = StateDigest.capture(1, 0L, 1e-6d);
+
+		// Advancing a random number stream changes the state of its entity
+		ent1.sample();
+		ArrayList<String> diffs = dgst.getDifferences(StateDigest.capture(1, 0L, 1e-6d));
+		assertEquals(1, diffs.size());
+		assertTrue(diffs.get(0).contains("StreamEnt1"));
+
+		ent2.kill();
+		diffs = dgst.getDifferences(StateDigest.capture(1, 0L, 1e-6d));
+		assertEquals(2, diffs.size());
+		assertTrue(diffs.get(1).contains("StreamEnt2"));
+		ent1.kill();
+	}
+}
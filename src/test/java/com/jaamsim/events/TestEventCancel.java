@@ -0,0 +1,108 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Measures the cost of cancelling events through their EventHandles when many
+ * events share the same time and priority.
+ */
+public class TestEventCancel {
+
+	private static final int[] NODE_SIZES = { 1000, 10000, 100000 };
+
+	@Test
+	public void testKillLastScheduled() {
+		System.out.println("killEvent - reverse order of scheduling");
+		for (int size : NODE_SIZES) {
+			outputResults(size, timeKill(size, false));
+		}
+		System.out.println();
+	}
+
+	@Test
+	public void testKillRandomOrder() {
+		System.out.println("killEvent - random order");
+		for (int size : NODE_SIZES) {
+			outputResults(size, timeKill(size, true));
+		}
+		System.out.println();
+	}
+
+	private long timeKill(final int size, final boolean shuffle) {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+
+		final long[] nanos = new long[1];
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "KillLoop"; }
+
+			@Override
+			public void process() {
+				EventHandle[] handles = new EventHandle[size];
+				ProcessTarget targ = new TestTarget();
+				for (int i = 0; i < size; i++) {
+					handles[i] = new EventHandle();
+					EventManager.scheduleTicks(10, 0, true, targ, handles[i]);
+				}
+
+				// Kill the most recently scheduled FIFO event first, which is the
+				// worst case for a singly linked list of events
+				int[] order = new int[size];
+				for (int i = 0; i < size; i++) {
+					order[i] = size - 1 - i;
+				}
+				if (shuffle) {
+					Random rng = new Random(1);
+					for (int i = size - 1; i > 0; i--) {
+						int j = rng.nextInt(i + 1);
+						int tmp = order[i];
+						order[i] = order[j];
+						order[j] = tmp;
+					}
+				}
+
+				long startNanos = System.nanoTime();
+				for (int i = 0; i < size; i++) {
+					EventManager.killEvent(handles[order[i]]);
+				}
+				nanos[0] = System.nanoTime() - startNanos;
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, Long.MAX_VALUE);
+		return nanos[0];
+	}
+
+	private final void outputResults(int size, long nanos) {
+		System.out.format("%7d events - %12d ns (%f ns/kill)%n", size, nanos, nanos / (double)size);
+	}
+
+	private static class TestTarget extends ProcessTarget {
+		@Override
+		public String getDescription() {
+			return "CancelTarget";
+		}
+
+		@Override
+		public void process() {}
+	}
+}
@@ -171,8 +171,15 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleLIFO() {
+		for (EventManager.EventListType type : EventManager.EventListType.values()) {
+			checkScheduleLIFO(type);
+		}
+	}
+
+	private void checkScheduleLIFO(EventManager.EventListType type) {
 		EventManager evt = new EventManager("testScheduleLIFOEVT");
 		evt.clear();
+		evt.setEventListType(type);
 
 		ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, false, new LogTarget(0, log), null);
@@ -201,8 +208,15 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleFIFO() {
+		for (EventManager.EventListType type : EventManager.EventListType.values()) {
+			checkScheduleFIFO(type);
+		}
+	}
+
+	private void checkScheduleFIFO(EventManager.EventListType type) {
 		EventManager evt = new EventManager("testScheduleFIFOEVT");
 		evt.clear();
+		evt.setEventListType(type);
 
 		ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, true, new LogTarget(0, log), null);
@@ -231,8 +245,15 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleMixed() {
+		for (EventManager.EventListType type : EventManager.EventListType.values()) {
+			checkScheduleMixed(type);
+		}
+	}
+
+	private void checkScheduleMixed(EventManager.EventListType type) {
 		EventManager evt = new EventManager("testScheduleMixedEVT");
 		evt.clear();
+		evt.setEventListType(type);
 
 		ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, false, new LogTarget(0, log), null);
@@ -283,8 +304,15 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleWait() {
+		for (EventManager.EventListType type : EventManager.EventListType.values()) {
+			checkScheduleWait(type);
+		}
+	}
+
+	private void checkScheduleWait(EventManager.EventListType type) {
 		EventManager evt = new EventManager("testScheduleWaitEVT");
 		evt.clear();
+		evt.setEventListType(type);
 
 		final ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
@@ -337,6 +365,453 @@ public class TestEventManager {
 		}
 	}
 
+	/**
+	 * Start processes from a running target and test that stackless targets are
+	 * executed in the same order whether or not they are handed off to a new Process.
+	 */
+	@Test
+	public void testStacklessStartProcess() {
+		ArrayList<String> threaded = runStartProcessLog(false);
+		ArrayList<String> stackless = runStartProcessLog(true);
+
+		ArrayList<String> expected = new ArrayList<>();
+		expected.add("Start:0");
+		expected.add("Target:1");
+		expected.add("Start:0");
+		expected.add("Target:2");
+		expected.add("Start:1");
+
+		assertTrue(expected.equals(threaded));
+		assertTrue(expected.equals(stackless));
+	}
+
+	private ArrayList<String> runStartProcessLog(boolean stacklessExec) {
+		EventManager evt = new EventManager("testStacklessStartProcessEVT");
+		evt.clear();
+		evt.setStacklessExecution(stacklessExec);
+
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				log.add("Start:" + EventManager.simTicks());
+				EventManager.startProcess(new StacklessLogTarget(1, log));
+				log.add("Start:" + EventManager.simTicks());
+				EventManager.waitTicks(1, 0, false, null);
+				EventManager.startProcess(new StacklessLogTarget(2, log));
+				log.add("Start:" + EventManager.simTicks());
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+		return log;
+	}
+
+	/**
+	 * Test that a stackless target is not permitted to wait.
+	 */
+	@Test
+	public void testStacklessWait() {
+		EventManager evt = new EventManager("testStacklessWaitEVT");
+		evt.clear();
+
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				EventManager.startProcess(new ProcessTarget() {
+					@Override
+					public String getDescription() { return ""; }
+
+					@Override
+					public boolean isStackless() { return true; }
+
+					@Override
+					public void process() {
+						try {
+							EventManager.waitTicks(1, 0, false, null);
+							log.add("Waited");
+						}
+						catch (ProcessError e) {
+							log.add("ProcessError");
+						}
+					}
+				});
+				EventManager.waitTicks(1, 0, false, null);
+				log.add("Done:" + EventManager.simTicks());
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+
+		assertTrue(log.size() == 2);
+		assertTrue(log.get(0).equals("ProcessError"));
+		assertTrue(log.get(1).equals("Done:1"));
+	}
+
+	/**
+	 * Kill events at the head, middle and tail of a node and test that the
+	 * remaining and newly scheduled events keep their order.
+	 */
+	@Test
+	public void testKillEventOrder() {
+		EventManager evt = new EventManager("testKillEventOrderEVT");
+		evt.clear();
+
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				EventHandle[] handles = new EventHandle[5];
+				for (int i = 0; i < 5; i++) {
+					handles[i] = new EventHandle();
+					EventManager.scheduleTicks(1, 0, true, new LogTarget(i, log), handles[i]);
+				}
+				EventManager.killEvent(handles[0]);
+				EventManager.killEvent(handles[2]);
+				EventManager.killEvent(handles[4]);
+				EventManager.scheduleTicks(1, 0, true, new LogTarget(5, log), null);
+				EventManager.scheduleTicks(1, 0, false, new LogTarget(6, log), null);
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+
+		ArrayList<String> expected = new ArrayList<>();
+		expected.add("Target:6");
+		expected.add("Target:1");
+		expected.add("Target:3");
+		expected.add("Target:5");
+
+		assertTrue(expected.size() == log.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTrue(expected.get(i).equals(log.get(i)));
+		}
+	}
+
+	/**
+	 * Test the counters and per-target execution times collected by the profiler.
+	 */
+	@Test
+	public void testProfiler() {
+		EventManager evt = new EventManager("testProfilerEVT");
+		evt.clear();
+		EventProfiler prof = new EventProfiler();
+		evt.setProfiler(prof);
+
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "Start"; }
+
+			@Override
+			public void process() {
+				EventHandle[] handles = new EventHandle[5];
+				for (int i = 0; i < 5; i++) {
+					handles[i] = new EventHandle();
+					EventManager.scheduleTicks(1, 0, true, new LogTarget(i, log), handles[i]);
+				}
+				EventManager.killEvent(handles[0]);
+				EventManager.interruptEvent(handles[2]);
+				EventManager.waitTicks(2, 0, false, null);
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+
+		assertTrue(prof.getEventsScheduled() == 7);
+		assertTrue(prof.getEventsKilled() == 1);
+		assertTrue(prof.getEventsInterrupted() == 1);
+		assertTrue(prof.getEventsExecuted() == 5);
+		assertTrue(prof.getProcessHandoffs() > 0);
+
+		// The events are grouped by the class of their target. The interrupted
+		// target is executed as part of the event that interrupted it.
+		long count = 0;
+		boolean found = false;
+		for (EventProfiler.TargetProfile each : prof.getTargetProfiles()) {
+			count += each.getCount();
+			if (each.getDescription().equals("TestEventManager$LogTarget")) {
+				assertTrue(each.getCount() == 3);
+				found = true;
+			}
+		}
+		assertTrue(found);
+		assertTrue(count == 5);
+		assertTrue(EventProfiler.getPoolHighWaterMark() > 0);
+	}
+
+	/**
+	 * Inject events before the model is resumed and test that they are scheduled
+	 * in the same order as events scheduled directly.
+	 */
+	@Test
+	public void testInjectOrder() {
+		EventManager evt = new EventManager("testInjectOrderEVT");
+		evt.clear();
+
+		ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(1, 0, true, new LogTarget(0, log), null);
+		evt.injectProcessExternal(1, 0, true, new LogTarget(1, log));
+		evt.injectProcessExternal(1, 0, false, new LogTarget(2, log));
+		evt.injectProcessExternal(1, -1, true, new LogTarget(3, log));
+		evt.injectProcessExternal(0, 0, true, new LogTarget(4, log));
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+
+		ArrayList<String> expected = new ArrayList<>();
+		expected.add("Target:4");
+		expected.add("Target:3");
+		expected.add("Target:2");
+		expected.add("Target:0");
+		expected.add("Target:1");
+
+		assertTrue(expected.size() == log.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTrue(expected.get(i).equals(log.get(i)));
+		}
+	}
+
+	/**
+	 * Inject an event from another thread while the model is waiting in real-time
+	 * mode and test that it is executed at the present wall-clock time instead of
+	 * at the next scheduled event.
+	 */
+	@Test
+	public void testInjectRealTime() {
+		final EventManager evt = new EventManager("testInjectRealTimeEVT");
+		evt.clear();
+		evt.setExecuteRealTime(true, 1.0d);
+
+		final ArrayList<String> log = new ArrayList<>();
+		final long[] injectTick = new long[1];
+		evt.scheduleProcessExternal(evt.secondsToNearestTick(2.0d), 0, false, new LogTarget(0, log), null);
+
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				try { Thread.sleep(100); } catch (InterruptedException e) {}
+				evt.injectProcessExternal(0, 0, false, new ProcessTarget() {
+					@Override
+					public String getDescription() { return ""; }
+
+					@Override
+					public void process() {
+						injectTick[0] = EventManager.simTicks();
+						log.add("Injected");
+						EventManager.current().pause();
+					}
+				});
+			}
+		};
+		producer.start();
+
+		TestFrameworkHelpers.runEventsToTick(evt, Long.MAX_VALUE, 5000);
+
+		assertTrue(log.size() == 1);
+		assertTrue(log.get(0).equals("Injected"));
+		assertTrue(injectTick[0] >= evt.secondsToNearestTick(0.05d));
+		assertTrue(injectTick[0] < evt.secondsToNearestTick(1.0d));
+	}
+
+	/**
+	 * Inject a pause while the model is running and test that the model pauses
+	 * between events. A pause that is still waiting when the model pauses for
+	 * another reason is discarded when the model is resumed.
+	 */
+	@Test
+	public void testInjectPause() {
+		final EventManager evt = new EventManager("testInjectPauseEVT");
+		evt.clear();
+
+		final ArrayList<String> log = new ArrayList<>();
+		for (int i = 1; i <= 6; i++) {
+			evt.scheduleProcessExternal(i, 0, true, new LogTarget(i, log), null);
+		}
+		evt.scheduleProcessExternal(2, 0, true, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				evt.injectPause();
+			}
+		}, null);
+		evt.scheduleProcessExternal(4, 0, true, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				evt.injectPause();
+				EventManager.current().pause();
+			}
+		}, null);
+
+		// The injected pause stops the model before the next event
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+		assertTrue(log.size() == 2);
+		assertTrue(log.get(1).equals("Target:2"));
+
+		// The model pauses itself at tick 4
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+		assertTrue(log.size() == 4);
+		assertTrue(log.get(3).equals("Target:4"));
+
+		// The pause injected at tick 4 is discarded
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+		assertTrue(log.size() == 6);
+		assertTrue(log.get(5).equals("Target:6"));
+	}
+
+	/**
+	 * Test that a conditional that declares its dependencies is only evaluated
+	 * after one of its signals has been triggered.
+	 */
+	@Test
+	public void testTrackedConditional() {
+		EventManager evt = new EventManager("testTrackedConditionalEVT");
+		evt.clear();
+
+		final ChangeSignal sig = new ChangeSignal();
+		final int[] value = new int[1];
+		final TestConditional tracked = new TestConditional(value, 2, sig);
+		final TestConditional untracked = new TestConditional(value, 2, null);
+
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				EventManager.scheduleUntil(new LogTarget(1, log), tracked, null);
+				EventManager.scheduleUntil(new LogTarget(2, log), untracked, null);
+				for (int i = 1; i <= 6; i++) {
+					EventManager.waitTicks(1, 0, false, null);
+					if (i % 2 == 0) {
+						value[0]++;
+						sig.changed();
+					}
+					log.add("Tick:" + EventManager.simTicks());
+				}
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+
+		ArrayList<String> expected = new ArrayList<>();
+		expected.add("Tick:1");
+		expected.add("Tick:2");
+		expected.add("Tick:3");
+		expected.add("Tick:4");
+		expected.add("Target:1");
+		expected.add("Target:2");
+		expected.add("Tick:5");
+		expected.add("Tick:6");
+
+		assertTrue(expected.size() == log.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTrue(expected.get(i).equals(log.get(i)));
+		}
+
+		// Evaluated at ticks 0, 2 and 4 versus every tick from 0 to 4
+		assertTrue(tracked.numEvals == 3);
+		assertTrue(untracked.numEvals == 5);
+	}
+
+	/**
+	 * Test that tracked and untracked conditionals satisfied at the same time are
+	 * executed in the same order as when all of them are evaluated on each advance.
+	 */
+	@Test
+	public void testTrackedConditionalOrder() {
+		ArrayList<String> allUntracked = runConditionalOrder(false);
+		ArrayList<String> mixed = runConditionalOrder(true);
+
+		assertTrue(allUntracked.size() == 6);
+		assertTrue(allUntracked.size() == mixed.size());
+		for (int i = 0; i < allUntracked.size(); i++) {
+			assertTrue(allUntracked.get(i).equals(mixed.get(i)));
+		}
+	}
+
+	private ArrayList<String> runConditionalOrder(final boolean track) {
+		EventManager evt = new EventManager("testTrackedConditionalOrderEVT");
+		evt.clear();
+
+		final ChangeSignal sig = new ChangeSignal();
+		final int[] value = new int[1];
+		final EventHandle killHandle = new EventHandle();
+		final ArrayList<String> log = new ArrayList<>();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < 6; i++) {
+					ChangeSignal dep = (track && i % 2 == 0) ? sig : null;
+					EventManager.scheduleUntil(new LogTarget(i, log), new TestConditional(value, 1, dep), null);
+				}
+				EventManager.scheduleUntil(new LogTarget(6, log), new TestConditional(value, 1, track ? sig : null), killHandle);
+
+				EventManager.waitTicks(2, 0, false, null);
+				EventManager.killEvent(killHandle);
+				value[0]++;
+				sig.changed();
+				EventManager.waitTicks(1, 0, false, null);
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+		return log;
+	}
+
+	private static class TestConditional extends Conditional {
+		final int[] value;
+		final int threshold;
+		final ChangeSignal[] deps;
+		int numEvals = 0;
+
+		TestConditional(int[] v, int t, ChangeSignal sig) {
+			value = v;
+			threshold = t;
+			deps = (sig == null) ? null : new ChangeSignal[] { sig };
+		}
+
+		@Override
+		public boolean evaluate() {
+			numEvals++;
+			return value[0] >= threshold;
+		}
+
+		@Override
+		public ChangeSignal[] getDependencies() {
+			return deps;
+		}
+	}
+
+	private static class StacklessLogTarget extends LogTarget {
+		StacklessLogTarget(int i, ArrayList<String> l) {
+			super(i, l);
+		}
+
+		@Override
+		public boolean isStackless() {
+			return true;
+		}
+	}
+
 	private static class LogTarget extends ProcessTarget {
 		final ArrayList<String> log;
 		final int num;
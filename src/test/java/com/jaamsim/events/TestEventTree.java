@@ -18,12 +18,61 @@ package com.jaamsim.events;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 public class TestEventTree {
 @Test
 public void testRBTree() {
-	EventTree tree = new EventTree();
+	checkEventList(new EventTree());
+}
+
+@Test
+public void testCalendarQueue() {
+	checkEventList(new CalendarQueue());
+}
+
+/**
+ * Schedule and remove nodes in a random sequence and test that each EventList
+ * implementation returns the nodes in the same order.
+ */
+@Test
+public void testRandomOrder() {
+	EventList tree = new EventTree();
+	EventList cal = new CalendarQueue();
+	Random rand = new Random(1234);
+
+	long curTick = 0;
+	for (int i = 0; i < 200000; ++i) {
+		// Grow the lists for the first half and then drain them
+		if (i < 100000 || rand.nextInt(4) == 0) {
+			long tick = curTick + (long)(rand.nextDouble() * rand.nextDouble() * 1000000);
+			int prio = rand.nextInt(5);
+			tree.createOrFindNode(tick, prio);
+			cal.createOrFindNode(tick, prio);
+			continue;
+		}
+
+		EventNode treeNode = tree.getNextNode();
+		EventNode calNode = cal.getNextNode();
+		if (treeNode == null) {
+			assertTrue(calNode == null);
+			continue;
+		}
+		assertTrue(treeNode.schedTick == calNode.schedTick);
+		assertTrue(treeNode.priority == calNode.priority);
+
+		curTick = treeNode.schedTick;
+		assertTrue(tree.removeNode(treeNode.schedTick, treeNode.priority));
+		assertTrue(cal.removeNode(calNode.schedTick, calNode.priority));
+	}
+	tree.verify();
+	cal.verify();
+	assertTrue(tree.verifyNodeCount() == cal.verifyNodeCount());
+}
+
+private void checkEventList(EventList tree) {
 
 	for (int i = 0; i < 10000; ++i) {
 		tree.createOrFindNode(i, 0);
@@ -43,7 +92,7 @@ public void testRBTree() {
 		assertTrue(nodeCount == 10000 - i - 1);
 	}
 
-	tree = new EventTree();
+	tree.reset();
 	for (int i = 10000; i > 0; --i) {
 		tree.createOrFindNode(i, 0);
 		tree.verify();
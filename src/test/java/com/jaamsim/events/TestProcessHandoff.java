@@ -0,0 +1,137 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import org.junit.Test;
+
+/**
+ * Throughput comparison of the pooled Process hand-off and the inline
+ * execution of stackless targets.
+ */
+public class TestProcessHandoff {
+
+	private static final int NUM_EVENTS = 100000;
+
+	@Test
+	public void testStartProcess() {
+		long threaded = timeStartProcess(false);
+		long stackless = timeStartProcess(true);
+		outputResults("startProcess", threaded, stackless);
+	}
+
+	@Test
+	public void testInterruptEvent() {
+		long threaded = timeInterruptEvent(false);
+		long stackless = timeInterruptEvent(true);
+		outputResults("interruptEvent", threaded, stackless);
+	}
+
+	@Test
+	public void testWaitTicks() {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "WaitLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.waitTicks(1, 0, false, null);
+				}
+			}
+		}, null);
+
+		long startNanos = System.nanoTime();
+		TestFrameworkHelpers.runEventsToTick(evt, Long.MAX_VALUE, Long.MAX_VALUE);
+		long nanos = System.nanoTime() - startNanos;
+
+		System.out.println("waitTicks");
+		System.out.format("Process   - %12d ns (%f ns/evt)%n%n", nanos, nanos / (double)NUM_EVENTS);
+	}
+
+	private long timeStartProcess(boolean stacklessExec) {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setStacklessExecution(stacklessExec);
+
+		final ProcessTarget targ = new TestTarget();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "StartLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.startProcess(targ);
+				}
+			}
+		}, null);
+
+		long startNanos = System.nanoTime();
+		TestFrameworkHelpers.runEventsToTick(evt, 100, Long.MAX_VALUE);
+		return System.nanoTime() - startNanos;
+	}
+
+	private long timeInterruptEvent(boolean stacklessExec) {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setStacklessExecution(stacklessExec);
+
+		final ProcessTarget targ = new TestTarget();
+		final EventHandle handle = new EventHandle();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "InterruptLoop"; }
+
+			@Override
+			public void process() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.scheduleTicks(10, 0, false, targ, handle);
+					EventManager.interruptEvent(handle);
+				}
+			}
+		}, null);
+
+		long startNanos = System.nanoTime();
+		TestFrameworkHelpers.runEventsToTick(evt, 100, Long.MAX_VALUE);
+		return System.nanoTime() - startNanos;
+	}
+
+	private final void outputResults(String test, long threadedNanos, long stacklessNanos) {
+		System.out.println(test);
+		System.out.format("Process   - %12d ns (%f ns/evt)%n", threadedNanos, threadedNanos / (double)NUM_EVENTS);
+		System.out.format("Stackless - %12d ns (%f ns/evt)%n", stacklessNanos, stacklessNanos / (double)NUM_EVENTS);
+		System.out.format("Speedup   - %f%n%n", threadedNanos / (double)stacklessNanos);
+	}
+
+	private static class TestTarget extends ProcessTarget {
+		@Override
+		public String getDescription() {
+			return "StacklessTarget";
+		}
+
+		@Override
+		public boolean isStackless() {
+			return true;
+		}
+
+		@Override
+		public void process() {}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import org.junit.Test;
+
+/**
+ * Measures the wall-clock accuracy of real-time execution and the latency of
+ * events injected from an external thread.
+ */
+public class TestRealTimePacing {
+
+	private static final int NUM_EVENTS = 100;
+	private static final long INTERVAL_NANOS = 7000000L; // 7ms
+
+	@Test
+	public void testPacing() {
+		final EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setExecuteRealTime(true, 1.0d);
+
+		final long[] lateness = new long[NUM_EVENTS];
+		final long interval = evt.secondsToNearestTick(INTERVAL_NANOS / 1.0e9d);
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "PacingLoop"; }
+
+			@Override
+			public void process() {
+				// Measure from the first wake-up so that the time taken to create
+				// the Process threads is excluded
+				EventManager.waitTicks(interval, 0, false, null);
+				long startNanos = System.nanoTime();
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					EventManager.waitTicks(interval, 0, false, null);
+					lateness[i] = System.nanoTime() - startNanos - (i + 1) * INTERVAL_NANOS;
+				}
+			}
+		}, null);
+
+		TestFrameworkHelpers.runEventsToTick(evt, Long.MAX_VALUE, 60000);
+		outputResults("Real-time pacing (lateness)", lateness);
+	}
+
+	@Test
+	public void testInjectLatency() {
+		final EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setExecuteRealTime(true, 1.0d);
+
+		final long[] latency = new long[NUM_EVENTS];
+		final int[] count = new int[1];
+
+		// A distant event keeps the model waiting in real time
+		evt.scheduleProcessExternal(evt.secondsToNearestTick(60.0d), 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "End"; }
+
+			@Override
+			public void process() {}
+		}, null);
+
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < NUM_EVENTS; i++) {
+					try { Thread.sleep(INTERVAL_NANOS / 1000000L); } catch (InterruptedException e) {}
+					final int idx = i;
+					final long injectNanos = System.nanoTime();
+					evt.injectProcessExternal(0, 0, true, new ProcessTarget() {
+						@Override
+						public String getDescription() { return "Injected"; }
+
+						@Override
+						public void process() {
+							latency[idx] = System.nanoTime() - injectNanos;
+							count[0]++;
+							if (count[0] == NUM_EVENTS)
+								EventManager.current().pause();
+						}
+					});
+				}
+			}
+		};
+		producer.start();
+
+		TestFrameworkHelpers.runEventsToTick(evt, Long.MAX_VALUE, 60000);
+		outputResults("Injected event latency", latency);
+	}
+
+	private final void outputResults(String test, long[] nanos) {
+		long sum = 0;
+		long max = 0;
+		for (long each : nanos) {
+			sum += each;
+			max = Math.max(max, each);
+		}
+		System.out.println(test);
+		System.out.format("Mean - %12d ns%n", sum / nanos.length);
+		System.out.format("Max  - %12d ns%n%n", max);
+	}
+}
@@ -112,6 +112,30 @@ public class TestSchedEvent {
 		outputResults("Different Time Events", nanoStamps, endSchedNanos, endExecNanos);
 	}
 
+	@Test
+	public void testTimeEventsCalendar() {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.setEventListType(EventManager.EventListType.CALENDAR_QUEUE);
+
+		ProcessTarget targ = new TestTarget(1);
+		long[] nanoStamps = new long[11];
+		for (int i = 0; i <= 1000000; i++) {
+			if (i % 100000 == 0) {
+				int idx = i / 100000;
+				nanoStamps[idx] = System.nanoTime();
+			}
+			evt.scheduleProcessExternal(i, 0, false, targ, null);
+		}
+		long endSchedNanos = System.nanoTime();
+
+		TestFrameworkHelpers.runEventsToTick(evt, 10000000, Long.MAX_VALUE);
+
+		long endExecNanos = System.nanoTime();
+
+		outputResults("Different Time Events (Calendar Queue)", nanoStamps, endSchedNanos, endExecNanos);
+	}
+
 	private final void outputResults(String test, long[] nanoStamps, long endSchedNanos, long endExecNanos) {
 		long execNanos = endExecNanos - endSchedNanos;
 		double perEvtExec = execNanos / 1000000.0d;
@@ -0,0 +1,138 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestConfigReader {
+
+	private File dir;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("TestConfigReader").toFile();
+	}
+
+	@After
+	public void teardown() {
+		ConfigReader.clear();
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				each.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	private URI write(String name, String contents) throws IOException {
+		File file = new File(dir, name);
+		Files.write(file.toPath(), contents.getBytes(Charset.defaultCharset()));
+		return file.toURI();
+	}
+
+	private static ArrayList<ConfigReader.Record> read(URI uri) throws IOException {
+		ArrayList<ConfigReader.Record> ret = new ArrayList<>();
+		ConfigReader reader = ConfigReader.open(uri, null);
+		for (ConfigReader.Record rec = reader.next(); rec != null; rec = reader.next()) {
+			ret.add(rec);
+		}
+		return ret;
+	}
+
+	private static void recordMatch(ConfigReader.Record rec, String err, String... expected) {
+		assertTrue(err == null ? rec.error == null : err.equals(rec.error));
+		assertTrue(rec.tokens.size() == expected.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertTrue(rec.tokens.get(i).equals(expected[i]));
+		}
+	}
+
+	@Test
+	public void testRecords() throws IOException {
+		URI uri = write("test.cfg",
+				"Define Queue { Q1 'Q 2' }\r\n" +
+				"\" A comment line\n" +
+				"\n" +
+				"Q1 Position { 1 2 0 m }  \" trailing comment\r" +
+				"Q1 Description { 'Multiple\tword description' }\n" +
+				"Q1 AttributeDefinitionList {\n" +
+				"\t{ A 1 }\n" +
+				"\t{ B 2 } }\n" +
+				"Q1 Description{'Unterminated\n" +
+				"Q1 Size { 1 1 0 m }");
+
+		ArrayList<ConfigReader.Record> recs = read(uri);
+		assertTrue(recs.size() == 5);
+		recordMatch(recs.get(0), null, "Define", "Queue", "{", "Q1", "Q 2", "}");
+		recordMatch(recs.get(1), null, "Q1", "Position", "{", "1", "2", "0", "m", "}");
+		recordMatch(recs.get(2), null, "Q1", "Description", "{", "Multiple\tword description", "}");
+		recordMatch(recs.get(3), null, "Q1", "AttributeDefinitionList", "{", "{", "A", "1", "}", "{", "B", "2", "}", "}");
+		recordMatch(recs.get(4), "Leftover input at end of file", "Q1", "Description", "{", "Unterminated",
+				"Q1", "Size", "{", "1", "1", "0", "m", "}");
+	}
+
+	@Test
+	public void testMatchesParser() throws IOException {
+		String line = "OBJECT KEYWORD{ 'ARG  '}KEYWORD\t{ARG' ARG',}  \" comment";
+		URI uri = write("test.cfg", line);
+
+		ArrayList<String> expected = new ArrayList<>();
+		Parser.tokenize(expected, line, true);
+
+		ArrayList<ConfigReader.Record> recs = read(uri);
+		assertTrue(recs.size() == 1);
+		assertTrue(recs.get(0).tokens.equals(expected));
+	}
+
+	@Test
+	public void testBraceErrors() throws IOException {
+		URI uri = write("test.cfg",
+				"Q1 Position { 1 2 0 m } }\n" +
+				"Q1 A { { { { 1 } } } }\n");
+
+		ArrayList<ConfigReader.Record> recs = read(uri);
+		recordMatch(recs.get(0), "Extra closing braces found", "Q1", "Position", "{", "1", "2", "0", "m", "}", "}");
+	}
+
+	@Test
+	public void testInclude() throws IOException {
+		write("part.cfg", "Q2 Position { 3 4 0 m }\n");
+		URI uri = write("main.cfg", "Include part.cfg\nQ1 Position { 1 2 0 m }\n");
+
+		ArrayList<ConfigReader.Record> recs = read(uri);
+		assertTrue(recs.size() == 2);
+		recordMatch(recs.get(0), null, "Include", "part.cfg");
+
+		// The included file may have been read in advance by the thread pool
+		URI part = uri.resolve("part.cfg");
+		ArrayList<ConfigReader.Record> partRecs = read(part);
+		assertTrue(partRecs.size() == 1);
+		recordMatch(partRecs.get(0), null, "Q2", "Position", "{", "3", "4", "0", "m", "}");
+	}
+}
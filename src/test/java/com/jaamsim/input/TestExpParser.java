@@ -20,11 +20,19 @@ package com.jaamsim.input;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.input.ExpParser.EvalContext;
 import com.jaamsim.input.ExpParser.OutputResolver;
 import com.jaamsim.input.ExpParser.UnitData;
@@ -35,8 +43,34 @@ import com.jaamsim.units.SpeedUnit;
 import com.jaamsim.units.TimeUnit;
 import com.jaamsim.units.Unit;
 
+/**
+ * Tests the expression parser with and without compiling the expressions, so that
+ * the compiled and interpreted versions are both checked.
+ */
+@RunWith(Parameterized.class)
 public class TestExpParser {
 
+	@Parameters(name = "compile={0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { true }, { false } });
+	}
+
+	private final boolean compile;
+
+	public TestExpParser(boolean compile) {
+		this.compile = compile;
+	}
+
+	@Before
+	public void setupCompile() {
+		ExpParser.setCompileExpressions(compile);
+	}
+
+	@After
+	public void restoreCompile() {
+		ExpParser.setCompileExpressions(true);
+	}
+
 	private static class DummyResolver implements ExpParser.OutputResolver {
 
 		private final String name;
@@ -109,6 +143,8 @@ public class TestExpParser {
 	static int[] intArray = { 1, 2, 3, 42 };
 
 	static String[] stringArray = { "foo", "bar" };
+	static DoubleVector doubleVector = new DoubleVector();
+	static ArrayList<Double> doubleList = new ArrayList<>();
 
 	{
 		map0.put(1.0, 1.0);
@@ -124,6 +160,16 @@ public class TestExpParser {
 
 		entMap.put(dummyEnt, dummyEnt);
 
+		doubleVector.clear();
+		doubleVector.add(5.0);
+		doubleVector.add(-2.0);
+		doubleVector.add(9.0);
+		doubleVector.add(0.0);
+
+		doubleList.clear();
+		doubleList.add(3.0);
+		doubleList.add(7.0);
+
 	}
 
 	static PC pc = new PC();
@@ -425,6 +471,21 @@ public class TestExpParser {
 				if (name.equals("stringArray")) {
 					return ExpCollections.getCollection(stringArray, DimensionlessUnit.class);
 				}
+				if (name.equals("doubleVector")) {
+					return ExpCollections.getCollection(doubleVector, DimensionlessUnit.class);
+				}
+				if (name.equals("doubleList")) {
+					return ExpCollections.getCollection(doubleList, DistanceUnit.class);
+				}
+				if (name.equals("emptyList")) {
+					return ExpCollections.getCollection(new ArrayList<Double>(), DimensionlessUnit.class);
+				}
+				if (name.equals("emptyDistances")) {
+					return ExpCollections.getCollection(new ArrayList<Double>(), DistanceUnit.class);
+				}
+				if (name.equals("emptyDistanceMap")) {
+					return ExpCollections.getCollection(new HashMap<String, Double>(), DistanceUnit.class);
+				}
 			}
 
 			return ExpResult.makeNumResult(1, DimensionlessUnit.class);
@@ -533,6 +594,124 @@ public class TestExpParser {
 
 	}
 
+	@Test
+	public void testOutputReferences() throws ExpError {
+		VariableTestPC vtpc = new VariableTestPC();
+		ArrayList<Entity> ents = new ArrayList<>();
+		ArrayList<String> names = new ArrayList<>();
+
+		ExpParser.Expression exp = ExpParser.parseExpression(vtpc, "[Maps].map0(1) + [Arrays].doubleArray(4)");
+		assertTrue(exp.getOutputReferences(ents, names));
+		assertTrue(ents.size() == 2 && names.size() == 2);
+		assertTrue(ents.get(0) == mapEnt && names.get(0).equals("map0"));
+		assertTrue(ents.get(1) == arrayEnt && names.get(1).equals("doubleArray"));
+
+		// An output of an entity returned by another output is not known in advance
+		ents.clear();
+		names.clear();
+		exp = ExpParser.parseExpression(vtpc, "[Arrays].entArray(1).foo");
+		assertTrue(!exp.getOutputReferences(ents, names));
+
+		ents.clear();
+		names.clear();
+		exp = ExpParser.parseExpression(vtpc, "2*5 + 3");
+		assertTrue(exp.getOutputReferences(ents, names));
+		assertTrue(ents.isEmpty());
+	}
+
+	@Test
+	public void testAggregates() throws ExpError {
+		VariableTestPC vtpc = new VariableTestPC();
+
+		ExpResult res = ExpParser.parseExpression(vtpc, "sum([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 12.0);
+
+		res = ExpParser.parseExpression(vtpc, "average([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 3.0);
+
+		res = ExpParser.parseExpression(vtpc, "count([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 4.0);
+
+		res = ExpParser.parseExpression(vtpc, "max([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 9.0);
+
+		res = ExpParser.parseExpression(vtpc, "min([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == -2.0);
+
+		res = ExpParser.parseExpression(vtpc, "indexOfMax([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 3.0);
+
+		res = ExpParser.parseExpression(vtpc, "indexOfMin([Arrays].doubleVector)").evaluate(ec);
+		assertTrue(res.value == 2.0);
+
+		res = ExpParser.parseExpression(vtpc, "sum([Arrays].intArray)").evaluate(ec);
+		assertTrue(res.value == 48.0);
+
+		res = ExpParser.parseExpression(vtpc, "count([Arrays].entArray)").evaluate(ec);
+		assertTrue(res.value == 1.0);
+
+		// Unit types are preserved
+		res = ExpParser.parseExpression(vtpc, "sum([Arrays].doubleList)").evaluate(ec);
+		assertTrue(res.unitType == DistanceUnit.class);
+		assertTrue(res.value == 10.0);
+
+		res = ExpParser.parseExpression(vtpc, "sum([Maps].distances)").evaluate(ec);
+		assertTrue(res.unitType == DistanceUnit.class);
+		assertTrue(res.value == 42005.0);
+
+		res = ExpParser.parseExpression(vtpc, "indexOfMin([Maps].distances)").evaluate(ec);
+		assertTrue(res.type == ExpResType.STRING);
+		assertTrue(res.stringVal.equals("near"));
+
+		// Empty collections
+		res = ExpParser.parseExpression(vtpc, "sum([Arrays].emptyList)").evaluate(ec);
+		assertTrue(res.value == 0.0);
+
+		res = ExpParser.parseExpression(vtpc, "count([Arrays].emptyList)").evaluate(ec);
+		assertTrue(res.value == 0.0);
+
+		boolean threw = false;
+		try {
+			ExpParser.parseExpression(vtpc, "average([Arrays].emptyList)").evaluate(ec);
+		}
+		catch (ExpError ex) {
+			threw = true;
+		}
+		assertTrue(threw);
+
+		// The sum of an empty collection has the collection's unit type
+		res = ExpParser.parseExpression(vtpc, "sum([Arrays].emptyDistances)").evaluate(ec);
+		assertTrue(res.value == 0.0);
+		assertTrue(res.unitType == DistanceUnit.class);
+
+		res = ExpParser.parseExpression(vtpc, "sum([Arrays].emptyDistanceMap)").evaluate(ec);
+		assertTrue(res.value == 0.0);
+		assertTrue(res.unitType == DistanceUnit.class);
+
+		threw = false;
+		try {
+			ExpParser.parseExpression(vtpc, "maxCol([Arrays].emptyDistances)").evaluate(ec);
+		}
+		catch (ExpError ex) {
+			threw = true;
+		}
+		assertTrue(threw);
+
+		// Non-numeric values
+		threw = false;
+		try {
+			ExpParser.parseExpression(vtpc, "sum([Arrays].stringArray)").evaluate(ec);
+		}
+		catch (ExpError ex) {
+			threw = true;
+		}
+		assertTrue(threw);
+
+		// The multiple argument forms are unchanged
+		res = ExpParser.parseExpression(vtpc, "max(1, 4, 2) + indexOfMax(1, 4, 2)").evaluate(ec);
+		assertTrue(res.value == 6.0);
+	}
+
 	@Test
 	public void testString() throws ExpError {
 		ExpParser.Expression exp = ExpParser.parseExpression(pc, "[[stringly]]");
@@ -701,4 +880,41 @@ public class TestExpParser {
 		assertTrue(assign.value.evaluate(ec).value == 42);
 
 	}
+
+	private static void testCompiled(String expString, double expected) throws ExpError {
+		ExpParser.Expression exp = ExpParser.parseExpression(pc, expString);
+		assertTrue(exp.isCompiled() == ExpParser.isCompileExpressions());
+		assertTrue(exp.evaluate(ec).value == expected);
+	}
+
+	@Test
+	public void testCompiledExpressions() throws ExpError {
+		testCompiled("[foo].foo*[bar].bar + 2*[foo].foo", 20);
+		testCompiled("-[foo].foo + 10/[bar].bar^2 % 1", -4 + (10/9.0d) % 1);
+		testCompiled("[foo].foo > [bar].bar && [bar].bar != 0", 1);
+		testCompiled("!([foo].foo <= [bar].bar) || [foo].foo == 0", 1);
+		testCompiled("max([foo].foo, 6, [bar].bar) + min(2, [foo].foo)", 8);
+		testCompiled("indexOfMax([bar].bar, [foo].foo, 1) + indexOfMin([foo].foo, 7, -[bar].bar)", 5);
+		testCompiled("choose([bar].bar, 10, 20, [foo].foo)", 4);
+		testCompiled("[foo].foo > 3 ? sqrt([foo].foo) : [bar].bar", 2);
+		testCompiled("abs(-[foo].foo) + floor([bar].bar/2) + ceil([bar].bar/2)", 7);
+		testCompiled("exp(ln([foo].foo)) + log(10^[bar].bar)", Math.exp(Math.log(4)) + 3);
+		testCompiled("atan2([foo].foo, [bar].bar) + signum(-[foo].foo)", Math.atan2(4, 3) - 1);
+
+		// A constant expression is not compiled
+		ExpParser.Expression exp = ExpParser.parseExpression(pc, "1 + 2");
+		assertTrue(!exp.isCompiled());
+
+		// Errors are reported in the same way as the interpreter
+		exp = ExpParser.parseExpression(pc, "choose([foo].foo, 1, 2)");
+		boolean threw = false;
+		try {
+			exp.evaluate(ec);
+		}
+		catch (ExpError e) {
+			threw = true;
+			assertTrue(e.getMessage().contains("Invalid index: 4. Index must be between 1 and 2."));
+		}
+		assertTrue(threw);
+	}
 }
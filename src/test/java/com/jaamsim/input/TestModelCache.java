@@ -0,0 +1,204 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.basicsim.Entity;
+
+public class TestModelCache {
+
+	private File dir;
+	private File cacheFile;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("TestModelCache").toFile();
+		cacheFile = ModelCache.getCacheFile(new File(dir, "main.cfg"));
+	}
+
+	@After
+	public void teardown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				each.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	private URI write(String name, String contents) throws IOException {
+		File file = new File(dir, name);
+		Files.write(file.toPath(), contents.getBytes(Charset.defaultCharset()));
+		return file.toURI();
+	}
+
+	private static ArrayList<String> record(String... tokens) {
+		return new ArrayList<>(Arrays.asList(tokens));
+	}
+
+	private void save(URI main, URI part) throws IOException {
+		ModelCache cache = new ModelCache();
+		cache.beginFile(main, "");
+		cache.addRecord(record("Include", "part.cfg"));
+		cache.beginFile(part, null);
+		cache.addRecord(record("Q2", "Position", "{", "3", "4", "0", "m", "}"));
+		cache.endFile();
+		cache.addRecord(record("Q1", "Position", "{", "1", "2", "0", "m", "}"));
+		cache.endFile();
+		cache.save(cacheFile);
+	}
+
+	private static ArrayList<ModelCache.Record> replay(File cacheFile, URI cfg) throws IOException {
+		ModelCache cache = ModelCache.open(cacheFile, cfg);
+		assertTrue(cache != null);
+		try {
+			return cache.readRecords();
+		}
+		finally {
+			cache.close();
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		URI part = write("part.cfg", "Q2 Position { 3 4 0 m }\n");
+		URI main = write("main.cfg", "Include part.cfg\nQ1 Position { 1 2 0 m }\n");
+		assertTrue(cacheFile.getName().equals("main.cache"));
+		save(main, part);
+
+		ArrayList<ModelCache.Record> recs = replay(cacheFile, main);
+		assertTrue(recs.size() == 3);
+		assertTrue(recs.get(0).tokens.equals(record("Include", "part.cfg")));
+		assertTrue(recs.get(0).context.context.equals(main));
+		assertTrue(recs.get(0).context.jail.equals(""));
+		assertTrue(recs.get(1).tokens.equals(record("Q2", "Position", "{", "3", "4", "0", "m", "}")));
+		assertTrue(recs.get(1).context.context.equals(part));
+		assertTrue(recs.get(1).context.jail == null);
+		assertTrue(recs.get(2).tokens.equals(record("Q1", "Position", "{", "1", "2", "0", "m", "}")));
+		assertTrue(recs.get(2).context.context.equals(main));
+	}
+
+	@Test
+	public void testInvalid() throws IOException {
+		URI part = write("part.cfg", "Q2 Position { 3 4 0 m }\n");
+		URI main = write("main.cfg", "Include part.cfg\nQ1 Position { 1 2 0 m }\n");
+
+		// No cache file
+		assertTrue(ModelCache.open(cacheFile, main) == null);
+
+		// Cache written for a different configuration file
+		save(main, part);
+		assertTrue(ModelCache.open(cacheFile, part) == null);
+
+		// Included file has been changed
+		write("part.cfg", "Q2 Position { 3 5 0 m }\n");
+		assertTrue(ModelCache.open(cacheFile, main) == null);
+
+		// Included file has been deleted
+		new File(dir, "part.cfg").delete();
+		assertTrue(ModelCache.open(cacheFile, main) == null);
+
+		// Not a cache file
+		write("main.cache", "Q1 Position { 1 2 0 m }\n");
+		assertTrue(ModelCache.open(cacheFile, main) == null);
+	}
+
+	@Test
+	public void testDamaged() throws IOException {
+		URI part = write("part.cfg", "Q2 Position { 3 4 0 m }\n");
+		URI main = write("main.cfg", "Include part.cfg\nQ1 Position { 1 2 0 m }\n");
+		save(main, part);
+
+		// The header is intact, but the records are incomplete
+		RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+		raf.setLength(raf.length() - 3);
+		raf.close();
+
+		ModelCache cache = ModelCache.open(cacheFile, main);
+		assertTrue(cache != null);
+		boolean thrown = false;
+		try {
+			cache.readRecords();
+		}
+		catch (IOException e) {
+			thrown = true;
+		}
+		finally {
+			cache.close();
+		}
+		assertTrue(thrown);
+	}
+
+	/**
+	 * Checks that the configuration file is read when the cache cannot be replayed,
+	 * and that the cache is then written again.
+	 */
+	@Test
+	public void testFallback() throws IOException, URISyntaxException {
+		write("part.cfg", "CacheTestEnt Description { 'From the part file' }\n");
+		write("main.cfg", "CacheTestEnt Description { 'From the main file' }\nInclude part.cfg\n");
+		File cfg = new File(dir, "main.cfg");
+
+		DisplayEntity ent = InputAgent.defineEntityWithUniqueName(DisplayEntity.class, "CacheTestEnt", "-", true);
+		try {
+			// First load writes the cache
+			load(cfg, ent);
+			ModelCache cache = ModelCache.open(cacheFile, cfg.toURI());
+			assertTrue(cache != null);
+			cache.close();
+			long length = cacheFile.length();
+
+			// Damaged cache is replaced after the configuration file is read
+			RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw");
+			raf.setLength(length - 3);
+			raf.close();
+			load(cfg, ent);
+			assertTrue(cacheFile.length() == length);
+
+			// Third load replays the cache
+			load(cfg, ent);
+		}
+		finally {
+			ent.kill();
+		}
+	}
+
+	private static void load(File cfg, Entity ent) throws URISyntaxException {
+		InputAgent.applyArgs(ent, "Description", "None");
+		int errors = InputAgent.numErrors();
+		InputAgent.readCachedStream(cfg);
+		assertTrue(InputAgent.numErrors() == errors);
+		assertTrue(ent.getDescription().equals("From the part file"));
+	}
+}
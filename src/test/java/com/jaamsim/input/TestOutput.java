@@ -16,14 +16,17 @@
  */
 package com.jaamsim.input;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 import org.junit.Test;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.ErrorException;
 
 public class TestOutput {
 
@@ -63,4 +66,78 @@ public class TestOutput {
 		}
 	}
 
+	public static class TypesEnt extends Entity {
+		@Output(name = "DoubleOut")
+		public double getDoubleOut(double simTime) {
+			return simTime * 2.0d;
+		}
+
+		@Output(name = "IntOut")
+		public int getIntOut(double simTime) {
+			return 7;
+		}
+
+		@Output(name = "BooleanOut")
+		public boolean getBooleanOut(double simTime) {
+			return simTime > 1.0d;
+		}
+
+		@Output(name = "BoxedOut")
+		public Double getBoxedOut(double simTime) {
+			return null;
+		}
+
+		@Output(name = "FailOut")
+		public double getFailOut(double simTime) {
+			throw new IllegalStateException("FailOut");
+		}
+	}
+
+	@Test
+	public void testValueAsDouble() {
+		TypesEnt ent = new TypesEnt();
+		try {
+			assertEquals(5.0d, ent.getOutputHandle("DoubleOut").getValueAsDouble(2.5d, -1.0d), 0.0d);
+			assertEquals(7.0d, ent.getOutputHandle("IntOut").getValueAsDouble(0.0d, -1.0d), 0.0d);
+			assertEquals(1.0d, ent.getOutputHandle("BooleanOut").getValueAsDouble(2.0d, -1.0d), 0.0d);
+			assertEquals(0.0d, ent.getOutputHandle("BooleanOut").getValueAsDouble(0.0d, -1.0d), 0.0d);
+			assertEquals(-1.0d, ent.getOutputHandle("BoxedOut").getValueAsDouble(0.0d, -1.0d), 0.0d);
+
+			assertEquals(Double.valueOf(5.0d), ent.getOutputHandle("DoubleOut").getValue(2.5d, double.class));
+			assertEquals(Integer.valueOf(7), ent.getOutputHandle("IntOut").getValue(0.0d, int.class));
+			assertEquals(Boolean.TRUE, ent.getOutputHandle("BooleanOut").getValue(2.0d, boolean.class));
+		}
+		finally {
+			ent.kill();
+		}
+	}
+
+	@Test
+	public void testException() {
+		TypesEnt ent = new TypesEnt();
+		try {
+			// An exception thrown by an output method is wrapped as it is by Method.invoke
+			int n = 0;
+			try {
+				ent.getOutputHandle("FailOut").getValueAsDouble(0.0d, -1.0d);
+			}
+			catch (ErrorException e) {
+				assertTrue(e.getCause() instanceof InvocationTargetException);
+				assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+				n++;
+			}
+			try {
+				ent.getOutputHandle("FailOut").getValue(0.0d, double.class);
+			}
+			catch (ErrorException e) {
+				assertTrue(e.getCause() instanceof InvocationTargetException);
+				assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+				n++;
+			}
+			assertEquals(2, n);
+		}
+		finally {
+			ent.kill();
+		}
+	}
 }
@@ -0,0 +1,202 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.ProcessFlow.EntitySink;
+import com.jaamsim.ProcessFlow.Resource;
+import com.jaamsim.basicsim.Entity;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.events.TestFrameworkHelpers;
+
+public class TestOutputCache {
+
+	public static class CountEnt extends Entity {
+		int numCalls;
+
+		@Output(name = "NumCalls")
+		public int getNumCalls(double simTime) {
+			numCalls++;
+			return numCalls;
+		}
+	}
+
+	@After
+	public void disableCache() {
+		OutputCache.setEnabled(false);
+	}
+
+	/**
+	 * Evaluates the NumCalls output three times at tick 0, three times after the
+	 * model state is changed, and three times at tick 1. Returns the values that
+	 * were received.
+	 */
+	private static int[] readOutput(final CountEnt ent) {
+		final int[] ret = new int[9];
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "ReadOutput"; }
+
+			@Override
+			public void process() {
+				OutputHandle oh = ent.getOutputHandle("NumCalls");
+				for (int i = 0; i < 3; i++)
+					ret[i] = oh.getValue(0.0d, int.class);
+
+				ent.outputsChanged();
+				for (int i = 3; i < 6; i++)
+					ret[i] = oh.getValue(0.0d, int.class);
+
+				EventManager.waitTicks(1, 0, false, null);
+				for (int i = 6; i < 9; i++)
+					ret[i] = oh.getValue(1.0d, int.class);
+			}
+		}, null);
+		TestFrameworkHelpers.runEventsToTick(evt, 10, 1000);
+		return ret;
+	}
+
+	@Test
+	public void testCachedValues() {
+		OutputCache.setEnabled(true);
+		CountEnt ent = new CountEnt();
+		try {
+			int[] vals = readOutput(ent);
+			int[] expected = { 1, 1, 1, 2, 2, 2, 3, 3, 3 };
+			for (int i = 0; i < vals.length; i++)
+				assertEquals(expected[i], vals[i]);
+			assertEquals(6, OutputCache.getHits());
+			assertEquals(3, OutputCache.getMisses());
+
+			// Values requested outside the model's threads are not cached
+			OutputHandle oh = ent.getOutputHandle("NumCalls");
+			assertEquals(4, oh.getValue(1.0d, int.class).intValue());
+			assertEquals(5, oh.getValue(1.0d, int.class).intValue());
+		}
+		finally {
+			ent.kill();
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		OutputCache.setEnabled(false);
+		CountEnt ent = new CountEnt();
+		try {
+			int[] vals = readOutput(ent);
+			for (int i = 0; i < vals.length; i++)
+				assertEquals(i + 1, vals[i]);
+			assertEquals(0, OutputCache.getHits());
+			assertEquals(0, OutputCache.getMisses());
+		}
+		finally {
+			ent.kill();
+		}
+	}
+
+	@Test
+	public void testStateChangeInEvent() {
+		OutputCache.setEnabled(true);
+		final EntitySink sink = InputAgent.defineEntityWithUniqueName(EntitySink.class, "Sink", "-", true);
+		final Resource res = InputAgent.defineEntityWithUniqueName(Resource.class, "Res", "-", true);
+		InputAgent.applyArgs(res, "Capacity", "2");
+		final int[] vals = new int[4];
+		try {
+			EventManager evt = new EventManager("TestEVT");
+			evt.clear();
+			evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+				@Override
+				public String getDescription() { return "ReadOutputs"; }
+
+				@Override
+				public void process() {
+					sink.earlyInit();
+					res.earlyInit();
+					OutputHandle added = sink.getOutputHandle("NumberAdded");
+					OutputHandle inUse = res.getOutputHandle("UnitsInUse");
+
+					// Each output is read before and after the state is changed within the event
+					vals[0] = added.getValue(0.0d, long.class).intValue();
+					sink.addEntity(new DisplayEntity());
+					vals[1] = added.getValue(0.0d, long.class).intValue();
+
+					vals[2] = inUse.getValue(0.0d, int.class);
+					res.seize(2);
+					vals[3] = inUse.getValue(0.0d, int.class);
+				}
+			}, null);
+			TestFrameworkHelpers.runEventsToTick(evt, 10, 1000);
+
+			assertEquals(0, vals[0]);
+			assertEquals(1, vals[1]);
+			assertEquals(0, vals[2]);
+			assertEquals(2, vals[3]);
+		}
+		finally {
+			sink.kill();
+			res.kill();
+		}
+	}
+
+	@Test
+	public void testStaleEntriesRemoved() {
+		OutputCache.setEnabled(true);
+		final int num = 1000;
+		final ArrayList<CountEnt> ents = new ArrayList<>();
+		try {
+			EventManager evt = new EventManager("TestEVT");
+			evt.clear();
+			evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+				@Override
+				public String getDescription() { return "ReadOutputs"; }
+
+				@Override
+				public void process() {
+					// Each tick reads the outputs of a new set of entities
+					for (int t = 0; t < 5; t++) {
+						for (int i = 0; i < num; i++) {
+							CountEnt ent = new CountEnt();
+							ents.add(ent);
+							ent.getOutputHandle("NumCalls").getValue(t, int.class);
+						}
+						EventManager.waitTicks(1, 0, false, null);
+					}
+				}
+			}, null);
+			TestFrameworkHelpers.runEventsToTick(evt, 10, 5000);
+
+			assertEquals(5 * num, ents.size());
+			assertEquals(5 * num, OutputCache.getMisses());
+			assertTrue(OutputCache.getSize() <= 2 * num);
+		}
+		finally {
+			for (CountEnt ent : ents)
+				ent.kill();
+		}
+	}
+}
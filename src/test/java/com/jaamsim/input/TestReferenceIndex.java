@@ -0,0 +1,86 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.jaamsim.basicsim.Entity;
+
+public class TestReferenceIndex {
+
+	public static class RefEntity extends Entity {
+		private final EntityInput<Entity> target;
+		private final EntityListInput<Entity> targetList;
+		private final ExpressionInput value;
+
+		public RefEntity() {
+			target = new EntityInput<>(Entity.class, "Target", "Key Inputs", null);
+			this.addInput(target);
+
+			targetList = new EntityListInput<>(Entity.class, "TargetList", "Key Inputs", new ArrayList<Entity>());
+			this.addInput(targetList);
+
+			value = new ExpressionInput("Value", "Key Inputs", null);
+			value.setEntity(this);
+			this.addInput(value);
+		}
+	}
+
+	private static RefEntity define(String name) {
+		return InputAgent.defineEntityWithUniqueName(RefEntity.class, name, "_", false);
+	}
+
+	@Test
+	public void testReferences() {
+		RefEntity a = define("TestReferenceIndexA");
+		RefEntity b = define("TestReferenceIndexB");
+		RefEntity c = define("TestReferenceIndexC");
+		RefEntity d = define("TestReferenceIndexD");
+
+		InputAgent.applyArgs(b, "Target", a.getName());
+		InputAgent.applyArgs(c, "TargetList", a.getName(), b.getName());
+		InputAgent.applyArgs(d, "Value", "[" + b.getName() + "].SimTime");
+		assertEquals(Arrays.asList(b, c), ReferenceIndex.getReferences(a));
+		assertEquals(Arrays.asList(c, d), ReferenceIndex.getReferences(b));
+		assertTrue(ReferenceIndex.getReferences(c).isEmpty());
+
+		// A replaced reference is no longer reported
+		InputAgent.applyArgs(b, "Target", c.getName());
+		assertEquals(Arrays.asList(c), ReferenceIndex.getReferences(a));
+		assertEquals(Arrays.asList(b), ReferenceIndex.getReferences(c));
+
+		// Killing an entity removes it from the inputs that refer to it
+		a.kill();
+		assertEquals(Arrays.asList(b), c.targetList.getValue());
+		assertTrue(ReferenceIndex.getReferences(a).isEmpty());
+
+		// Killing an entity removes its own references from the index
+		c.kill();
+		assertEquals(Arrays.asList(d), ReferenceIndex.getReferences(b));
+		b.kill();
+		assertTrue(b.getName() == null);
+		assertTrue(ReferenceIndex.getReferences(b).isEmpty());
+
+		d.kill();
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jaamsim.Samples.MappedTimeSeriesData;
+import com.jaamsim.Samples.TimeSeriesData;
+import com.jaamsim.basicsim.Simulation;
+
+public class TestTimeSeriesFileInput {
+
+	private File dir;
+
+	@Before
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("TestTimeSeriesFileInput").toFile();
+	}
+
+	@After
+	public void teardown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				each.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	private File write(String name, String contents) throws IOException {
+		File file = new File(dir, name);
+		Files.write(file.toPath(), contents.getBytes(Charset.defaultCharset()));
+		return file;
+	}
+
+	private static TimeSeriesData parse(File file) {
+		TimeSeriesFileInput in = new TimeSeriesFileInput("DataFile", "Key Inputs", null);
+		ArrayList<String> args = new ArrayList<>();
+		args.add(file.getAbsolutePath());
+		in.parse(new KeywordIndex("DataFile", args, null));
+		return in.getValue();
+	}
+
+	private static long ticks(double secs) {
+		return Math.round(secs / Simulation.getTickLength());
+	}
+
+	@Test
+	public void testCSV() throws IOException {
+		File csv = write("data.csv",
+				"Time, Value\n" +
+				"2010-01-01 00:00:00, 1.5\n" +
+				"\n" +
+				"2010-01-01 01:00:00, 2.5\n" +
+				"2010-01-01 03:00:00, 0.5\n");
+
+		TimeSeriesData data = parse(csv);
+		assertTrue(new File(dir, "data.csv.tsd").isFile());
+		assertTrue(data.size() == 3);
+		assertTrue(data.getTicks(0) == 0);
+		assertTrue(data.getTicks(1) == ticks(3600.0d));
+		assertTrue(data.getTicks(2) == ticks(3.0d * 3600.0d));
+		assertTrue(data.getValue(0) == 1.5d);
+		assertTrue(data.getValue(2) == 0.5d);
+		assertTrue(data.getMinValue() == 0.5d);
+		assertTrue(data.getMaxValue() == 2.5d);
+
+		assertTrue(data.findTicks(ticks(3600.0d)) == 1);
+		assertTrue(data.findTicks(ticks(7200.0d)) == -3);
+
+		// The converted file is replaced when the CSV file is changed
+		TimeSeriesData oldData = data;
+		write("data.csv", "2010-01-01 00:00:00, 4.0\n");
+		new File(dir, "data.csv").setLastModified(csv.lastModified() + 2000);
+		data = parse(csv);
+		assertTrue(data.size() == 1);
+		assertTrue(data.getValue(0) == 4.0d);
+
+		// The previous file is still readable and no temporary files are left
+		assertTrue(oldData.size() == 3);
+		assertTrue(oldData.getValue(2) == 0.5d);
+		assertTrue(dir.list().length == 2);
+	}
+
+	@Test
+	public void testBinary() throws IOException {
+		File file = new File(dir, "data.tsd");
+		long[] times = new long[1000];
+		MappedTimeSeriesData.Writer out = new MappedTimeSeriesData.Writer(file, "", null);
+		for (int i = 0; i < times.length; i++) {
+			times[i] = i * 10000000L;
+			out.add(times[i], i * 0.5d);
+		}
+		out.close();
+
+		TimeSeriesData data = parse(file);
+		assertTrue(data.size() == times.length);
+		assertTrue(data.getMaxValue() == 499.5d);
+		for (long t = -1; t < 1000 * 10000L; t += 3333) {
+			long us = t * 1000L;
+			assertTrue(data.findTicks(ticks(us / 1.0e6d)) == Arrays.binarySearch(times, us));
+		}
+	}
+
+	@Test
+	public void testErrors() throws IOException {
+		File csv = write("bad.csv",
+				"2010-01-01 00:00:00, 1.5\n" +
+				"2010-01-01 02:00:00, 2.5\n" +
+				"2010-01-01 01:00:00, 0.5\n");
+		try {
+			parse(csv);
+			assertTrue(false);
+		}
+		catch (InputErrorException e) {
+			assertTrue(e.getMessage().contains("Line 3"));
+		}
+		assertTrue(!new File(dir, "bad.csv.tsd").exists());
+
+		write("bad.tsd", "Not a time series");
+		try {
+			parse(new File(dir, "bad.tsd"));
+			assertTrue(false);
+		}
+		catch (InputErrorException e) {}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.states;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.basicsim.Entity;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.events.TestFrameworkHelpers;
+
+public class TestStateEntity {
+
+	public static class TestEnt extends StateEntity {
+		@Override
+		public boolean isValidState(String state) {
+			return true;
+		}
+	}
+
+	public static class TestListener extends Entity implements StateEntityListener {
+		StateEntity watched;
+		final ArrayList<StateHandle> changes = new ArrayList<>();
+
+		@Override
+		public boolean isWatching(StateEntity ent) {
+			return ent == watched;
+		}
+
+		@Override
+		public void lateInit() {
+			super.lateInit();
+			watched.addStateListener(this);
+		}
+
+		@Override
+		public void updateForStateChange(StateEntity ent, StateHandle prev, StateHandle next) {
+			assertSame(watched, ent);
+			assertSame(ent.getState().handle, next);
+			changes.add(prev);
+			changes.add(next);
+		}
+	}
+
+	private static void runInModel(final Runnable r) {
+		EventManager evt = new EventManager("TestEVT");
+		evt.clear();
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return "TestStateEntity"; }
+
+			@Override
+			public void process() {
+				r.run();
+			}
+		}, null);
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+	}
+
+	@Test
+	public void testStateRecords() {
+		final TestEnt ent = new TestEnt();
+		final StateRecord[] recs = new StateRecord[4];
+		try {
+			runInModel(new Runnable() {
+				@Override
+				public void run() {
+					ent.earlyInit();
+					ent.lateInit();
+					recs[0] = ent.getState();
+					ent.setPresentState("TestBlocked");
+					recs[1] = ent.getState();
+					EventManager.waitTicks(5, 0, false, null);
+					ent.setPresentState(StateEntity.STATE_WORKING);
+					recs[2] = ent.getState();
+					EventManager.waitTicks(3, 0, false, null);
+					ent.setPresentState(StateEntity.STATE_IDLE);
+					recs[3] = ent.getState();
+				}
+			});
+
+			// Records are found by name and by handle
+			assertSame(StateEntity.STATE_IDLE, recs[0].handle);
+			assertSame(recs[0], ent.getState("Idle"));
+			assertSame(recs[0], ent.getState(StateEntity.STATE_IDLE));
+			assertSame(recs[0], recs[3]);
+			assertSame(recs[1], ent.getState("TestBlocked"));
+			assertSame(recs[1], ent.getState(StateHandle.get("TestBlocked")));
+			assertSame(recs[2], ent.getState("Working"));
+			assertNull(ent.getState("TestNeverUsed"));
+
+			assertEquals(5, recs[1].totalTicks);
+			assertEquals(3, recs[2].totalTicks);
+			assertEquals(3, ent.getStateRecs().size());
+		}
+		finally {
+			ent.kill();
+		}
+	}
+
+	@Test
+	public void testListener() {
+		final TestEnt ent = new TestEnt();
+		final TestListener listener = new TestListener();
+		listener.watched = ent;
+		try {
+			runInModel(new Runnable() {
+				@Override
+				public void run() {
+					ent.earlyInit();
+					ent.lateInit();
+					listener.lateInit();
+					listener.lateInit();
+					ent.setPresentState(StateEntity.STATE_WORKING);
+
+					// Setting the present state again is not a state change
+					ent.setPresentState("Working");
+					ent.setPresentState("TestBlocked");
+				}
+			});
+
+			// The listener is added once
+			assertEquals(1, ent.getStateListeners().size());
+			assertSame(listener, ent.getStateListeners().get(0));
+			assertEquals(4, listener.changes.size());
+			assertSame(StateEntity.STATE_IDLE, listener.changes.get(0));
+			assertSame(StateEntity.STATE_WORKING, listener.changes.get(1));
+			assertSame(StateEntity.STATE_WORKING, listener.changes.get(2));
+			assertSame(StateHandle.get("TestBlocked"), listener.changes.get(3));
+		}
+		finally {
+			listener.kill();
+			ent.kill();
+		}
+	}
+
+	@Test
+	public void testClearHandles() {
+		StateHandle a = StateHandle.get("TestClearA");
+		assertSame(a, StateHandle.get("TestClearA"));
+		assertTrue(a.index < StateHandle.size());
+
+		StateHandle.clear();
+
+		// Handles for the present model are discarded and their indices re-used
+		assertNull(StateHandle.find("TestClearA"));
+		StateHandle b = StateHandle.get("TestClearB");
+		assertTrue(b.index <= a.index);
+
+		// Handles held in static fields are kept
+		assertSame(StateEntity.STATE_IDLE, StateHandle.get("Idle"));
+		assertSame(StateEntity.STATE_WORKING, StateHandle.find("Working"));
+
+		// A handle created for a model keeps its index when it is promoted
+		StateHandle c = StateHandle.get("TestClearC");
+		assertSame(c, StateHandle.define("TestClearC"));
+		StateHandle.clear();
+		assertSame(c, StateHandle.find("TestClearC"));
+		assertNotNull(StateHandle.find("Idle"));
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2016 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestStatistics {
+
+	@Test
+	public void testSampleMoments() {
+		SampleStatistics stats = new SampleStatistics();
+		assertTrue(Double.isNaN(stats.getMean()));
+		assertTrue(Double.isNaN(stats.getQuantile(0.5)));
+		assertTrue(Double.isNaN(stats.getConfidenceHalfWidth()));
+
+		// Values with a large offset lose precision with the sum of the squares
+		double[] vals = { 1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16 };
+		for (double v : vals) {
+			stats.add(v);
+		}
+		assertEquals(4, stats.getCount());
+		assertEquals(1e9 + 4, stats.getMin(), 0.0);
+		assertEquals(1e9 + 16, stats.getMax(), 0.0);
+		assertEquals(1e9 + 10, stats.getMean(), 0.0);
+		assertEquals(22.5, stats.getVariance(), 1e-9);
+
+		stats.clear();
+		assertEquals(0, stats.getCount());
+		assertEquals(Double.POSITIVE_INFINITY, stats.getMin(), 0.0);
+	}
+
+	@Test
+	public void testQuantiles() {
+		Random rng = new Random(1);
+		int n = 100000;
+		double[] vals = new double[n];
+		SampleStatistics stats = new SampleStatistics();
+		for (int i = 0; i < n; i++) {
+			vals[i] = -Math.log(rng.nextDouble());
+			stats.add(vals[i]);
+		}
+		Arrays.sort(vals);
+
+		// The rank of each estimate is within 0.2% of the requested quantile
+		double[] qs = { 0.001, 0.01, 0.5, 0.95, 0.99, 0.999 };
+		for (double q : qs) {
+			double est = stats.getQuantile(q);
+			int rank = Arrays.binarySearch(vals, est);
+			if (rank < 0)
+				rank = -rank - 1;
+			assertEquals(q, (double)rank/n, 0.002);
+		}
+		assertEquals(vals[0], stats.getQuantile(0.0), 0.0);
+		assertEquals(vals[n-1], stats.getQuantile(1.0), 0.0);
+
+		// The number of centroids does not grow with the number of observations
+		TDigest digest = new TDigest(100.0);
+		for (int i = 0; i < n; i++) {
+			digest.add(vals[i], 1.0);
+		}
+		assertTrue(digest.getCentroidCount() <= 110);
+	}
+
+	@Test
+	public void testTimeWeighted() {
+		TimeWeightedStatistics stats = new TimeWeightedStatistics();
+		stats.clear(10.0, 2.0);
+		assertEquals(2.0, stats.getQuantile(10.0, 0.5), 0.0);
+		assertEquals(2.0, stats.getQuantile(12.0, 0.5), 0.0);
+		stats.set(13.0, 5.0);  // 2 for 3 s
+		stats.set(13.0, 0.0);  // no time at 5
+		stats.set(14.0, 4.0);  // 0 for 1 s
+
+		// 4 for 2 s to time 16
+		assertEquals(14.0/6.0, stats.getMean(16.0), 1e-12);
+		double mean = 14.0/6.0;
+		double var = (3.0*(2.0 - mean)*(2.0 - mean) + (0.0 - mean)*(0.0 - mean)
+				+ 2.0*(4.0 - mean)*(4.0 - mean))/6.0;
+		assertEquals(var, stats.getVariance(16.0), 1e-12);
+		assertEquals(0.0, stats.getMin(), 0.0);
+		assertEquals(5.0, stats.getMax(), 0.0);
+
+		// Half of the time is at value 2 or less
+		assertEquals(2.0, stats.getQuantile(16.0, 0.4), 1e-12);
+		assertEquals(4.0, stats.getQuantile(16.0, 1.0), 0.0);
+	}
+
+	@Test
+	public void testBatchMeans() {
+		assertEquals(12.7062, BatchMeans.getTQuantile975(1), 1e-4);
+		assertEquals(2.4469, BatchMeans.getTQuantile975(6), 2e-3);
+		assertEquals(2.0930, BatchMeans.getTQuantile975(19), 1e-3);
+		assertEquals(2.0227, BatchMeans.getTQuantile975(39), 1e-3);
+
+		// The interval for independent normal samples covers the true mean
+		// at about the nominal rate
+		Random rng = new Random(2);
+		int covered = 0;
+		for (int r = 0; r < 200; r++) {
+			BatchMeans bm = new BatchMeans();
+			for (int i = 0; i < 5000; i++) {
+				bm.add(rng.nextGaussian(), 1.0);
+			}
+			assertTrue(bm.getBatchCount() >= 20 && bm.getBatchCount() < 40);
+			if (Math.abs(bm.getMean()) <= bm.getHalfWidth())
+				covered++;
+		}
+		assertTrue(covered >= 180 && covered <= 199);
+
+		// A weight that spans several batches is divided between them
+		BatchMeans bm = new BatchMeans();
+		bm.add(1.0, 1.0);
+		bm.add(3.0, 2.5);
+		assertEquals(3, bm.getBatchCount());
+		assertEquals(7.0/3.0, bm.getMean(), 1e-12);
+		assertTrue(Double.isNaN(new BatchMeans().getHalfWidth()));
+	}
+}